@@ -21,6 +21,9 @@ public class CrawlerConfig {
     private final String fetcherType;
     private final int maxPageSize;
     private final long delayBetweenRequests;
+    private final int maxInFlightRequests;
+    private final boolean bufferPoolDirect;
+    private final long bufferPoolMaxRetainedBytes;
     
     // 代理配置
     private final boolean useProxy;
@@ -30,10 +33,43 @@ public class CrawlerConfig {
     // 线程配置
     private final int threadPoolSize;
     private final int queueCapacity;
+    private final String executionMode;
+    private final int maxRequestsPerHost;
+    private final int parseParallelism;
+    private final int parseQueueCapacity;
+    
+    // URL队列配置
+    private final String frontierType;
+    private final String frontierPath;
+    private final boolean politenessEnabled;
+    
+    // URL去重配置
+    private final boolean deduplicationEnabled;
+    private final long dedupExpectedUrls;
+    private final double dedupFalsePositiveProbability;
+    private final boolean dedupExactConfirmation;
+    private final String dedupSnapshotPath;
+    
+    // 内容去重配置
+    private final boolean contentDedupEnabled;
+    private final String contentDedupIndexPath;
+    private final boolean nearDuplicateEnabled;
+    private final int nearDuplicateDistance;
+    
+    // 条件请求配置
+    private final boolean conditionalFetchEnabled;
+    private final String validatorCachePath;
+    private final boolean acceptCompression;
     
     // 存储配置
     private final String storageType;
     private final String storagePath;
+    private final long storageSegmentSize;
+    private final String storageCodec;
+    private final boolean asyncStoreEnabled;
+    private final int asyncStoreQueueCapacity;
+    private final String storeSyncPolicy;
+    private final long storeSyncThreshold;
     
     private CrawlerConfig(Builder builder) {
         this.connectionTimeout = builder.connectionTimeout;
@@ -44,13 +80,41 @@ public class CrawlerConfig {
         this.fetcherType = builder.fetcherType;
         this.maxPageSize = builder.maxPageSize;
         this.delayBetweenRequests = builder.delayBetweenRequests;
+        this.maxInFlightRequests = builder.maxInFlightRequests;
+        this.bufferPoolDirect = builder.bufferPoolDirect;
+        this.bufferPoolMaxRetainedBytes = builder.bufferPoolMaxRetainedBytes;
         this.useProxy = builder.useProxy;
         this.proxyHost = builder.proxyHost;
         this.proxyPort = builder.proxyPort;
         this.threadPoolSize = builder.threadPoolSize;
         this.queueCapacity = builder.queueCapacity;
+        this.executionMode = builder.executionMode;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.parseParallelism = builder.parseParallelism;
+        this.parseQueueCapacity = builder.parseQueueCapacity;
+        this.frontierType = builder.frontierType;
+        this.frontierPath = builder.frontierPath;
+        this.politenessEnabled = builder.politenessEnabled;
+        this.deduplicationEnabled = builder.deduplicationEnabled;
+        this.dedupExpectedUrls = builder.dedupExpectedUrls;
+        this.dedupFalsePositiveProbability = builder.dedupFalsePositiveProbability;
+        this.dedupExactConfirmation = builder.dedupExactConfirmation;
+        this.dedupSnapshotPath = builder.dedupSnapshotPath;
+        this.contentDedupEnabled = builder.contentDedupEnabled;
+        this.contentDedupIndexPath = builder.contentDedupIndexPath;
+        this.nearDuplicateEnabled = builder.nearDuplicateEnabled;
+        this.nearDuplicateDistance = builder.nearDuplicateDistance;
+        this.conditionalFetchEnabled = builder.conditionalFetchEnabled;
+        this.validatorCachePath = builder.validatorCachePath;
+        this.acceptCompression = builder.acceptCompression;
         this.storageType = builder.storageType;
         this.storagePath = builder.storagePath;
+        this.storageSegmentSize = builder.storageSegmentSize;
+        this.storageCodec = builder.storageCodec;
+        this.asyncStoreEnabled = builder.asyncStoreEnabled;
+        this.asyncStoreQueueCapacity = builder.asyncStoreQueueCapacity;
+        this.storeSyncPolicy = builder.storeSyncPolicy;
+        this.storeSyncThreshold = builder.storeSyncThreshold;
     }
     
     // Getter方法
@@ -62,13 +126,41 @@ public class CrawlerConfig {
     public String getFetcherType() { return fetcherType; }
     public int getMaxPageSize() { return maxPageSize; }
     public long getDelayBetweenRequests() { return delayBetweenRequests; }
+    public int getMaxInFlightRequests() { return maxInFlightRequests; }
+    public boolean isBufferPoolDirect() { return bufferPoolDirect; }
+    public long getBufferPoolMaxRetainedBytes() { return bufferPoolMaxRetainedBytes; }
     public boolean isUseProxy() { return useProxy; }
     public String getProxyHost() { return proxyHost; }
     public int getProxyPort() { return proxyPort; }
     public int getThreadPoolSize() { return threadPoolSize; }
     public int getQueueCapacity() { return queueCapacity; }
+    public String getExecutionMode() { return executionMode; }
+    public int getMaxRequestsPerHost() { return maxRequestsPerHost; }
+    public int getParseParallelism() { return parseParallelism; }
+    public int getParseQueueCapacity() { return parseQueueCapacity; }
+    public String getFrontierType() { return frontierType; }
+    public String getFrontierPath() { return frontierPath; }
+    public boolean isPolitenessEnabled() { return politenessEnabled; }
+    public boolean isDeduplicationEnabled() { return deduplicationEnabled; }
+    public long getDedupExpectedUrls() { return dedupExpectedUrls; }
+    public double getDedupFalsePositiveProbability() { return dedupFalsePositiveProbability; }
+    public boolean isDedupExactConfirmation() { return dedupExactConfirmation; }
+    public String getDedupSnapshotPath() { return dedupSnapshotPath; }
+    public boolean isContentDedupEnabled() { return contentDedupEnabled; }
+    public String getContentDedupIndexPath() { return contentDedupIndexPath; }
+    public boolean isNearDuplicateEnabled() { return nearDuplicateEnabled; }
+    public int getNearDuplicateDistance() { return nearDuplicateDistance; }
+    public boolean isConditionalFetchEnabled() { return conditionalFetchEnabled; }
+    public String getValidatorCachePath() { return validatorCachePath; }
+    public boolean isAcceptCompression() { return acceptCompression; }
     public String getStorageType() { return storageType; }
     public String getStoragePath() { return storagePath; }
+    public long getStorageSegmentSize() { return storageSegmentSize; }
+    public String getStorageCodec() { return storageCodec; }
+    public boolean isAsyncStoreEnabled() { return asyncStoreEnabled; }
+    public int getAsyncStoreQueueCapacity() { return asyncStoreQueueCapacity; }
+    public String getStoreSyncPolicy() { return storeSyncPolicy; }
+    public long getStoreSyncThreshold() { return storeSyncThreshold; }
     
     /**
      * 创建默认配置
@@ -90,13 +182,41 @@ public class CrawlerConfig {
         private String fetcherType = "http";
         private int maxPageSize = 1024 * 1024; // 1MB
         private long delayBetweenRequests = 1000; // 1秒
+        private int maxInFlightRequests = 256;
+        private boolean bufferPoolDirect = false;
+        private long bufferPoolMaxRetainedBytes = 64L * 1024 * 1024; // 64MB
         private boolean useProxy = false;
         private String proxyHost = "";
         private int proxyPort = 8080;
         private int threadPoolSize = 10;
         private int queueCapacity = 1000;
-        private String storageType = "file";
+        private String executionMode = "platform";
+        private int maxRequestsPerHost = 2;
+        private int parseParallelism = Runtime.getRuntime().availableProcessors();
+        private int parseQueueCapacity = 256;
+        private String frontierType = "memory";
+        private String frontierPath = "./data/frontier";
+        private boolean politenessEnabled = true;
+        private boolean deduplicationEnabled = true;
+        private long dedupExpectedUrls = 1000000;
+        private double dedupFalsePositiveProbability = 0.001;
+        private boolean dedupExactConfirmation = false;
+        private String dedupSnapshotPath = "";
+        private boolean contentDedupEnabled = true;
+        private String contentDedupIndexPath = "";
+        private boolean nearDuplicateEnabled = false;
+        private int nearDuplicateDistance = 3;
+        private boolean conditionalFetchEnabled = true;
+        private String validatorCachePath = "";
+        private boolean acceptCompression = true;
+        private String storageType = "segment";
         private String storagePath = "./data";
+        private long storageSegmentSize = 256L * 1024 * 1024; // 256MB
+        private String storageCodec = "deflate";
+        private boolean asyncStoreEnabled = false;
+        private int asyncStoreQueueCapacity = 1024;
+        private String storeSyncPolicy = "none";
+        private long storeSyncThreshold = 0;
         
         public Builder connectionTimeout(int timeout) {
             this.connectionTimeout = timeout;
@@ -153,6 +273,23 @@ public class CrawlerConfig {
             return this;
         }
         
+        /**
+         * 设置异步抓取器同时进行中的最大请求数
+         */
+        public Builder maxInFlightRequests(int maxInFlightRequests) {
+            this.maxInFlightRequests = maxInFlightRequests;
+            return this;
+        }
+        
+        /**
+         * 设置抓取和存储共用的缓冲区池：写文件的池是否使用直接内存，以及池中最多保留的字节数
+         */
+        public Builder bufferPool(boolean direct, long maxRetainedBytes) {
+            this.bufferPoolDirect = direct;
+            this.bufferPoolMaxRetainedBytes = maxRetainedBytes;
+            return this;
+        }
+        
         public Builder useProxy(boolean useProxy) {
             this.useProxy = useProxy;
             return this;
@@ -175,12 +312,166 @@ public class CrawlerConfig {
             return this;
         }
         
+        /**
+         * 设置执行模式：platform（固定线程池）、virtual（每个URL一个虚拟线程）或 auto（JVM支持时使用虚拟线程）
+         */
+        public Builder executionMode(String executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+        
+        /**
+         * 设置虚拟线程模式下同一主机的最大并发请求数。
+         * 开启礼貌调度时队列同一主机同时只交出一个URL，实际并发数为1，该设置只在关闭礼貌调度时生效
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+        
+        /**
+         * 设置解析阶段：下载后的页面进入有界队列，由并发度为parallelism的ForkJoinPool解析，
+         * 队列已满时阻塞下载线程。并发度默认取CPU核数
+         */
+        public Builder parseStage(int parallelism, int queueCapacity) {
+            this.parseParallelism = parallelism;
+            this.parseQueueCapacity = queueCapacity;
+            return this;
+        }
+        
+        /**
+         * 设置URL队列类型：memory（纯内存）或 disk（内存头部+磁盘溢出，queueCapacity为内存头部容量）
+         */
+        public Builder frontier(String type, String path) {
+            this.frontierType = type;
+            this.frontierPath = path;
+            return this;
+        }
+        
+        /**
+         * 设置是否按主机调度请求间隔：开启时内存URL队列只交出已到允许抓取时间的主机的URL，
+         * 间隔取匹配策略的请求延迟，没有匹配策略时取delayBetweenRequests，工作线程不再统一休眠
+         */
+        public Builder politeness(boolean enabled) {
+            this.politenessEnabled = enabled;
+            return this;
+        }
+        
+        public Builder deduplication(boolean enabled) {
+            this.deduplicationEnabled = enabled;
+            return this;
+        }
+        
+        /**
+         * 设置URL去重布隆过滤器参数：预估URL数量（超出后自动扩容）和误判率上限
+         */
+        public Builder deduplication(long expectedUrls, double falsePositiveProbability) {
+            this.deduplicationEnabled = true;
+            this.dedupExpectedUrls = expectedUrls;
+            this.dedupFalsePositiveProbability = falsePositiveProbability;
+            return this;
+        }
+        
+        /**
+         * 设置是否使用精确集合复核布隆过滤器的重复判定（需保存全部URL）
+         */
+        public Builder dedupExactConfirmation(boolean exactConfirmation) {
+            this.dedupExactConfirmation = exactConfirmation;
+            return this;
+        }
+        
+        /**
+         * 设置URL去重快照文件：启动时从中恢复已见URL，停止时写回；为空表示不持久化
+         */
+        public Builder dedupSnapshot(String path) {
+            this.dedupSnapshotPath = path;
+            return this;
+        }
+        
+        /**
+         * 设置是否按内容指纹跳过未变化页面的存储和解析
+         */
+        public Builder contentDedup(boolean enabled) {
+            this.contentDedupEnabled = enabled;
+            return this;
+        }
+        
+        /**
+         * 设置内容指纹索引日志文件：启动时从中恢复各URL上次的指纹，运行中追加新指纹；为空表示不持久化
+         */
+        public Builder contentDedupIndex(String path) {
+            this.contentDedupEnabled = true;
+            this.contentDedupIndexPath = path;
+            return this;
+        }
+        
+        /**
+         * 设置近似重复检测：页面可见文本的SimHash指纹与已见页面的汉明距离不超过maxDistance时跳过解析
+         */
+        public Builder nearDuplicate(boolean enabled, int maxDistance) {
+            this.nearDuplicateEnabled = enabled;
+            this.nearDuplicateDistance = maxDistance;
+            return this;
+        }
+        
+        /**
+         * 设置条件请求：按上次响应的ETag、Last-Modified发送条件请求，304时跳过下载；
+         * 校验信息缓存文件为空表示不持久化
+         */
+        public Builder conditionalFetch(boolean enabled, String cachePath) {
+            this.conditionalFetchEnabled = enabled;
+            this.validatorCachePath = cachePath;
+            return this;
+        }
+        
+        /**
+         * 设置是否请求压缩传输（Accept-Encoding: gzip, deflate），压缩的响应体边下载边解压
+         */
+        public Builder acceptCompression(boolean acceptCompression) {
+            this.acceptCompression = acceptCompression;
+            return this;
+        }
+        
         public Builder storage(String type, String path) {
             this.storageType = type;
             this.storagePath = path;
             return this;
         }
         
+        /**
+         * 设置段存储单个段文件的大小上限，超过后切换到新段
+         */
+        public Builder storageSegmentSize(long segmentSize) {
+            this.storageSegmentSize = segmentSize;
+            return this;
+        }
+        
+        /**
+         * 设置段存储的页面压缩编码：none、deflate、gzip或lz4
+         */
+        public Builder storageCodec(String codec) {
+            this.storageCodec = codec;
+            return this;
+        }
+        
+        /**
+         * 设置异步存储：页面放入有界队列后由专用写线程批量写入，队列满时阻塞提交的工作线程
+         */
+        public Builder asyncStore(boolean enabled, int queueCapacity) {
+            this.asyncStoreEnabled = enabled;
+            this.asyncStoreQueueCapacity = queueCapacity;
+            return this;
+        }
+        
+        /**
+         * 设置异步存储的刷盘策略：none（只在关闭时）、interval（每隔threshold毫秒）、bytes（每写入threshold字节）
+         */
+        public Builder storeSync(String policy, long threshold) {
+            this.storeSyncPolicy = policy;
+            this.storeSyncThreshold = threshold;
+            return this;
+        }
+        
         public CrawlerConfig build() {
             validate();
             return new CrawlerConfig(this);
@@ -196,12 +487,66 @@ public class CrawlerConfig {
             if (maxConnections <= 0) {
                 throw new IllegalArgumentException("最大连接数必须大于0");
             }
+            if (maxInFlightRequests <= 0) {
+                throw new IllegalArgumentException("最大并发请求数必须大于0");
+            }
+            if (bufferPoolMaxRetainedBytes < 0) {
+                throw new IllegalArgumentException("缓冲区池保留字节数不能为负数");
+            }
             if (threadPoolSize <= 0) {
                 throw new IllegalArgumentException("线程池大小必须大于0");
             }
             if (userAgent == null || userAgent.trim().isEmpty()) {
                 throw new IllegalArgumentException("User-Agent不能为空");
             }
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("队列容量必须大于0");
+            }
+            if (!"platform".equals(executionMode) && !"virtual".equals(executionMode)
+                    && !"auto".equals(executionMode)) {
+                throw new IllegalArgumentException("不支持的执行模式: " + executionMode);
+            }
+            if (maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("每个主机的最大并发请求数必须大于0");
+            }
+            if (parseParallelism <= 0) {
+                throw new IllegalArgumentException("解析并发度必须大于0");
+            }
+            if (parseQueueCapacity <= 0) {
+                throw new IllegalArgumentException("解析队列容量必须大于0");
+            }
+            if (!"memory".equals(frontierType) && !"disk".equals(frontierType)) {
+                throw new IllegalArgumentException("不支持的URL队列类型: " + frontierType);
+            }
+            if ("disk".equals(frontierType) && (frontierPath == null || frontierPath.trim().isEmpty())) {
+                throw new IllegalArgumentException("磁盘URL队列路径不能为空");
+            }
+            if (dedupExpectedUrls <= 0) {
+                throw new IllegalArgumentException("去重预估URL数量必须大于0");
+            }
+            if (dedupFalsePositiveProbability <= 0 || dedupFalsePositiveProbability >= 1) {
+                throw new IllegalArgumentException("去重误判率必须在(0, 1)之间");
+            }
+            if (nearDuplicateDistance < 0 || nearDuplicateDistance > 15) {
+                throw new IllegalArgumentException("近似重复汉明距离必须在[0, 15]之间");
+            }
+            if (storageSegmentSize <= 0) {
+                throw new IllegalArgumentException("段文件大小必须大于0");
+            }
+            if (!"none".equals(storageCodec) && !"deflate".equals(storageCodec)
+                    && !"gzip".equals(storageCodec) && !"lz4".equals(storageCodec)) {
+                throw new IllegalArgumentException("不支持的压缩编码: " + storageCodec);
+            }
+            if (asyncStoreQueueCapacity <= 0) {
+                throw new IllegalArgumentException("异步存储队列容量必须大于0");
+            }
+            if (!"none".equals(storeSyncPolicy) && !"interval".equals(storeSyncPolicy)
+                    && !"bytes".equals(storeSyncPolicy)) {
+                throw new IllegalArgumentException("不支持的刷盘策略: " + storeSyncPolicy);
+            }
+            if (!"none".equals(storeSyncPolicy) && storeSyncThreshold <= 0) {
+                throw new IllegalArgumentException("刷盘阈值必须大于0");
+            }
         }
     }
     
@@ -215,6 +560,14 @@ public class CrawlerConfig {
                 ", userAgent='" + userAgent + '\'' +
                 ", fetcherType='" + fetcherType + '\'' +
                 ", threadPoolSize=" + threadPoolSize +
+                ", executionMode='" + executionMode + '\'' +
+                ", parseParallelism=" + parseParallelism +
+                ", frontierType='" + frontierType + '\'' +
+                ", politenessEnabled=" + politenessEnabled +
+                ", deduplicationEnabled=" + deduplicationEnabled +
+                ", contentDedupEnabled=" + contentDedupEnabled +
+                ", nearDuplicateEnabled=" + nearDuplicateEnabled +
+                ", conditionalFetchEnabled=" + conditionalFetchEnabled +
                 '}';
     }
 }
@@ -2,7 +2,6 @@ package io.leavesfly.crawler.constant;
 
 public class CommConstant {
 
-	public static final int URL_QUEUE_NUM = 1;
 	public static final String SITE_MEI_TUAN_DOMAIN_NAME = "meituan";
 	public static final String SITE_DA_ZHONG_DIAN_PING_DOMAIN_NAME = "dianping";
 
@@ -12,8 +12,8 @@ public class FetcherConstant {
 	public static final String CHECK_PROXY_ITEM_VALID_URL = "http://www.taobao.com/";
 	public static final int MAX_PAGE_LENGTH = 512 * 1024;
 
-	public static final String RAW_PAGE_FILE_STORE = "com.taobao.ju.crawler.fetch.store.RawPageFileStore";
-	public static final String RAW_PAGE_HBASE_STORE = "com.taobao.ju.crawler.fetch.store.RawPageHbaseStore";
+	public static final String RAW_PAGE_FILE_STORE = "io.leavesfly.crawler.fetch.store.RawPageFileStore";
+	public static final String RAW_PAGE_HBASE_STORE = "io.leavesfly.crawler.fetch.store.RawPageHbaseStore";
 
 	public static final int MAX_FILE_NUM_IN_SINGLE_DIR = 1000;
 	public static final String MEI_TUAN_DIR = "MeiTuan";
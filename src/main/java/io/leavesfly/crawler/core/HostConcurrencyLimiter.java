@@ -0,0 +1,111 @@
+package io.leavesfly.crawler.core;
+
+import io.leavesfly.crawler.util.URLStrUtil;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 按主机限制并发请求数
+ * 每个主机一个信号量，同一主机同时进行中的请求不超过上限，不同主机之间互不影响。
+ * 没有请求持有或等待许可的主机从主机表中移除，主机表只保留正在抓取的主机
+ *
+ * @author yefei.yf
+ */
+public class HostConcurrencyLimiter {
+
+    private final int permitsPerHost;
+    private final ConcurrentMap<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     *
+     * @param permitsPerHost 每个主机的最大并发请求数
+     */
+    public HostConcurrencyLimiter(int permitsPerHost) {
+        if (permitsPerHost <= 0) {
+            throw new IllegalArgumentException("每个主机的并发数必须大于0");
+        }
+        this.permitsPerHost = permitsPerHost;
+    }
+
+    /**
+     * 获取URL所属主机的许可，达到上限时阻塞
+     *
+     * @param url URL
+     * @throws InterruptedException 等待被中断
+     */
+    public void acquire(String url) throws InterruptedException {
+        String host = URLStrUtil.getHost(url);
+        HostPermits permits = hostPermits.compute(host, (h, current) -> {
+            HostPermits entry = current != null ? current : new HostPermits(permitsPerHost);
+            entry.users++;
+            return entry;
+        });
+        try {
+            permits.semaphore.acquire();
+        } catch (InterruptedException e) {
+            unregister(host);
+            throw e;
+        }
+    }
+
+    /**
+     * 释放URL所属主机的许可
+     *
+     * @param url URL
+     */
+    public void release(String url) {
+        String host = URLStrUtil.getHost(url);
+        HostPermits permits = hostPermits.get(host);
+        if (permits == null) {
+            return;
+        }
+        permits.semaphore.release();
+        unregister(host);
+    }
+
+    /**
+     * 获取主机当前进行中的请求数
+     *
+     * @param host 主机名
+     * @return 请求数
+     */
+    public int getActiveRequests(String host) {
+        HostPermits permits = hostPermits.get(host);
+        return permits != null ? permitsPerHost - permits.semaphore.availablePermits() : 0;
+    }
+
+    /**
+     * 获取有请求持有或等待许可的主机数量
+     *
+     * @return 主机数量
+     */
+    public int getHostCount() {
+        return hostPermits.size();
+    }
+
+    public int getPermitsPerHost() {
+        return permitsPerHost;
+    }
+
+    /**
+     * 减少主机的使用者计数，没有使用者时移除，此时信号量已恢复全部许可
+     */
+    private void unregister(String host) {
+        hostPermits.computeIfPresent(host, (h, permits) -> --permits.users == 0 ? null : permits);
+    }
+
+    /**
+     * 单个主机的信号量，users是持有或等待许可的请求数，只在主机表的compute中修改
+     */
+    private static final class HostPermits {
+        private final Semaphore semaphore;
+        private int users;
+
+        private HostPermits(int permits) {
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+}
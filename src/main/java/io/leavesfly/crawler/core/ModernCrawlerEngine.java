@@ -7,18 +7,45 @@ import io.leavesfly.crawler.core.event.CrawlEventType;
 import io.leavesfly.crawler.core.event.listener.LoggingEventListener;
 import io.leavesfly.crawler.core.event.listener.StatisticsEventListener;
 import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.PipelineStage;
 import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.core.pipeline.StageStats;
+import io.leavesfly.crawler.core.pipeline.impl.ContentFingerprintProcessor;
 import io.leavesfly.crawler.core.pipeline.impl.FetchProcessor;
+import io.leavesfly.crawler.core.pipeline.impl.NearDuplicateProcessor;
 import io.leavesfly.crawler.core.pipeline.impl.ParseProcessor;
+import io.leavesfly.crawler.core.pipeline.impl.StageHandoffProcessor;
+import io.leavesfly.crawler.core.pipeline.impl.StoreProcessor;
+import io.leavesfly.crawler.dedup.ContentDedupStats;
+import io.leavesfly.crawler.dedup.ContentFingerprintIndex;
+import io.leavesfly.crawler.dedup.SimHashIndex;
 import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.AsyncPageFetcher;
+import io.leavesfly.crawler.fetch.Fetcher;
+import io.leavesfly.crawler.fetch.FetcherFactory;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
+import io.leavesfly.crawler.fetch.store.AsyncRawPageStore;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import io.leavesfly.crawler.fetch.validator.ValidatorCache;
+import io.leavesfly.crawler.schedule.PolitenessUrlFrontier;
+import io.leavesfly.crawler.schedule.UrlDeduplicator;
+import io.leavesfly.crawler.schedule.UrlDeduplicatorFactory;
+import io.leavesfly.crawler.schedule.UrlFrontier;
+import io.leavesfly.crawler.schedule.UrlFrontierFactory;
 import io.leavesfly.crawler.strategy.CrawlStrategyManager;
 import io.leavesfly.crawler.strategy.impl.MeiTuanCrawlStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 现代化爬虫引擎
@@ -35,11 +62,29 @@ public class ModernCrawlerEngine {
     private final CrawlStrategyManager strategyManager;
     private final StatisticsEventListener statisticsListener;
     private final ExecutorService executorService;
-    private final BlockingQueue<String> urlQueue;
+    private final boolean virtualThreads;
+    private final AsyncPageFetcher asyncFetcher;
+    private final Semaphore inFlightPermits;
+    private final Semaphore dispatchPermits;
+    private final HostConcurrencyLimiter hostLimiter;
+    private final UrlFrontier urlFrontier;
+    private final boolean hostPoliteness;
+    private final UrlDeduplicator urlDeduplicator;
+    private final Fetcher fetcher;
+    private final ContentFingerprintIndex fingerprintIndex;
     private final AtomicBoolean running = new AtomicBoolean(false);
     
-    // 处理流水线
+    // 下载阶段统计
+    private final AtomicInteger activeFetches = new AtomicInteger();
+    private final LongAdder fetchesStarted = new LongAdder();
+    private final LongAdder fetchesCompleted = new LongAdder();
+    private final LongAdder fetchesFailed = new LongAdder();
+    
+    // 处理流水线：下载阶段的处理链由工作线程运行，解析阶段的处理链由解析线程池运行
     private PipelineProcessor pipelineHead;
+    private FetchProcessor fetchProcessor;
+    private ContentFingerprintProcessor fingerprintProcessor;
+    private PipelineStage parseStage;
     
     /**
      * 构造函数
@@ -47,12 +92,46 @@ public class ModernCrawlerEngine {
      * @param config 爬虫配置
      */
     public ModernCrawlerEngine(CrawlerConfig config) {
+        this(config, UrlDeduplicatorFactory.createDeduplicator(config));
+    }
+    
+    /**
+     * 使用自定义URL去重器创建爬虫引擎
+     * 
+     * @param config 爬虫配置
+     * @param urlDeduplicator URL去重器
+     */
+    public ModernCrawlerEngine(CrawlerConfig config, UrlDeduplicator urlDeduplicator) {
         this.config = config;
+        this.urlDeduplicator = urlDeduplicator;
         this.eventPublisher = new CrawlEventPublisher(true); // 异步事件处理
         this.strategyManager = new CrawlStrategyManager();
         this.statisticsListener = new StatisticsEventListener();
-        this.urlQueue = new LinkedBlockingQueue<>(config.getQueueCapacity());
-        this.executorService = Executors.newFixedThreadPool(config.getThreadPoolSize());
+        this.urlFrontier = UrlFrontierFactory.createFrontier(config,
+                url -> strategyManager.getRequestDelay(url, config.getDelayBetweenRequests()));
+        this.hostPoliteness = urlFrontier instanceof PolitenessUrlFrontier;
+        this.fetcher = FetcherFactory.createFetcher(config);
+        this.fingerprintIndex = createFingerprintIndex(config);
+        this.virtualThreads = WorkerExecutors.useVirtualThreads(config.getExecutionMode());
+        // 平台线程模式下使用异步抓取器时不让工作线程等待响应，虚拟线程等待响应的开销很小，仍逐个URL处理
+        this.asyncFetcher = !virtualThreads && fetcher instanceof AsyncPageFetcher ? (AsyncPageFetcher) fetcher : null;
+        if (virtualThreads) {
+            this.executorService = WorkerExecutors.newVirtualThreadPerTaskExecutor();
+            this.inFlightPermits = new Semaphore(config.getMaxInFlightRequests());
+            this.dispatchPermits = new Semaphore(config.getMaxInFlightRequests() + config.getQueueCapacity());
+            this.hostLimiter = new HostConcurrencyLimiter(config.getMaxRequestsPerHost());
+        } else if (asyncFetcher != null) {
+            // 一个分发线程，其余线程处理请求完成后的存储和交接
+            this.executorService = WorkerExecutors.newPlatformThreadPool(config.getThreadPoolSize() + 1);
+            this.inFlightPermits = null;
+            this.dispatchPermits = null;
+            this.hostLimiter = null;
+        } else {
+            this.executorService = WorkerExecutors.newPlatformThreadPool(config.getThreadPoolSize());
+            this.inFlightPermits = null;
+            this.dispatchPermits = null;
+            this.hostLimiter = null;
+        }
         
         initializeComponents();
     }
@@ -64,6 +143,26 @@ public class ModernCrawlerEngine {
         return new ModernCrawlerEngine(CrawlerConfig.createDefault());
     }
     
+    /**
+     * 按配置创建内容指纹索引
+     * 
+     * @return 指纹索引，未开启内容去重时返回null
+     */
+    private static ContentFingerprintIndex createFingerprintIndex(CrawlerConfig config) {
+        if (!config.isContentDedupEnabled()) {
+            return null;
+        }
+        String indexPath = config.getContentDedupIndexPath();
+        if (indexPath == null || indexPath.trim().isEmpty()) {
+            return new ContentFingerprintIndex();
+        }
+        try {
+            return ContentFingerprintIndex.open(Paths.get(indexPath));
+        } catch (IOException e) {
+            throw new IllegalStateException("无法加载内容指纹索引: " + indexPath, e);
+        }
+    }
+    
     /**
      * 初始化组件
      */
@@ -71,9 +170,22 @@ public class ModernCrawlerEngine {
         // 设置事件监听器
         eventPublisher.addListener(new LoggingEventListener());
         eventPublisher.addListener(statisticsListener);
+        statisticsListener.setBloomFilterStatsSupplier(urlDeduplicator::getFilterStats);
+        statisticsListener.setBufferPoolStatsSupplier(BufferPools::getStats);
+        RawPageStore rawPageStore = fetcher.getRawPageStore();
+        if (rawPageStore instanceof AsyncRawPageStore) {
+            statisticsListener.setStoreWriterStatsSupplier(((AsyncRawPageStore) rawPageStore)::getStats);
+        }
+        ValidatorCache validatorCache = fetcher.getValidatorCache();
+        if (validatorCache != null) {
+            statisticsListener.setValidatorCacheStatsSupplier(validatorCache::getStats);
+        }
+        statisticsListener.setTransferStatsSupplier(fetcher::getTransferStats);
+        statisticsListener.setStageStatsSupplier(this::getStageStats);
         
-        // 注册爬取策略
+        // 注册爬取策略，请求头取自匹配的策略
         strategyManager.registerStrategy(new MeiTuanCrawlStrategy());
+        fetcher.setRequestHeaderProvider(strategyManager::getHeaders);
         
         // 构建处理流水线
         buildPipeline();
@@ -83,19 +195,65 @@ public class ModernCrawlerEngine {
     
     /**
      * 构建处理流水线
+     * 下载阶段和解析阶段之间用有界队列连接：工作线程下载、存储后把页面交给解析阶段即返回，
+     * 解析阶段的ForkJoinPool按CPU核数并发解析，队列已满时工作线程阻塞，下载速度随之下降
      */
     private void buildPipeline() {
         // 使用责任链模式构建处理流水线
-        FetchProcessor fetchProcessor = new FetchProcessor();
-        ParseProcessor parseProcessor = new ParseProcessor();
+        fetchProcessor = new FetchProcessor(fetcher, false);
+        StoreProcessor storeProcessor = new StoreProcessor(fetcher);
+        ParseProcessor parseProcessor = new ParseProcessor(strategyManager);
+        
+        // 解析阶段：[近似重复，重复时结束] -> 解析页面
+        PipelineProcessor parseHead = parseProcessor;
+        NearDuplicateProcessor nearDuplicateProcessor = null;
+        if (config.isNearDuplicateEnabled()) {
+            nearDuplicateProcessor = new NearDuplicateProcessor(new SimHashIndex(config.getNearDuplicateDistance()));
+            nearDuplicateProcessor.setNext(parseProcessor);
+            parseHead = nearDuplicateProcessor;
+        }
+        parseStage = new PipelineStage("parse", parseHead,
+                WorkerExecutors.newForkJoinPool(config.getParseParallelism(), "CrawlerParser"),
+                config.getParseQueueCapacity(), this::onPageParsed);
         
-        // 构建处理链：获取页面 -> 解析页面
+        // 下载阶段：获取页面 -> [内容指纹，未变化时结束] -> 存储页面 -> 交给解析阶段
         pipelineHead = fetchProcessor;
-        fetchProcessor.setNext(parseProcessor);
+        PipelineProcessor tail = fetchProcessor;
+        if (fingerprintIndex != null) {
+            fingerprintProcessor = new ContentFingerprintProcessor(fingerprintIndex);
+            tail = tail.setNext(fingerprintProcessor);
+        }
+        tail = tail.setNext(storeProcessor);
+        tail.setNext(new StageHandoffProcessor(parseStage));
+        
+        if (fingerprintProcessor != null || nearDuplicateProcessor != null) {
+            ContentFingerprintProcessor exact = fingerprintProcessor;
+            NearDuplicateProcessor near = nearDuplicateProcessor;
+            statisticsListener.setContentDedupStatsSupplier(() -> contentDedupStats(exact, near, parseProcessor));
+        }
         
         logger.debug("处理流水线构建完成");
     }
     
+    /**
+     * 汇总内容去重和近似重复检测的统计
+     */
+    private static ContentDedupStats contentDedupStats(ContentFingerprintProcessor exact,
+                                                       NearDuplicateProcessor near,
+                                                       ParseProcessor parseProcessor) {
+        long averageParseCpuNanos = parseProcessor.getAverageParseCpuNanos();
+        ContentDedupStats exactStats = exact != null ? exact.getStats(averageParseCpuNanos)
+                : new ContentDedupStats(0, 0, 0, 0, 0);
+        if (near == null) {
+            return exactStats;
+        }
+        long nearDuplicates = near.getNearDuplicatePages();
+        return new ContentDedupStats(exactStats.getCheckedPages(), exactStats.getUnchangedPages(),
+                exactStats.getSkippedBytes(), exactStats.getIndexedUrls(), nearDuplicates,
+                near.getNearDuplicateBytes(), near.getIndex().size(),
+                (exactStats.getUnchangedPages() + nearDuplicates) * averageParseCpuNanos);
+    }
+    
     /**
      * 启动爬虫
      * 
@@ -117,12 +275,23 @@ public class ModernCrawlerEngine {
                 addUrl(url);
             }
             
-            // 启动工作线程
-            for (int i = 0; i < config.getThreadPoolSize(); i++) {
-                executorService.submit(this::workerLoop);
+            if (virtualThreads) {
+                // 分发线程从队列取URL，每个URL交给一个虚拟线程处理
+                executorService.submit(this::dispatchLoop);
+                logger.info("爬虫引擎启动完成，虚拟线程模式，最大并发请求数: {}, 每主机并发数: {}",
+                        config.getMaxInFlightRequests(), config.getMaxRequestsPerHost());
+            } else if (asyncFetcher != null) {
+                // 分发线程发起异步请求后立即取下一个URL，请求完成后由工作线程继续处理
+                executorService.submit(this::asyncDispatchLoop);
+                logger.info("爬虫引擎启动完成，异步抓取模式，最大并发请求数: {}, 工作线程数: {}",
+                        asyncFetcher.getMaxInFlightRequests(), config.getThreadPoolSize());
+            } else {
+                // 启动工作线程
+                for (int i = 0; i < config.getThreadPoolSize(); i++) {
+                    executorService.submit(this::workerLoop);
+                }
+                logger.info("爬虫引擎启动完成，工作线程数: {}", config.getThreadPoolSize());
             }
-            
-            logger.info("爬虫引擎启动完成，工作线程数: {}", config.getThreadPoolSize());
         } else {
             logger.warn("爬虫引擎已经在运行中");
         }
@@ -146,39 +315,61 @@ public class ModernCrawlerEngine {
                 Thread.currentThread().interrupt();
             }
             
-            // 关闭事件发布器
-            eventPublisher.shutdown();
+            // 等待已下载的页面解析完
+            if (!parseStage.shutdown(10, TimeUnit.SECONDS)) {
+                logger.warn("解析阶段未能在超时前处理完队列中的页面");
+            }
             
-            // 发布停止事件
+            // 关闭抓取器、URL队列和去重器
+            fetcher.close();
+            urlFrontier.close();
+            urlDeduplicator.close();
+            if (fingerprintIndex != null) {
+                fingerprintIndex.close();
+            }
+            
+            // 发布停止事件（需在关闭事件发布器之前）
             eventPublisher.publishEvent(
                 CrawlEvent.builder(CrawlEventType.CRAWLER_STOPPED).build()
             );
             
+            // 关闭事件发布器
+            eventPublisher.shutdown();
+            
             logger.info("爬虫引擎已停止");
         }
     }
     
     /**
-     * 添加URL到爬取队列
+     * 添加URL到爬取队列，已见过的URL会被去重器过滤
+     * 入队成功后才标记为已见，队列已满时丢弃的URL没有被标记，之后仍可以重新加入。
+     * 同一个新URL被并发加入时可能重复入队一次
      * 
      * @param url 待爬取的URL
      */
     public void addUrl(String url) {
         if (url != null && !url.trim().isEmpty()) {
-            try {
-                if (urlQueue.offer(url.trim(), 1, TimeUnit.SECONDS)) {
-                    eventPublisher.publishEvent(
-                        CrawlEvent.builder(CrawlEventType.URL_QUEUED)
-                            .url(url)
-                            .build()
-                    );
-                    logger.debug("URL已入队: {}", url);
-                } else {
-                    logger.warn("URL队列已满，丢弃URL: {}", url);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.warn("添加URL被中断: {}", url);
+            String normalized = url.trim();
+            // 已见的URL再经过一次标记，计入重复统计
+            if (urlDeduplicator.mightContain(normalized) && !urlDeduplicator.markIfNew(normalized)) {
+                eventPublisher.publishEvent(
+                    CrawlEvent.builder(CrawlEventType.URL_DEDUPLICATED)
+                        .url(url)
+                        .build()
+                );
+                logger.debug("URL重复，已过滤: {}", url);
+                return;
+            }
+            if (urlFrontier.offer(normalized)) {
+                urlDeduplicator.markIfNew(normalized);
+                eventPublisher.publishEvent(
+                    CrawlEvent.builder(CrawlEventType.URL_QUEUED)
+                        .url(url)
+                        .build()
+                );
+                logger.debug("URL已入队: {}", url);
+            } else {
+                logger.warn("URL队列已满，丢弃URL: {}", url);
             }
         }
     }
@@ -192,16 +383,20 @@ public class ModernCrawlerEngine {
         while (running.get()) {
             try {
                 // 从队列获取URL
-                String url = urlQueue.poll(1, TimeUnit.SECONDS);
+                String url = urlFrontier.poll(1, TimeUnit.SECONDS);
                 if (url == null) {
                     continue; // 超时，继续检查运行状态
                 }
                 
                 // 处理URL
-                processUrl(url);
+                try {
+                    processUrl(url);
+                } finally {
+                    urlFrontier.done(url);
+                }
                 
-                // 请求间延迟
-                if (config.getDelayBetweenRequests() > 0) {
+                // 队列不按主机调度间隔时，退回到每个工作线程统一休眠
+                if (!hostPoliteness && config.getDelayBetweenRequests() > 0) {
                     Thread.sleep(config.getDelayBetweenRequests());
                 }
                 
@@ -223,64 +418,295 @@ public class ModernCrawlerEngine {
         logger.debug("工作线程退出: {}", Thread.currentThread().getName());
     }
     
+    /**
+     * 虚拟线程模式的分发循环
+     * 队列中的URL逐个交给新的虚拟线程，虚拟线程先取得主机许可再取得全局许可，
+     * 等待繁忙主机的URL不占用全局许可，其他主机的请求不受影响。
+     * 已分发还没处理完的URL数不超过最大并发请求数加队列容量
+     */
+    private void dispatchLoop() {
+        while (running.get()) {
+            try {
+                dispatchPermits.acquire();
+                String url = urlFrontier.poll(1, TimeUnit.SECONDS);
+                if (url == null) {
+                    dispatchPermits.release();
+                    continue;
+                }
+                try {
+                    executorService.submit(() -> processWithHostLimit(url));
+                } catch (RejectedExecutionException e) {
+                    dispatchPermits.release();
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.debug("分发线程退出");
+    }
+    
+    /**
+     * 在主机并发许可和全局并发许可内处理URL
+     * 队列不按主机调度间隔时，请求间延迟在释放全局许可后、持有主机许可时等待，只限制同一主机的请求频率，不占用全局许可
+     * 
+     * @param url 待处理的URL
+     */
+    private void processWithHostLimit(String url) {
+        try {
+            hostLimiter.acquire(url);
+            try {
+                inFlightPermits.acquire();
+                try {
+                    processUrl(url);
+                } finally {
+                    inFlightPermits.release();
+                }
+                if (!hostPoliteness && config.getDelayBetweenRequests() > 0) {
+                    Thread.sleep(config.getDelayBetweenRequests());
+                }
+            } finally {
+                hostLimiter.release(url);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            urlFrontier.done(url);
+            dispatchPermits.release();
+        }
+    }
+    
+    /**
+     * 异步抓取模式的分发循环
+     * 分发线程发起请求后立即取下一个URL，进行中的请求数由异步抓取器的信号量限制，达到上限时分发线程等待。
+     * 请求完成后的存储和交接由工作线程执行，不占用抓取器的IO线程，少量线程即可维持大量并发请求
+     */
+    private void asyncDispatchLoop() {
+        while (running.get()) {
+            try {
+                String url = urlFrontier.poll(1, TimeUnit.SECONDS);
+                if (url == null) {
+                    continue;
+                }
+                CrawlContext context = beginUrl(url);
+                CompletableFuture<RawPage> future;
+                try {
+                    future = asyncFetcher.fetchAsync(url);
+                } catch (InterruptedException e) {
+                    urlFrontier.done(url);
+                    endUrl();
+                    throw e;
+                }
+                future.whenComplete((page, error) -> {
+                    try {
+                        executorService.execute(() -> completeAsyncFetch(context, page, error));
+                    } catch (RejectedExecutionException e) {
+                        // 引擎已停止，放弃后续处理
+                        urlFrontier.done(url);
+                        endUrl();
+                    }
+                });
+                
+                // 队列不按主机调度间隔时，分发线程每发起一个请求休眠一次
+                if (!hostPoliteness && config.getDelayBetweenRequests() > 0) {
+                    Thread.sleep(config.getDelayBetweenRequests());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.debug("分发线程退出");
+    }
+    
+    /**
+     * 异步请求完成后继续下载阶段的处理
+     * 
+     * @param context 爬虫上下文
+     * @param page 下载得到的页面
+     * @param error 下载异常
+     */
+    private void completeAsyncFetch(CrawlContext context, RawPage page, Throwable error) {
+        try {
+            publishFetchResult(context, fetchProcessor.complete(context, page, error));
+        } catch (Exception e) {
+            publishUrlError(context, e);
+        } finally {
+            urlFrontier.done(context.getCurrentUrl());
+            endUrl();
+        }
+    }
+    
     /**
      * 处理单个URL
      * 
      * @param url 待处理的URL
      */
     private void processUrl(String url) {
+        CrawlContext context = beginUrl(url);
+        try {
+            // 使用流水线处理
+            publishFetchResult(context, pipelineHead.process(context));
+        } catch (Exception e) {
+            publishUrlError(context, e);
+        } finally {
+            endUrl();
+        }
+    }
+    
+    /**
+     * 开始处理URL：计数并发布页面获取开始事件
+     * 
+     * @param url 待处理的URL
+     * @return 爬虫上下文
+     */
+    private CrawlContext beginUrl(String url) {
         CrawlContext context = new CrawlContext(url);
+        fetchesStarted.increment();
+        activeFetches.incrementAndGet();
+        logger.debug("开始处理URL: {}", url);
         
-        try {
-            logger.debug("开始处理URL: {}", url);
-            
-            // 发布页面获取开始事件
+        // 发布页面获取开始事件
+        eventPublisher.publishEvent(
+            CrawlEvent.builder(CrawlEventType.PAGE_FETCH_STARTED)
+                .url(url)
+                .build()
+        );
+        return context;
+    }
+    
+    private void endUrl() {
+        activeFetches.decrementAndGet();
+        fetchesCompleted.increment();
+    }
+    
+    /**
+     * 发布下载阶段的处理结果
+     * 
+     * @param context 爬虫上下文
+     * @param result 下载阶段的处理结果
+     */
+    private void publishFetchResult(CrawlContext context, ProcessResult result) {
+        String url = context.getCurrentUrl();
+        if (result.isSuccess()) {
+            // 发布页面获取成功事件
             eventPublisher.publishEvent(
-                CrawlEvent.builder(CrawlEventType.PAGE_FETCH_STARTED)
+                CrawlEvent.builder(CrawlEventType.PAGE_FETCH_SUCCESS)
                     .url(url)
+                    .data("elapsedTime", context.getElapsedTime())
                     .build()
             );
-            
-            // 使用流水线处理
-            ProcessResult result = pipelineHead.process(context);
-            
-            if (result.isSuccess()) {
-                // 发布页面获取成功事件
-                eventPublisher.publishEvent(
-                    CrawlEvent.builder(CrawlEventType.PAGE_FETCH_SUCCESS)
-                        .url(url)
-                        .data("elapsedTime", context.getElapsedTime())
-                        .build()
-                );
-                
-                logger.debug("URL处理完成: {}, 耗时: {}ms", url, context.getElapsedTime());
-            } else {
-                // 发布页面获取失败事件
+            if (Boolean.TRUE.equals(context.getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE))) {
                 eventPublisher.publishEvent(
-                    CrawlEvent.builder(CrawlEventType.PAGE_FETCH_FAILED)
+                    CrawlEvent.builder(CrawlEventType.PAGE_UNCHANGED)
                         .url(url)
-                        .data("errorMessage", result.getMessage())
-                        .exception(result.getException())
                         .build()
                 );
-                
-                logger.warn("URL处理失败: {}, 原因: {}", url, result.getMessage());
             }
             
-        } catch (Exception e) {
-            logger.error("处理URL时发生异常: {}", url, e);
+            logger.debug("URL处理完成: {}, 耗时: {}ms", url, context.getElapsedTime());
+        } else {
+            fetchesFailed.increment();
+            // 发布页面获取失败事件
+            eventPublisher.publishEvent(
+                CrawlEvent.builder(CrawlEventType.PAGE_FETCH_FAILED)
+                    .url(url)
+                    .data("errorMessage", result.getMessage())
+                    .exception(result.getException())
+                    .build()
+            );
             
-            // 发布异常事件
+            logger.warn("URL处理失败: {}, 原因: {}", url, result.getMessage());
+        }
+    }
+    
+    private void publishUrlError(CrawlContext context, Exception e) {
+        String url = context.getCurrentUrl();
+        fetchesFailed.increment();
+        logger.error("处理URL时发生异常: {}", url, e);
+        
+        // 发布异常事件
+        eventPublisher.publishEvent(
+            CrawlEvent.builder(CrawlEventType.ERROR_OCCURRED)
+                .url(url)
+                .data("message", "URL处理异常: " + e.getMessage())
+                .exception(e)
+                .build()
+        );
+    }
+    
+    /**
+     * 解析阶段处理完一个页面后的回调，在解析线程中执行
+     * 
+     * @param context 爬虫上下文
+     * @param result 解析阶段的处理结果
+     */
+    private void onPageParsed(CrawlContext context, ProcessResult result) {
+        String url = context.getCurrentUrl();
+        if (result.isSuccess() && fingerprintProcessor != null) {
+            // 存储和解析都完成后才记录指纹
+            fingerprintProcessor.commit(context);
+        }
+        if (!result.isSuccess()) {
+            eventPublisher.publishEvent(
+                CrawlEvent.builder(CrawlEventType.PAGE_PARSE_FAILED)
+                    .url(url)
+                    .data("errorMessage", result.getMessage())
+                    .exception(result.getException())
+                    .build()
+            );
+            logger.warn("页面解析失败: {}, 原因: {}", url, result.getMessage());
+        } else if (Boolean.TRUE.equals(context.getAttribute(NearDuplicateProcessor.NEAR_DUPLICATE_ATTRIBUTE))) {
+            eventPublisher.publishEvent(
+                CrawlEvent.builder(CrawlEventType.PAGE_NEAR_DUPLICATE)
+                    .url(url)
+                    .build()
+            );
+        } else {
             eventPublisher.publishEvent(
-                CrawlEvent.builder(CrawlEventType.ERROR_OCCURRED)
+                CrawlEvent.builder(CrawlEventType.PAGE_PARSE_SUCCESS)
                     .url(url)
-                    .data("message", "URL处理异常: " + e.getMessage())
-                    .exception(e)
+                    .data("elapsedTime", context.getElapsedTime())
+                    .data("extractedData", context.getAttribute(ParseProcessor.EXTRACTED_DATA_ATTRIBUTE))
                     .build()
             );
+            addExtractedUrls(context);
         }
     }
     
+    /**
+     * 把爬取策略从页面提取的URL加入爬取队列
+     * 
+     * @param context 爬虫上下文
+     */
+    private void addExtractedUrls(CrawlContext context) {
+        Object urls = context.getAttribute(ParseProcessor.EXTRACTED_URLS_ATTRIBUTE);
+        if (!(urls instanceof List) || !running.get()) {
+            return;
+        }
+        for (Object url : (List<?>) urls) {
+            if (url instanceof String) {
+                addUrl((String) url);
+            }
+        }
+    }
+    
+    /**
+     * 获取流水线各阶段的统计
+     * 下载阶段的队列即URL队列，队列满时新URL被丢弃而不阻塞；解析阶段的队列满时阻塞下载线程
+     * 
+     * @return 下载阶段和解析阶段的统计
+     */
+    public List<StageStats> getStageStats() {
+        int parallelism = virtualThreads || asyncFetcher != null
+                ? config.getMaxInFlightRequests() : config.getThreadPoolSize();
+        StageStats fetchStats = new StageStats("fetch", urlFrontier.size(), config.getQueueCapacity(),
+                activeFetches.get(), parallelism, fetchesStarted.sum(), fetchesCompleted.sum(),
+                fetchesFailed.sum(), 0, 0);
+        return Arrays.asList(fetchStats, parseStage.getStats());
+    }
+    
     /**
      * 获取统计信息
      * 
@@ -296,7 +722,34 @@ public class ModernCrawlerEngine {
      * @return 队列大小
      */
     public int getQueueSize() {
-        return urlQueue.size();
+        return urlFrontier.size();
+    }
+    
+    /**
+     * 是否以虚拟线程模式运行
+     * 
+     * @return 是否使用虚拟线程
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreads;
+    }
+    
+    /**
+     * 获取URL去重器
+     * 
+     * @return URL去重器
+     */
+    public UrlDeduplicator getUrlDeduplicator() {
+        return urlDeduplicator;
+    }
+    
+    /**
+     * 获取内容指纹索引
+     * 
+     * @return 指纹索引，未开启内容去重时为null
+     */
+    public ContentFingerprintIndex getFingerprintIndex() {
+        return fingerprintIndex;
     }
     
     /**
@@ -0,0 +1,129 @@
+package io.leavesfly.crawler.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * 工作线程池工厂
+ * 项目按Java 8编译，虚拟线程（JDK 21+）通过反射在运行时探测，
+ * 运行在不支持虚拟线程的JVM上时回退到平台线程池
+ *
+ * @author yefei.yf
+ */
+public final class WorkerExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    /**
+     * 平台线程池：固定数量的工作线程轮询URL队列
+     */
+    public static final String MODE_PLATFORM = "platform";
+
+    /**
+     * 虚拟线程：每个进行中的URL一个虚拟线程
+     */
+    public static final String MODE_VIRTUAL = "virtual";
+
+    /**
+     * 自动：JVM支持虚拟线程时使用虚拟线程，否则使用平台线程池
+     */
+    public static final String MODE_AUTO = "auto";
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadFactory();
+
+    private WorkerExecutors() {
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * 根据配置的执行模式和JVM能力确定是否使用虚拟线程
+     *
+     * @param executionMode 执行模式：platform、virtual 或 auto
+     * @return 是否使用虚拟线程
+     */
+    public static boolean useVirtualThreads(String executionMode) {
+        if (MODE_PLATFORM.equals(executionMode)) {
+            return false;
+        }
+        if (isVirtualThreadSupported()) {
+            return true;
+        }
+        if (MODE_VIRTUAL.equals(executionMode)) {
+            logger.warn("当前JVM({})不支持虚拟线程，回退到平台线程池", System.getProperty("java.version"));
+        }
+        return false;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     *
+     * @return 执行器
+     * @throws UnsupportedOperationException JVM不支持虚拟线程
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("当前JVM不支持虚拟线程");
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+    /**
+     * 创建固定大小的平台线程池
+     *
+     * @param threads 线程数
+     * @return 执行器
+     */
+    public static ExecutorService newPlatformThreadPool(int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * 创建运行CPU密集任务的ForkJoinPool
+     * 使用FIFO模式，按提交顺序处理互不等待的任务
+     *
+     * @param parallelism 并发度，一般取CPU核数
+     * @param threadNamePrefix 线程名前缀
+     * @return 线程池
+     */
+    public static ForkJoinPool newForkJoinPool(int parallelism, String threadNamePrefix) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadNamePrefix + "-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, factory, null, true);
+    }
+
+    private static MethodHandle findVirtualThreadFactory() {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            // JDK 19/20中虚拟线程是预览特性，未开启预览时调用会失败
+            ExecutorService probe = (ExecutorService) handle.invoke();
+            probe.shutdown();
+            return handle;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 爬虫事件发布器
@@ -122,11 +123,18 @@ public class CrawlEventPublisher {
     }
     
     /**
-     * 关闭事件发布器
+     * 关闭事件发布器，等待已发布的异步事件处理完成
      */
     public void shutdown() {
         if (executor != null && !executor.isShutdown()) {
             executor.shutdown();
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("事件发布器关闭超时，仍有事件未处理完成");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             logger.debug("事件发布器已关闭");
         }
     }
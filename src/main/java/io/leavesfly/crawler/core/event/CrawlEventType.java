@@ -32,6 +32,16 @@ public enum CrawlEventType {
      */
     PAGE_FETCH_FAILED("页面获取失败"),
     
+    /**
+     * 页面内容与上次抓取相同，跳过存储和解析
+     */
+    PAGE_UNCHANGED("页面内容未变化"),
+    
+    /**
+     * 页面与已见页面近似重复，跳过解析
+     */
+    PAGE_NEAR_DUPLICATE("页面近似重复"),
+    
     /**
      * 页面解析开始事件
      */
@@ -52,6 +62,11 @@ public enum CrawlEventType {
      */
     URL_QUEUED("URL入队"),
     
+    /**
+     * URL重复被过滤事件
+     */
+    URL_DEDUPLICATED("URL重复被过滤"),
+    
     /**
      * 异常事件
      */
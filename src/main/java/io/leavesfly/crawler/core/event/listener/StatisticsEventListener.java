@@ -3,8 +3,17 @@ package io.leavesfly.crawler.core.event.listener;
 import io.leavesfly.crawler.core.event.CrawlEvent;
 import io.leavesfly.crawler.core.event.CrawlEventListener;
 import io.leavesfly.crawler.core.event.CrawlEventType;
+import io.leavesfly.crawler.core.pipeline.StageStats;
+import io.leavesfly.crawler.dedup.ContentDedupStats;
+import io.leavesfly.crawler.fetch.TransferStats;
+import io.leavesfly.crawler.fetch.validator.ValidatorCacheStats;
+import io.leavesfly.crawler.fetch.buffer.BufferPoolStats;
+import io.leavesfly.crawler.fetch.store.StoreWriterStats;
+import io.leavesfly.crawler.schedule.BloomFilterStats;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * 统计监听器
@@ -19,10 +28,22 @@ public class StatisticsEventListener implements CrawlEventListener {
     private final AtomicLong totalFetchErrors = new AtomicLong(0);
     private final AtomicLong totalParseErrors = new AtomicLong(0);
     private final AtomicLong totalUrlsQueued = new AtomicLong(0);
+    private final AtomicLong totalUrlsDeduplicated = new AtomicLong(0);
     
     private volatile long startTime = -1;
     private volatile long endTime = -1;
     
+    /**
+     * URL去重过滤器统计信息来源，未设置时报告中不包含过滤器统计
+     */
+    private volatile Supplier<BloomFilterStats> bloomFilterStatsSupplier;
+    private volatile Supplier<BufferPoolStats> bufferPoolStatsSupplier;
+    private volatile Supplier<StoreWriterStats> storeWriterStatsSupplier;
+    private volatile Supplier<ContentDedupStats> contentDedupStatsSupplier;
+    private volatile Supplier<ValidatorCacheStats> validatorCacheStatsSupplier;
+    private volatile Supplier<TransferStats> transferStatsSupplier;
+    private volatile Supplier<List<StageStats>> stageStatsSupplier;
+    
     @Override
     public void onEvent(CrawlEvent event) {
         switch (event.getType()) {
@@ -48,6 +69,9 @@ public class StatisticsEventListener implements CrawlEventListener {
             case URL_QUEUED:
                 totalUrlsQueued.incrementAndGet();
                 break;
+            case URL_DEDUPLICATED:
+                totalUrlsDeduplicated.incrementAndGet();
+                break;
             default:
                 // 其他事件不处理
                 break;
@@ -62,7 +86,8 @@ public class StatisticsEventListener implements CrawlEventListener {
                eventType == CrawlEventType.PAGE_FETCH_FAILED ||
                eventType == CrawlEventType.PAGE_PARSE_SUCCESS ||
                eventType == CrawlEventType.PAGE_PARSE_FAILED ||
-               eventType == CrawlEventType.URL_QUEUED;
+               eventType == CrawlEventType.URL_QUEUED ||
+               eventType == CrawlEventType.URL_DEDUPLICATED;
     }
     
     @Override
@@ -79,20 +104,99 @@ public class StatisticsEventListener implements CrawlEventListener {
         totalFetchErrors.set(0);
         totalParseErrors.set(0);
         totalUrlsQueued.set(0);
+        totalUrlsDeduplicated.set(0);
+    }
+    
+    /**
+     * 设置URL去重过滤器统计信息来源
+     * 
+     * @param bloomFilterStatsSupplier 统计信息来源
+     */
+    public void setBloomFilterStatsSupplier(Supplier<BloomFilterStats> bloomFilterStatsSupplier) {
+        this.bloomFilterStatsSupplier = bloomFilterStatsSupplier;
+    }
+    
+    /**
+     * 设置缓冲区池统计信息来源
+     * 
+     * @param bufferPoolStatsSupplier 统计信息来源
+     */
+    public void setBufferPoolStatsSupplier(Supplier<BufferPoolStats> bufferPoolStatsSupplier) {
+        this.bufferPoolStatsSupplier = bufferPoolStatsSupplier;
+    }
+    
+    /**
+     * 设置异步存储写入统计信息来源
+     * 
+     * @param storeWriterStatsSupplier 统计信息来源，未开启异步存储时可以返回null
+     */
+    public void setStoreWriterStatsSupplier(Supplier<StoreWriterStats> storeWriterStatsSupplier) {
+        this.storeWriterStatsSupplier = storeWriterStatsSupplier;
+    }
+    
+    /**
+     * 设置内容去重统计信息来源
+     * 
+     * @param contentDedupStatsSupplier 统计信息来源
+     */
+    public void setContentDedupStatsSupplier(Supplier<ContentDedupStats> contentDedupStatsSupplier) {
+        this.contentDedupStatsSupplier = contentDedupStatsSupplier;
+    }
+    
+    /**
+     * 设置条件请求统计信息来源
+     * 
+     * @param validatorCacheStatsSupplier 统计信息来源
+     */
+    public void setValidatorCacheStatsSupplier(Supplier<ValidatorCacheStats> validatorCacheStatsSupplier) {
+        this.validatorCacheStatsSupplier = validatorCacheStatsSupplier;
+    }
+    
+    /**
+     * 设置下载流量统计信息来源
+     * 
+     * @param transferStatsSupplier 统计信息来源
+     */
+    public void setTransferStatsSupplier(Supplier<TransferStats> transferStatsSupplier) {
+        this.transferStatsSupplier = transferStatsSupplier;
+    }
+    
+    /**
+     * 设置流水线各阶段统计信息来源
+     * 
+     * @param stageStatsSupplier 统计信息来源
+     */
+    public void setStageStatsSupplier(Supplier<List<StageStats>> stageStatsSupplier) {
+        this.stageStatsSupplier = stageStatsSupplier;
     }
     
     /**
      * 获取统计信息
      */
     public StatisticsReport getReport() {
+        Supplier<BloomFilterStats> statsSupplier = bloomFilterStatsSupplier;
+        Supplier<BufferPoolStats> poolStatsSupplier = bufferPoolStatsSupplier;
+        Supplier<StoreWriterStats> writerStatsSupplier = storeWriterStatsSupplier;
+        Supplier<ContentDedupStats> dedupStatsSupplier = contentDedupStatsSupplier;
+        Supplier<ValidatorCacheStats> cacheStatsSupplier = validatorCacheStatsSupplier;
+        Supplier<TransferStats> trafficStatsSupplier = transferStatsSupplier;
+        Supplier<List<StageStats>> pipelineStatsSupplier = stageStatsSupplier;
         return new StatisticsReport(
             totalPagesFetched.get(),
             totalPagesParsed.get(),
             totalFetchErrors.get(),
             totalParseErrors.get(),
             totalUrlsQueued.get(),
+            totalUrlsDeduplicated.get(),
             startTime,
-            endTime
+            endTime,
+            statsSupplier != null ? statsSupplier.get() : null,
+            poolStatsSupplier != null ? poolStatsSupplier.get() : null,
+            writerStatsSupplier != null ? writerStatsSupplier.get() : null,
+            dedupStatsSupplier != null ? dedupStatsSupplier.get() : null,
+            cacheStatsSupplier != null ? cacheStatsSupplier.get() : null,
+            trafficStatsSupplier != null ? trafficStatsSupplier.get() : null,
+            pipelineStatsSupplier != null ? pipelineStatsSupplier.get() : null
         );
     }
     
@@ -105,19 +209,124 @@ public class StatisticsEventListener implements CrawlEventListener {
         private final long totalFetchErrors;
         private final long totalParseErrors;
         private final long totalUrlsQueued;
+        private final long totalUrlsDeduplicated;
         private final long startTime;
         private final long endTime;
+        private final BloomFilterStats bloomFilterStats;
+        private final BufferPoolStats bufferPoolStats;
+        private final StoreWriterStats storeWriterStats;
+        private final ContentDedupStats contentDedupStats;
+        private final ValidatorCacheStats validatorCacheStats;
+        private final TransferStats transferStats;
+        private final List<StageStats> stageStats;
         
         public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
                               long totalFetchErrors, long totalParseErrors,
                               long totalUrlsQueued, long startTime, long endTime) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, 0, startTime, endTime, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats,
+                 bufferPoolStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats,
+                              StoreWriterStats storeWriterStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats,
+                 bufferPoolStats, storeWriterStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats,
+                              StoreWriterStats storeWriterStats,
+                              ContentDedupStats contentDedupStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats,
+                 bufferPoolStats, storeWriterStats, contentDedupStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats,
+                              StoreWriterStats storeWriterStats,
+                              ContentDedupStats contentDedupStats,
+                              ValidatorCacheStats validatorCacheStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats,
+                 bufferPoolStats, storeWriterStats, contentDedupStats, validatorCacheStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats,
+                              StoreWriterStats storeWriterStats,
+                              ContentDedupStats contentDedupStats,
+                              ValidatorCacheStats validatorCacheStats,
+                              TransferStats transferStats) {
+            this(totalPagesFetched, totalPagesParsed, totalFetchErrors, totalParseErrors,
+                 totalUrlsQueued, totalUrlsDeduplicated, startTime, endTime, bloomFilterStats,
+                 bufferPoolStats, storeWriterStats, contentDedupStats, validatorCacheStats, transferStats, null);
+        }
+        
+        public StatisticsReport(long totalPagesFetched, long totalPagesParsed, 
+                              long totalFetchErrors, long totalParseErrors,
+                              long totalUrlsQueued, long totalUrlsDeduplicated,
+                              long startTime, long endTime,
+                              BloomFilterStats bloomFilterStats,
+                              BufferPoolStats bufferPoolStats,
+                              StoreWriterStats storeWriterStats,
+                              ContentDedupStats contentDedupStats,
+                              ValidatorCacheStats validatorCacheStats,
+                              TransferStats transferStats,
+                              List<StageStats> stageStats) {
             this.totalPagesFetched = totalPagesFetched;
             this.totalPagesParsed = totalPagesParsed;
             this.totalFetchErrors = totalFetchErrors;
             this.totalParseErrors = totalParseErrors;
             this.totalUrlsQueued = totalUrlsQueued;
+            this.totalUrlsDeduplicated = totalUrlsDeduplicated;
             this.startTime = startTime;
             this.endTime = endTime;
+            this.bloomFilterStats = bloomFilterStats;
+            this.bufferPoolStats = bufferPoolStats;
+            this.storeWriterStats = storeWriterStats;
+            this.contentDedupStats = contentDedupStats;
+            this.validatorCacheStats = validatorCacheStats;
+            this.transferStats = transferStats;
+            this.stageStats = stageStats;
         }
         
         public long getTotalPagesFetched() { return totalPagesFetched; }
@@ -125,9 +334,59 @@ public class StatisticsEventListener implements CrawlEventListener {
         public long getTotalFetchErrors() { return totalFetchErrors; }
         public long getTotalParseErrors() { return totalParseErrors; }
         public long getTotalUrlsQueued() { return totalUrlsQueued; }
+        public long getTotalUrlsDeduplicated() { return totalUrlsDeduplicated; }
         public long getStartTime() { return startTime; }
         public long getEndTime() { return endTime; }
         
+        /**
+         * 获取URL去重过滤器统计信息（分片填充率、有效误判率）
+         * 
+         * @return 过滤器统计，未启用时为null
+         */
+        public BloomFilterStats getBloomFilterStats() { return bloomFilterStats; }
+        
+        /**
+         * 获取缓冲区池统计信息（命中、未命中、保留字节数）
+         * 
+         * @return 缓冲区池统计，未设置来源时为null
+         */
+        public BufferPoolStats getBufferPoolStats() { return bufferPoolStats; }
+        
+        /**
+         * 获取异步存储写入统计信息（队列深度、提交延迟）
+         * 
+         * @return 写入统计，未开启异步存储时为null
+         */
+        public StoreWriterStats getStoreWriterStats() { return storeWriterStats; }
+        
+        /**
+         * 获取内容去重统计信息（未变化页面数、跳过的字节数、节省的解析CPU时间）
+         * 
+         * @return 内容去重统计，未开启内容去重时为null
+         */
+        public ContentDedupStats getContentDedupStats() { return contentDedupStats; }
+        
+        /**
+         * 获取条件请求统计信息（304次数、节省的字节数和下载时间）
+         * 
+         * @return 条件请求统计，未开启条件请求时为null
+         */
+        public ValidatorCacheStats getValidatorCacheStats() { return validatorCacheStats; }
+        
+        /**
+         * 获取下载流量统计信息（传输字节数、解压后字节数和压缩节省的比例）
+         * 
+         * @return 流量统计，没有设置来源时为null
+         */
+        public TransferStats getTransferStats() { return transferStats; }
+        
+        /**
+         * 获取流水线各阶段统计信息（队列深度、正在处理数、阻塞的提交次数）
+         * 
+         * @return 各阶段统计，没有设置来源时为null
+         */
+        public List<StageStats> getStageStats() { return stageStats; }
+        
         public long getElapsedTime() {
             if (startTime > 0 && endTime > 0) {
                 return endTime - startTime;
@@ -135,6 +394,16 @@ public class StatisticsEventListener implements CrawlEventListener {
             return startTime > 0 ? System.currentTimeMillis() - startTime : 0;
         }
         
+        /**
+         * 获取去重命中率：被过滤的重复URL占全部提交URL的比例
+         * 
+         * @return 命中率
+         */
+        public double getDedupHitRate() {
+            long total = totalUrlsQueued + totalUrlsDeduplicated;
+            return total > 0 ? (double) totalUrlsDeduplicated / total : 0.0;
+        }
+        
         public double getSuccessRate() {
             long total = totalPagesFetched + totalFetchErrors;
             return total > 0 ? (double) totalPagesFetched / total : 0.0;
@@ -148,8 +417,17 @@ public class StatisticsEventListener implements CrawlEventListener {
                     ", totalFetchErrors=" + totalFetchErrors +
                     ", totalParseErrors=" + totalParseErrors +
                     ", totalUrlsQueued=" + totalUrlsQueued +
+                    ", totalUrlsDeduplicated=" + totalUrlsDeduplicated +
+                    ", dedupHitRate=" + String.format("%.2f%%", getDedupHitRate() * 100) +
                     ", elapsedTime=" + getElapsedTime() + "ms" +
                     ", successRate=" + String.format("%.2f%%", getSuccessRate() * 100) +
+                    (bloomFilterStats != null ? ", bloomFilter=" + bloomFilterStats : "") +
+                    (bufferPoolStats != null ? ", bufferPool=" + bufferPoolStats : "") +
+                    (storeWriterStats != null ? ", storeWriter=" + storeWriterStats : "") +
+                    (contentDedupStats != null ? ", contentDedup=" + contentDedupStats : "") +
+                    (validatorCacheStats != null ? ", validatorCache=" + validatorCacheStats : "") +
+                    (transferStats != null ? ", transfer=" + transferStats : "") +
+                    (stageStats != null ? ", stages=" + stageStats : "") +
                     '}';
         }
     }
@@ -30,8 +30,18 @@ public abstract class PipelineProcessor {
      * @return 处理结果
      */
     public final ProcessResult process(CrawlContext context) {
-        ProcessResult result = doProcess(context);
-        
+        return proceed(context, doProcess(context));
+    }
+    
+    /**
+     * 按当前处理器的结果继续处理
+     * 供在流水线之外（例如异步回调中）完成了当前步骤的处理器接着执行后续处理器
+     * 
+     * @param context 爬虫上下文
+     * @param result 当前处理器的处理结果
+     * @return 处理结果
+     */
+    protected final ProcessResult proceed(CrawlContext context, ProcessResult result) {
         // 如果当前处理器处理成功且需要继续处理，则调用下一个处理器
         if (result.isSuccess() && result.shouldContinue() && next != null) {
             return next.process(context);
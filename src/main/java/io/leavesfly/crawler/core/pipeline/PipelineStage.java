@@ -0,0 +1,203 @@
+package io.leavesfly.crawler.core.pipeline;
+
+import io.leavesfly.crawler.domain.CrawlContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 流水线阶段
+ * 上一阶段把上下文提交进来后立即返回，由阶段自己的ForkJoinPool运行处理链，处理完成后回调结果。
+ * 等待处理的上下文不超过队列容量，队列已满时提交方阻塞等待，上游随之放慢，而不是无限堆积在内存中。
+ * 适合把CPU密集的解析和网络I/O分开：下载线程只负责下载，解析并发度按CPU核数设置
+ *
+ * @author yefei.yf
+ */
+public class PipelineStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineStage.class);
+
+    /**
+     * 队列已满时检查阶段是否已关闭的间隔
+     */
+    private static final long BLOCKED_POLL_MILLIS = 100;
+
+    private final String name;
+    private final PipelineProcessor head;
+    private final ForkJoinPool pool;
+    private final int queueCapacity;
+    private final BiConsumer<CrawlContext, ProcessResult> completionHandler;
+
+    /**
+     * 许可数为并发度加队列容量，覆盖正在处理和排队的上下文
+     */
+    private final Semaphore permits;
+    private final Object drainLock = new Object();
+    private volatile boolean closed;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    /**
+     * 构造函数
+     *
+     * @param name 阶段名称
+     * @param head 阶段内处理链的第一个处理器
+     * @param pool 运行处理链的线程池，关闭阶段时一并关闭
+     * @param queueCapacity 等待处理的上下文数上限
+     * @param completionHandler 处理完成后的回调，在阶段的线程中执行
+     */
+    public PipelineStage(String name, PipelineProcessor head, ForkJoinPool pool, int queueCapacity,
+                         BiConsumer<CrawlContext, ProcessResult> completionHandler) {
+        if (head == null || pool == null || completionHandler == null) {
+            throw new IllegalArgumentException("处理器、线程池和回调不能为空");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("队列容量必须大于0");
+        }
+        this.name = name;
+        this.head = head;
+        this.pool = pool;
+        this.queueCapacity = queueCapacity;
+        this.completionHandler = completionHandler;
+        this.permits = new Semaphore(pool.getParallelism() + queueCapacity);
+    }
+
+    /**
+     * 提交上下文，队列已满时阻塞等待
+     *
+     * @param context 爬虫上下文
+     * @return 已提交返回true，阶段已关闭时返回false
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean submit(CrawlContext context) throws InterruptedException {
+        if (closed) {
+            return false;
+        }
+        if (!permits.tryAcquire()) {
+            blockedSubmits.increment();
+            long start = System.nanoTime();
+            try {
+                while (!permits.tryAcquire(BLOCKED_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        return false;
+                    }
+                }
+            } finally {
+                blockedNanos.add(System.nanoTime() - start);
+            }
+        }
+        pending.incrementAndGet();
+        submitted.increment();
+        try {
+            pool.execute(() -> run(context));
+        } catch (RejectedExecutionException e) {
+            submitted.decrement();
+            finish();
+            return false;
+        }
+        return true;
+    }
+
+    private void run(CrawlContext context) {
+        active.incrementAndGet();
+        try {
+            ProcessResult result;
+            try {
+                result = head.process(context);
+            } catch (Exception e) {
+                result = ProcessResult.failure(name + "阶段处理异常: " + e.getMessage(), e);
+            }
+            if (!result.isSuccess()) {
+                failed.increment();
+            }
+            completionHandler.accept(context, result);
+        } catch (Exception e) {
+            logger.error("{}阶段回调异常: {}", name, context.getCurrentUrl(), e);
+        } finally {
+            active.decrementAndGet();
+            completed.increment();
+            finish();
+        }
+    }
+
+    private void finish() {
+        // 先减少计数再释放许可，等待中的上下文总数不会超过许可数
+        int remaining = pending.decrementAndGet();
+        permits.release();
+        if (remaining == 0 && closed) {
+            synchronized (drainLock) {
+                drainLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 停止接收新的上下文，等待已提交的上下文处理完后关闭线程池
+     *
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 是否在超时前处理完，超时后未开始的上下文被丢弃
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained;
+        try {
+            synchronized (drainLock) {
+                long remaining;
+                while (pending.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(drainLock, remaining);
+                }
+                drained = pending.get() == 0;
+            }
+            pool.shutdown();
+            if (!drained || !pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            drained = false;
+        }
+        logger.info("{}阶段已关闭: {}", name, getStats());
+        return drained;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 是否已关闭
+     *
+     * @return 是否已关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 队列深度、阻塞次数等统计
+     */
+    public StageStats getStats() {
+        int running = active.get();
+        int queueDepth = Math.max(0, pending.get() - running);
+        return new StageStats(name, queueDepth, queueCapacity, running, pool.getParallelism(),
+                submitted.sum(), completed.sum(), failed.sum(), blockedSubmits.sum(), blockedNanos.sum());
+    }
+}
@@ -0,0 +1,113 @@
+package io.leavesfly.crawler.core.pipeline;
+
+/**
+ * 流水线阶段统计快照
+ *
+ * @author yefei.yf
+ */
+public class StageStats {
+
+    private final String name;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final int active;
+    private final int parallelism;
+    private final long submitted;
+    private final long completed;
+    private final long failed;
+    private final long blockedSubmits;
+    private final long blockedNanos;
+
+    public StageStats(String name, int queueDepth, int queueCapacity, int active, int parallelism,
+                      long submitted, long completed, long failed, long blockedSubmits, long blockedNanos) {
+        this.name = name;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.active = active;
+        this.parallelism = parallelism;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.failed = failed;
+        this.blockedSubmits = blockedSubmits;
+        this.blockedNanos = blockedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取已提交、还没有开始处理的任务数
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * 获取正在处理的任务数
+     */
+    public int getActive() {
+        return active;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * 获取因队列已满而阻塞等待的提交次数
+     */
+    public long getBlockedSubmits() {
+        return blockedSubmits;
+    }
+
+    /**
+     * 获取提交方因队列已满累计等待的时间
+     *
+     * @return 毫秒数
+     */
+    public double getBlockedMillis() {
+        return blockedNanos / 1_000_000.0;
+    }
+
+    /**
+     * 获取队列使用率
+     *
+     * @return 0到1之间的比例，容量为0时为0
+     */
+    public double getQueueUtilization() {
+        return queueCapacity > 0 ? (double) queueDepth / queueCapacity : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "StageStats{" +
+                "name='" + name + '\'' +
+                ", queueDepth=" + queueDepth +
+                ", queueCapacity=" + queueCapacity +
+                ", active=" + active +
+                ", parallelism=" + parallelism +
+                ", submitted=" + submitted +
+                ", completed=" + completed +
+                ", failed=" + failed +
+                ", blockedSubmits=" + blockedSubmits +
+                ", blockedMillis=" + String.format("%.2f", getBlockedMillis()) +
+                '}';
+    }
+}
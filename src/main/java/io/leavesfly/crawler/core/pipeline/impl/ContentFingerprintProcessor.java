@@ -0,0 +1,123 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.dedup.ContentDedupStats;
+import io.leavesfly.crawler.dedup.ContentFingerprint;
+import io.leavesfly.crawler.dedup.ContentFingerprintIndex;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内容指纹处理器
+ * 位于下载之后、存储和解析之前，计算页面字节的指纹并与索引中该URL上次的指纹比较，
+ * 内容未变化时在上下文中标记并结束流水线，页面不再存储，也不再解析。
+ * 内容变化的页面只把指纹放进上下文，存储和解析都成功后由{@link #commit(CrawlContext)}写入索引，
+ * 异步存储时等页面实际写入后才写入索引。
+ * 存储失败、解析失败或没能交给解析阶段的页面下次抓取时不会被当作未变化而跳过
+ *
+ * @author yefei.yf
+ */
+public class ContentFingerprintProcessor extends PipelineProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentFingerprintProcessor.class);
+
+    /**
+     * 内容未变化时设置的上下文属性，值为Boolean.TRUE
+     */
+    public static final String UNCHANGED_ATTRIBUTE = "contentUnchanged";
+
+    /**
+     * 本次抓取的内容指纹，值为{@link ContentFingerprint}
+     */
+    public static final String FINGERPRINT_ATTRIBUTE = "contentFingerprint";
+
+    private final ContentFingerprintIndex index;
+
+    private final LongAdder checkedPages = new LongAdder();
+    private final LongAdder unchangedPages = new LongAdder();
+    private final LongAdder skippedBytes = new LongAdder();
+
+    public ContentFingerprintProcessor(ContentFingerprintIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    protected ProcessResult doProcess(CrawlContext context) {
+        RawPage rawPage = context.getRawPage();
+        byte[] body = rawPage != null ? rawPage.getBody() : null;
+        if (body == null) {
+            return ProcessResult.success();
+        }
+
+        ContentFingerprint fingerprint = ContentFingerprint.of(body, 0, body.length);
+        context.setAttribute(FINGERPRINT_ATTRIBUTE, fingerprint);
+        checkedPages.increment();
+        if (index.isUnchanged(rawPage.getUrl(), fingerprint)) {
+            unchangedPages.increment();
+            skippedBytes.add(body.length);
+            context.setAttribute(UNCHANGED_ATTRIBUTE, Boolean.TRUE);
+            logger.debug("页面内容未变化，跳过存储和解析: {}", rawPage.getUrl());
+            return ProcessResult.success(false);
+        }
+        return ProcessResult.success();
+    }
+
+    /**
+     * 页面存储和解析成功后把本次的指纹写入索引，存储失败时不写入。
+     * 页面还在异步写入时，写入成功后再写入索引
+     *
+     * @param context 处理完成的上下文
+     */
+    public void commit(CrawlContext context) {
+        Object fingerprint = context.getAttribute(FINGERPRINT_ATTRIBUTE);
+        RawPage rawPage = context.getRawPage();
+        if (!(fingerprint instanceof ContentFingerprint) || rawPage == null
+                || Boolean.TRUE.equals(context.getAttribute(UNCHANGED_ATTRIBUTE))
+                || Boolean.TRUE.equals(context.getAttribute(StoreProcessor.STORE_FAILED_ATTRIBUTE))) {
+            return;
+        }
+        Object storedState = context.getAttribute(StoreProcessor.STORE_RESULT_ATTRIBUTE);
+        if (storedState instanceof CompletableFuture) {
+            ((CompletableFuture<?>) storedState).thenAccept(state -> {
+                if (Integer.valueOf(RawPageStore.STORE_SUCCESS).equals(state)) {
+                    index.record(rawPage.getUrl(), (ContentFingerprint) fingerprint);
+                }
+            });
+            return;
+        }
+        index.record(rawPage.getUrl(), (ContentFingerprint) fingerprint);
+    }
+
+    /**
+     * 获取指纹索引
+     *
+     * @return 指纹索引
+     */
+    public ContentFingerprintIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @param averageParseCpuNanos 实际解析的页面平均CPU时间，用于估算跳过解析节省的CPU
+     * @return 内容去重统计
+     */
+    public ContentDedupStats getStats(long averageParseCpuNanos) {
+        long unchanged = unchangedPages.sum();
+        return new ContentDedupStats(checkedPages.sum(), unchanged, skippedBytes.sum(), index.size(),
+                unchanged * averageParseCpuNanos);
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "ContentFingerprintProcessor";
+    }
+}
@@ -11,7 +11,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 页面下载处理器
- * 负责下载指定URL的页面内容
+ * 负责下载指定URL的页面内容；默认下载后立即存储，
+ * 流水线中另有存储处理器时只下载，由存储处理器决定是否存储。
+ * 条件请求得到304时页面未变化，标记后结束流水线
  * 
  * @author yefei.yf
  */
@@ -19,14 +21,31 @@ public class FetchProcessor extends PipelineProcessor {
     
     private static final Logger logger = LoggerFactory.getLogger(FetchProcessor.class);
     
+    /**
+     * 上下文属性：服务端对条件请求返回了304
+     */
+    public static final String NOT_MODIFIED_ATTRIBUTE = "notModified";
+    
     private final Fetcher fetcher;
+    private final boolean storeOnFetch;
     
     public FetchProcessor() {
-        this.fetcher = FetcherFactory.createDefaultFetcher();
+        this(FetcherFactory.createDefaultFetcher());
     }
     
     public FetchProcessor(Fetcher fetcher) {
+        this(fetcher, true);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param fetcher 抓取器
+     * @param storeOnFetch 下载后是否立即存储，流水线中有{@link StoreProcessor}时为false
+     */
+    public FetchProcessor(Fetcher fetcher, boolean storeOnFetch) {
         this.fetcher = fetcher;
+        this.storeOnFetch = storeOnFetch;
     }
     
     @Override
@@ -36,17 +55,8 @@ public class FetchProcessor extends PipelineProcessor {
         try {
             logger.debug("开始下载页面: {}", url);
             
-            RawPage rawPage = fetcher.fetchPage(url);
-            if (rawPage == null) {
-                logger.error("页面下载失败: {}", url);
-                return ProcessResult.failure("页面下载失败: " + url);
-            }
-            
-            context.setRawPage(rawPage);
-            context.setMetadata("fetchTime", String.valueOf(System.currentTimeMillis()));
-            
-            logger.debug("页面下载成功: {}, 内容长度: {}", url, rawPage.getContent().length());
-            return ProcessResult.success();
+            RawPage rawPage = storeOnFetch ? fetcher.fetchPage(url) : fetcher.downloadPage(url);
+            return applyPage(context, rawPage);
             
         } catch (Exception e) {
             logger.error("下载页面时发生异常: {}", url, e);
@@ -54,6 +64,57 @@ public class FetchProcessor extends PipelineProcessor {
         }
     }
     
+    /**
+     * 用异步下载的结果继续流水线
+     * 与{@link #process}一样设置上下文并执行后续处理器，只是不再下载
+     * 
+     * @param context 爬虫上下文
+     * @param rawPage 下载得到的页面，下载失败时为null
+     * @param error 下载异常，没有异常时为null
+     * @return 处理结果
+     */
+    public ProcessResult complete(CrawlContext context, RawPage rawPage, Throwable error) {
+        String url = context.getCurrentUrl();
+        if (error != null) {
+            logger.error("下载页面时发生异常: {}, 原因: {}", url, error.toString());
+            Exception exception = error instanceof Exception ? (Exception) error : new Exception(error);
+            return ProcessResult.failure("下载页面异常: " + error.getMessage(), exception);
+        }
+        try {
+            if (storeOnFetch && rawPage != null && !rawPage.isNotModified()) {
+                fetcher.storePage(rawPage);
+            }
+            return proceed(context, applyPage(context, rawPage));
+        } catch (Exception e) {
+            logger.error("处理下载结果时发生异常: {}", url, e);
+            return ProcessResult.failure("下载页面异常: " + e.getMessage(), e);
+        }
+    }
+    
+    private ProcessResult applyPage(CrawlContext context, RawPage rawPage) {
+        String url = context.getCurrentUrl();
+        if (rawPage == null) {
+            logger.error("页面下载失败: {}", url);
+            return ProcessResult.failure("页面下载失败: " + url);
+        }
+        
+        context.setRawPage(rawPage);
+        context.setMetadata("fetchTime", String.valueOf(System.currentTimeMillis()));
+        
+        if (rawPage.isNotModified()) {
+            logger.debug("页面未修改: {}", url);
+            context.setAttribute(NOT_MODIFIED_ATTRIBUTE, Boolean.TRUE);
+            context.setAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE, Boolean.TRUE);
+            return ProcessResult.success(false);
+        }
+        
+        if (logger.isDebugEnabled()) {
+            byte[] body = rawPage.getBody();
+            logger.debug("页面下载成功: {}, 字节数: {}", url, body != null ? body.length : 0);
+        }
+        return ProcessResult.success();
+    }
+    
     @Override
     public String getProcessorName() {
         return "FetchProcessor";
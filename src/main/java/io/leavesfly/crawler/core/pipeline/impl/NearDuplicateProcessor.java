@@ -0,0 +1,104 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.dedup.SimHash;
+import io.leavesfly.crawler.dedup.SimHashIndex;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 近似重复页面处理器
+ * 位于存储之后、解析之前，计算页面可见文本的SimHash指纹，
+ * 索引中已有其他URL汉明距离不超过k的指纹时（如同一团购只有跟踪代码不同的页面），
+ * 在上下文中标记并结束流水线，跳过字段提取和链接发现；页面本身仍已存储。
+ * 同一URL重新抓取时与它自己上次的指纹比较不算近似重复，索引中替换为新指纹
+ *
+ * @author yefei.yf
+ */
+public class NearDuplicateProcessor extends PipelineProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateProcessor.class);
+
+    /**
+     * 近似重复时设置的上下文属性，值为Boolean.TRUE
+     */
+    public static final String NEAR_DUPLICATE_ATTRIBUTE = "nearDuplicate";
+
+    private final SimHashIndex index;
+    private final int shingleSize;
+
+    private final LongAdder checkedPages = new LongAdder();
+    private final LongAdder nearDuplicatePages = new LongAdder();
+    private final LongAdder nearDuplicateBytes = new LongAdder();
+
+    public NearDuplicateProcessor(SimHashIndex index) {
+        this(index, SimHash.DEFAULT_SHINGLE_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param index SimHash索引，其最大汉明距离即近似重复的阈值
+     * @param shingleSize 每个片段的词数
+     */
+    public NearDuplicateProcessor(SimHashIndex index, int shingleSize) {
+        this.index = index;
+        this.shingleSize = shingleSize;
+    }
+
+    @Override
+    protected ProcessResult doProcess(CrawlContext context) {
+        RawPage rawPage = context.getRawPage();
+        CharSequence content = rawPage != null ? rawPage.getContentView() : null;
+        if (content == null || content.length() == 0) {
+            return ProcessResult.success();
+        }
+
+        long fingerprint = SimHash.fingerprint(content, shingleSize);
+        context.setAttribute("simHash", fingerprint);
+        checkedPages.increment();
+        if (!index.addIfAbsent(rawPage.getUrl(), fingerprint)) {
+            nearDuplicatePages.increment();
+            nearDuplicateBytes.add(rawPage.getBodyLength());
+            context.setAttribute(NEAR_DUPLICATE_ATTRIBUTE, Boolean.TRUE);
+            logger.debug("页面与已见页面近似重复，跳过解析: {}", rawPage.getUrl());
+            return ProcessResult.success(false);
+        }
+        return ProcessResult.success();
+    }
+
+    public SimHashIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 获取计算过指纹的页面数
+     */
+    public long getCheckedPages() {
+        return checkedPages.sum();
+    }
+
+    /**
+     * 获取判定为近似重复的页面数
+     */
+    public long getNearDuplicatePages() {
+        return nearDuplicatePages.sum();
+    }
+
+    /**
+     * 获取近似重复页面的字节数
+     */
+    public long getNearDuplicateBytes() {
+        return nearDuplicateBytes.sum();
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "NearDuplicateProcessor";
+    }
+}
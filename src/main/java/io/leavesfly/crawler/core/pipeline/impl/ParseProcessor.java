@@ -6,14 +6,20 @@ import io.leavesfly.crawler.domain.CrawlContext;
 import io.leavesfly.crawler.domain.RawPage;
 import io.leavesfly.crawler.parse.FieldExtractor;
 import io.leavesfly.crawler.parse.FieldExtractorFactory;
+import io.leavesfly.crawler.strategy.CrawlStrategy;
+import io.leavesfly.crawler.strategy.CrawlStrategyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 内容解析处理器
- * 负责从页面中提取有用信息
+ * 负责从页面中提取有用信息。页面只解析一次，文档树缓存在上下文中，
+ * 由匹配的爬取策略和字段提取器共用
  * 
  * @author yefei.yf
  */
@@ -21,6 +27,36 @@ public class ParseProcessor extends PipelineProcessor {
     
     private static final Logger logger = LoggerFactory.getLogger(ParseProcessor.class);
     
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    
+    /**
+     * 上下文属性：爬取策略从页面提取的URL列表
+     */
+    public static final String EXTRACTED_URLS_ATTRIBUTE = "extractedUrls";
+    
+    /**
+     * 上下文属性：爬取策略从页面提取的数据
+     */
+    public static final String EXTRACTED_DATA_ATTRIBUTE = "extractedData";
+    
+    private final CrawlStrategyManager strategyManager;
+    
+    private final LongAdder parsedPages = new LongAdder();
+    private final LongAdder parseCpuNanos = new LongAdder();
+    
+    public ParseProcessor() {
+        this(null);
+    }
+    
+    /**
+     * 构造函数
+     * 
+     * @param strategyManager 爬取策略管理器，为null时只运行字段提取器
+     */
+    public ParseProcessor(CrawlStrategyManager strategyManager) {
+        this.strategyManager = strategyManager;
+    }
+    
     @Override
     protected ProcessResult doProcess(CrawlContext context) {
         RawPage rawPage = context.getRawPage();
@@ -31,6 +67,7 @@ public class ParseProcessor extends PipelineProcessor {
         
         try {
             logger.debug("开始解析页面: {}", rawPage.getUrl());
+            long start = cpuTimeNanos();
             
             // 获取适合的字段提取器
             List<FieldExtractor> extractors = FieldExtractorFactory.getExtractors(rawPage.getUrl());
@@ -40,10 +77,21 @@ public class ParseProcessor extends PipelineProcessor {
                     logger.debug("使用提取器 {} 解析页面: {}", 
                                extractor.getClass().getSimpleName(), rawPage.getUrl());
                     
-                    extractor.extractFile(rawPage);
+                    extractor.extractFile(context);
                 }
             }
             
+            CrawlStrategy strategy = strategyManager != null ? strategyManager.findStrategy(rawPage.getUrl()) : null;
+            if (strategy != null) {
+                context.setAttribute(EXTRACTED_URLS_ATTRIBUTE, strategy.extractUrls(context));
+                Object data = strategy.extractData(context);
+                if (data != null) {
+                    context.setAttribute(EXTRACTED_DATA_ATTRIBUTE, data);
+                }
+            }
+            
+            parseCpuNanos.add(Math.max(0, cpuTimeNanos() - start));
+            parsedPages.increment();
             context.setMetadata("parseTime", String.valueOf(System.currentTimeMillis()));
             logger.debug("页面解析完成: {}", rawPage.getUrl());
             
@@ -55,6 +103,33 @@ public class ParseProcessor extends PipelineProcessor {
         }
     }
     
+    /**
+     * 获取解析成功的页面数
+     * 
+     * @return 页面数
+     */
+    public long getParsedPages() {
+        return parsedPages.sum();
+    }
+    
+    /**
+     * 获取平均每个页面的解析CPU时间
+     * 
+     * @return 纳秒数，还没有解析过页面时为0
+     */
+    public long getAverageParseCpuNanos() {
+        long pages = parsedPages.sum();
+        return pages > 0 ? parseCpuNanos.sum() / pages : 0;
+    }
+    
+    /**
+     * 当前线程的CPU时间，JVM不支持时退回到墙上时间
+     */
+    private static long cpuTimeNanos() {
+        long cpuTime = THREAD_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+        return cpuTime >= 0 ? cpuTime : System.nanoTime();
+    }
+    
     @Override
     public String getProcessorName() {
         return "ParseProcessor";
@@ -0,0 +1,40 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.PipelineStage;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.domain.CrawlContext;
+
+/**
+ * 阶段交接处理器
+ * 放在一个阶段处理链的末尾，把上下文提交给下一个阶段后立即返回；下一阶段队列已满时阻塞等待。
+ * 上下文交出后由下一阶段处理，当前线程不应再修改它
+ *
+ * @author yefei.yf
+ */
+public class StageHandoffProcessor extends PipelineProcessor {
+
+    private final PipelineStage stage;
+
+    public StageHandoffProcessor(PipelineStage stage) {
+        this.stage = stage;
+    }
+
+    @Override
+    protected ProcessResult doProcess(CrawlContext context) {
+        try {
+            if (!stage.submit(context)) {
+                return ProcessResult.failure(stage.getName() + "阶段已关闭，页面未处理: " + context.getCurrentUrl());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ProcessResult.failure("等待" + stage.getName() + "阶段时被中断", e);
+        }
+        return ProcessResult.success(false);
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "StageHandoffProcessor";
+    }
+}
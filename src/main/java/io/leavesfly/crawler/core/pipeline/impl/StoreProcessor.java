@@ -0,0 +1,66 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.Fetcher;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 页面存储处理器
+ * 把下载的页面交给抓取器的页面存储；存储失败时记录日志并在上下文中标记，不影响后续解析。
+ * 异步存储时页面入队后即继续，写入结果放在上下文中，由需要确认页面已写入的处理器等待
+ *
+ * @author yefei.yf
+ */
+public class StoreProcessor extends PipelineProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreProcessor.class);
+
+    /**
+     * 存储失败时设置的上下文属性，值为Boolean.TRUE
+     */
+    public static final String STORE_FAILED_ATTRIBUTE = "storeFailed";
+
+    /**
+     * 页面的写入结果，值为CompletableFuture&lt;Integer&gt;，写入后给出存储状态
+     */
+    public static final String STORE_RESULT_ATTRIBUTE = "storeResult";
+
+    private final Fetcher fetcher;
+
+    public StoreProcessor(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    protected ProcessResult doProcess(CrawlContext context) {
+        RawPage rawPage = context.getRawPage();
+        if (rawPage == null) {
+            return ProcessResult.success();
+        }
+
+        try {
+            CompletableFuture<Integer> storedState = fetcher.storePageAsync(rawPage);
+            context.setAttribute(STORE_RESULT_ATTRIBUTE, storedState);
+            if (storedState.isDone() && storedState.join() == RawPageStore.STORE_FAILURE) {
+                logger.error("URL: {} -> 存储失败!", rawPage.getUrl());
+                context.setAttribute(STORE_FAILED_ATTRIBUTE, Boolean.TRUE);
+            }
+        } catch (Exception e) {
+            logger.error("存储页面时发生异常: {}", rawPage.getUrl(), e);
+            context.setAttribute(STORE_FAILED_ATTRIBUTE, Boolean.TRUE);
+        }
+        return ProcessResult.success();
+    }
+
+    @Override
+    public String getProcessorName() {
+        return "StoreProcessor";
+    }
+}
@@ -0,0 +1,115 @@
+package io.leavesfly.crawler.dedup;
+
+/**
+ * 内容去重统计快照
+ *
+ * @author yefei.yf
+ */
+public class ContentDedupStats {
+
+    private final long checkedPages;
+    private final long unchangedPages;
+    private final long skippedBytes;
+    private final int indexedUrls;
+    private final long nearDuplicatePages;
+    private final long nearDuplicateBytes;
+    private final long simHashFingerprints;
+    private final long savedParseCpuNanos;
+
+    public ContentDedupStats(long checkedPages, long unchangedPages, long skippedBytes, int indexedUrls,
+                             long savedParseCpuNanos) {
+        this(checkedPages, unchangedPages, skippedBytes, indexedUrls, 0, 0, 0, savedParseCpuNanos);
+    }
+
+    public ContentDedupStats(long checkedPages, long unchangedPages, long skippedBytes, int indexedUrls,
+                             long nearDuplicatePages, long nearDuplicateBytes, long simHashFingerprints,
+                             long savedParseCpuNanos) {
+        this.checkedPages = checkedPages;
+        this.unchangedPages = unchangedPages;
+        this.skippedBytes = skippedBytes;
+        this.indexedUrls = indexedUrls;
+        this.nearDuplicatePages = nearDuplicatePages;
+        this.nearDuplicateBytes = nearDuplicateBytes;
+        this.simHashFingerprints = simHashFingerprints;
+        this.savedParseCpuNanos = savedParseCpuNanos;
+    }
+
+    /**
+     * 获取计算过指纹的页面数
+     */
+    public long getCheckedPages() {
+        return checkedPages;
+    }
+
+    /**
+     * 获取内容未变化、跳过存储和解析的页面数
+     */
+    public long getUnchangedPages() {
+        return unchangedPages;
+    }
+
+    /**
+     * 获取跳过的页面字节数，即少写入存储、少交给解析的字节数
+     */
+    public long getSkippedBytes() {
+        return skippedBytes;
+    }
+
+    public int getIndexedUrls() {
+        return indexedUrls;
+    }
+
+    /**
+     * 获取与已见页面近似重复、跳过解析的页面数
+     */
+    public long getNearDuplicatePages() {
+        return nearDuplicatePages;
+    }
+
+    /**
+     * 获取近似重复页面的字节数，这些页面仍会存储，只跳过解析
+     */
+    public long getNearDuplicateBytes() {
+        return nearDuplicateBytes;
+    }
+
+    /**
+     * 获取SimHash索引中的指纹数
+     */
+    public long getSimHashFingerprints() {
+        return simHashFingerprints;
+    }
+
+    /**
+     * 获取估算节省的解析CPU时间：跳过解析的页面数乘以实际解析过的页面的平均CPU时间
+     *
+     * @return 毫秒数
+     */
+    public double getSavedParseCpuMillis() {
+        return savedParseCpuNanos / 1_000_000.0;
+    }
+
+    /**
+     * 获取未变化页面的比例
+     *
+     * @return 未变化页面数 / 检查页面数
+     */
+    public double getUnchangedRate() {
+        return checkedPages > 0 ? (double) unchangedPages / checkedPages : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "ContentDedupStats{" +
+                "checkedPages=" + checkedPages +
+                ", unchangedPages=" + unchangedPages +
+                ", unchangedRate=" + String.format("%.2f%%", getUnchangedRate() * 100) +
+                ", skippedBytes=" + skippedBytes +
+                ", nearDuplicatePages=" + nearDuplicatePages +
+                ", nearDuplicateBytes=" + nearDuplicateBytes +
+                ", savedParseCpuMillis=" + String.format("%.2f", getSavedParseCpuMillis()) +
+                ", indexedUrls=" + indexedUrls +
+                ", simHashFingerprints=" + simHashFingerprints +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package io.leavesfly.crawler.dedup;
+
+import io.leavesfly.crawler.util.Murmur3Hash128;
+
+/**
+ * 页面内容指纹
+ * 页面字节的128位MurmurHash3加上字节数，字节完全相同的页面指纹相同；
+ * 不同内容碰撞的概率可以忽略，不需要再逐字节比较
+ *
+ * @author yefei.yf
+ */
+public final class ContentFingerprint {
+
+    private static final ThreadLocal<Murmur3Hash128> HASHER = ThreadLocal.withInitial(Murmur3Hash128::new);
+
+    private final long h1;
+    private final long h2;
+    private final int length;
+
+    public ContentFingerprint(long h1, long h2, int length) {
+        this.h1 = h1;
+        this.h2 = h2;
+        this.length = length;
+    }
+
+    /**
+     * 计算字节数组的指纹
+     *
+     * @param data 页面字节
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 内容指纹
+     */
+    public static ContentFingerprint of(byte[] data, int offset, int length) {
+        Murmur3Hash128 hasher = HASHER.get().hash(data, offset, length, 0);
+        return new ContentFingerprint(hasher.getH1(), hasher.getH2(), length);
+    }
+
+    public long getH1() {
+        return h1;
+    }
+
+    public long getH2() {
+        return h2;
+    }
+
+    /**
+     * 获取页面字节数
+     */
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContentFingerprint)) {
+            return false;
+        }
+        ContentFingerprint that = (ContentFingerprint) o;
+        return h1 == that.h1 && h2 == that.h2 && length == that.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (h1 ^ (h1 >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x/%d", h2, h1, length);
+    }
+}
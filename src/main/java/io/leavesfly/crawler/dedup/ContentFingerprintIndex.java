@@ -0,0 +1,336 @@
+package io.leavesfly.crawler.dedup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按URL保存页面内容指纹的索引
+ * 内存中每个URL只保留最近一次抓取到的指纹，重新抓取时比较指纹判断页面是否变化。
+ *
+ * 通过{@link #open}打开时索引持久化在一个只追加的日志文件中：每次记录新指纹追加一条记录，
+ * 启动时顺序读入，同一URL以最后一条为准，两次爬取之间没有变化的页面在下次爬取时也能被识别。
+ * 进程异常退出时只丢失还在写缓冲区中的记录，最后一条记录不完整时忽略；
+ * 日志中的过期记录过多时在启动时压缩重写。一个文件同时只能由一个实例打开
+ *
+ * @author yefei.yf
+ */
+public class ContentFingerprintIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentFingerprintIndex.class);
+
+    /**
+     * 日志文件魔数："CFPI"
+     */
+    static final int MAGIC = 0x43465049;
+
+    static final int VERSION = 1;
+
+    /**
+     * 过期记录超过这个数且多于有效记录时压缩
+     */
+    private static final int COMPACT_MIN_STALE = 1024;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, ContentFingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final Path path;
+    private FileChannel channel;
+    private FileLock fileLock;
+    private DataOutputStream out;
+
+    /**
+     * 创建只在内存中的索引
+     */
+    public ContentFingerprintIndex() {
+        this.path = null;
+    }
+
+    private ContentFingerprintIndex(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 打开持久化的索引，文件不存在时创建
+     *
+     * @param path 日志文件
+     * @return 索引，关闭时写完缓冲的记录
+     * @throws IOException 文件已被其他实例打开或已损坏
+     */
+    public static ContentFingerprintIndex open(Path path) throws IOException {
+        ContentFingerprintIndex index = new ContentFingerprintIndex(path);
+        long start = System.currentTimeMillis();
+        index.openFile();
+        if (index.size() > 0) {
+            logger.info("内容指纹索引已打开: {}, URL数: {}, 耗时: {}ms", path, index.size(),
+                    System.currentTimeMillis() - start);
+        }
+        return index;
+    }
+
+    /**
+     * 判断页面内容与该URL上次记录的指纹是否相同，不修改索引
+     *
+     * @param url 页面URL
+     * @param fingerprint 本次抓取的内容指纹
+     * @return 与上次记录的指纹相同时返回true；首次出现或内容变化时返回false
+     */
+    public boolean isUnchanged(String url, ContentFingerprint fingerprint) {
+        return fingerprint.equals(fingerprints.get(url));
+    }
+
+    /**
+     * 记录URL的最新指纹
+     * 应在页面存储和解析都成功后调用：中途失败的页面不记录，下次抓取时仍会重新存储和解析
+     *
+     * @param url 页面URL
+     * @param fingerprint 本次抓取的内容指纹
+     */
+    public void record(String url, ContentFingerprint fingerprint) {
+        // 在compute中追加日志，同一URL并发记录时日志中最后一条记录与内存中的值一致
+        fingerprints.compute(url, (key, previous) -> {
+            if (!fingerprint.equals(previous)) {
+                append(url, fingerprint);
+            }
+            return fingerprint;
+        });
+    }
+
+    /**
+     * 获取URL上次记录的指纹
+     *
+     * @param url 页面URL
+     * @return 指纹，没有记录时返回null
+     */
+    public ContentFingerprint get(String url) {
+        return fingerprints.get(url);
+    }
+
+    /**
+     * 获取索引中的URL数量
+     */
+    public int size() {
+        return fingerprints.size();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 把缓冲的记录写入文件
+     *
+     * @throws IOException 写入失败
+     */
+    public synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * 写完缓冲的记录并释放文件
+     */
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+            fileLock.release();
+            channel.close();
+        } catch (IOException e) {
+            logger.error("关闭内容指纹索引失败: {}", path, e);
+        }
+        out = null;
+        logger.info("内容指纹索引已关闭: {}, URL数: {}", path, fingerprints.size());
+    }
+
+    private void openFile() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("内容指纹索引已被其他实例占用: " + path);
+        }
+
+        try {
+            long records = 0;
+            long validLength = 0;
+            if (exists) {
+                long[] result = load();
+                records = result[0];
+                validLength = result[1];
+            }
+            if (records - fingerprints.size() > Math.max(COMPACT_MIN_STALE, fingerprints.size())) {
+                compact();
+            } else {
+                // 截掉不完整的最后一条记录，新记录追加在有效数据之后
+                if (exists && validLength < channel.size()) {
+                    channel.truncate(validLength);
+                }
+                channel.position(channel.size());
+                out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+                if (!exists) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                }
+            }
+        } catch (IOException e) {
+            fileLock.release();
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读入日志
+     *
+     * @return [记录数, 最后一条完整记录之后的位置]
+     */
+    private long[] load() throws IOException {
+        long records = 0;
+        long validLength;
+        long fileSize = channel.size();
+        channel.position(0);
+        CountingInputStream counting = new CountingInputStream(Channels.newInputStream(channel));
+        DataInputStream in = new DataInputStream(counting);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是内容指纹索引文件: " + path);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的内容指纹索引版本: " + version);
+        }
+        validLength = counting.count;
+        try {
+            while (counting.count < fileSize) {
+                byte[] url = new byte[in.readUnsignedShort()];
+                in.readFully(url);
+                fingerprints.put(new String(url, StandardCharsets.UTF_8),
+                        new ContentFingerprint(in.readLong(), in.readLong(), in.readInt()));
+                records++;
+                validLength = counting.count;
+            }
+        } catch (EOFException e) {
+            logger.warn("内容指纹索引最后一条记录不完整，已忽略: {}", path);
+        }
+        return new long[]{records, validLength};
+    }
+
+    /**
+     * 只保留每个URL的最新记录，写入临时文件后原子替换
+     */
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), WRITE_BUFFER_SIZE))) {
+            tmpOut.writeInt(MAGIC);
+            tmpOut.writeInt(VERSION);
+            for (Map.Entry<String, ContentFingerprint> entry : fingerprints.entrySet()) {
+                writeRecord(tmpOut, entry.getKey(), entry.getValue());
+            }
+        }
+        // 锁住的是旧文件，替换后重新打开并锁定新文件
+        fileLock.release();
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileLock = channel.tryLock();
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("内容指纹索引已被其他实例占用: " + path);
+        }
+        channel.position(channel.size());
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+        logger.info("内容指纹索引已压缩: {}, URL数: {}", path, fingerprints.size());
+    }
+
+    private synchronized void append(String url, ContentFingerprint fingerprint) {
+        if (out == null) {
+            return;
+        }
+        try {
+            writeRecord(out, url, fingerprint);
+        } catch (IOException e) {
+            logger.error("写入内容指纹索引失败: {}", path, e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, String url, ContentFingerprint fingerprint)
+            throws IOException {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        if (urlBytes.length > 0xFFFF) {
+            return;
+        }
+        out.writeShort(urlBytes.length);
+        out.write(urlBytes);
+        out.writeLong(fingerprint.getH1());
+        out.writeLong(fingerprint.getH2());
+        out.writeInt(fingerprint.getLength());
+    }
+
+    /**
+     * 记录已读取字节数的缓冲输入流
+     */
+    private static final class CountingInputStream extends BufferedInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in, WRITE_BUFFER_SIZE);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ContentFingerprintIndex{" +
+                "urls=" + size() +
+                ", path=" + path +
+                '}';
+    }
+}
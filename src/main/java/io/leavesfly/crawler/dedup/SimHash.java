@@ -0,0 +1,200 @@
+package io.leavesfly.crawler.dedup;
+
+import io.leavesfly.crawler.util.GeneralHashUtil;
+
+/**
+ * 页面文本的64位SimHash指纹
+ * 只取页面的可见文本：跳过标签、注释以及script和style中的内容，
+ * 因此只有跟踪脚本、统计代码不同的页面得到相同或相近的指纹。
+ *
+ * 文本切分为词：连续的字母数字（拉丁字母、数字）为一个词，中日韩等其他文字每个字符为一个词；
+ * 相邻的若干个词组成一个片段（shingle），每个片段的64位哈希按位投票，得票为正的位置1。
+ * 内容相近的页面指纹的汉明距离小
+ *
+ * @author yefei.yf
+ */
+public final class SimHash {
+
+    /**
+     * 默认每个片段的词数
+     */
+    public static final int DEFAULT_SHINGLE_SIZE = 3;
+
+    private SimHash() {
+    }
+
+    /**
+     * 使用默认片段长度计算指纹
+     *
+     * @param html 页面内容
+     * @return 64位指纹，没有可见文本时为0
+     */
+    public static long fingerprint(CharSequence html) {
+        return fingerprint(html, DEFAULT_SHINGLE_SIZE);
+    }
+
+    /**
+     * 计算页面可见文本的指纹
+     *
+     * @param html 页面内容
+     * @param shingleSize 每个片段的词数
+     * @return 64位指纹，没有可见文本时为0
+     */
+    public static long fingerprint(CharSequence html, int shingleSize) {
+        if (shingleSize <= 0) {
+            throw new IllegalArgumentException("片段词数必须大于0");
+        }
+        Shingler shingler = new Shingler(shingleSize);
+        int length = html.length();
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                i = skipMarkup(html, i);
+            } else if (c == '&') {
+                i = skipEntity(html, i);
+            } else if (isWordChar(c)) {
+                int start = i;
+                while (i < length && isWordChar(html.charAt(i))) {
+                    i++;
+                }
+                shingler.add(GeneralHashUtil.fnv1a64(html, start, i));
+            } else if (Character.isLetterOrDigit(c)) {
+                shingler.add(GeneralHashUtil.fmix64(c));
+                i++;
+            } else {
+                i++;
+            }
+        }
+        return shingler.finish();
+    }
+
+    /**
+     * 计算两个指纹的汉明距离
+     *
+     * @return 不同的位数
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * 组成词的拉丁字母和数字
+     */
+    private static boolean isWordChar(char c) {
+        return c < 0x0250 && Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * 跳过标签；注释、script和style整体跳过
+     *
+     * @return 标记之后的位置
+     */
+    private static int skipMarkup(CharSequence html, int start) {
+        if (regionMatches(html, start, "<!--")) {
+            return indexOf(html, "-->", start + 4, 3);
+        }
+        if (regionMatches(html, start, "<script")) {
+            return indexOf(html, "</script", start + 7, 8);
+        }
+        if (regionMatches(html, start, "<style")) {
+            return indexOf(html, "</style", start + 6, 7);
+        }
+        int end = start + 1;
+        while (end < html.length() && html.charAt(end) != '>') {
+            end++;
+        }
+        return end + 1;
+    }
+
+    /**
+     * 跳过字符实体，如&amp;nbsp;
+     */
+    private static int skipEntity(CharSequence html, int start) {
+        int limit = Math.min(html.length(), start + 10);
+        for (int i = start + 1; i < limit; i++) {
+            char c = html.charAt(i);
+            if (c == ';') {
+                return i + 1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '#') {
+                break;
+            }
+        }
+        return start + 1;
+    }
+
+    /**
+     * 不区分大小写地查找，返回匹配之后skip个字符的位置，找不到时返回末尾
+     */
+    private static int indexOf(CharSequence html, String target, int from, int skip) {
+        int last = html.length() - target.length();
+        for (int i = from; i <= last; i++) {
+            if (regionMatches(html, i, target)) {
+                return i + skip;
+            }
+        }
+        return html.length();
+    }
+
+    private static boolean regionMatches(CharSequence html, int offset, String target) {
+        if (offset + target.length() > html.length()) {
+            return false;
+        }
+        for (int i = 0; i < target.length(); i++) {
+            if (Character.toLowerCase(html.charAt(offset + i)) != target.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 把词流组成片段并按位投票
+     */
+    private static final class Shingler {
+
+        private final long[] window;
+        private final int[] votes = new int[64];
+        private long tokens;
+
+        Shingler(int shingleSize) {
+            this.window = new long[shingleSize];
+        }
+
+        void add(long tokenHash) {
+            window[(int) (tokens % window.length)] = tokenHash;
+            tokens++;
+            if (tokens >= window.length) {
+                vote(window.length);
+            }
+        }
+
+        long finish() {
+            if (tokens > 0 && tokens < window.length) {
+                vote((int) tokens);
+            }
+            long fingerprint = 0;
+            for (int bit = 0; bit < 64; bit++) {
+                if (votes[bit] > 0) {
+                    fingerprint |= 1L << bit;
+                }
+            }
+            return fingerprint;
+        }
+
+        /**
+         * 最近count个词按顺序组合成片段哈希后投票
+         */
+        private void vote(int count) {
+            long hash = 0;
+            for (long t = tokens - count; t < tokens; t++) {
+                hash = Long.rotateLeft(hash, 23) ^ window[(int) (t % window.length)];
+            }
+            hash = GeneralHashUtil.fmix64(hash);
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += (int) ((hash >>> bit) & 1) * 2 - 1;
+            }
+        }
+    }
+}
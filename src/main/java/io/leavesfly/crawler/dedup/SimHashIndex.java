@@ -0,0 +1,419 @@
+package io.leavesfly.crawler.dedup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SimHash近似重复索引，查找汉明距离不超过k的指纹
+ *
+ * 64位指纹按位分成b个块（b > k）。两个指纹最多有k位不同时，不同的位最多落在k个块里，
+ * 至少有b - k个块完全相同。为每种"选b - k个块"的组合建一张表，表中的指纹经过置换，
+ * 把选中的块移到最高位并按无符号顺序排序；查询时在每张表中二分查找最高位相同的区间，
+ * 只对区间内的候选计算汉明距离。
+ *
+ * 每张表是若干个有序的long数组：新指纹先进入写缓冲，缓冲满后排序成一个新数组，
+ * 大小相近的相邻数组再合并，数组个数保持在对数级别。每个指纹在每张表中只占8字节，
+ * b = k + 1时表数最少（k + 1张），内存最省；b更大时表更多，但每次查询的候选更少。
+ *
+ * 按URL加入时索引记住每个URL当前的指纹：同一URL重新抓取后旧指纹被替换，
+ * 查找近似重复时不算该URL自己的旧指纹。有序数组不便删除，被替换的指纹只记为失效，
+ * 失效的指纹多于有效的指纹时重建所有表
+ *
+ * @author yefei.yf
+ */
+public class SimHashIndex {
+
+    /**
+     * 写缓冲大小，缓冲中的指纹逐个比较
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    private final int maxDistance;
+    private final int blockCount;
+    private final Table[] tables;
+
+    private final long[] buffer = new long[BUFFER_SIZE];
+    private int bufferSize;
+
+    /**
+     * 每个元素是各张表中对应的有序数组，所有表的数组划分一致
+     */
+    private final List<long[][]> runs = new ArrayList<>();
+
+    /**
+     * 每个指纹值当前被多少个URL（或不带URL的加入）持有，为0表示表中的这个值已失效
+     */
+    private final Map<Long, Integer> owners = new HashMap<>();
+    private final Map<String, Long> urlFingerprints = new HashMap<>();
+    private long size;
+    private long staleCount;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 使用k + 1个块创建，内存最省
+     *
+     * @param maxDistance 最大汉明距离k
+     */
+    public SimHashIndex(int maxDistance) {
+        this(maxDistance, maxDistance + 1);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxDistance 最大汉明距离k
+     * @param blockCount 指纹分成的块数，必须大于k；表数为C(b, k)
+     */
+    public SimHashIndex(int maxDistance, int blockCount) {
+        if (maxDistance < 0 || blockCount <= maxDistance || blockCount > 16) {
+            throw new IllegalArgumentException("块数必须大于最大汉明距离且不超过16: k=" + maxDistance + ", b=" + blockCount);
+        }
+        this.maxDistance = maxDistance;
+        this.blockCount = blockCount;
+
+        int[] blockStart = new int[blockCount + 1];
+        for (int i = 0; i <= blockCount; i++) {
+            blockStart[i] = i * 64 / blockCount;
+        }
+        List<Table> tableList = new ArrayList<>();
+        int keyBlocks = blockCount - maxDistance;
+        for (int mask = 0; mask < (1 << blockCount); mask++) {
+            if (Integer.bitCount(mask) == keyBlocks) {
+                tableList.add(new Table(mask, blockStart));
+            }
+        }
+        this.tables = tableList.toArray(new Table[0]);
+    }
+
+    /**
+     * 是否已有汉明距离不超过k的指纹
+     *
+     * @param fingerprint 指纹
+     * @return 存在近似重复时返回true
+     */
+    public boolean containsNear(long fingerprint) {
+        lock.readLock().lock();
+        try {
+            return containsNearLocked(fingerprint, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 其他URL没有近似重复的指纹时，把指纹记为该URL的当前指纹，替换它之前的指纹；
+     * 有近似重复时不加入，并移除该URL之前的指纹，索引中只保留每组近似页面的第一个
+     *
+     * @param url 页面URL
+     * @param fingerprint 指纹
+     * @return 加入时返回true，其他URL已有近似重复时返回false
+     */
+    public boolean addIfAbsent(String url, long fingerprint) {
+        lock.readLock().lock();
+        try {
+            // 该URL没有旧指纹时近似重复不需要修改索引，只加读锁
+            if (!urlFingerprints.containsKey(url) && containsNearLocked(fingerprint, null)) {
+                return false;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            // 两次加锁之间其他线程可能修改了索引，重新检查
+            Long previous = urlFingerprints.get(url);
+            boolean nearDuplicate = containsNearLocked(fingerprint, previous);
+            if (previous != null) {
+                if (!nearDuplicate && previous == fingerprint) {
+                    return true;
+                }
+                urlFingerprints.remove(url);
+                release(previous);
+            }
+            if (nearDuplicate) {
+                return false;
+            }
+            urlFingerprints.put(url, fingerprint);
+            addLocked(fingerprint);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 加入指纹，不检查是否重复
+     *
+     * @param fingerprint 指纹
+     */
+    public void add(long fingerprint) {
+        lock.writeLock().lock();
+        try {
+            addLocked(fingerprint);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取有效的指纹数
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public int getTableCount() {
+        return tables.length;
+    }
+
+    /**
+     * 估算指纹占用的内存：每个指纹在每张表中8字节
+     *
+     * @return 字节数
+     */
+    public long getMemoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (size + staleCount) * tables.length * 8 + BUFFER_SIZE * 8L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找近似重复的有效指纹
+     *
+     * @param excluded 不计入的一个持有者持有的指纹，为null时都计入
+     */
+    private boolean containsNearLocked(long fingerprint, Long excluded) {
+        for (int i = 0; i < bufferSize; i++) {
+            if (Long.bitCount(buffer[i] ^ fingerprint) <= maxDistance && isLive(buffer[i], excluded)) {
+                return true;
+            }
+        }
+        for (int t = 0; t < tables.length; t++) {
+            Table table = tables[t];
+            long key = table.permute(fingerprint);
+            long low = key & table.keyMask;
+            long high = low | ~table.keyMask;
+            for (long[][] run : runs) {
+                if (table.containsNear(run[t], key, low, high, maxDistance, this, excluded)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isLive(long fingerprint, Long excluded) {
+        Integer count = owners.get(fingerprint);
+        if (count == null) {
+            return false;
+        }
+        return excluded != null && excluded == fingerprint ? count > 1 : count > 0;
+    }
+
+    private void addLocked(long fingerprint) {
+        size++;
+        Integer count = owners.get(fingerprint);
+        if (count != null) {
+            // 表中已有这个值，有效时多一个持有者，失效时恢复有效
+            owners.put(fingerprint, count + 1);
+            if (count == 0) {
+                staleCount--;
+            }
+            return;
+        }
+        owners.put(fingerprint, 1);
+        buffer[bufferSize++] = fingerprint;
+        if (bufferSize == BUFFER_SIZE) {
+            flushBuffer();
+        }
+    }
+
+    private void release(long fingerprint) {
+        size--;
+        int count = owners.get(fingerprint) - 1;
+        owners.put(fingerprint, count);
+        if (count == 0) {
+            staleCount++;
+            if (staleCount > Math.max(BUFFER_SIZE, size)) {
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * 去掉失效的指纹，用有效的指纹重建所有表
+     */
+    private void rebuild() {
+        owners.values().removeIf(count -> count == 0);
+        staleCount = 0;
+        runs.clear();
+        bufferSize = 0;
+        for (Long fingerprint : owners.keySet()) {
+            buffer[bufferSize++] = fingerprint;
+            if (bufferSize == BUFFER_SIZE) {
+                flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * 写缓冲排序成新数组，再合并大小相近的相邻数组
+     */
+    private void flushBuffer() {
+        long[][] run = new long[tables.length][];
+        for (int t = 0; t < tables.length; t++) {
+            long[] sorted = new long[bufferSize];
+            for (int i = 0; i < bufferSize; i++) {
+                sorted[i] = tables[t].permute(buffer[i]) ^ Long.MIN_VALUE;
+            }
+            Arrays.sort(sorted);
+            run[t] = sorted;
+        }
+        bufferSize = 0;
+        runs.add(run);
+        while (runs.size() >= 2 && runs.get(runs.size() - 2)[0].length <= runs.get(runs.size() - 1)[0].length * 2) {
+            long[][] last = runs.remove(runs.size() - 1);
+            long[][] previous = runs.remove(runs.size() - 1);
+            long[][] merged = new long[tables.length][];
+            for (int t = 0; t < tables.length; t++) {
+                merged[t] = merge(previous[t], last[t]);
+            }
+            runs.add(merged);
+        }
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            merged[k++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[k++] = b[j++];
+        }
+        return merged;
+    }
+
+    /**
+     * 一张置换表：选中的块移到最高位，其余块依次排在后面
+     */
+    private static final class Table {
+
+        private final int[] sourceShift;
+        private final long[] blockMask;
+        private final int[] targetShift;
+        private final long keyMask;
+
+        Table(int keyBlockMask, int[] blockStart) {
+            int blockCount = blockStart.length - 1;
+            this.sourceShift = new int[blockCount];
+            this.blockMask = new long[blockCount];
+            this.targetShift = new int[blockCount];
+            int position = 64;
+            int keyBits = 0;
+            int index = 0;
+            // 先放选中的块，再放其余块
+            for (int pass = 0; pass < 2; pass++) {
+                for (int block = 0; block < blockCount; block++) {
+                    boolean selected = (keyBlockMask & (1 << block)) != 0;
+                    if (selected != (pass == 0)) {
+                        continue;
+                    }
+                    int bits = blockStart[block + 1] - blockStart[block];
+                    position -= bits;
+                    sourceShift[index] = blockStart[block];
+                    blockMask[index] = bits == 64 ? -1L : (1L << bits) - 1;
+                    targetShift[index] = position;
+                    index++;
+                    if (selected) {
+                        keyBits += bits;
+                    }
+                }
+            }
+            this.keyMask = keyBits == 0 ? 0 : -1L << (64 - keyBits);
+        }
+
+        long permute(long fingerprint) {
+            long permuted = 0;
+            for (int i = 0; i < sourceShift.length; i++) {
+                permuted |= ((fingerprint >>> sourceShift[i]) & blockMask[i]) << targetShift[i];
+            }
+            return permuted;
+        }
+
+        long unpermute(long permuted) {
+            long fingerprint = 0;
+            for (int i = 0; i < sourceShift.length; i++) {
+                fingerprint |= ((permuted >>> targetShift[i]) & blockMask[i]) << sourceShift[i];
+            }
+            return fingerprint;
+        }
+
+        /**
+         * 在按无符号顺序排序（存储时翻转符号位）的数组中查找[low, high]区间内有效的近似指纹
+         */
+        boolean containsNear(long[] sorted, long key, long low, long high, int maxDistance,
+                             SimHashIndex index, Long excluded) {
+            long biasedKey = key ^ Long.MIN_VALUE;
+            long biasedHigh = high ^ Long.MIN_VALUE;
+            int i = lowerBound(sorted, low ^ Long.MIN_VALUE);
+            for (; i < sorted.length && sorted[i] <= biasedHigh; i++) {
+                if (Long.bitCount(sorted[i] ^ biasedKey) <= maxDistance
+                        && index.isLive(unpermute(sorted[i] ^ Long.MIN_VALUE), excluded)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int lowerBound(long[] sorted, long value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SimHashIndex{" +
+                "maxDistance=" + maxDistance +
+                ", blocks=" + blockCount +
+                ", tables=" + tables.length +
+                ", size=" + size() +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package io.leavesfly.crawler.domain;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节数组上的单字节字符视图
+ * 每个字节按ISO-8859-1映射为一个字符，不复制也不解码，
+ * 用于内容全是ASCII、且字符集与ASCII兼容的页面
+ *
+ * @author yefei.yf
+ */
+public final class ByteCharSequence implements CharSequence {
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    /**
+     * 构造函数
+     *
+     * @param bytes 字节数组，视图存在期间不应修改
+     * @param offset 起始位置
+     * @param length 长度
+     */
+    public ByteCharSequence(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length
+                    + ", array length: " + bytes.length);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new ByteCharSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -1,5 +1,8 @@
 package io.leavesfly.crawler.domain;
 
+import io.leavesfly.crawler.parse.DocumentParser;
+import org.jsoup.nodes.Document;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +25,11 @@ public class CrawlContext {
      */
     private RawPage rawPage;
     
+    /**
+     * 页面的文档树，首次使用时解析，之后共用
+     */
+    private Document document;
+    
     /**
      * 上下文属性，线程安全
      */
@@ -86,6 +94,30 @@ public class CrawlContext {
      */
     public void setRawPage(RawPage rawPage) {
         this.rawPage = rawPage;
+        this.document = null;
+    }
+    
+    /**
+     * 获取页面的文档树
+     * 首次调用时解析原始页面并缓存，策略、URL过滤器和字段提取器共用同一棵树，不再各自解析。
+     * 文档树可被调用方修改，需要修改时应先复制
+     * 
+     * @return 文档树，没有页面内容时返回null
+     */
+    public Document getDocument() {
+        if (document == null && rawPage != null && rawPage.hasContent()) {
+            document = DocumentParser.parse(rawPage);
+        }
+        return document;
+    }
+    
+    /**
+     * 是否已经解析过文档树
+     * 
+     * @return 是否已解析
+     */
+    public boolean isDocumentParsed() {
+        return document != null;
     }
     
     /**
@@ -1,16 +1,87 @@
 package io.leavesfly.crawler.domain;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.leavesfly.crawler.util.CharsetDetector;
+
 public class RawPage {
+	private static final String ASCII_PROBE = "<a href=\"/\\\">~09AZaz";
+
 	private String url;
 	private String contentCharSet;
 	private String content;
 
+	/**
+	 * 抓取得到的原始字节，字符串内容在首次访问时才解码
+	 */
+	private byte[] body;
+
+	/**
+	 * 内容视图缓存
+	 */
+	private CharSequence contentView;
+
+	/**
+	 * 响应头，名称不区分大小写
+	 */
+	private Map<String, String> headers = Collections.emptyMap();
+
+	/**
+	 * 条件请求得到304响应，页面自上次抓取后没有变化，没有内容
+	 */
+	private boolean notModified;
+
 	public RawPage(String url, String contentCharSet, String content) {
 		this.url = url;
 		this.contentCharSet = contentCharSet;
 		this.content = content;
 	}
 
+	private RawPage(String url, byte[] body, String declaredCharset) {
+		this.url = url;
+		this.body = body;
+		this.contentCharSet = declaredCharset;
+	}
+
+	/**
+	 * 由原始字节创建页面
+	 * 响应头未声明字符集时，首次访问内容或字符集时再从BOM和meta标签识别
+	 * 
+	 * @param url 页面URL
+	 * @param body 页面字节，创建后不应再修改
+	 * @param declaredCharset 响应头声明的字符集，可以为null
+	 * @return 页面
+	 */
+	public static RawPage fromBytes(String url, byte[] body, String declaredCharset) {
+		return new RawPage(url, body, declaredCharset);
+	}
+
+	/**
+	 * 创建表示304响应的页面，内容为空
+	 * 
+	 * @param url 页面URL
+	 * @return 页面
+	 */
+	public static RawPage notModified(String url) {
+		RawPage rawPage = new RawPage(url, new byte[0], null);
+		rawPage.notModified = true;
+		return rawPage;
+	}
+
+	/**
+	 * 是否为304响应，此时页面没有内容，应沿用上次抓取的结果
+	 * 
+	 * @return 是否未修改
+	 */
+	public boolean isNotModified() {
+		return notModified;
+	}
+
 	public String getUrl() {
 		return url;
 	}
@@ -19,20 +90,188 @@ public class RawPage {
 		this.url = url;
 	}
 
+	/**
+	 * 获取响应头
+	 * 
+	 * @return 只读的响应头，名称不区分大小写，没有时返回空表
+	 */
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * 设置响应头，同名的多个值应事先以逗号合并
+	 * 
+	 * @param headers 响应头，可以为null
+	 */
+	public void setHeaders(Map<String, String> headers) {
+		if (headers == null || headers.isEmpty()) {
+			this.headers = Collections.emptyMap();
+			return;
+		}
+		Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		copy.putAll(headers);
+		this.headers = Collections.unmodifiableMap(copy);
+	}
+
+	/**
+	 * 获取响应头的值
+	 * 
+	 * @param name 名称，不区分大小写
+	 * @return 值，不存在时返回null
+	 */
+	public String getHeader(String name) {
+		return headers.get(name);
+	}
+
 	public String getContentCharset() {
+		if (contentCharSet == null && body != null) {
+			contentCharSet = CharsetDetector.detect(body, body.length, null).name();
+		}
 		return contentCharSet;
 	}
 
 	public void setContentCharset(String contentCharSet) {
 		this.contentCharSet = contentCharSet;
+		if (body != null) {
+			// 按新的字符集重新解码
+			content = null;
+			contentView = null;
+		}
 	}
 
 	public String getContent() {
+		if (content == null && body != null) {
+			content = new String(body, charset());
+		}
 		return content;
 	}
 
 	public void setContent(String content) {
 		this.content = content;
+		this.body = null;
+		this.contentView = null;
+	}
+
+	/**
+	 * 是否有内容，不触发解码
+	 * 
+	 * @return 是否有内容
+	 */
+	public boolean hasContent() {
+		return body != null || content != null;
+	}
+
+	/**
+	 * 获取只读的内容视图
+	 * 字符集是UTF-8或与ASCII兼容的单字节编码时，返回字节上的字符视图，ASCII部分不解码也不复制，
+	 * 只解码非ASCII段，大部分是ASCII的中文页面也不需要完整解码；
+	 * 其他与ASCII兼容的多字节编码（如GBK）只有全是ASCII时使用字节视图，否则直接解码。结果会被缓存
+	 * 
+	 * @return 内容视图，没有内容时返回null
+	 */
+	public CharSequence getContentView() {
+		if (body == null) {
+			return content;
+		}
+		if (contentView == null) {
+			Charset charset = content == null ? charset() : null;
+			if (charset != null && isAsciiCompatible(charset)) {
+				if (isSegmentable(charset)) {
+					contentView = SegmentedCharSequence.of(body, charset);
+				} else if (isAscii(body)) {
+					contentView = new ByteCharSequence(body, 0, body.length);
+				}
+			}
+			if (contentView == null) {
+				contentView = getContent();
+			}
+		}
+		return contentView;
+	}
+
+	/**
+	 * 获取页面字节的只读缓冲区，不复制原始字节
+	 * 
+	 * @return 字节缓冲区，没有内容时返回null
+	 */
+	public ByteBuffer getBodyBuffer() {
+		byte[] bytes = getBody();
+		return bytes != null ? ByteBuffer.wrap(bytes).asReadOnlyBuffer() : null;
+	}
+
+	/**
+	 * 获取页面字节数
+	 * 
+	 * @return 字节数，没有内容时返回0
+	 */
+	public int getBodyLength() {
+		byte[] bytes = getBody();
+		return bytes != null ? bytes.length : 0;
+	}
+
+	/**
+	 * 获取页面字节
+	 * 由原始字节创建的页面直接返回原始字节（不复制，调用方不应修改），否则按字符集编码内容
+	 * 
+	 * @return 页面字节，没有内容时返回null
+	 */
+	public byte[] getBody() {
+		if (body != null) {
+			return body;
+		}
+		return content != null ? content.getBytes(charset()) : null;
+	}
+
+	/**
+	 * 是否由原始字节创建
+	 * 
+	 * @return 是否持有原始字节
+	 */
+	public boolean hasRawBody() {
+		return body != null;
+	}
+
+	private static boolean isAscii(byte[] bytes) {
+		for (byte b : bytes) {
+			if (b < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * ASCII字符在该字符集中是否按单字节原样编码（UTF-16等多字节编码不是）
+	 */
+	private static boolean isAsciiCompatible(Charset charset) {
+		if (!charset.canEncode() || !charset.contains(StandardCharsets.US_ASCII)) {
+			return false;
+		}
+		byte[] probe = ASCII_PROBE.getBytes(charset);
+		return probe.length == ASCII_PROBE.length() && new String(probe, StandardCharsets.US_ASCII).equals(ASCII_PROBE);
+	}
+
+	/**
+	 * 非ASCII字节是否不会与ASCII字节组成一个字符，可以按连续的非ASCII字节段分别解码
+	 */
+	private static boolean isSegmentable(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1.0f;
+	}
+
+	private Charset charset() {
+		if (body != null) {
+			return CharsetDetector.detect(body, body.length, getContentCharset());
+		}
+		Charset charset = null;
+		if (contentCharSet != null) {
+			try {
+				charset = Charset.forName(contentCharSet);
+			} catch (IllegalArgumentException e) {
+				charset = null;
+			}
+		}
+		return charset != null ? charset : StandardCharsets.UTF_8;
 	}
 
 }
@@ -0,0 +1,191 @@
+package io.leavesfly.crawler.domain;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * 字节数组上按段解码的字符视图
+ * ASCII字节直接映射为字符，只有连续的非ASCII字节段解码后保存，
+ * 用于大部分是ASCII、且非ASCII字节不会与ASCII字节组成一个字符的编码（UTF-8和单字节编码）。
+ * 中文页面的标签、属性和脚本通常是ASCII，只需要解码正文文字
+ *
+ * @author yefei.yf
+ */
+public final class SegmentedCharSequence implements CharSequence {
+
+    private final byte[] bytes;
+    private final Charset charset;
+    private final int length;
+    private final int segmentCount;
+
+    /**
+     * 第k个非ASCII段在视图中的起始字符位置、解码后的字符数、在原始字节中的结束位置
+     * 以及解码后的字符在decoded中的起始位置
+     */
+    private final int[] charStarts;
+    private final int[] charLengths;
+    private final int[] byteEnds;
+    private final int[] decodedOffsets;
+    private final String decoded;
+
+    /**
+     * 最近访问的段，顺序访问时不必二分查找。多线程访问时只影响命中率
+     */
+    private int lastSegment = -1;
+
+    private SegmentedCharSequence(byte[] bytes, Charset charset, int length, int segmentCount, int[] charStarts,
+                                  int[] charLengths, int[] byteEnds, int[] decodedOffsets, String decoded) {
+        this.bytes = bytes;
+        this.charset = charset;
+        this.length = length;
+        this.segmentCount = segmentCount;
+        this.charStarts = charStarts;
+        this.charLengths = charLengths;
+        this.byteEnds = byteEnds;
+        this.decodedOffsets = decodedOffsets;
+        this.decoded = decoded;
+    }
+
+    /**
+     * 创建字节上的字符视图，全是ASCII时返回不解码的{@link ByteCharSequence}
+     *
+     * @param bytes 字节数组，视图存在期间不应修改
+     * @param charset 字符集，调用方应确认是UTF-8或与ASCII兼容的单字节编码
+     * @return 字符视图
+     */
+    public static CharSequence of(byte[] bytes, Charset charset) {
+        int capacity = 16;
+        int[] charStarts = new int[capacity];
+        int[] charLengths = new int[capacity];
+        int[] byteEnds = new int[capacity];
+        int[] decodedOffsets = new int[capacity];
+        StringBuilder decoded = null;
+        int segmentCount = 0;
+        int length = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            if (bytes[i] >= 0) {
+                i++;
+                length++;
+                continue;
+            }
+            int start = i;
+            while (i < bytes.length && bytes[i] < 0) {
+                i++;
+            }
+            if (segmentCount == capacity) {
+                capacity *= 2;
+                charStarts = Arrays.copyOf(charStarts, capacity);
+                charLengths = Arrays.copyOf(charLengths, capacity);
+                byteEnds = Arrays.copyOf(byteEnds, capacity);
+                decodedOffsets = Arrays.copyOf(decodedOffsets, capacity);
+            }
+            if (decoded == null) {
+                decoded = new StringBuilder();
+            }
+            String segment = new String(bytes, start, i - start, charset);
+            charStarts[segmentCount] = length;
+            charLengths[segmentCount] = segment.length();
+            byteEnds[segmentCount] = i;
+            decodedOffsets[segmentCount] = decoded.length();
+            decoded.append(segment);
+            length += segment.length();
+            segmentCount++;
+        }
+        if (segmentCount == 0) {
+            return new ByteCharSequence(bytes, 0, bytes.length);
+        }
+        return new SegmentedCharSequence(bytes, charset, length, segmentCount, charStarts, charLengths,
+                byteEnds, decodedOffsets, decoded.toString());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+        int k = segmentOf(index);
+        if (k < 0) {
+            // 第一个非ASCII段之前，字符位置与字节位置相同
+            return (char) bytes[index];
+        }
+        int offset = index - charStarts[k];
+        if (offset < charLengths[k]) {
+            return decoded.charAt(decodedOffsets[k] + offset);
+        }
+        return (char) bytes[byteEnds[k] + offset - charLengths[k]];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(charAt(i));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, charset);
+    }
+
+    /**
+     * 获取解码保存的字符数
+     *
+     * @return 非ASCII段解码后的字符总数
+     */
+    public int getDecodedLength() {
+        return decoded.length();
+    }
+
+    /**
+     * 查找位置所在或之前最近的非ASCII段
+     *
+     * @return 段序号，位置在第一个段之前时返回-1
+     */
+    private int segmentOf(int index) {
+        int k = lastSegment;
+        if (covers(k, index)) {
+            return k;
+        }
+        if (covers(k + 1, index)) {
+            k = k + 1;
+        } else {
+            k = search(index);
+        }
+        lastSegment = k;
+        return k;
+    }
+
+    private boolean covers(int k, int index) {
+        if (k >= segmentCount) {
+            return false;
+        }
+        return (k < 0 || charStarts[k] <= index) && (k + 1 >= segmentCount || index < charStarts[k + 1]);
+    }
+
+    private int search(int index) {
+        int low = 0;
+        int high = segmentCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (charStarts[mid] <= index) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+}
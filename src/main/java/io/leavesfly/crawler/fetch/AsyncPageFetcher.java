@@ -0,0 +1,360 @@
+package io.leavesfly.crawler.fetch;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import io.leavesfly.crawler.fetch.validator.PageValidators;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 基于httpclient5异步客户端的抓取器
+ * 少量IO线程通过非阻塞IO驱动全部请求，连接池复用连接，
+ * HTTPS站点通过ALPN协商HTTP/2，同一主机的请求在一个连接上多路复用。
+ * 同时进行中的请求数由信号量限制，达到上限时提交请求的线程阻塞等待，形成背压。
+ * 响应体按字节累积，超过最大页面大小时中止请求。
+ * 平台线程模式下引擎通过{@link #fetchAsync(String)}的完成回调驱动抓取，少量工作线程即可维持大量并发请求；
+ * {@link #downloadPage(String)}阻塞等待响应，供逐个URL处理的调用方（如虚拟线程模式）使用
+ *
+ * @author yefei.yf
+ */
+public class AsyncPageFetcher extends Fetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncPageFetcher.class);
+
+    private final CloseableHttpAsyncClient client;
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final Semaphore inFlightPermits;
+    private final int maxInFlightRequests;
+    private final int maxPageSize;
+    private final String userAgent;
+
+    /**
+     * 构造函数
+     *
+     * @param config 爬虫配置
+     */
+    public AsyncPageFetcher(CrawlerConfig config) {
+        this.maxInFlightRequests = config.getMaxInFlightRequests();
+        this.inFlightPermits = new Semaphore(maxInFlightRequests);
+        this.maxPageSize = config.getMaxPageSize();
+        this.userAgent = config.getUserAgent();
+
+        this.connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(config.getConnectionTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(config.getSocketTimeout()))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .build();
+
+        HttpAsyncClientBuilder builder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(config.getSocketTimeout()))
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(config.getSocketTimeout()))
+                        .build())
+                .setUserAgent(userAgent);
+        if (config.isUseProxy()) {
+            builder.setProxy(new HttpHost(config.getProxyHost(), config.getProxyPort()));
+        }
+
+        this.client = builder.build();
+        this.client.start();
+        logger.info("异步抓取器已启动，最大并发请求数: {}, 最大连接数: {}",
+                maxInFlightRequests, config.getMaxConnections());
+    }
+
+    /**
+     * 异步获取页面
+     * 进行中的请求达到上限时阻塞等待
+     *
+     * @param url 目标URL
+     * @return 页面结果，条件请求得到304时为未修改的页面，其他非200状态码时结果为null，网络异常或页面过大时异常完成
+     * @throws InterruptedException 等待许可时被中断
+     */
+    public CompletableFuture<RawPage> fetchAsync(String url) throws InterruptedException {
+        inFlightPermits.acquire();
+        CompletableFuture<RawPage> future = new CompletableFuture<>();
+        try {
+            PageValidators validators = conditionalValidators(url);
+            SimpleRequestBuilder requestBuilder = SimpleRequestBuilder.get(url)
+                    .setHeader(HttpHeaders.USER_AGENT, userAgent);
+            for (Map.Entry<String, String> header : requestHeaders(url).entrySet()) {
+                requestBuilder.setHeader(header.getKey(), header.getValue());
+            }
+            if (validators != null) {
+                if (validators.getEtag() != null) {
+                    requestBuilder.setHeader(HttpHeaders.IF_NONE_MATCH, validators.getEtag());
+                }
+                if (validators.getLastModified() != null) {
+                    requestBuilder.setHeader(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+                }
+            }
+            SimpleHttpRequest request = requestBuilder.build();
+            long start = System.nanoTime();
+            client.execute(SimpleRequestProducer.create(request),
+                    new BoundedPageConsumer(this, url, maxPageSize, validators != null),
+                    new FutureCallback<RawPage>() {
+                @Override
+                public void completed(RawPage page) {
+                    inFlightPermits.release();
+                    recordResponse(page, validators, System.nanoTime() - start);
+                    future.complete(page);
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    inFlightPermits.release();
+                    future.completeExceptionally(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    inFlightPermits.release();
+                    future.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public RawPage downloadPage(String url) {
+        try {
+            return fetchAsync(url).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PageTooLargeException) {
+                logger.warn("页面过大，已中止下载: {}, 上限: {} 字节", url, maxPageSize);
+            } else {
+                logger.error("异步抓取失败: {}, 原因: {}", url, e.getCause().toString());
+            }
+            return null;
+        } catch (Exception e) {
+            logger.error("异步抓取失败: {}", url, e);
+            return null;
+        }
+    }
+
+    @Override
+    public int storePage(RawPage rawPage) {
+        CompletableFuture<Integer> storedState = storePageAsync(rawPage);
+        return storedState.isDone() ? storedState.join() : RawPageStore.STORE_SUCCESS;
+    }
+
+    /**
+     * 获取进行中的请求数
+     *
+     * @return 请求数
+     */
+    public int getInFlightRequests() {
+        return maxInFlightRequests - inFlightPermits.availablePermits();
+    }
+
+    /**
+     * 获取最大并发请求数
+     *
+     * @return 最大请求数
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    /**
+     * 获取连接池统计
+     *
+     * @return 连接池统计（租用、空闲、等待的连接数）
+     */
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void close() {
+        client.close(CloseMode.GRACEFUL);
+        super.close();
+        logger.info("异步抓取器已关闭");
+    }
+
+    /**
+     * 有大小上限的响应消费者
+     * 按字节累积响应体，超过上限时抛出异常中止请求，非200响应的内容直接丢弃，
+     * 条件请求得到的304响应返回未修改的页面。
+     * 长度未知时在缓冲区池的缓冲区中累积，完成后复制出精确大小的数组；
+     * 压缩传输的响应体随到随解压，上限按解压后的字节数计算
+     */
+    private static final class BoundedPageConsumer extends AbstractBinResponseConsumer<RawPage> {
+
+        private final Fetcher fetcher;
+        private final String url;
+        private final int maxBytes;
+        private final boolean conditional;
+        private int statusCode;
+        private String declaredCharset;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private final ByteBufferPool pool = BufferPools.heapPool();
+        private ByteBuffer buffer;
+        private ContentDecoder decoder;
+
+        private BoundedPageConsumer(Fetcher fetcher, String url, int maxBytes, boolean conditional) {
+            this.fetcher = fetcher;
+            this.url = url;
+            this.maxBytes = maxBytes;
+            this.conditional = conditional;
+        }
+
+        @Override
+        protected void start(HttpResponse response, ContentType contentType) throws IOException {
+            statusCode = response.getCode();
+            for (Header header : response.getHeaders()) {
+                headers.merge(header.getName(), header.getValue(), (a, b) -> a + ", " + b);
+            }
+            if (contentType != null && contentType.getCharset() != null) {
+                declaredCharset = contentType.getCharset().name();
+            }
+            if (statusCode != HttpStatus.SC_OK) {
+                return;
+            }
+            Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            if (contentEncoding != null && !ContentDecoder.isIdentity(contentEncoding.getValue())) {
+                decoder = ContentDecoder.create(contentEncoding.getValue(), maxBytes, pool);
+                ContentDecoder.removeEncodingHeaders(headers);
+                return;
+            }
+            long contentLength = contentLength(response);
+            if (contentLength > maxBytes) {
+                throw new PageTooLargeException(maxBytes);
+            }
+            buffer = contentLength >= 0
+                    ? ByteBuffer.allocate((int) contentLength)
+                    : pool.acquire(Math.min(BoundedBodyReader.INITIAL_BUFFER_SIZE, maxBytes));
+        }
+
+        @Override
+        protected int capacityIncrement() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+            if (statusCode != HttpStatus.SC_OK) {
+                src.position(src.limit());
+                return;
+            }
+            if (decoder != null) {
+                decoder.write(src);
+                return;
+            }
+            if ((long) buffer.position() + src.remaining() > maxBytes) {
+                throw new PageTooLargeException(maxBytes);
+            }
+            if (src.remaining() > buffer.remaining()) {
+                buffer = pool.grow(buffer, buffer.position() + src.remaining());
+            }
+            buffer.put(src);
+        }
+
+        @Override
+        protected RawPage buildResult() {
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED && conditional) {
+                RawPage page = RawPage.notModified(url);
+                page.setHeaders(headers);
+                return page;
+            }
+            if (statusCode != HttpStatus.SC_OK) {
+                logger.error("HTTP请求失败: {}, 状态码: {}", url, statusCode);
+                return null;
+            }
+            byte[] body;
+            if (decoder != null) {
+                try {
+                    body = decoder.finish();
+                } catch (IOException e) {
+                    logger.error("响应体解压失败: {}, 原因: {}", url, e.getMessage());
+                    return null;
+                }
+                fetcher.recordTransfer(decoder.getEncodedBytes(), body.length, true);
+            } else {
+                body = buffer.position() == buffer.capacity()
+                        ? buffer.array()
+                        : Arrays.copyOf(buffer.array(), buffer.position());
+                fetcher.recordTransfer(body.length, body.length, false);
+            }
+            RawPage page = RawPage.fromBytes(url, body, declaredCharset);
+            page.setHeaders(headers);
+            return page;
+        }
+
+        @Override
+        public void releaseResources() {
+            // 数组已交给RawPage的缓冲区不能归还
+            if (buffer != null && buffer.position() != buffer.capacity()) {
+                pool.release(buffer);
+            }
+            buffer = null;
+            if (decoder != null) {
+                decoder.close();
+                decoder = null;
+            }
+        }
+
+        private static long contentLength(HttpResponse response) {
+            Header header = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+            if (header == null) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(header.getValue().trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+}
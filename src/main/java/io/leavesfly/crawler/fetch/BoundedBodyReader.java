@@ -0,0 +1,131 @@
+package io.leavesfly.crawler.fetch;
+
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 有大小上限的响应体读取
+ * 直接按字节读取响应流，超过上限立即中止，不把整个响应体解码成字符串。
+ * 已知Content-Length时一次分配精确大小的数组；未知时先读入缓冲区池中的缓冲区，
+ * 按需换成更大级别，读完后复制出精确大小的数组，中间缓冲区归还给池
+ *
+ * @author yefei.yf
+ */
+public final class BoundedBodyReader {
+
+    /**
+     * 长度未知时的初始缓冲区大小
+     */
+    static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private BoundedBodyReader() {
+    }
+
+    /**
+     * 读取响应体
+     *
+     * @param in 响应流
+     * @param contentLength 响应头声明的长度，未知时为负数
+     * @param maxBytes 最大允许字节数
+     * @return 响应体字节，数组长度等于实际读取的字节数
+     * @throws PageTooLargeException 声明或实际长度超过上限
+     * @throws IOException 读取失败
+     */
+    public static byte[] read(InputStream in, long contentLength, int maxBytes) throws IOException {
+        return read(in, contentLength, maxBytes, BufferPools.heapPool());
+    }
+
+    /**
+     * 使用指定的缓冲区池读取响应体
+     *
+     * @param in 响应流
+     * @param contentLength 响应头声明的长度，未知时为负数
+     * @param maxBytes 最大允许字节数
+     * @param pool 堆内存缓冲区池
+     * @return 响应体字节，数组长度等于实际读取的字节数
+     * @throws PageTooLargeException 声明或实际长度超过上限
+     * @throws IOException 读取失败
+     */
+    public static byte[] read(InputStream in, long contentLength, int maxBytes, ByteBufferPool pool)
+            throws IOException {
+        if (contentLength > maxBytes) {
+            throw new PageTooLargeException(maxBytes);
+        }
+        if (contentLength >= 0) {
+            return readExactly(in, (int) contentLength);
+        }
+
+        // 多读一个字节用于判断是否超限
+        long readLimit = (long) maxBytes + 1;
+        ByteBuffer buffer = pool.acquire((int) Math.min(INITIAL_BUFFER_SIZE, readLimit));
+        try {
+            buffer.limit((int) Math.min(buffer.capacity(), readLimit));
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    if (buffer.position() > maxBytes) {
+                        throw new PageTooLargeException(maxBytes);
+                    }
+                    buffer = pool.grow(buffer, (int) Math.min((long) buffer.capacity() << 1, readLimit));
+                    buffer.limit((int) Math.min(buffer.capacity(), readLimit));
+                }
+                int n = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                if (n < 0) {
+                    break;
+                }
+                buffer.position(buffer.position() + n);
+            }
+            if (buffer.position() > maxBytes) {
+                throw new PageTooLargeException(maxBytes);
+            }
+            return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset(),
+                    buffer.arrayOffset() + buffer.position());
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 读取压缩的响应体，边读边解压
+     *
+     * @param in 响应流
+     * @param decoder 解压器，解压后的大小上限由解压器约束
+     * @return 解压后的页面字节
+     * @throws PageTooLargeException 解压后超过上限
+     * @throws IOException 读取失败或压缩数据错误
+     */
+    public static byte[] readEncoded(InputStream in, ContentDecoder decoder) throws IOException {
+        ByteBufferPool pool = BufferPools.heapPool();
+        ByteBuffer chunk = pool.acquire(INITIAL_BUFFER_SIZE);
+        try {
+            byte[] array = chunk.array();
+            int n;
+            while ((n = in.read(array, chunk.arrayOffset(), chunk.capacity())) >= 0) {
+                decoder.write(array, chunk.arrayOffset(), n);
+            }
+            return decoder.finish();
+        } finally {
+            pool.release(chunk);
+        }
+    }
+
+    /**
+     * 按声明长度读取，服务端提前结束时返回已读部分
+     */
+    private static byte[] readExactly(InputStream in, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        int count = 0;
+        while (count < length) {
+            int n = in.read(buffer, count, length - count);
+            if (n < 0) {
+                return Arrays.copyOf(buffer, count);
+            }
+            count += n;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,343 @@
+package io.leavesfly.crawler.fetch;
+
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 压缩响应体的流式解压器
+ * 按Content-Encoding把分段到达的压缩数据直接解压到缓冲区池的缓冲区中，不先拼出完整的压缩数据，
+ * 同步和异步抓取器共用。支持gzip和deflate（兼容zlib封装和裸deflate两种格式），
+ * gzip结束时校验尾部的CRC32和长度，解压后的字节数受页面大小上限约束，防止压缩炸弹。用完必须关闭以释放Inflater的本地内存
+ *
+ * @author yefei.yf
+ */
+public final class ContentDecoder implements Closeable {
+
+    /**
+     * 抓取器能解压的编码，作为Accept-Encoding发送
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /**
+     * gzip头部（含可选的文件名、注释）的最大长度
+     */
+    private static final int MAX_HEADER_LENGTH = 8 * 1024;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    /**
+     * gzip尾部长度：CRC32和原始长度各4字节，小端序
+     */
+    private static final int TRAILER_LENGTH = 8;
+
+    private final boolean gzip;
+    private final int maxBytes;
+    private final ByteBufferPool pool;
+    private ByteBuffer output;
+    private Inflater inflater;
+
+    /**
+     * 确定解压格式之前收到的头部字节
+     */
+    private byte[] header = new byte[0];
+    private long encodedBytes;
+
+    private final CRC32 crc = new CRC32();
+    private final byte[] trailer = new byte[TRAILER_LENGTH];
+    private int trailerLength;
+
+    private ContentDecoder(boolean gzip, int maxBytes, ByteBufferPool pool) {
+        this.gzip = gzip;
+        this.maxBytes = maxBytes;
+        this.pool = pool;
+        // 多留一个字节用于判断是否超限
+        this.output = pool.acquire((int) Math.min(BoundedBodyReader.INITIAL_BUFFER_SIZE, (long) maxBytes + 1));
+        this.output.limit((int) Math.min(output.capacity(), (long) maxBytes + 1));
+    }
+
+    /**
+     * 是否未压缩
+     *
+     * @param contentEncoding Content-Encoding响应头，可以为null
+     * @return 为空或identity时返回true
+     */
+    public static boolean isIdentity(String contentEncoding) {
+        return contentEncoding == null || contentEncoding.trim().isEmpty()
+                || "identity".equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    /**
+     * 创建解压器
+     *
+     * @param contentEncoding Content-Encoding响应头
+     * @param maxBytes 解压后的最大字节数
+     * @param pool 输出缓冲区所在的池
+     * @return 解压器
+     * @throws ZipException 不支持的编码
+     */
+    public static ContentDecoder create(String contentEncoding, int maxBytes, ByteBufferPool pool)
+            throws ZipException {
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return new ContentDecoder(true, maxBytes, pool);
+        }
+        if ("deflate".equals(encoding)) {
+            return new ContentDecoder(false, maxBytes, pool);
+        }
+        throw new ZipException("不支持的内容编码: " + contentEncoding);
+    }
+
+    /**
+     * 解压后响应头中的Content-Encoding、Content-Length不再对应页面内容，一并删除
+     *
+     * @param headers 响应头
+     */
+    public static void removeEncodingHeaders(Map<String, String> headers) {
+        Iterator<String> names = headers.keySet().iterator();
+        while (names.hasNext()) {
+            String name = names.next();
+            if ("Content-Encoding".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name)) {
+                names.remove();
+            }
+        }
+    }
+
+    /**
+     * 写入一段压缩数据
+     *
+     * @param src 压缩数据，读完后position移到limit
+     * @throws IOException 数据格式错误或解压后超过上限
+     */
+    public void write(ByteBuffer src) throws IOException {
+        if (src.hasArray()) {
+            write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+            src.position(src.limit());
+            return;
+        }
+        byte[] chunk = new byte[src.remaining()];
+        src.get(chunk);
+        write(chunk, 0, chunk.length);
+    }
+
+    /**
+     * 写入一段压缩数据
+     *
+     * @param b 压缩数据
+     * @param off 起始位置
+     * @param len 长度
+     * @throws IOException 数据格式错误或解压后超过上限
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        encodedBytes += len;
+        if (inflater == null) {
+            byte[] pending = Arrays.copyOf(header, header.length + len);
+            System.arraycopy(b, off, pending, header.length, len);
+            int start = gzip ? gzipHeaderLength(pending) : deflateFormat(pending);
+            if (start < 0) {
+                if (pending.length > MAX_HEADER_LENGTH) {
+                    throw new ZipException("gzip头部过长");
+                }
+                header = pending;
+                return;
+            }
+            header = null;
+            inflate(pending, start, pending.length - start);
+            return;
+        }
+        inflate(b, off, len);
+    }
+
+    /**
+     * 结束解压
+     *
+     * @return 解压后的字节，数组长度等于实际字节数
+     * @throws IOException 压缩数据不完整、校验失败或解压后超过上限
+     */
+    public byte[] finish() throws IOException {
+        // 部分服务端对空响应体也声明了压缩编码
+        if (encodedBytes == 0) {
+            return new byte[0];
+        }
+        if (inflater == null || !inflater.finished()) {
+            throw new ZipException("压缩数据不完整");
+        }
+        if (output.position() > maxBytes) {
+            throw new PageTooLargeException(maxBytes);
+        }
+        if (gzip) {
+            verifyTrailer();
+        }
+        return Arrays.copyOfRange(output.array(), output.arrayOffset(), output.arrayOffset() + output.position());
+    }
+
+    /**
+     * 获取收到的压缩字节数
+     */
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    /**
+     * 释放Inflater并把输出缓冲区归还给池
+     */
+    @Override
+    public void close() {
+        if (inflater != null) {
+            inflater.end();
+        }
+        if (output != null) {
+            pool.release(output);
+            output = null;
+        }
+    }
+
+    private void inflate(byte[] b, int off, int len) throws IOException {
+        // 压缩流结束后的gzip尾部（CRC32和长度）不参与解压
+        if (inflater.finished()) {
+            collectTrailer(b, off, len);
+            return;
+        }
+        inflater.setInput(b, off, len);
+        try {
+            while (!inflater.finished()) {
+                if (!output.hasRemaining()) {
+                    if (output.position() > maxBytes) {
+                        throw new PageTooLargeException(maxBytes);
+                    }
+                    output = pool.grow(output, (int) Math.min((long) output.capacity() << 1, (long) maxBytes + 1));
+                    output.limit((int) Math.min(output.capacity(), (long) maxBytes + 1));
+                }
+                int n = inflater.inflate(output.array(), output.arrayOffset() + output.position(), output.remaining());
+                if (gzip) {
+                    crc.update(output.array(), output.arrayOffset() + output.position(), n);
+                }
+                output.position(output.position() + n);
+                if (n == 0) {
+                    if (inflater.needsDictionary()) {
+                        throw new ZipException("deflate数据需要预设字典");
+                    }
+                    if (inflater.needsInput()) {
+                        break;
+                    }
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("压缩数据格式错误: " + e.getMessage());
+        }
+        if (output.position() > maxBytes) {
+            throw new PageTooLargeException(maxBytes);
+        }
+        if (inflater.finished()) {
+            int remaining = inflater.getRemaining();
+            collectTrailer(b, off + len - remaining, remaining);
+        }
+    }
+
+    /**
+     * 保存压缩流之后的gzip尾部，尾部之后的数据（如拼接的其他gzip成员）忽略
+     */
+    private void collectTrailer(byte[] b, int off, int len) {
+        if (!gzip) {
+            return;
+        }
+        int n = Math.min(len, TRAILER_LENGTH - trailerLength);
+        System.arraycopy(b, off, trailer, trailerLength, n);
+        trailerLength += n;
+    }
+
+    private void verifyTrailer() throws ZipException {
+        if (trailerLength < TRAILER_LENGTH) {
+            throw new ZipException("gzip尾部不完整");
+        }
+        if (readUnsignedInt(trailer, 0) != crc.getValue()) {
+            throw new ZipException("gzip数据CRC32校验失败");
+        }
+        if (readUnsignedInt(trailer, 4) != (inflater.getBytesWritten() & 0xFFFFFFFFL)) {
+            throw new ZipException("gzip数据长度校验失败");
+        }
+    }
+
+    private static long readUnsignedInt(byte[] data, int pos) {
+        return (data[pos] & 0xFFL) | (data[pos + 1] & 0xFFL) << 8
+                | (data[pos + 2] & 0xFFL) << 16 | (data[pos + 3] & 0xFFL) << 24;
+    }
+
+    /**
+     * 解析gzip头部，创建Inflater
+     *
+     * @return 压缩数据的起始位置，头部不完整时返回-1
+     */
+    private int gzipHeaderLength(byte[] data) throws ZipException {
+        if (data.length < 10) {
+            return -1;
+        }
+        if ((data[0] & 0xFF) != 0x1F || (data[1] & 0xFF) != 0x8B || data[2] != 8) {
+            throw new ZipException("不是gzip数据");
+        }
+        int flags = data[3] & 0xFF;
+        int pos = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (pos + 2 > data.length) {
+                return -1;
+            }
+            pos += 2 + ((data[pos] & 0xFF) | (data[pos + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            pos = skipZeroTerminated(data, pos);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            pos = skipZeroTerminated(data, pos);
+        }
+        if ((flags & FHCRC) != 0 && pos >= 0) {
+            pos += 2;
+        }
+        if (pos < 0 || pos > data.length) {
+            return -1;
+        }
+        inflater = new Inflater(true);
+        return pos;
+    }
+
+    private static int skipZeroTerminated(byte[] data, int pos) {
+        if (pos < 0) {
+            return -1;
+        }
+        for (int i = pos; i < data.length; i++) {
+            if (data[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按前两个字节区分zlib封装和裸deflate，创建Inflater
+     * 规范要求deflate编码带zlib封装，但不少服务端直接发送裸deflate数据
+     *
+     * @return 压缩数据的起始位置，数据不足两个字节时返回-1
+     */
+    private int deflateFormat(byte[] data) {
+        if (data.length < 2) {
+            return -1;
+        }
+        int cmf = data[0] & 0xFF;
+        int flg = data[1] & 0xFF;
+        boolean zlib = (cmf & 0x0F) == 8 && (cmf << 8 | flg) % 31 == 0;
+        inflater = new Inflater(!zlib);
+        return 0;
+    }
+}
@@ -3,14 +3,25 @@ package io.leavesfly.crawler.fetch;
 import io.leavesfly.crawler.constant.FetcherConstant;
 import io.leavesfly.crawler.fetch.proxy.ProxyItem;
 import io.leavesfly.crawler.fetch.store.RawPageStore;
+import io.leavesfly.crawler.fetch.store.RawPageStoreFactory;
+import io.leavesfly.crawler.fetch.validator.PageValidators;
+import io.leavesfly.crawler.fetch.validator.ValidatorCache;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.leavesfly.crawler.domain.RawPage;
 import io.leavesfly.crawler.fetch.proxy.ProxyUtil;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
 /**
  * 抽象获取器类
  * 提供网页获取的基础功能
@@ -22,6 +33,31 @@ public abstract class Fetcher {
 	public static final HttpClient httpClient = new HttpClient();
 	private static final Logger logger = LoggerFactory.getLogger(Fetcher.class);
 
+	/**
+	 * 页面存储，所有工作线程共用，随抓取器一起关闭
+	 */
+	private volatile RawPageStore rawPageStore;
+
+	/**
+	 * 条件请求的校验信息缓存，未设置时总是完整下载
+	 */
+	private volatile ValidatorCache validatorCache;
+
+	/**
+	 * 按URL提供请求头，一般来自匹配的爬取策略
+	 */
+	private volatile Function<String, Map<String, String>> requestHeaderProvider;
+
+	/**
+	 * 是否请求压缩传输
+	 */
+	private volatile boolean acceptCompression = true;
+
+	private final LongAdder responses = new LongAdder();
+	private final LongAdder encodedResponses = new LongAdder();
+	private final LongAdder wireBytes = new LongAdder();
+	private final LongAdder bodyBytes = new LongAdder();
+
 	static {
 		initializeHttpClient();
 	}
@@ -45,6 +81,20 @@ public abstract class Fetcher {
 		}
 	}
 
+	/**
+	 * 设置共享连接池大小
+	 * commons-httpclient默认每主机2个连接、总共20个，并发请求超过连接数时会阻塞在取连接上
+	 * 
+	 * @param maxTotal 最大连接总数
+	 * @param maxPerHost 每主机最大连接数
+	 */
+	public static void configureConnectionPool(int maxTotal, int maxPerHost) {
+		HttpConnectionManagerParams params = httpClient.getHttpConnectionManager().getParams();
+		params.setMaxTotalConnections(maxTotal);
+		params.setDefaultMaxConnectionsPerHost(maxPerHost);
+		logger.debug("连接池大小: 总数 {}, 每主机 {}", maxTotal, maxPerHost);
+	}
+
 	/**
 	 * 设置代理
 	 * 
@@ -78,6 +128,10 @@ public abstract class Fetcher {
 			return null;
 		}
 		
+		if (rawPage.isNotModified()) {
+			// 304响应没有内容，沿用上次存储的页面
+			return rawPage;
+		}
 		int storedState = storePage(rawPage);
 		if (storedState == RawPageStore.STORE_FAILURE) {
 			logger.error("URL: {} -> 存储失败!", url);
@@ -94,10 +148,207 @@ public abstract class Fetcher {
 	public abstract RawPage downloadPage(String url);
 
 	/**
-	 * 存储页面（子类实现）
+	 * 存储页面（子类实现），应通过{@link #storePageAsync(RawPage)}存储，页面写入后才保存校验信息
 	 * 
 	 * @param rawPage 原始页面数据
-	 * @return 存储状态
+	 * @return 存储状态，异步存储时表示页面已进入写入队列
 	 */
 	public abstract int storePage(RawPage rawPage);
+
+	/**
+	 * 存储页面，页面写入成功后保存它的校验信息
+	 * 
+	 * @param rawPage 原始页面数据
+	 * @return 页面写入后给出存储状态
+	 */
+	public CompletableFuture<Integer> storePageAsync(RawPage rawPage) {
+		RawPageStore store = getRawPageStore();
+		if (store == null) {
+			return CompletableFuture.completedFuture(RawPageStore.STORE_FAILURE);
+		}
+		return store.storeAsync(rawPage).thenApply(storedState -> {
+			if (storedState == RawPageStore.STORE_SUCCESS) {
+				recordValidators(rawPage);
+			}
+			return storedState;
+		});
+	}
+
+	/**
+	 * 设置页面存储，抓取器关闭时一并关闭
+	 * 
+	 * @param rawPageStore 页面存储
+	 */
+	public void setRawPageStore(RawPageStore rawPageStore) {
+		this.rawPageStore = rawPageStore;
+	}
+
+	/**
+	 * 获取页面存储，未设置时按旧版常量创建文件存储
+	 * 
+	 * @return 页面存储，创建失败时返回null
+	 */
+	public RawPageStore getRawPageStore() {
+		RawPageStore store = rawPageStore;
+		if (store == null) {
+			synchronized (this) {
+				store = rawPageStore;
+				if (store == null) {
+					store = RawPageStoreFactory.generateStoreInstance(FetcherConstant.RAW_PAGE_FILE_STORE);
+					rawPageStore = store;
+				}
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * 设置校验信息缓存，设置后对缓存过的URL发送条件请求，抓取器关闭时一并关闭
+	 * 
+	 * @param validatorCache 校验信息缓存，为null时不发送条件请求
+	 */
+	public void setValidatorCache(ValidatorCache validatorCache) {
+		this.validatorCache = validatorCache;
+	}
+
+	public ValidatorCache getValidatorCache() {
+		return validatorCache;
+	}
+
+	/**
+	 * 获取发送条件请求使用的校验信息，并计入条件请求数
+	 * 
+	 * @param url 目标URL
+	 * @return 校验信息，没有缓存时返回null
+	 */
+	protected PageValidators conditionalValidators(String url) {
+		ValidatorCache cache = validatorCache;
+		PageValidators validators = cache != null ? cache.get(url) : null;
+		if (validators == null || validators.isEmpty()) {
+			return null;
+		}
+		cache.recordConditionalRequest();
+		return validators;
+	}
+
+	/**
+	 * 记录响应结果：304计入节省的流量和时间，完整响应计入完整下载数。
+	 * 新的校验信息在页面存储成功后由{@link #recordValidators(RawPage)}保存
+	 * 
+	 * @param rawPage 下载结果
+	 * @param validators 请求时使用的校验信息，可以为null
+	 * @param elapsedNanos 请求耗时
+	 */
+	protected void recordResponse(RawPage rawPage, PageValidators validators, long elapsedNanos) {
+		ValidatorCache cache = validatorCache;
+		if (cache == null || rawPage == null) {
+			return;
+		}
+		if (rawPage.isNotModified()) {
+			cache.recordNotModified(validators, elapsedNanos);
+		} else {
+			cache.recordFullFetch(elapsedNanos);
+		}
+	}
+
+	/**
+	 * 页面写入成功后保存它的校验信息，下次抓取时据此发送条件请求。
+	 * 存储失败的页面不保存，否则下次得到304时本地没有可以沿用的页面
+	 * 
+	 * @param rawPage 已存储的页面
+	 */
+	protected void recordValidators(RawPage rawPage) {
+		ValidatorCache cache = validatorCache;
+		if (cache == null || rawPage == null || rawPage.isNotModified()) {
+			return;
+		}
+		cache.update(rawPage.getUrl(), rawPage.getHeader("ETag"), rawPage.getHeader("Last-Modified"),
+				rawPage.getBodyLength());
+	}
+
+	/**
+	 * 设置请求头来源，每次请求按URL取一次
+	 * 
+	 * @param requestHeaderProvider 请求头来源，为null时不附加请求头
+	 */
+	public void setRequestHeaderProvider(Function<String, Map<String, String>> requestHeaderProvider) {
+		this.requestHeaderProvider = requestHeaderProvider;
+	}
+
+	/**
+	 * 设置是否请求压缩传输，关闭后不发送Accept-Encoding，服务端仍返回压缩内容时照常解压
+	 * 
+	 * @param acceptCompression 是否请求压缩传输
+	 */
+	public void setAcceptCompression(boolean acceptCompression) {
+		this.acceptCompression = acceptCompression;
+	}
+
+	public boolean isAcceptCompression() {
+		return acceptCompression;
+	}
+
+	/**
+	 * 获取本次请求要发送的请求头
+	 * Accept-Encoding由抓取器按自身能解压的编码决定，忽略来源中的同名请求头
+	 * 
+	 * @param url 目标URL
+	 * @return 请求头
+	 */
+	protected Map<String, String> requestHeaders(String url) {
+		Function<String, Map<String, String>> provider = requestHeaderProvider;
+		Map<String, String> provided = provider != null ? provider.apply(url) : null;
+		if (provided == null) {
+			provided = Collections.emptyMap();
+		}
+		Map<String, String> headers = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : provided.entrySet()) {
+			if (!"Accept-Encoding".equalsIgnoreCase(entry.getKey())) {
+				headers.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (acceptCompression) {
+			headers.put("Accept-Encoding", ContentDecoder.ACCEPT_ENCODING);
+		}
+		return headers;
+	}
+
+	/**
+	 * 记录一次完整下载的流量
+	 * 
+	 * @param wireLength 网络上传输的响应体字节数
+	 * @param bodyLength 解压后的页面字节数
+	 * @param encoded 是否压缩传输
+	 */
+	protected void recordTransfer(long wireLength, long bodyLength, boolean encoded) {
+		responses.increment();
+		if (encoded) {
+			encodedResponses.increment();
+		}
+		wireBytes.add(wireLength);
+		bodyBytes.add(bodyLength);
+	}
+
+	/**
+	 * 获取下载流量统计
+	 * 
+	 * @return 流量统计快照
+	 */
+	public TransferStats getTransferStats() {
+		return new TransferStats(responses.sum(), encodedResponses.sum(), wireBytes.sum(), bodyBytes.sum());
+	}
+
+	/**
+	 * 关闭并释放资源（持有独立客户端的子类覆盖时需调用本方法关闭存储）
+	 */
+	public void close() {
+		RawPageStore store = rawPageStore;
+		if (store != null) {
+			store.close();
+		}
+		ValidatorCache cache = validatorCache;
+		if (cache != null) {
+			cache.close();
+		}
+	}
 }
\ No newline at end of file
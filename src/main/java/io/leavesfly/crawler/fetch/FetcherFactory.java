@@ -1,6 +1,14 @@
 package io.leavesfly.crawler.fetch;
 
 import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
+import io.leavesfly.crawler.fetch.store.RawPageStoreFactory;
+import io.leavesfly.crawler.fetch.validator.ValidatorCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * 抓取器工厂类
@@ -10,6 +18,8 @@ import io.leavesfly.crawler.conf.CrawlerConfig;
  */
 public class FetcherFactory {
     
+    private static final Logger logger = LoggerFactory.getLogger(FetcherFactory.class);
+    
     /**
      * 创建默认的抓取器
      * 
@@ -28,17 +38,48 @@ public class FetcherFactory {
     public static Fetcher createFetcher(CrawlerConfig config) {
         // 根据配置选择不同的抓取器实现
         String fetcherType = config.getFetcherType();
+        BufferPools.configure(config);
         
+        Fetcher fetcher;
         switch (fetcherType.toLowerCase()) {
             case "default":
             case "http":
-                return new PageFetcher();
+                Fetcher.configureConnectionPool(config.getMaxConnections(),
+                        Math.min(config.getMaxConnections(), config.getMaxRequestsPerHost()));
+                fetcher = new PageFetcher(config.getMaxPageSize());
+                break;
             case "async":
-                // 异步抓取器（可扩展）
-                return new PageFetcher(); // 暂时返回默认实现
+                fetcher = new AsyncPageFetcher(config);
+                break;
             default:
                 throw new IllegalArgumentException("不支持的抓取器类型: " + fetcherType);
         }
+        fetcher.setRawPageStore(RawPageStoreFactory.createStore(config));
+        fetcher.setValidatorCache(createValidatorCache(config));
+        fetcher.setAcceptCompression(config.isAcceptCompression());
+        return fetcher;
+    }
+    
+    /**
+     * 根据配置创建校验信息缓存，缓存文件无法打开时退化为内存缓存
+     * 
+     * @param config 爬虫配置
+     * @return 校验信息缓存，未启用条件请求时返回null
+     */
+    private static ValidatorCache createValidatorCache(CrawlerConfig config) {
+        if (!config.isConditionalFetchEnabled()) {
+            return null;
+        }
+        String cachePath = config.getValidatorCachePath();
+        if (cachePath == null || cachePath.trim().isEmpty()) {
+            return new ValidatorCache();
+        }
+        try {
+            return ValidatorCache.open(Paths.get(cachePath));
+        } catch (IOException e) {
+            logger.warn("无法打开校验信息缓存 {}，本次运行只在内存中缓存: {}", cachePath, e.getMessage());
+            return new ValidatorCache();
+        }
     }
     
     /**
@@ -1,8 +1,13 @@
 package io.leavesfly.crawler.fetch;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.GetMethod;
@@ -13,15 +18,35 @@ import org.slf4j.LoggerFactory;
 
 import io.leavesfly.crawler.constant.FetcherConstant;
 import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
 import io.leavesfly.crawler.fetch.proxy.ProxyItem;
 import io.leavesfly.crawler.fetch.proxy.ProxyUtil;
 import io.leavesfly.crawler.fetch.store.RawPageStore;
-import io.leavesfly.crawler.fetch.store.RawPageStoreFactory;
+import io.leavesfly.crawler.fetch.validator.PageValidators;
+import io.leavesfly.crawler.util.CharsetDetector;
 
 public class PageFetcher extends Fetcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(PageFetcher.class);
 
+    private final int maxPageSize;
+
+    public PageFetcher() {
+        this(FetcherConstant.MAX_PAGE_LENGTH);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxPageSize 页面最大字节数，超过时中止下载
+     */
+    public PageFetcher(int maxPageSize) {
+        if (maxPageSize <= 0) {
+            throw new IllegalArgumentException("页面最大字节数必须大于0");
+        }
+        this.maxPageSize = maxPageSize;
+    }
+
     @Override
     public RawPage downloadPage(String url) {
         RawPage pawPage;
@@ -32,8 +57,27 @@ public class PageFetcher extends Fetcher {
             ProxyItem proxyItem = ProxyUtil.nextProxyItem();
             setProxy(proxyItem);
         }
+        for (Map.Entry<String, String> header : requestHeaders(url).entrySet()) {
+            method.setRequestHeader(header.getKey(), header.getValue());
+        }
+        PageValidators validators = conditionalValidators(url);
+        if (validators != null) {
+            if (validators.getEtag() != null) {
+                method.setRequestHeader("If-None-Match", validators.getEtag());
+            }
+            if (validators.getLastModified() != null) {
+                method.setRequestHeader("If-Modified-Since", validators.getLastModified());
+            }
+        }
+        long start = System.nanoTime();
         try {
             int statusCode = httpClient.executeMethod(method);
+            if (statusCode == HttpStatus.SC_NOT_MODIFIED && validators != null) {
+                pawPage = RawPage.notModified(url);
+                pawPage.setHeaders(collectHeaders(method.getResponseHeaders()));
+                recordResponse(pawPage, validators, System.nanoTime() - start);
+                return pawPage;
+            }
             while (statusCode != HttpStatus.SC_OK) {
                 if (statusCode == HttpStatus.SC_FORBIDDEN) {
                     ProxyItem proxyItem = ProxyUtil.nextProxyItem();
@@ -45,9 +89,15 @@ public class PageFetcher extends Fetcher {
                 }
             }
             pawPage = generateRawPage(url, method);
+            recordResponse(pawPage, validators, System.nanoTime() - start);
 
             ProxyUtil.proxyGetPageNum++;
 
+        } catch (PageTooLargeException e) {
+            LOG.warn("页面过大，已中止下载: {}, 上限: {} 字节", url, e.getLimit());
+            // 不再读取剩余响应体，直接断开连接
+            method.abort();
+            return null;
         } catch (HttpException e) {
             LOG.error("HttpException occur:" + e.toString());
             e.printStackTrace();
@@ -63,22 +113,53 @@ public class PageFetcher extends Fetcher {
 
     }
 
+    /**
+     * 按字节读取响应体，字符集只取响应头中明确声明的，未声明时由RawPage按需识别
+     * 压缩传输的响应边读边解压，页面大小上限按解压后的字节数计算
+     */
     private RawPage generateRawPage(String targetURL, GetMethod method) throws IOException {
-        String contentCharSet = method.getResponseCharSet();
-        String content = method.getResponseBodyAsString();
-        return new RawPage(targetURL, contentCharSet, content);
+        Header contentType = method.getResponseHeader("Content-Type");
+        String declaredCharset = CharsetDetector.charsetFromContentType(
+                contentType != null ? contentType.getValue() : null);
+        Header contentEncoding = method.getResponseHeader("Content-Encoding");
+        String encoding = contentEncoding != null ? contentEncoding.getValue() : null;
+        Map<String, String> headers = collectHeaders(method.getResponseHeaders());
+        InputStream in = method.getResponseBodyAsStream();
+        byte[] body;
+        if (in == null) {
+            body = new byte[0];
+            recordTransfer(0, 0, false);
+        } else if (ContentDecoder.isIdentity(encoding)) {
+            body = BoundedBodyReader.read(in, method.getResponseContentLength(), maxPageSize);
+            recordTransfer(body.length, body.length, false);
+        } else {
+            try (ContentDecoder decoder = ContentDecoder.create(encoding, maxPageSize, BufferPools.heapPool())) {
+                body = BoundedBodyReader.readEncoded(in, decoder);
+                recordTransfer(decoder.getEncodedBytes(), body.length, true);
+            }
+            ContentDecoder.removeEncodingHeaders(headers);
+        }
+        RawPage rawPage = RawPage.fromBytes(targetURL, body, declaredCharset);
+        rawPage.setHeaders(headers);
+        return rawPage;
     }
 
-    @Override
-    public int storePage(RawPage rawPage) {
-        RawPageStore rawPageStore = RawPageStoreFactory
-                .generateStoreInstance(FetcherConstant.RAW_PAGE_FILE_STORE);
-        if (rawPageStore != null) {
-            int storeState = rawPageStore.store(rawPage);
-            return storeState;
+    private static Map<String, String> collectHeaders(Header[] headers) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Header header : headers) {
+            result.merge(header.getName(), header.getValue(), (a, b) -> a + ", " + b);
         }
+        return result;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
 
-        return RawPageStore.STORE_FAILURE;
+    @Override
+    public int storePage(RawPage rawPage) {
+        CompletableFuture<Integer> storedState = storePageAsync(rawPage);
+        return storedState.isDone() ? storedState.join() : RawPageStore.STORE_SUCCESS;
     }
 
 }
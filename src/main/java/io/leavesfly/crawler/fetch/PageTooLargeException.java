@@ -0,0 +1,29 @@
+package io.leavesfly.crawler.fetch;
+
+import java.io.IOException;
+
+/**
+ * 页面超过最大允许大小
+ *
+ * @author yefei.yf
+ */
+public class PageTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long limit;
+
+    /**
+     * 构造函数
+     *
+     * @param limit 最大允许字节数
+     */
+    public PageTooLargeException(long limit) {
+        super("页面超过最大允许大小: " + limit + " 字节");
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
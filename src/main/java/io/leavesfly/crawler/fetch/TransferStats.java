@@ -0,0 +1,77 @@
+package io.leavesfly.crawler.fetch;
+
+/**
+ * 下载流量统计快照
+ * 对比网络上传输的字节数和解压后的页面字节数，衡量压缩传输节省的流量
+ *
+ * @author yefei.yf
+ */
+public class TransferStats {
+
+    private final long responses;
+    private final long encodedResponses;
+    private final long wireBytes;
+    private final long bodyBytes;
+
+    public TransferStats(long responses, long encodedResponses, long wireBytes, long bodyBytes) {
+        this.responses = responses;
+        this.encodedResponses = encodedResponses;
+        this.wireBytes = wireBytes;
+        this.bodyBytes = bodyBytes;
+    }
+
+    /**
+     * 获取完整下载的响应数
+     */
+    public long getResponses() {
+        return responses;
+    }
+
+    /**
+     * 获取压缩传输的响应数
+     */
+    public long getEncodedResponses() {
+        return encodedResponses;
+    }
+
+    /**
+     * 获取网络上传输的响应体字节数
+     */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    /**
+     * 获取解压后的页面字节数
+     */
+    public long getBodyBytes() {
+        return bodyBytes;
+    }
+
+    /**
+     * 获取压缩传输节省的字节数
+     */
+    public long getSavedBytes() {
+        return Math.max(0, bodyBytes - wireBytes);
+    }
+
+    /**
+     * 获取节省比例
+     *
+     * @return 节省的字节数 / 页面字节数
+     */
+    public double getSavedRate() {
+        return bodyBytes > 0 ? (double) getSavedBytes() / bodyBytes : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStats{" +
+                "responses=" + responses +
+                ", encodedResponses=" + encodedResponses +
+                ", wireBytes=" + wireBytes +
+                ", bodyBytes=" + bodyBytes +
+                ", savedRate=" + String.format("%.2f%%", getSavedRate() * 100) +
+                '}';
+    }
+}
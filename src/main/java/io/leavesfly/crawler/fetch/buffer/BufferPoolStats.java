@@ -0,0 +1,76 @@
+package io.leavesfly.crawler.fetch.buffer;
+
+/**
+ * 缓冲区池统计快照
+ *
+ * @author yefei.yf
+ */
+public class BufferPoolStats {
+
+    private final long hits;
+    private final long misses;
+    private final long discards;
+    private final long retainedBytes;
+    private final long maxRetainedBytes;
+    private final boolean direct;
+
+    public BufferPoolStats(long hits, long misses, long discards, long retainedBytes,
+                           long maxRetainedBytes, boolean direct) {
+        this.hits = hits;
+        this.misses = misses;
+        this.discards = discards;
+        this.retainedBytes = retainedBytes;
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.direct = direct;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 归还时因超出保留上限或规格不符被丢弃的次数
+     */
+    public long getDiscards() {
+        return discards;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * 获取命中率
+     *
+     * @return 命中率，没有申请时为0
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPoolStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.2f%%", getHitRate() * 100) +
+                ", discards=" + discards +
+                ", retainedBytes=" + retainedBytes +
+                ", maxRetainedBytes=" + maxRetainedBytes +
+                ", direct=" + direct +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+package io.leavesfly.crawler.fetch.buffer;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 进程内共享的缓冲区池
+ * 读取响应流需要字节数组，始终使用堆内存池；写入文件通道的池可以配置为直接内存，
+ * 写入时不再需要JDK为堆缓冲区临时复制一份直接内存
+ *
+ * @author yefei.yf
+ */
+public final class BufferPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferPools.class);
+
+    /**
+     * 分块写入通道时每块的大小
+     */
+    static final int WRITE_CHUNK_SIZE = 64 * 1024;
+
+    private static volatile ByteBufferPool heapPool =
+            new ByteBufferPool(false, ByteBufferPool.DEFAULT_MAX_RETAINED_BYTES);
+    private static volatile ByteBufferPool ioPool = heapPool;
+
+    private BufferPools() {
+    }
+
+    /**
+     * 获取读取响应流使用的堆内存池
+     *
+     * @return 缓冲区池
+     */
+    public static ByteBufferPool heapPool() {
+        return heapPool;
+    }
+
+    /**
+     * 获取写入文件通道使用的池
+     *
+     * @return 缓冲区池
+     */
+    public static ByteBufferPool ioPool() {
+        return ioPool;
+    }
+
+    /**
+     * 获取两个共享池的合计统计
+     * 写文件的池与读取的池是同一个时不重复计算，direct表示写文件的池是否使用直接内存
+     *
+     * @return 统计快照
+     */
+    public static BufferPoolStats getStats() {
+        ByteBufferPool heap = heapPool;
+        ByteBufferPool io = ioPool;
+        BufferPoolStats stats = heap.getStats();
+        if (io == heap) {
+            return stats;
+        }
+        BufferPoolStats ioStats = io.getStats();
+        return new BufferPoolStats(stats.getHits() + ioStats.getHits(),
+                stats.getMisses() + ioStats.getMisses(),
+                stats.getDiscards() + ioStats.getDiscards(),
+                stats.getRetainedBytes() + ioStats.getRetainedBytes(),
+                stats.getMaxRetainedBytes() + ioStats.getMaxRetainedBytes(),
+                io.isDirect());
+    }
+
+    /**
+     * 按配置重建共享池，配置未变化时保留现有的池及其统计
+     *
+     * @param config 爬虫配置
+     */
+    public static synchronized void configure(CrawlerConfig config) {
+        long maxRetainedBytes = config.getBufferPoolMaxRetainedBytes();
+        boolean direct = config.isBufferPoolDirect();
+        if (heapPool.getStats().getMaxRetainedBytes() != maxRetainedBytes) {
+            heapPool = new ByteBufferPool(false, maxRetainedBytes);
+        }
+        if (!direct) {
+            ioPool = heapPool;
+        } else if (!ioPool.isDirect() || ioPool.getStats().getMaxRetainedBytes() != maxRetainedBytes) {
+            ioPool = new ByteBufferPool(true, maxRetainedBytes);
+        }
+        logger.debug("缓冲区池配置: 直接内存 {}, 保留上限 {} 字节", direct, maxRetainedBytes);
+    }
+
+    /**
+     * 把字节数组完整写入通道
+     * I/O池使用直接内存时经池中的直接缓冲区分块写入，否则直接包装写入
+     *
+     * @param channel 目标通道
+     * @param bytes 字节数组
+     * @throws IOException 写入失败
+     */
+    public static void writeFully(WritableByteChannel channel, byte[] bytes) throws IOException {
+        writeFully(channel, bytes, 0, bytes.length);
+    }
+
+    /**
+     * 把字节数组的一段完整写入通道
+     *
+     * @param channel 目标通道
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 字节数
+     * @throws IOException 写入失败
+     */
+    public static void writeFully(WritableByteChannel channel, byte[] bytes, int offset, int length)
+            throws IOException {
+        ByteBufferPool pool = ioPool;
+        if (!pool.isDirect()) {
+            writeFully(channel, ByteBuffer.wrap(bytes, offset, length));
+            return;
+        }
+        int end = offset + length;
+        ByteBuffer buffer = pool.acquire(Math.min(length, WRITE_CHUNK_SIZE));
+        try {
+            while (offset < end) {
+                buffer.clear();
+                int chunk = Math.min(buffer.capacity(), end - offset);
+                buffer.put(bytes, offset, chunk);
+                buffer.flip();
+                writeFully(channel, buffer);
+                offset += chunk;
+            }
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * 把缓冲区剩余内容完整写入通道
+     *
+     * @param channel 目标通道
+     * @param buffer 缓冲区，处于读模式
+     * @throws IOException 写入失败
+     */
+    public static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package io.leavesfly.crawler.fetch.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按大小分级的字节缓冲区池
+ * 容量按2的幂分级，从最小级别到最大级别，每级一个无锁队列。
+ * 申请时向上取整到所在级别，超过最大级别的申请直接分配且不回收。
+ * 池中保留的总字节数有上限，超过上限时归还的缓冲区直接丢弃交给GC，
+ * 避免突发的大页面把内存长期占住
+ *
+ * @author yefei.yf
+ */
+public class ByteBufferPool {
+
+    /**
+     * 默认最小级别：4KB
+     */
+    public static final int DEFAULT_MIN_BUFFER_SIZE = 4 * 1024;
+
+    /**
+     * 默认最大级别：1MB
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 默认保留字节数上限：64MB
+     */
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+
+    private final boolean direct;
+    private final int minShift;
+    private final int maxShift;
+    private final long maxRetainedBytes;
+    private final List<Queue<ByteBuffer>> classes;
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * 使用默认级别创建
+     *
+     * @param direct 是否使用直接内存
+     * @param maxRetainedBytes 保留字节数上限，0表示不保留
+     */
+    public ByteBufferPool(boolean direct, long maxRetainedBytes) {
+        this(direct, DEFAULT_MIN_BUFFER_SIZE, DEFAULT_MAX_BUFFER_SIZE, maxRetainedBytes);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param direct 是否使用直接内存
+     * @param minBufferSize 最小级别容量，向上取整到2的幂
+     * @param maxBufferSize 最大级别容量，向上取整到2的幂
+     * @param maxRetainedBytes 保留字节数上限，0表示不保留
+     */
+    public ByteBufferPool(boolean direct, int minBufferSize, int maxBufferSize, long maxRetainedBytes) {
+        if (minBufferSize <= 0 || maxBufferSize < minBufferSize || maxBufferSize > (1 << 30)) {
+            throw new IllegalArgumentException("缓冲区级别无效: " + minBufferSize + " - " + maxBufferSize);
+        }
+        if (maxRetainedBytes < 0) {
+            throw new IllegalArgumentException("保留字节数上限不能为负数");
+        }
+        this.direct = direct;
+        this.minShift = shiftFor(minBufferSize);
+        this.maxShift = shiftFor(maxBufferSize);
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.classes = new ArrayList<>(maxShift - minShift + 1);
+        for (int shift = minShift; shift <= maxShift; shift++) {
+            classes.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * 申请容量不小于指定大小的缓冲区
+     * 返回的缓冲区position为0、limit等于容量，内容未清零
+     *
+     * @param minCapacity 最小容量
+     * @return 缓冲区
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new IllegalArgumentException("容量不能为负数: " + minCapacity);
+        }
+        int shift = Math.max(minShift, shiftFor(Math.max(minCapacity, 1)));
+        if (shift > maxShift) {
+            misses.increment();
+            return allocate(minCapacity);
+        }
+        ByteBuffer buffer = classes.get(shift - minShift).poll();
+        if (buffer == null) {
+            misses.increment();
+            return allocate(1 << shift);
+        }
+        retainedBytes.addAndGet(-buffer.capacity());
+        hits.increment();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * 归还缓冲区
+     * 只有本池级别大小、类型一致的缓冲区才会保留，其余直接丢弃
+     *
+     * @param buffer 缓冲区，可以为null
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        if (buffer.isDirect() != direct || buffer.isReadOnly() || Integer.bitCount(capacity) != 1) {
+            discards.increment();
+            return;
+        }
+        int shift = Integer.numberOfTrailingZeros(capacity);
+        if (shift < minShift || shift > maxShift) {
+            discards.increment();
+            return;
+        }
+        while (true) {
+            long current = retainedBytes.get();
+            if (current + capacity > maxRetainedBytes) {
+                discards.increment();
+                return;
+            }
+            if (retainedBytes.compareAndSet(current, current + capacity)) {
+                break;
+            }
+        }
+        classes.get(shift - minShift).offer(buffer);
+    }
+
+    /**
+     * 把缓冲区扩容到不小于指定大小，保留已写入的内容
+     * 原缓冲区归还给池
+     *
+     * @param buffer 当前缓冲区，处于写模式
+     * @param minCapacity 最小容量
+     * @return 扩容后的缓冲区，处于写模式
+     */
+    public ByteBuffer grow(ByteBuffer buffer, int minCapacity) {
+        if (buffer.capacity() >= minCapacity) {
+            return buffer;
+        }
+        long doubled = (long) buffer.capacity() << 1;
+        ByteBuffer grown = acquire((int) Math.min(Math.max(doubled, minCapacity), Integer.MAX_VALUE - 8));
+        buffer.flip();
+        grown.put(buffer);
+        release(buffer);
+        return grown;
+    }
+
+    /**
+     * 是否使用直接内存
+     *
+     * @return 是否直接内存
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 命中、未命中、丢弃次数及保留字节数
+     */
+    public BufferPoolStats getStats() {
+        return new BufferPoolStats(hits.sum(), misses.sum(), discards.sum(),
+                retainedBytes.get(), maxRetainedBytes, direct);
+    }
+
+    /**
+     * 清空池中保留的缓冲区
+     */
+    public void clear() {
+        for (Queue<ByteBuffer> queue : classes) {
+            ByteBuffer buffer;
+            while ((buffer = queue.poll()) != null) {
+                retainedBytes.addAndGet(-buffer.capacity());
+            }
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 计算不小于size的最小2的幂的指数
+     */
+    private static int shiftFor(int size) {
+        return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBufferPool{" +
+                "minBufferSize=" + (1 << minShift) +
+                ", maxBufferSize=" + (1 << maxShift) +
+                ", " + getStats() +
+                '}';
+    }
+}
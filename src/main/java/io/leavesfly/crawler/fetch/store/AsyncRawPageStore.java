@@ -0,0 +1,335 @@
+package io.leavesfly.crawler.fetch.store;
+
+import io.leavesfly.crawler.domain.RawPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 组提交的异步页面存储
+ * 工作线程把页面放入有界环形队列后立即返回，由一个专用写线程取出队列中积压的页面，
+ * 整批交给底层存储写入（段存储一批只加一次锁、一次聚集写入），再按刷盘策略决定是否刷盘。
+ * 磁盘跟不上时队列被填满，提交页面的工作线程阻塞等待，抓取速度随之下降，而不是无限堆积在内存中。
+ *
+ * store返回成功只表示页面已进入队列；需要确认页面已写入时使用{@link #storeAsync(RawPage)}，
+ * 返回的future在写线程写完该页面所在的批次后给出结果，回调在写线程中执行，应尽量简短
+ *
+ * @author yefei.yf
+ */
+public class AsyncRawPageStore extends RawPageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncRawPageStore.class);
+
+    /**
+     * 默认队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 默认每批最多页面数
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    /**
+     * 写线程空闲时的轮询间隔
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final RawPageStore delegate;
+    private final ArrayBlockingQueue<PendingPage> queue;
+    private final int maxBatchSize;
+    private final StoreSyncPolicy syncPolicy;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition committed = commitLock.newCondition();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong blockedPuts = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    // 以下字段只由写线程访问
+    private long unsyncedBytes;
+    private long lastSyncNanos = System.nanoTime();
+
+    /**
+     * 使用默认批大小创建
+     *
+     * @param delegate 底层存储，关闭时一并关闭
+     * @param queueCapacity 队列容量
+     * @param syncPolicy 刷盘策略
+     */
+    public AsyncRawPageStore(RawPageStore delegate, int queueCapacity, StoreSyncPolicy syncPolicy) {
+        this(delegate, queueCapacity, DEFAULT_MAX_BATCH_SIZE, syncPolicy);
+    }
+
+    /**
+     * 构造函数，创建后写线程立即启动
+     *
+     * @param delegate 底层存储，关闭时一并关闭
+     * @param queueCapacity 队列容量
+     * @param maxBatchSize 每批最多页面数
+     * @param syncPolicy 刷盘策略
+     */
+    public AsyncRawPageStore(RawPageStore delegate, int queueCapacity, int maxBatchSize, StoreSyncPolicy syncPolicy) {
+        if (delegate == null || syncPolicy == null) {
+            throw new IllegalArgumentException("底层存储和刷盘策略不能为空");
+        }
+        if (queueCapacity <= 0 || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("队列容量和批大小必须大于0");
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.syncPolicy = syncPolicy;
+        this.writer = new Thread(this::writeLoop, "RawPageStoreWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 把页面放入写入队列，队列已满时阻塞等待
+     *
+     * @param rawPage 原始页面
+     * @return 已入队返回成功，已关闭或等待时被中断返回失败
+     */
+    @Override
+    public int store(RawPage rawPage) {
+        CompletableFuture<Integer> result = storeAsync(rawPage);
+        return result.isDone() ? result.join() : STORE_SUCCESS;
+    }
+
+    /**
+     * 把页面放入写入队列，队列已满时阻塞等待
+     *
+     * @param rawPage 原始页面
+     * @return 页面所在批次写入后给出存储结果；已关闭或等待时被中断时立即返回失败
+     */
+    @Override
+    public CompletableFuture<Integer> storeAsync(RawPage rawPage) {
+        CompletableFuture<Integer> failure = CompletableFuture.completedFuture(STORE_FAILURE);
+        if (closed) {
+            return failure;
+        }
+        PendingPage pending = new PendingPage(rawPage);
+        try {
+            if (!queue.offer(pending)) {
+                blockedPuts.incrementAndGet();
+                while (!queue.offer(pending, IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed) {
+                        return failure;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure;
+        }
+        // 入队时恰好关闭，写线程可能已经退出，能撤回说明页面不会被写入
+        if (closed && queue.remove(pending)) {
+            return failure;
+        }
+        enqueued.incrementAndGet();
+        return pending.result;
+    }
+
+    /**
+     * 等待此前入队的页面全部写入，再刷盘
+     *
+     * @throws IOException 刷盘失败
+     */
+    @Override
+    public void flush() throws IOException {
+        long target = enqueued.get();
+        commitLock.lock();
+        try {
+            while (written.get() + failed.get() < target && writer.isAlive()) {
+                committed.await(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            commitLock.unlock();
+        }
+        delegate.flush();
+    }
+
+    /**
+     * 停止接收页面，等待队列中的页面写完并刷盘后关闭底层存储
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+        logger.info("异步页面存储已关闭: {}", getStats());
+    }
+
+    /**
+     * 获取底层存储
+     *
+     * @return 底层存储
+     */
+    public RawPageStore getDelegate() {
+        return delegate;
+    }
+
+    public StoreSyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 队列深度、提交延迟等统计
+     */
+    public StoreWriterStats getStats() {
+        return new StoreWriterStats(queue.size(), queue.size() + queue.remainingCapacity(),
+                enqueued.get(), written.get(), failed.get(), batches.get(), blockedPuts.get(),
+                syncs.get(), totalCommitNanos.get(), maxCommitNanos.get());
+    }
+
+    private void writeLoop() {
+        List<PendingPage> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            PendingPage first;
+            try {
+                first = queue.poll(pollTimeoutMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = null;
+            }
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch);
+                batch.clear();
+            } else if (syncPolicy.shouldSync(unsyncedBytes, millisSinceSync())) {
+                sync();
+            }
+            if (closed && queue.isEmpty()) {
+                break;
+            }
+        }
+        if (unsyncedBytes > 0) {
+            sync();
+        }
+    }
+
+    /**
+     * 写入一批页面，按策略刷盘，两者合计为一次提交的延迟；之后逐个给出页面的存储结果
+     */
+    private void commit(List<PendingPage> batch) {
+        long start = System.nanoTime();
+        List<RawPage> rawPages = new ArrayList<>(batch.size());
+        for (PendingPage pending : batch) {
+            rawPages.add(pending.rawPage);
+            unsyncedBytes += pending.rawPage.getBodyLength();
+        }
+        int[] results;
+        try {
+            results = delegate.storeBatch(rawPages);
+        } catch (RuntimeException e) {
+            logger.error("批量写入页面失败: {} 条", batch.size(), e);
+            results = new int[batch.size()];
+        }
+        int stored = 0;
+        for (int result : results) {
+            if (result == STORE_SUCCESS) {
+                stored++;
+            }
+        }
+        if (syncPolicy.shouldSync(unsyncedBytes, millisSinceSync())) {
+            sync();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (stored < batch.size()) {
+            logger.error("批量写入页面失败: {} / {} 条", batch.size() - stored, batch.size());
+        }
+        batches.incrementAndGet();
+        totalCommitNanos.addAndGet(elapsed);
+        maxCommitNanos.accumulateAndGet(elapsed, Math::max);
+        // 先给出各页面的结果，flush返回时回调已经执行
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(results[i]);
+        }
+        commitLock.lock();
+        try {
+            written.addAndGet(stored);
+            failed.addAndGet(batch.size() - stored);
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void sync() {
+        try {
+            delegate.flush();
+            syncs.incrementAndGet();
+        } catch (IOException e) {
+            logger.error("页面存储刷盘失败: {}", e.toString());
+        }
+        unsyncedBytes = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * 按时间刷盘且有未刷盘数据时，最多等到下次刷盘时间
+     */
+    private long pollTimeoutMillis() {
+        if (syncPolicy.getMode() == StoreSyncPolicy.Mode.INTERVAL && unsyncedBytes > 0) {
+            long remaining = syncPolicy.getThreshold() - millisSinceSync();
+            return Math.max(1, Math.min(remaining, IDLE_POLL_MILLIS));
+        }
+        return IDLE_POLL_MILLIS;
+    }
+
+    private long millisSinceSync() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSyncNanos);
+    }
+
+    /**
+     * 等待写入的页面及其存储结果
+     */
+    private static final class PendingPage {
+        private final RawPage rawPage;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        private PendingPage(RawPage rawPage) {
+            this.rawPage = rawPage;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncRawPageStore{" +
+                "delegate=" + delegate +
+                ", syncPolicy=" + syncPolicy +
+                ", " + getStats() +
+                '}';
+    }
+}
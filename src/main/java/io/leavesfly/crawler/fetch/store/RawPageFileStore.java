@@ -1,12 +1,13 @@
 package io.leavesfly.crawler.fetch.store;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 import io.leavesfly.crawler.constant.FetcherConstant;
 import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
 import io.leavesfly.crawler.util.FileUtil;
 import io.leavesfly.crawler.util.URLStrUtil;
 
@@ -14,16 +15,6 @@ public class RawPageFileStore extends RawPageStore {
 	private static int singleDirMaxFileNowNum = 0;
 	private static int FileMark = 0;
 
-	private FileOutputStream fileOutStream;
-
-	private void init(String url) {
-		try {
-			fileOutStream = new FileOutputStream(emergeStoreFile(url));
-		} catch (FileNotFoundException e) {
-
-			e.printStackTrace();
-		}
-	}
 
 	private File emergeStoreFile(String url) {
 		if (singleDirMaxFileNowNum > FetcherConstant.MAX_FILE_NUM_IN_SINGLE_DIR) {
@@ -46,9 +37,13 @@ public class RawPageFileStore extends RawPageStore {
 
 	@Override
 	public int store(RawPage rawPage) {
-		init(rawPage.getUrl());
-		try {
-			fileOutStream.write(rawPage.getContent().getBytes());
+		byte[] body = rawPage.getBody();
+		if (body == null) {
+			return STORE_FAILURE;
+		}
+		try (FileChannel channel = FileChannel.open(emergeStoreFile(rawPage.getUrl()).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			BufferPools.writeFully(channel, body);
 		} catch (IOException e) {
 			e.printStackTrace();
 			return STORE_FAILURE;
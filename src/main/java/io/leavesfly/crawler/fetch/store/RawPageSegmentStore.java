@@ -0,0 +1,934 @@
+package io.leavesfly.crawler.fetch.store;
+
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.buffer.BufferPools;
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+import io.leavesfly.crawler.fetch.store.codec.PageCodec;
+import io.leavesfly.crawler.fetch.store.codec.PageCodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 分段追加写入的原始页面存储
+ * 页面以记录的形式顺序追加到滚动的段文件中，段文件达到大小上限后切换到新段，
+ * 不再为每个URL创建一个文件。记录仿照WARC，由文本头部块（URL、字符集、响应头）和页面字节组成，
+ * 页面字节逐条记录按配置的编码压缩，压缩后不更小时按原样保存。
+ *
+ * 记录格式（大端序）：
+ * <pre>
+ * magic(4) codec(1) timestamp(8) headerLength(4) storedLength(4) rawLength(4)
+ * header(headerLength) body(storedLength) crc32(4)
+ * </pre>
+ * CRC覆盖magic之后、校验和之前的全部字节。
+ *
+ * 每个段文件有一个同名的.idx索引文件，顺序记录URL和记录在段中的偏移。
+ * 同一URL多次写入时以最后一次为准。打开时由索引文件重建内存索引，
+ * 索引落后于段文件的部分（进程崩溃时未写出的索引）通过扫描段文件补齐，校验失败的记录被跳过，
+ * 之后的有效记录仍然恢复。写入失败时截掉写了一部分的记录，不在段中留下空洞。
+ * 每次打开都从新段开始写入，已有的段文件只读。
+ *
+ * 编码和压缩在各工作线程中进行，只有追加写入持有锁，所有线程共用一个文件通道。
+ * 同一目录同时只允许一个实例写入，由目录下的锁文件保证
+ *
+ * @author yefei.yf
+ */
+public class RawPageSegmentStore extends RawPageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RawPageSegmentStore.class);
+
+    /**
+     * 默认段文件大小上限：256MB
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * 记录魔数："RPSG"
+     */
+    static final int MAGIC = 0x52505347;
+
+    /**
+     * 记录头部固定字段的字节数
+     */
+    static final int RECORD_HEADER_SIZE = 4 + 1 + 8 + 4 + 4 + 4;
+
+    /**
+     * 记录固定开销：头部固定字段和尾部校验和
+     */
+    static final int RECORD_OVERHEAD = RECORD_HEADER_SIZE + 4;
+
+    /**
+     * 小于该字节数的页面不压缩
+     */
+    static final int MIN_COMPRESS_SIZE = 256;
+
+    static final String TARGET_URI = "WARC-Target-URI";
+    static final String CHARSET = "WARC-Charset";
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.dat");
+    private static final String LOCK_FILE = "store.lock";
+    private static final int INDEX_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final PageCodec codec;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * URL到最新记录位置的索引
+     */
+    private final Map<String, RecordPointer> index = new ConcurrentHashMap<>();
+
+    /**
+     * 段编号到只读通道，活动段也在其中，读写共用一个通道
+     */
+    private final Map<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+    private final AtomicLong recordCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong rawBytesWritten = new AtomicLong();
+
+    // 以下字段只在持有writeLock时访问
+    private boolean opened;
+    private boolean closed;
+    private FileChannel lockChannel;
+    private FileLock directoryLock;
+    private int activeSegment = -1;
+    private FileChannel activeChannel;
+    private FileChannel activeIndexChannel;
+    private long activeSize;
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(INDEX_BUFFER_SIZE);
+    private volatile int segmentCount;
+
+    /**
+     * 使用默认段大小创建
+     *
+     * @param directory 段文件目录，首次写入或读取时才创建
+     */
+    public RawPageSegmentStore(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 使用deflate压缩创建
+     *
+     * @param directory 段文件目录，首次写入或读取时才创建
+     * @param segmentSize 段文件大小上限，单条记录超过上限时独占一个段
+     */
+    public RawPageSegmentStore(Path directory, long segmentSize) {
+        this(directory, segmentSize, PageCodecs.DEFLATE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param directory 段文件目录，首次写入或读取时才创建
+     * @param segmentSize 段文件大小上限，单条记录超过上限时独占一个段
+     * @param codec 新写入记录使用的压缩编码，读取时按记录中的编码解压
+     */
+    public RawPageSegmentStore(Path directory, long segmentSize, PageCodec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("压缩编码不能为空");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("存储目录不能为空");
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("段文件大小必须大于0");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+    }
+
+    @Override
+    public int store(RawPage rawPage) {
+        return storeBatch(Collections.singletonList(rawPage))[0];
+    }
+
+    /**
+     * 批量存储，一批记录只加一次锁，并以聚集写入一次写出。
+     * 写入中途失败时，之前已写入并登记索引的页面仍算存储成功
+     *
+     * @param rawPages 页面列表
+     * @return 与页面一一对应的存储结果，没有内容的页面不写入
+     */
+    @Override
+    public int[] storeBatch(List<RawPage> rawPages) {
+        int[] results = new int[rawPages.size()];
+        ByteBufferPool pool = BufferPools.heapPool();
+        List<String> urls = new ArrayList<>(rawPages.size());
+        List<ByteBuffer> records = new ArrayList<>(rawPages.size());
+        int[] pageIndexes = new int[rawPages.size()];
+        try {
+            for (int i = 0; i < rawPages.size(); i++) {
+                RawPage rawPage = rawPages.get(i);
+                byte[] body = rawPage.getBody();
+                if (body == null || rawPage.getUrl() == null) {
+                    continue;
+                }
+                byte[] header = headerBlock(rawPage).getBytes(StandardCharsets.UTF_8);
+                ByteBuffer record = pool.acquire(RECORD_OVERHEAD + header.length + body.length);
+                records.add(record);
+                encode(record, header, body, System.currentTimeMillis(), codec);
+                pageIndexes[urls.size()] = i;
+                urls.add(rawPage.getUrl());
+            }
+            int appended = records.isEmpty() ? 0 : append(urls, records);
+            long rawLength = 0;
+            for (int k = 0; k < appended; k++) {
+                results[pageIndexes[k]] = STORE_SUCCESS;
+                rawLength += rawPages.get(pageIndexes[k]).getBodyLength();
+            }
+            rawBytesWritten.addAndGet(rawLength);
+        } catch (IOException e) {
+            logger.error("页面写入段文件失败: {} 条, 原因: {}", rawPages.size(), e.toString());
+        } finally {
+            for (ByteBuffer record : records) {
+                pool.release(record);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 读取URL最近一次写入的页面
+     *
+     * @param url 页面URL
+     * @return 页面，不存在时返回null
+     * @throws IOException 读取失败或记录已损坏
+     */
+    public RawPage read(String url) throws IOException {
+        ensureOpen();
+        RecordPointer pointer = index.get(url);
+        if (pointer == null) {
+            return null;
+        }
+        FileChannel channel = reader(pointer.segment);
+        ByteBuffer record = ByteBuffer.allocate(pointer.length);
+        readFully(channel, record, pointer.offset);
+        record.flip();
+        Record decoded = decode(record, true);
+        if (decoded == null) {
+            throw new IOException("记录已损坏: " + url + ", 段: " + segmentName(pointer.segment)
+                    + ", 偏移: " + pointer.offset);
+        }
+        return decoded.toRawPage();
+    }
+
+    /**
+     * 是否保存过该URL
+     *
+     * @param url 页面URL
+     * @return 是否存在
+     * @throws IOException 打开存储失败
+     */
+    public boolean contains(String url) throws IOException {
+        ensureOpen();
+        return index.containsKey(url);
+    }
+
+    /**
+     * 把已写入的记录和索引刷到磁盘
+     *
+     * @throws IOException 刷盘失败
+     */
+    @Override
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (activeChannel != null) {
+                activeChannel.force(false);
+            }
+            if (activeIndexChannel != null) {
+                flushIndexBuffer();
+                activeIndexChannel.force(false);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 刷盘并关闭全部文件，释放目录锁。关闭后写入返回失败
+     */
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flush();
+            } catch (IOException e) {
+                logger.error("关闭时刷盘失败: {}", directory, e);
+            }
+            closeQuietly(activeIndexChannel);
+            for (FileChannel channel : readers.values()) {
+                closeQuietly(channel);
+            }
+            readers.clear();
+            if (directoryLock != null) {
+                try {
+                    directoryLock.release();
+                } catch (IOException e) {
+                    logger.warn("释放目录锁失败: {}", directory);
+                }
+            }
+            closeQuietly(lockChannel);
+            activeChannel = null;
+            activeIndexChannel = null;
+            if (opened) {
+                logger.info("段存储已关闭: {}, 本次写入 {} 条记录, {} 字节", directory,
+                        recordCount.get(), bytesWritten.get());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获取存储目录
+     *
+     * @return 目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 获取段文件大小上限
+     *
+     * @return 字节数
+     */
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * 获取新写入记录使用的压缩编码
+     *
+     * @return 压缩编码
+     */
+    public PageCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 获取段文件数量，包括打开时已存在的段
+     *
+     * @return 段数
+     */
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * 获取索引中的URL数量
+     *
+     * @return URL数
+     */
+    public int getIndexedUrlCount() {
+        return index.size();
+    }
+
+    /**
+     * 获取本实例写入的记录数
+     *
+     * @return 记录数
+     */
+    public long getRecordCount() {
+        return recordCount.get();
+    }
+
+    /**
+     * 获取本实例写入段文件的字节数（压缩后，含记录头部）
+     *
+     * @return 字节数
+     */
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * 获取本实例写入的页面原始字节数（压缩前）
+     *
+     * @return 字节数
+     */
+    public long getRawBytesWritten() {
+        return rawBytesWritten.get();
+    }
+
+    /**
+     * 追加一批已编码的记录，同一段内相邻的记录合并为一次聚集写入
+     */
+    /**
+     * 按顺序写入记录，写入失败时停止
+     *
+     * @return 已写入并登记索引的记录数，即前几条记录
+     * @throws IOException 一条记录都没有写入
+     */
+    private int append(List<String> urls, List<ByteBuffer> records) throws IOException {
+        int appended = 0;
+        writeLock.lock();
+        try {
+            openIfNecessary();
+            if (closed) {
+                throw new IOException("段存储已关闭: " + directory);
+            }
+            int start = 0;
+            long runLength = 0;
+            for (int i = 0; i < records.size(); i++) {
+                int recordLength = records.get(i).remaining();
+                if (activeChannel == null || (activeSize + runLength > 0
+                        && activeSize + runLength + recordLength > segmentSize)) {
+                    writeRun(urls, records, start, i);
+                    appended = i;
+                    rollSegment();
+                    start = i;
+                    runLength = 0;
+                }
+                runLength += recordLength;
+            }
+            writeRun(urls, records, start, records.size());
+            appended = records.size();
+        } catch (IOException e) {
+            if (appended == 0) {
+                throw e;
+            }
+            logger.error("页面写入段文件失败: {} / {} 条, 原因: {}", records.size() - appended, records.size(),
+                    e.toString());
+        } finally {
+            writeLock.unlock();
+            recordCount.addAndGet(appended);
+        }
+        return appended;
+    }
+
+    /**
+     * 把[from, to)区间的记录写到活动段并登记索引
+     */
+    private void writeRun(List<String> urls, List<ByteBuffer> records, int from, int to) throws IOException {
+        if (from >= to) {
+            return;
+        }
+        long offset = activeSize;
+        long runLength = 0;
+        try {
+            if (to - from == 1) {
+                ByteBuffer record = records.get(from);
+                runLength = record.remaining();
+                BufferPools.writeFully(activeChannel, record.array(),
+                        record.arrayOffset() + record.position(), record.remaining());
+            } else {
+                ByteBuffer[] run = records.subList(from, to).toArray(new ByteBuffer[0]);
+                for (ByteBuffer record : run) {
+                    runLength += record.remaining();
+                }
+                long written = 0;
+                while (written < runLength) {
+                    written += activeChannel.write(run);
+                }
+            }
+        } catch (IOException e) {
+            discardPartialWrite();
+            throw e;
+        }
+        for (int i = from; i < to; i++) {
+            int recordLength = records.get(i).limit();
+            appendIndexEntry(urls.get(i), offset, recordLength);
+            index.put(urls.get(i), new RecordPointer(activeSegment, offset, recordLength));
+            offset += recordLength;
+        }
+        activeSize += runLength;
+        bytesWritten.addAndGet(runLength);
+    }
+
+    /**
+     * 写入失败后截掉活动段末尾写了一部分的记录，之后的记录仍从activeSize处写入；
+     * 截断也失败时放弃该段，下一次写入切换到新段，残留的字节在打开时被跳过
+     */
+    private void discardPartialWrite() {
+        try {
+            activeChannel.truncate(activeSize);
+            activeChannel.position(activeSize);
+        } catch (IOException e) {
+            logger.warn("截断段文件失败，之后的记录写入新段: {}, 原因: {}", segmentName(activeSegment), e.toString());
+            activeChannel = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        writeLock.lock();
+        try {
+            openIfNecessary();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 锁定目录并由已有的段文件重建索引
+     */
+    private void openIfNecessary() throws IOException {
+        if (opened || closed) {
+            return;
+        }
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            directoryLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            directoryLock = null;
+        }
+        if (directoryLock == null) {
+            closeQuietly(lockChannel);
+            lockChannel = null;
+            throw new IOException("存储目录已被其他实例占用: " + directory);
+        }
+
+        List<Integer> segments = listSegments();
+        for (int segment : segments) {
+            recover(segment);
+        }
+        activeSegment = segments.isEmpty() ? -1 : segments.get(segments.size() - 1);
+        segmentCount = segments.size();
+        opened = true;
+        if (!segments.isEmpty()) {
+            logger.info("段存储已打开: {}, 已有 {} 个段, {} 个URL", directory, segments.size(), index.size());
+        }
+    }
+
+    private List<Integer> listSegments() throws IOException {
+        List<Integer> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.dat")) {
+            for (Path path : stream) {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * 由索引文件恢复一个段的索引，再扫描索引之后未登记的记录
+     */
+    private void recover(int segment) throws IOException {
+        FileChannel channel = reader(segment);
+        long size = channel.size();
+        long indexedEnd = 0;
+
+        Path indexPath = directory.resolve(indexName(segment));
+        if (Files.exists(indexPath)) {
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            while (entries.remaining() >= 2) {
+                int urlLength = entries.getShort() & 0xFFFF;
+                if (entries.remaining() < urlLength + 12) {
+                    break;
+                }
+                byte[] urlBytes = new byte[urlLength];
+                entries.get(urlBytes);
+                long offset = entries.getLong();
+                int length = entries.getInt();
+                if (offset < 0 || length < RECORD_OVERHEAD || offset + length > size) {
+                    break;
+                }
+                index.put(new String(urlBytes, StandardCharsets.UTF_8), new RecordPointer(segment, offset, length));
+                indexedEnd = Math.max(indexedEnd, offset + length);
+            }
+        }
+
+        long position = indexedEnd;
+        ByteBuffer prefix = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_OVERHEAD <= size) {
+            Record decoded = readRecord(channel, position, size, prefix);
+            if (decoded == null) {
+                // 损坏或写了一部分的记录，跳到之后第一条有效记录
+                long next = findNextRecord(channel, position + 1, size, prefix);
+                if (next < 0) {
+                    break;
+                }
+                logger.warn("段文件偏移 {} 处 {} 字节无法识别，已跳过: {}", position, next - position,
+                        segmentName(segment));
+                position = next;
+                continue;
+            }
+            int length = recordLength(prefix);
+            index.put(decoded.url, new RecordPointer(segment, position, length));
+            position += length;
+        }
+        if (position < size) {
+            logger.warn("段文件尾部 {} 字节无法识别，已忽略: {}", size - position, segmentName(segment));
+        }
+    }
+
+    /**
+     * 读取并校验一条记录，只解码头部
+     *
+     * @param prefix 读取记录头部固定字段的缓冲区，返回后保存该记录的固定字段
+     * @return 记录，不是完整有效的记录时返回null
+     */
+    private static Record readRecord(FileChannel channel, long position, long size, ByteBuffer prefix)
+            throws IOException {
+        prefix.clear();
+        readFully(channel, prefix, position);
+        prefix.flip();
+        int length = recordLength(prefix);
+        if (length < 0 || position + length > size) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(channel, record, position);
+        record.flip();
+        return decode(record, false);
+    }
+
+    /**
+     * 从指定位置向后查找第一条有效记录
+     *
+     * @return 记录位置，找不到时返回-1
+     */
+    private static long findNextRecord(FileChannel channel, long from, long size, ByteBuffer prefix)
+            throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(INDEX_BUFFER_SIZE);
+        long base = from;
+        while (base + RECORD_OVERHEAD <= size) {
+            chunk.clear();
+            int n = channel.read(chunk, base);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i + 4 <= n && base + i + RECORD_OVERHEAD <= size; i++) {
+                if (chunk.getInt(i) == MAGIC && readRecord(channel, base + i, size, prefix) != null) {
+                    return base + i;
+                }
+            }
+            // 魔数可能跨越两次读取
+            base += Math.max(1, n - 3);
+        }
+        return -1;
+    }
+
+    /**
+     * 关闭当前段，切换到编号加一的新段
+     */
+    private void rollSegment() throws IOException {
+        if (activeIndexChannel != null) {
+            flushIndexBuffer();
+            closeQuietly(activeIndexChannel);
+        }
+        // 新段创建失败时不再写入旧段，下一次写入重新切换
+        activeChannel = null;
+        activeIndexChannel = null;
+        int next = activeSegment + 1;
+        FileChannel channel = FileChannel.open(directory.resolve(segmentName(next)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel indexChannel;
+        try {
+            indexChannel = FileChannel.open(directory.resolve(indexName(next)),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+        readers.put(next, channel);
+        activeSegment = next;
+        activeChannel = channel;
+        activeIndexChannel = indexChannel;
+        activeSize = 0;
+        segmentCount++;
+        logger.debug("切换到新段: {}", segmentName(next));
+    }
+
+    private void appendIndexEntry(String url, long offset, int length) throws IOException {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        if (urlBytes.length > 0xFFFF) {
+            // 超长URL不进索引文件，打开时扫描段文件补齐
+            return;
+        }
+        int entryLength = 2 + urlBytes.length + 12;
+        if (indexBuffer.remaining() < entryLength) {
+            flushIndexBuffer();
+        }
+        indexBuffer.putShort((short) urlBytes.length);
+        indexBuffer.put(urlBytes);
+        indexBuffer.putLong(offset);
+        indexBuffer.putInt(length);
+    }
+
+    private void flushIndexBuffer() throws IOException {
+        indexBuffer.flip();
+        BufferPools.writeFully(activeIndexChannel, indexBuffer);
+        indexBuffer.clear();
+    }
+
+    private FileChannel reader(int segment) throws IOException {
+        FileChannel channel = readers.get(segment);
+        if (channel == null) {
+            channel = FileChannel.open(directory.resolve(segmentName(segment)), StandardOpenOption.READ);
+            FileChannel existing = readers.putIfAbsent(segment, channel);
+            if (existing != null) {
+                closeQuietly(channel);
+                channel = existing;
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * 生成记录的文本头部块
+     */
+    static String headerBlock(RawPage rawPage) {
+        StringBuilder sb = new StringBuilder(256);
+        appendHeaderLine(sb, TARGET_URI, rawPage.getUrl());
+        String charset = rawPage.getContentCharset();
+        if (charset != null) {
+            appendHeaderLine(sb, CHARSET, charset);
+        }
+        for (Map.Entry<String, String> header : rawPage.getHeaders().entrySet()) {
+            appendHeaderLine(sb, header.getKey(), header.getValue());
+        }
+        return sb.toString();
+    }
+
+    private static void appendHeaderLine(StringBuilder sb, String name, String value) {
+        sb.append(name).append(": ");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // 换行符会破坏头部块的行结构
+            sb.append(c == '\r' || c == '\n' ? ' ' : c);
+        }
+        sb.append("\r\n");
+    }
+
+    /**
+     * 把记录编码到缓冲区，完成后缓冲区处于读模式
+     * 页面字节压缩后不小于原始大小时按原样保存
+     */
+    static void encode(ByteBuffer buffer, byte[] header, byte[] body, long timestamp, PageCodec codec) {
+        byte[] array = buffer.array();
+        int base = buffer.arrayOffset();
+        buffer.clear();
+        buffer.putInt(MAGIC);
+        int codecPosition = buffer.position();
+        buffer.put(PageCodecs.NONE.getId());
+        buffer.putLong(timestamp);
+        buffer.putInt(header.length);
+        int storedLengthPosition = buffer.position();
+        buffer.putInt(body.length);
+        buffer.putInt(body.length);
+        buffer.put(header);
+
+        int bodyPosition = buffer.position();
+        int storedLength = body.length;
+        if (body.length >= MIN_COMPRESS_SIZE && codec != PageCodecs.NONE) {
+            // 输出空间比原始字节少一个字节，放不下说明压缩没有收益
+            int compressed = codec.compress(body, 0, body.length, array, base + bodyPosition, body.length - 1);
+            if (compressed >= 0) {
+                storedLength = compressed;
+                buffer.put(codecPosition, codec.getId());
+                buffer.putInt(storedLengthPosition, storedLength);
+            }
+        }
+        if (storedLength == body.length) {
+            buffer.put(body);
+        } else {
+            buffer.position(bodyPosition + storedLength);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(array, base + 4, buffer.position() - 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+    }
+
+    /**
+     * 由记录头部固定字段计算整条记录的长度
+     *
+     * @return 长度，魔数不符或字段无效时返回-1
+     */
+    static int recordLength(ByteBuffer prefix) {
+        if (prefix.getInt(0) != MAGIC) {
+            return -1;
+        }
+        int headerLength = prefix.getInt(13);
+        int storedLength = prefix.getInt(17);
+        long length = (long) RECORD_OVERHEAD + headerLength + storedLength;
+        if (headerLength < 0 || storedLength < 0 || length > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return (int) length;
+    }
+
+    /**
+     * 解码一条完整记录
+     *
+     * @param record 记录字节，处于读模式
+     * @param withBody 是否解压页面字节，恢复索引时只需要头部
+     * @return 记录，校验失败时返回null
+     */
+    static Record decode(ByteBuffer record, boolean withBody) throws IOException {
+        int length = recordLength(record);
+        if (length != record.remaining()) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), record.arrayOffset() + 4, length - 8);
+        if ((int) crc.getValue() != record.getInt(length - 4)) {
+            return null;
+        }
+
+        int codecId = record.get(4);
+        long timestamp = record.getLong(5);
+        int headerLength = record.getInt(13);
+        int storedLength = record.getInt(17);
+        int rawLength = record.getInt(21);
+        if (rawLength < 0) {
+            return null;
+        }
+        String headerText = new String(record.array(), record.arrayOffset() + RECORD_HEADER_SIZE,
+                headerLength, StandardCharsets.UTF_8);
+
+        Record result = new Record(timestamp);
+        for (String line : headerText.split("\r\n")) {
+            int colon = line.indexOf(": ");
+            if (colon <= 0) {
+                continue;
+            }
+            String name = line.substring(0, colon);
+            String value = line.substring(colon + 2);
+            if (TARGET_URI.equals(name)) {
+                result.url = value;
+            } else if (CHARSET.equals(name)) {
+                result.charset = value;
+            } else {
+                result.headers.put(name, value);
+            }
+        }
+        if (result.url == null) {
+            return null;
+        }
+        if (!withBody) {
+            return result;
+        }
+
+        PageCodec bodyCodec = PageCodecs.byId(codecId);
+        if (bodyCodec == null) {
+            throw new IOException("不支持的压缩编码: " + codecId);
+        }
+        int bodyOffset = record.arrayOffset() + RECORD_HEADER_SIZE + headerLength;
+        result.body = new byte[rawLength];
+        bodyCodec.decompress(record.array(), bodyOffset, storedLength, result.body, 0, rawLength);
+        return result;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("段文件意外结束");
+            }
+            position += n;
+        }
+    }
+
+    static String segmentName(int segment) {
+        return String.format("segment-%06d.dat", segment);
+    }
+
+    static String indexName(int segment) {
+        return String.format("segment-%06d.idx", segment);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("关闭文件失败: {}", e.toString());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RawPageSegmentStore{" +
+                "directory=" + directory +
+                ", segmentSize=" + segmentSize +
+                ", codec=" + codec.getName() +
+                ", segmentCount=" + segmentCount +
+                ", indexedUrls=" + index.size() +
+                ", recordCount=" + recordCount.get() +
+                ", bytesWritten=" + bytesWritten.get() +
+                ", rawBytesWritten=" + rawBytesWritten.get() +
+                '}';
+    }
+
+    /**
+     * 记录在段文件中的位置
+     */
+    private static final class RecordPointer {
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        private RecordPointer(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 解码后的记录
+     */
+    static final class Record {
+        private final long timestamp;
+        private String url;
+        private String charset;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private byte[] body;
+
+        private Record(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        private RawPage toRawPage() {
+            RawPage rawPage = RawPage.fromBytes(url, body, charset);
+            rawPage.setHeaders(headers);
+            return rawPage;
+        }
+    }
+}
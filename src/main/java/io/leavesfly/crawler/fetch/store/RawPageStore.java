@@ -1,7 +1,10 @@
 package io.leavesfly.crawler.fetch.store;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import io.leavesfly.crawler.domain.RawPage;
 
@@ -18,6 +21,60 @@ public abstract class RawPageStore {
 
 	public abstract int store(RawPage rawPage);
 
+	/**
+	 * 存储页面，页面写入完成后返回的future给出存储结果（异步写入的子类覆盖）
+	 * 
+	 * @param rawPage 原始页面
+	 * @return 存储结果，STORE_SUCCESS或STORE_FAILURE
+	 */
+	public CompletableFuture<Integer> storeAsync(RawPage rawPage) {
+		return CompletableFuture.completedFuture(store(rawPage));
+	}
+
+	/**
+	 * 批量存储，逐个给出存储结果（支持批量写入的子类覆盖）
+	 * 
+	 * @param rawPages 页面列表
+	 * @return 与页面一一对应的存储结果
+	 */
+	public int[] storeBatch(List<RawPage> rawPages) {
+		int[] results = new int[rawPages.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = store(rawPages.get(i));
+		}
+		return results;
+	}
+
+	/**
+	 * 批量存储
+	 * 
+	 * @param rawPages 页面列表
+	 * @return 存储成功的页面数
+	 */
+	public int storeAll(List<RawPage> rawPages) {
+		int stored = 0;
+		for (int result : storeBatch(rawPages)) {
+			if (result == STORE_SUCCESS) {
+				stored++;
+			}
+		}
+		return stored;
+	}
+
+	/**
+	 * 把已写入的数据刷到磁盘（有缓冲的子类覆盖）
+	 * 
+	 * @throws IOException 刷盘失败
+	 */
+	public void flush() throws IOException {
+	}
+
+	/**
+	 * 关闭存储，释放持有的文件等资源（持有资源的子类覆盖）
+	 */
+	public void close() {
+	}
+
 	public String getCurrentDay() {
 		return currentDay;
 	}
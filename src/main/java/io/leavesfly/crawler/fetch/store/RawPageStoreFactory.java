@@ -1,7 +1,48 @@
 package io.leavesfly.crawler.fetch.store;
 
+import java.nio.file.Paths;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.fetch.store.codec.PageCodecs;
+
 public class RawPageStoreFactory {
 
+	/**
+	 * 段存储在存储路径下的子目录
+	 */
+	public static final String SEGMENT_DIR = "pages";
+
+	/**
+	 * 根据配置创建存储，一个抓取器持有一个实例，所有工作线程共用
+	 * 开启异步存储时在外面包装组提交的异步写入
+	 * 
+	 * @param config 爬虫配置
+	 * @return 存储实例
+	 */
+	public static RawPageStore createStore(CrawlerConfig config) {
+		RawPageStore store = createBaseStore(config);
+		if (config.isAsyncStoreEnabled()) {
+			return new AsyncRawPageStore(store, config.getAsyncStoreQueueCapacity(),
+					StoreSyncPolicy.of(config.getStoreSyncPolicy(), config.getStoreSyncThreshold()));
+		}
+		return store;
+	}
+
+	private static RawPageStore createBaseStore(CrawlerConfig config) {
+		String storageType = config.getStorageType();
+		switch (storageType.toLowerCase()) {
+		case "segment":
+			return new RawPageSegmentStore(Paths.get(config.getStoragePath(), SEGMENT_DIR),
+					config.getStorageSegmentSize(), PageCodecs.byName(config.getStorageCodec()));
+		case "file":
+			return new RawPageFileStore();
+		case "hbase":
+			return new RawPageHbaseStore();
+		default:
+			throw new IllegalArgumentException("不支持的存储类型: " + storageType);
+		}
+	}
+
 	public static RawPageStore generateStoreInstance(String className) {
 		RawPageStore instance = null;
 		try {
@@ -0,0 +1,133 @@
+package io.leavesfly.crawler.fetch.store;
+
+/**
+ * 异步存储的刷盘策略
+ * 不刷盘时由操作系统决定何时落盘，吞吐最高；按时间或按字节数刷盘时，
+ * 崩溃丢失的数据分别不超过一个时间间隔或一个字节阈值
+ *
+ * @author yefei.yf
+ */
+public final class StoreSyncPolicy {
+
+    /**
+     * 刷盘方式
+     */
+    public enum Mode {
+        /**
+         * 只在关闭时刷盘
+         */
+        NONE,
+        /**
+         * 距上次刷盘超过指定毫秒数时刷盘
+         */
+        INTERVAL,
+        /**
+         * 距上次刷盘写入超过指定字节数时刷盘
+         */
+        BYTES
+    }
+
+    private static final StoreSyncPolicy NONE = new StoreSyncPolicy(Mode.NONE, 0);
+
+    private final Mode mode;
+    private final long threshold;
+
+    private StoreSyncPolicy(Mode mode, long threshold) {
+        this.mode = mode;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 只在关闭时刷盘
+     *
+     * @return 刷盘策略
+     */
+    public static StoreSyncPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * 每隔指定毫秒数刷盘
+     *
+     * @param intervalMillis 间隔毫秒数
+     * @return 刷盘策略
+     */
+    public static StoreSyncPolicy everyMillis(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("刷盘间隔必须大于0");
+        }
+        return new StoreSyncPolicy(Mode.INTERVAL, intervalMillis);
+    }
+
+    /**
+     * 每写入指定字节数刷盘
+     *
+     * @param bytes 字节数
+     * @return 刷盘策略
+     */
+    public static StoreSyncPolicy everyBytes(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("刷盘字节数必须大于0");
+        }
+        return new StoreSyncPolicy(Mode.BYTES, bytes);
+    }
+
+    /**
+     * 按配置中的名称创建
+     *
+     * @param name none、interval或bytes
+     * @param threshold 毫秒数或字节数，none时忽略
+     * @return 刷盘策略
+     */
+    public static StoreSyncPolicy of(String name, long threshold) {
+        switch (name.toLowerCase()) {
+            case "none":
+                return none();
+            case "interval":
+                return everyMillis(threshold);
+            case "bytes":
+                return everyBytes(threshold);
+            default:
+                throw new IllegalArgumentException("不支持的刷盘策略: " + name);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 获取阈值
+     *
+     * @return INTERVAL时为毫秒数，BYTES时为字节数，NONE时为0
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 判断是否需要刷盘
+     *
+     * @param unsyncedBytes 上次刷盘后写入的字节数
+     * @param millisSinceSync 距上次刷盘的毫秒数
+     * @return 是否刷盘
+     */
+    public boolean shouldSync(long unsyncedBytes, long millisSinceSync) {
+        if (unsyncedBytes <= 0) {
+            return false;
+        }
+        switch (mode) {
+            case INTERVAL:
+                return millisSinceSync >= threshold;
+            case BYTES:
+                return unsyncedBytes >= threshold;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.NONE ? "none" : mode.name().toLowerCase() + "(" + threshold + ")";
+    }
+}
@@ -0,0 +1,119 @@
+package io.leavesfly.crawler.fetch.store;
+
+/**
+ * 异步存储写入统计快照
+ *
+ * @author yefei.yf
+ */
+public class StoreWriterStats {
+
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long enqueued;
+    private final long written;
+    private final long failed;
+    private final long batches;
+    private final long blockedPuts;
+    private final long syncs;
+    private final long totalCommitNanos;
+    private final long maxCommitNanos;
+
+    public StoreWriterStats(int queueDepth, int queueCapacity, long enqueued, long written, long failed,
+                            long batches, long blockedPuts, long syncs, long totalCommitNanos, long maxCommitNanos) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.enqueued = enqueued;
+        this.written = written;
+        this.failed = failed;
+        this.batches = batches;
+        this.blockedPuts = blockedPuts;
+        this.syncs = syncs;
+        this.totalCommitNanos = totalCommitNanos;
+        this.maxCommitNanos = maxCommitNanos;
+    }
+
+    /**
+     * 获取当前排队等待写入的页面数
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * 获取提交批次数
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * 获取因队列已满而阻塞等待的提交次数
+     */
+    public long getBlockedPuts() {
+        return blockedPuts;
+    }
+
+    public long getSyncs() {
+        return syncs;
+    }
+
+    /**
+     * 获取平均每批的页面数
+     *
+     * @return 页面数，没有批次时为0
+     */
+    public double getAverageBatchSize() {
+        return batches > 0 ? (double) (written + failed) / batches : 0.0;
+    }
+
+    /**
+     * 获取平均提交延迟（写入及随后的刷盘）
+     *
+     * @return 毫秒数，没有批次时为0
+     */
+    public double getAverageCommitMillis() {
+        return batches > 0 ? totalCommitNanos / 1_000_000.0 / batches : 0.0;
+    }
+
+    /**
+     * 获取最大提交延迟
+     *
+     * @return 毫秒数
+     */
+    public double getMaxCommitMillis() {
+        return maxCommitNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "StoreWriterStats{" +
+                "queueDepth=" + queueDepth +
+                ", queueCapacity=" + queueCapacity +
+                ", enqueued=" + enqueued +
+                ", written=" + written +
+                ", failed=" + failed +
+                ", batches=" + batches +
+                ", averageBatchSize=" + String.format("%.1f", getAverageBatchSize()) +
+                ", averageCommitMillis=" + String.format("%.2f", getAverageCommitMillis()) +
+                ", maxCommitMillis=" + String.format("%.2f", getMaxCommitMillis()) +
+                ", blockedPuts=" + blockedPuts +
+                ", syncs=" + syncs +
+                '}';
+    }
+}
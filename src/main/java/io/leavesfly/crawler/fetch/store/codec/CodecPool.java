@@ -0,0 +1,69 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 压缩器、解压器等编解码资源的有界池
+ * 取不到空闲对象时新建，归还时池已满则释放。虚拟线程模式下线程数不固定，
+ * 按线程缓存会让每个线程各持有一份本地内存且不会释放；使用池后对象数不超过同时编解码的线程数，
+ * 空闲时最多保留池容量个
+ *
+ * @param <T> 资源类型
+ * @author yefei.yf
+ */
+final class CodecPool<T> {
+
+    /**
+     * 默认容量：CPU核数的两倍，编解码是CPU密集操作，同时进行的通常不超过核数
+     */
+    static final int DEFAULT_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+    private final Consumer<T> destroyer;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 最多保留的空闲对象数
+     * @param factory 新建对象
+     * @param destroyer 池已满时释放对象
+     */
+    CodecPool(int capacity, Supplier<T> factory, Consumer<T> destroyer) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.destroyer = destroyer;
+    }
+
+    /**
+     * 取出一个对象，用完后必须调用{@link #release(Object)}归还
+     *
+     * @return 空闲对象或新建的对象
+     */
+    T borrow() {
+        T resource = idle.poll();
+        return resource != null ? resource : factory.get();
+    }
+
+    /**
+     * 归还对象，池已满时释放
+     *
+     * @param resource 对象
+     */
+    void release(T resource) {
+        if (!idle.offer(resource)) {
+            destroyer.accept(resource);
+        }
+    }
+
+    /**
+     * 获取空闲对象数
+     *
+     * @return 空闲对象数
+     */
+    int getIdleCount() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,116 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JDK自带的deflate压缩（不带zlib头尾的原始格式）
+ * Deflater和Inflater持有本地内存，放在有界池中复用，池满时归还的对象立即释放本地内存
+ *
+ * @author yefei.yf
+ */
+public final class DeflateCodec implements PageCodec {
+
+    public static final byte ID = 1;
+
+    private final CodecPool<Deflater> deflaters;
+    private final CodecPool<Inflater> inflaters = newInflaterPool();
+    private final int level;
+
+    /**
+     * 使用最快的压缩级别创建
+     */
+    public DeflateCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param level 压缩级别，1-9
+     */
+    public DeflateCodec(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("压缩级别必须在1-9之间: " + level);
+        }
+        this.level = level;
+        this.deflaters = newDeflaterPool(level);
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "deflate";
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        Deflater deflater = deflaters.borrow();
+        try {
+            return deflate(deflater, src, srcOff, srcLen, dst, dstOff, dstLen);
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength)
+            throws IOException {
+        Inflater inflater = inflaters.borrow();
+        try {
+            inflate(inflater, src, srcOff, srcLen, dst, dstOff, rawLength);
+        } finally {
+            inflaters.release(inflater);
+        }
+    }
+
+    static CodecPool<Deflater> newDeflaterPool(int level) {
+        return new CodecPool<>(CodecPool.DEFAULT_CAPACITY, () -> new Deflater(level, true), Deflater::end);
+    }
+
+    static CodecPool<Inflater> newInflaterPool() {
+        return new CodecPool<>(CodecPool.DEFAULT_CAPACITY, () -> new Inflater(true), Inflater::end);
+    }
+
+    static int deflate(Deflater deflater, byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        deflater.reset();
+        deflater.setInput(src, srcOff, srcLen);
+        deflater.finish();
+        int n = 0;
+        while (!deflater.finished() && n < dstLen) {
+            n += deflater.deflate(dst, dstOff + n, dstLen - n);
+        }
+        return deflater.finished() ? n : -1;
+    }
+
+    static void inflate(Inflater inflater, byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(src, srcOff, srcLen);
+        int n = 0;
+        try {
+            while (n < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(dst, dstOff + n, rawLength - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("压缩数据已损坏", e);
+        }
+        if (n != rawLength) {
+            throw new IOException("解压后的长度不符, 期望: " + rawLength + ", 实际: " + n);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * gzip格式压缩
+ * 在deflate数据前后加上gzip头部和CRC32、长度尾部，压缩后的页面可以直接用gzip工具解开。
+ * 头部固定为本类写出的10字节格式，不支持带文件名等可选字段的gzip数据
+ *
+ * @author yefei.yf
+ */
+public final class GzipCodec implements PageCodec {
+
+    public static final byte ID = 2;
+
+    private static final int HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final CodecPool<Deflater> deflaters;
+    private final CodecPool<Inflater> inflaters = DeflateCodec.newInflaterPool();
+
+    /**
+     * 使用最快的压缩级别创建
+     */
+    public GzipCodec() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param level 压缩级别，1-9
+     */
+    public GzipCodec(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("压缩级别必须在1-9之间: " + level);
+        }
+        this.deflaters = DeflateCodec.newDeflaterPool(level);
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "gzip";
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        if (dstLen < HEADER_SIZE + TRAILER_SIZE) {
+            return -1;
+        }
+        System.arraycopy(HEADER, 0, dst, dstOff, HEADER_SIZE);
+        Deflater deflater = deflaters.borrow();
+        int n;
+        try {
+            n = DeflateCodec.deflate(deflater, src, srcOff, srcLen,
+                    dst, dstOff + HEADER_SIZE, dstLen - HEADER_SIZE - TRAILER_SIZE);
+        } finally {
+            deflaters.release(deflater);
+        }
+        if (n < 0) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(src, srcOff, srcLen);
+        int trailer = dstOff + HEADER_SIZE + n;
+        writeIntLE(dst, trailer, (int) crc.getValue());
+        writeIntLE(dst, trailer + 4, srcLen);
+        return HEADER_SIZE + n + TRAILER_SIZE;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength)
+            throws IOException {
+        if (srcLen < HEADER_SIZE + TRAILER_SIZE || src[srcOff] != HEADER[0] || src[srcOff + 1] != HEADER[1]
+                || src[srcOff + 2] != HEADER[2] || src[srcOff + 3] != 0) {
+            throw new IOException("不支持的gzip头部");
+        }
+        Inflater inflater = inflaters.borrow();
+        try {
+            DeflateCodec.inflate(inflater, src, srcOff + HEADER_SIZE, srcLen - HEADER_SIZE - TRAILER_SIZE,
+                    dst, dstOff, rawLength);
+        } finally {
+            inflaters.release(inflater);
+        }
+        int trailer = srcOff + srcLen - TRAILER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(dst, dstOff, rawLength);
+        if (readIntLE(src, trailer) != (int) crc.getValue() || readIntLE(src, trailer + 4) != rawLength) {
+            throw new IOException("gzip校验失败");
+        }
+    }
+
+    private static void writeIntLE(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+
+    private static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,239 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 纯Java实现的LZ4块格式压缩
+ * 只做单遍哈希查找、不做熵编码，压缩率低于deflate，但压缩和解压的CPU开销小得多，
+ * 适合磁盘带宽不是瓶颈、CPU更紧张的场景。输出与LZ4块格式兼容（不含帧头），
+ * 可以用其他LZ4实现的块解压接口解开
+ *
+ * 序列格式：token(高4位字面量长度、低4位匹配长度-4)、扩展字面量长度、字面量、
+ * 小端序2字节偏移、扩展匹配长度；最后一个序列只有字面量
+ *
+ * @author yefei.yf
+ */
+public final class Lz4Codec implements PageCodec {
+
+    public static final byte ID = 3;
+
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * 最后一个匹配必须在距结尾12字节之前开始
+     */
+    private static final int MF_LIMIT = 12;
+
+    /**
+     * 最后5个字节总是字面量
+     */
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 14;
+    private static final int RUN_MASK = 15;
+
+    /**
+     * 连续未命中时加大步长，跳过不可压缩的区域
+     */
+    private static final int SKIP_STRENGTH = 6;
+
+    /**
+     * 哈希表记录位置加1，0表示空。每张表64KB，放在有界池中复用，池满时归还的表交给GC
+     */
+    private static final CodecPool<int[]> HASH_TABLES = new CodecPool<>(CodecPool.DEFAULT_CAPACITY,
+            () -> new int[1 << HASH_LOG], table -> { });
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "lz4";
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        int srcEnd = srcOff + srcLen;
+        int dstEnd = dstOff + dstLen;
+        int anchor = srcOff;
+        int dp = dstOff;
+
+        if (srcLen > MF_LIMIT) {
+            int[] table = HASH_TABLES.borrow();
+            try {
+                Arrays.fill(table, 0);
+                int matchLimit = srcEnd - LAST_LITERALS;
+                int mfLimit = srcEnd - MF_LIMIT;
+                int ip = srcOff;
+                while (ip < mfLimit) {
+                    int sequence = readInt(src, ip);
+                    int h = hash(sequence);
+                    int ref = table[h] - 1;
+                    table[h] = ip + 1;
+                    if (ref < srcOff || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                        ip += 1 + ((ip - anchor) >>> SKIP_STRENGTH);
+                        continue;
+                    }
+
+                    while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                        ip--;
+                        ref--;
+                    }
+                    int matchLength = MIN_MATCH;
+                    while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                        matchLength++;
+                    }
+
+                    dp = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, dp, dstEnd);
+                    if (dp < 0) {
+                        return -1;
+                    }
+                    ip += matchLength;
+                    anchor = ip;
+                    if (ip - 2 >= srcOff && ip < mfLimit) {
+                        table[hash(readInt(src, ip - 2))] = ip - 2 + 1;
+                    }
+                }
+            } finally {
+                HASH_TABLES.release(table);
+            }
+        }
+
+        dp = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dst, dp, dstEnd);
+        return dp < 0 ? -1 : dp - dstOff;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength)
+            throws IOException {
+        int sp = srcOff;
+        int srcEnd = srcOff + srcLen;
+        int dp = dstOff;
+        int dstEnd = dstOff + rawLength;
+
+        while (sp < srcEnd) {
+            int token = src[sp++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        throw corrupted();
+                    }
+                    b = src[sp++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+            if (literalLength > srcEnd - sp || literalLength > dstEnd - dp) {
+                throw corrupted();
+            }
+            System.arraycopy(src, sp, dst, dp, literalLength);
+            sp += literalLength;
+            dp += literalLength;
+            if (sp == srcEnd) {
+                break;
+            }
+
+            if (srcEnd - sp < 2) {
+                throw corrupted();
+            }
+            int offset = (src[sp] & 0xFF) | (src[sp + 1] & 0xFF) << 8;
+            sp += 2;
+            if (offset == 0 || offset > dp - dstOff) {
+                throw corrupted();
+            }
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int b;
+                do {
+                    if (sp >= srcEnd) {
+                        throw corrupted();
+                    }
+                    b = src[sp++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+            if (matchLength > dstEnd - dp) {
+                throw corrupted();
+            }
+            int ref = dp - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, dp, matchLength);
+                dp += matchLength;
+            } else {
+                // 重叠复制，逐字节展开重复的内容
+                for (int i = 0; i < matchLength; i++) {
+                    dst[dp++] = dst[ref++];
+                }
+            }
+        }
+        if (dp != dstEnd) {
+            throw new IOException("解压后的长度不符, 期望: " + rawLength + ", 实际: " + (dp - dstOff));
+        }
+    }
+
+    /**
+     * 写出一个序列，matchLength为0时只写字面量
+     *
+     * @return 写出后的位置，放不下时返回-1
+     */
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int dp, int dstEnd) {
+        int required = 1 + literalLength + literalLength / 255 + 1
+                + (matchLength > 0 ? 2 + (matchLength - MIN_MATCH) / 255 + 1 : 0);
+        if (required > dstEnd - dp) {
+            return -1;
+        }
+        int tokenPosition = dp++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            dp = writeLength(literalLength - RUN_MASK, dst, dp);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalStart, dst, dp, literalLength);
+        dp += literalLength;
+
+        if (matchLength > 0) {
+            dst[dp++] = (byte) offset;
+            dst[dp++] = (byte) (offset >>> 8);
+            int length = matchLength - MIN_MATCH;
+            if (length >= RUN_MASK) {
+                token |= RUN_MASK;
+                dp = writeLength(length - RUN_MASK, dst, dp);
+            } else {
+                token |= length;
+            }
+        }
+        dst[tokenPosition] = (byte) token;
+        return dp;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dp) {
+        while (length >= 255) {
+            dst[dp++] = (byte) 255;
+            length -= 255;
+        }
+        dst[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static IOException corrupted() {
+        return new IOException("LZ4数据已损坏");
+    }
+}
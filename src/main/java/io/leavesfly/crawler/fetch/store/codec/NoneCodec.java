@@ -0,0 +1,41 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.io.IOException;
+
+/**
+ * 不压缩，按原样保存
+ *
+ * @author yefei.yf
+ */
+public final class NoneCodec implements PageCodec {
+
+    public static final byte ID = 0;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        if (srcLen > dstLen) {
+            return -1;
+        }
+        System.arraycopy(src, srcOff, dst, dstOff, srcLen);
+        return srcLen;
+    }
+
+    @Override
+    public void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength)
+            throws IOException {
+        if (srcLen != rawLength) {
+            throw new IOException("未压缩数据的长度不符, 期望: " + rawLength + ", 实际: " + srcLen);
+        }
+        System.arraycopy(src, srcOff, dst, dstOff, srcLen);
+    }
+}
@@ -0,0 +1,53 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import java.io.IOException;
+
+/**
+ * 页面字节压缩编码
+ * 实现必须是线程安全的，编码ID写入每条记录，读取时据此选择解码器，
+ * 因此已发布的ID不能改变含义
+ *
+ * @author yefei.yf
+ */
+public interface PageCodec {
+
+    /**
+     * 获取写入记录的编码ID
+     *
+     * @return 编码ID
+     */
+    byte getId();
+
+    /**
+     * 获取配置中使用的名称
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 压缩到目标数组
+     *
+     * @param src 原始字节
+     * @param srcOff 起始位置
+     * @param srcLen 字节数
+     * @param dst 目标数组
+     * @param dstOff 目标起始位置
+     * @param dstLen 目标可用字节数
+     * @return 压缩后的字节数，放不下时返回-1
+     */
+    int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen);
+
+    /**
+     * 解压到目标数组
+     *
+     * @param src 压缩字节
+     * @param srcOff 起始位置
+     * @param srcLen 字节数
+     * @param dst 目标数组
+     * @param dstOff 目标起始位置
+     * @param rawLength 原始字节数
+     * @throws IOException 数据已损坏或解压后长度不符
+     */
+    void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int rawLength) throws IOException;
+}
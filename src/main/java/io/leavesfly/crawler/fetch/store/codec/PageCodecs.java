@@ -0,0 +1,45 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+/**
+ * 内置压缩编码
+ * 读取时按记录中的编码ID选择解码器，同一个存储中可以混有不同编码的记录
+ *
+ * @author yefei.yf
+ */
+public final class PageCodecs {
+
+    public static final PageCodec NONE = new NoneCodec();
+    public static final PageCodec DEFLATE = new DeflateCodec();
+    public static final PageCodec GZIP = new GzipCodec();
+    public static final PageCodec LZ4 = new Lz4Codec();
+
+    private static final PageCodec[] BY_ID = {NONE, DEFLATE, GZIP, LZ4};
+
+    private PageCodecs() {
+    }
+
+    /**
+     * 按编码ID获取
+     *
+     * @param id 编码ID
+     * @return 编码，未知ID返回null
+     */
+    public static PageCodec byId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    /**
+     * 按名称获取
+     *
+     * @param name none、deflate、gzip或lz4
+     * @return 编码
+     */
+    public static PageCodec byName(String name) {
+        for (PageCodec codec : BY_ID) {
+            if (codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("不支持的压缩编码: " + name);
+    }
+}
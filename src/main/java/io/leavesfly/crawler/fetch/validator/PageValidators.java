@@ -0,0 +1,64 @@
+package io.leavesfly.crawler.fetch.validator;
+
+/**
+ * 页面的缓存校验信息
+ * 上次完整响应的ETag、Last-Modified原样保存，下次抓取时作为If-None-Match、If-Modified-Since发送
+ *
+ * @author yefei.yf
+ */
+public final class PageValidators {
+
+    private final String etag;
+    private final String lastModified;
+    private final int contentLength;
+
+    /**
+     * 构造函数
+     *
+     * @param etag ETag响应头，可以为null
+     * @param lastModified Last-Modified响应头，可以为null
+     * @param contentLength 上次完整响应的字节数，命中304时计为节省的流量
+     */
+    public PageValidators(String etag, String lastModified, int contentLength) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentLength = contentLength;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * 是否至少有一个校验值，否则无法发送条件请求
+     */
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+
+    boolean sameAs(String otherEtag, String otherLastModified, int otherContentLength) {
+        return equals(etag, otherEtag) && equals(lastModified, otherLastModified)
+                && contentLength == otherContentLength;
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    @Override
+    public String toString() {
+        return "PageValidators{" +
+                "etag='" + etag + '\'' +
+                ", lastModified='" + lastModified + '\'' +
+                ", contentLength=" + contentLength +
+                '}';
+    }
+}
@@ -0,0 +1,413 @@
+package io.leavesfly.crawler.fetch.validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 条件请求的校验信息缓存
+ * 按URL保存上次完整响应的ETag和Last-Modified，抓取器据此发送If-None-Match、If-Modified-Since，
+ * 服务端返回304时不再下载页面内容。同时统计节省的流量和时间。
+ *
+ * 打开文件时缓存持久化在一个只追加的日志文件中：每次校验信息变化追加一条记录，
+ * 启动时顺序读入，同一URL以最后一条为准；日志中的过期记录过多时在启动时压缩重写。
+ * 最后一条记录不完整（写入中途崩溃）时忽略。一个文件同时只能由一个实例打开
+ *
+ * @author yefei.yf
+ */
+public class ValidatorCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValidatorCache.class);
+
+    /**
+     * 文件魔数："VCAC"
+     */
+    static final int MAGIC = 0x56434143;
+
+    static final int VERSION = 1;
+
+    /**
+     * 过期记录超过这个数且多于有效记录时压缩
+     */
+    private static final int COMPACT_MIN_STALE = 1024;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, PageValidators> validators = new ConcurrentHashMap<>();
+    private final Path path;
+    private FileChannel channel;
+    private FileLock fileLock;
+    private DataOutputStream out;
+
+    private final LongAdder conditionalRequests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+    private final LongAdder fullFetches = new LongAdder();
+    private final LongAdder fullFetchNanos = new LongAdder();
+    private final LongAdder notModifiedNanos = new LongAdder();
+
+    /**
+     * 创建只在内存中的缓存
+     */
+    public ValidatorCache() {
+        this.path = null;
+    }
+
+    private ValidatorCache(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 打开持久化的缓存，文件不存在时创建
+     *
+     * @param path 日志文件
+     * @return 缓存，关闭时写完缓冲的记录
+     * @throws IOException 文件已被其他实例打开或已损坏
+     */
+    public static ValidatorCache open(Path path) throws IOException {
+        ValidatorCache cache = new ValidatorCache(path);
+        cache.openFile();
+        return cache;
+    }
+
+    /**
+     * 获取URL的校验信息
+     *
+     * @param url 页面URL
+     * @return 校验信息，没有时返回null
+     */
+    public PageValidators get(String url) {
+        return validators.get(url);
+    }
+
+    /**
+     * 记录完整响应的校验信息，两个校验值都为空时删除
+     *
+     * @param url 页面URL
+     * @param etag ETag响应头
+     * @param lastModified Last-Modified响应头
+     * @param contentLength 响应体字节数
+     */
+    public void update(String url, String etag, String lastModified, int contentLength) {
+        // 在compute中追加日志，同一URL并发更新时日志中最后一条记录与内存中的值一致
+        validators.compute(url, (key, previous) -> {
+            if (etag == null && lastModified == null) {
+                if (previous != null) {
+                    append(url, null, null, 0);
+                }
+                return null;
+            }
+            if (previous != null && previous.sameAs(etag, lastModified, contentLength)) {
+                return previous;
+            }
+            append(url, etag, lastModified, contentLength);
+            return new PageValidators(etag, lastModified, contentLength);
+        });
+    }
+
+    /**
+     * 记录一次带校验头的请求
+     */
+    public void recordConditionalRequest() {
+        conditionalRequests.increment();
+    }
+
+    /**
+     * 记录一次304响应
+     *
+     * @param validators 请求时使用的校验信息，其字节数计为节省的流量
+     * @param elapsedNanos 请求耗时
+     */
+    public void recordNotModified(PageValidators validators, long elapsedNanos) {
+        notModified.increment();
+        notModifiedNanos.add(elapsedNanos);
+        if (validators != null) {
+            savedBytes.add(validators.getContentLength());
+        }
+    }
+
+    /**
+     * 记录一次完整下载
+     *
+     * @param elapsedNanos 请求耗时
+     */
+    public void recordFullFetch(long elapsedNanos) {
+        fullFetches.increment();
+        fullFetchNanos.add(elapsedNanos);
+    }
+
+    /**
+     * 获取缓存的URL数
+     */
+    public int size() {
+        return validators.size();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 条件请求统计
+     */
+    public ValidatorCacheStats getStats() {
+        return new ValidatorCacheStats(validators.size(), conditionalRequests.sum(), notModified.sum(),
+                savedBytes.sum(), fullFetches.sum(), fullFetchNanos.sum(), notModifiedNanos.sum());
+    }
+
+    /**
+     * 把缓冲的记录写入文件
+     *
+     * @throws IOException 写入失败
+     */
+    public synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * 写完缓冲的记录并释放文件
+     */
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+            fileLock.release();
+            channel.close();
+        } catch (IOException e) {
+            logger.error("关闭校验信息缓存失败: {}", path, e);
+        }
+        out = null;
+        logger.info("校验信息缓存已关闭: {}, URL数: {}", path, validators.size());
+    }
+
+    private void openFile() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("校验信息缓存已被其他实例占用: " + path);
+        }
+
+        try {
+            long records = 0;
+            long validLength = 0;
+            if (exists) {
+                long[] result = load();
+                records = result[0];
+                validLength = result[1];
+            }
+            if (records - validators.size() > Math.max(COMPACT_MIN_STALE, validators.size())) {
+                compact();
+            } else {
+                // 截掉不完整的最后一条记录，新记录追加在有效数据之后
+                if (exists && validLength < channel.size()) {
+                    channel.truncate(validLength);
+                }
+                channel.position(channel.size());
+                out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+                if (!exists) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                }
+            }
+        } catch (IOException e) {
+            fileLock.release();
+            channel.close();
+            throw e;
+        }
+        if (!validators.isEmpty()) {
+            logger.info("校验信息缓存已打开: {}, URL数: {}", path, validators.size());
+        }
+    }
+
+    /**
+     * 读入日志
+     *
+     * @return [记录数, 最后一条完整记录之后的位置]
+     */
+    private long[] load() throws IOException {
+        long records = 0;
+        long validLength;
+        long fileSize = channel.size();
+        channel.position(0);
+        CountingInputStream counting = new CountingInputStream(Channels.newInputStream(channel));
+        DataInputStream in = new DataInputStream(counting);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是校验信息缓存文件: " + path);
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的校验信息缓存版本: " + version);
+        }
+        validLength = counting.count;
+        try {
+            while (counting.count < fileSize) {
+                String url = readString(in);
+                String etag = readString(in);
+                String lastModified = readString(in);
+                int contentLength = in.readInt();
+                if (etag == null && lastModified == null) {
+                    validators.remove(url);
+                } else {
+                    validators.put(url, new PageValidators(etag, lastModified, contentLength));
+                }
+                records++;
+                validLength = counting.count;
+            }
+        } catch (EOFException e) {
+            logger.warn("校验信息缓存最后一条记录不完整，已忽略: {}", path);
+        }
+        return new long[]{records, validLength};
+    }
+
+    /**
+     * 只保留每个URL的最新记录，写入临时文件后原子替换
+     */
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), WRITE_BUFFER_SIZE))) {
+            tmpOut.writeInt(MAGIC);
+            tmpOut.writeInt(VERSION);
+            for (Map.Entry<String, PageValidators> entry : validators.entrySet()) {
+                PageValidators value = entry.getValue();
+                writeRecord(tmpOut, entry.getKey(), value.getEtag(), value.getLastModified(), value.getContentLength());
+            }
+        }
+        // 锁住的是旧文件，替换后重新打开并锁定新文件
+        fileLock.release();
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        fileLock = channel.tryLock();
+        if (fileLock == null) {
+            channel.close();
+            throw new IOException("校验信息缓存已被其他实例占用: " + path);
+        }
+        channel.position(channel.size());
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+        logger.info("校验信息缓存已压缩: {}, URL数: {}", path, validators.size());
+    }
+
+    private synchronized void append(String url, String etag, String lastModified, int contentLength) {
+        if (out == null) {
+            return;
+        }
+        try {
+            writeRecord(out, url, etag, lastModified, contentLength);
+        } catch (IOException e) {
+            logger.error("写入校验信息缓存失败: {}", path, e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, String url, String etag, String lastModified,
+                                    int contentLength) throws IOException {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        byte[] etagBytes = etag != null ? etag.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] lastModifiedBytes = lastModified != null ? lastModified.getBytes(StandardCharsets.UTF_8) : null;
+        if (urlBytes.length > 0xFFFE || (etagBytes != null && etagBytes.length > 0xFFFE)
+                || (lastModifiedBytes != null && lastModifiedBytes.length > 0xFFFE)) {
+            return;
+        }
+        writeBytes(out, urlBytes);
+        writeBytes(out, etagBytes);
+        writeBytes(out, lastModifiedBytes);
+        out.writeInt(contentLength);
+    }
+
+    /**
+     * 长度0xFFFF表示null
+     */
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeShort(0xFFFF);
+            return;
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 读取字符串，长度0xFFFF时返回null
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == 0xFFFF) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 记录已读取字节数的缓冲输入流
+     */
+    private static final class CountingInputStream extends BufferedInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in, WRITE_BUFFER_SIZE);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatorCache{" +
+                "path=" + path +
+                ", urls=" + validators.size() +
+                '}';
+    }
+}
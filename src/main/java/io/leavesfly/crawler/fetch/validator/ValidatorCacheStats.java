@@ -0,0 +1,111 @@
+package io.leavesfly.crawler.fetch.validator;
+
+/**
+ * 条件请求统计快照
+ *
+ * @author yefei.yf
+ */
+public class ValidatorCacheStats {
+
+    private final int cachedUrls;
+    private final long conditionalRequests;
+    private final long notModified;
+    private final long savedBytes;
+    private final long fullFetches;
+    private final long fullFetchNanos;
+    private final long notModifiedNanos;
+
+    public ValidatorCacheStats(int cachedUrls, long conditionalRequests, long notModified, long savedBytes,
+                               long fullFetches, long fullFetchNanos, long notModifiedNanos) {
+        this.cachedUrls = cachedUrls;
+        this.conditionalRequests = conditionalRequests;
+        this.notModified = notModified;
+        this.savedBytes = savedBytes;
+        this.fullFetches = fullFetches;
+        this.fullFetchNanos = fullFetchNanos;
+        this.notModifiedNanos = notModifiedNanos;
+    }
+
+    /**
+     * 获取保存了校验信息的URL数
+     */
+    public int getCachedUrls() {
+        return cachedUrls;
+    }
+
+    /**
+     * 获取带校验头发出的请求数
+     */
+    public long getConditionalRequests() {
+        return conditionalRequests;
+    }
+
+    /**
+     * 获取得到304响应的请求数
+     */
+    public long getNotModified() {
+        return notModified;
+    }
+
+    /**
+     * 获取节省的下载字节数：每次304按该URL上次完整响应的字节数计
+     */
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+
+    public long getFullFetches() {
+        return fullFetches;
+    }
+
+    /**
+     * 获取完整下载的平均耗时
+     *
+     * @return 毫秒数，没有完整下载时为0
+     */
+    public double getAverageFullFetchMillis() {
+        return fullFetches > 0 ? fullFetchNanos / 1_000_000.0 / fullFetches : 0.0;
+    }
+
+    /**
+     * 获取304响应的平均耗时
+     *
+     * @return 毫秒数，没有304响应时为0
+     */
+    public double getAverageNotModifiedMillis() {
+        return notModified > 0 ? notModifiedNanos / 1_000_000.0 / notModified : 0.0;
+    }
+
+    /**
+     * 获取估算节省的下载时间：304次数乘以完整下载与304响应的平均耗时之差
+     *
+     * @return 毫秒数
+     */
+    public double getSavedMillis() {
+        if (notModified == 0 || fullFetches == 0) {
+            return 0.0;
+        }
+        return Math.max(0.0, (getAverageFullFetchMillis() - getAverageNotModifiedMillis()) * notModified);
+    }
+
+    /**
+     * 获取条件请求的命中率
+     *
+     * @return 304次数 / 条件请求数
+     */
+    public double getHitRate() {
+        return conditionalRequests > 0 ? (double) notModified / conditionalRequests : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidatorCacheStats{" +
+                "cachedUrls=" + cachedUrls +
+                ", conditionalRequests=" + conditionalRequests +
+                ", notModified=" + notModified +
+                ", hitRate=" + String.format("%.2f%%", getHitRate() * 100) +
+                ", savedBytes=" + savedBytes +
+                ", savedMillis=" + String.format("%.1f", getSavedMillis()) +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package io.leavesfly.crawler.parse;
+
+import io.leavesfly.crawler.domain.RawPage;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * 页面文档解析
+ * 由原始字节创建的页面直接从字节流解析，不先解码成完整字符串。
+ * 流水线中通过{@link io.leavesfly.crawler.domain.CrawlContext#getDocument()}取得解析结果，
+ * 同一页面只解析一次，由策略、URL过滤器和字段提取器共用
+ *
+ * @author yefei.yf
+ */
+public final class DocumentParser {
+
+    private DocumentParser() {
+    }
+
+    /**
+     * 解析页面
+     *
+     * @param rawPage 原始页面
+     * @return 文档树，以页面URL作为解析相对链接的基准
+     */
+    public static Document parse(RawPage rawPage) {
+        if (rawPage.hasRawBody()) {
+            try {
+                return Jsoup.parse(new ByteArrayInputStream(rawPage.getBody()),
+                        rawPage.getContentCharset(), rawPage.getUrl());
+            } catch (IOException e) {
+                // 内存中的字节流不会出现读取错误
+                throw new UncheckedIOException(e);
+            }
+        }
+        String content = rawPage.getContent();
+        return Jsoup.parse(content != null ? content : "", rawPage.getUrl() != null ? rawPage.getUrl() : "");
+    }
+}
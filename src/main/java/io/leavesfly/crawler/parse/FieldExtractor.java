@@ -1,6 +1,8 @@
 package io.leavesfly.crawler.parse;
 
+import io.leavesfly.crawler.domain.CrawlContext;
 import io.leavesfly.crawler.domain.RawPage;
+import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,8 +24,34 @@ public abstract class FieldExtractor implements Accepter {
 
 	}
 
+	/**
+	 * 从上下文中共用的文档树提取字段，不再重新解析页面
+	 * 
+	 * @param context 爬虫上下文
+	 */
+	public void extractFile(CrawlContext context) {
+		RawPage rawPage = context.getRawPage();
+		if (rawPage != null && accept(rawPage.getUrl())) {
+			int state = getItemAndStore(rawPage, context.getDocument());
+			if (state != ItemStorage.ITEM_STORM_SUCCESS) {
+				LOG.error("extractFile() occur error!");
+			}
+		}
+	}
+
 	public abstract int getItemAndStore(String pageText);
 
+	/**
+	 * 从已解析的文档树提取字段并存储，默认退回到按页面文本提取，子类应覆盖以避免重复解析
+	 * 
+	 * @param rawPage 原始页面
+	 * @param document 页面的文档树，没有内容时为null
+	 * @return 存储状态
+	 */
+	public int getItemAndStore(RawPage rawPage, Document document) {
+		return getItemAndStore(rawPage.getContent());
+	}
+
 	public boolean accept(String url) {
 		// TODO Auto-generated method stub
 		return false;
@@ -2,9 +2,12 @@ package io.leavesfly.crawler.parse;
 
 import java.util.List;
 
+import org.jsoup.nodes.Document;
+
+import io.leavesfly.crawler.domain.CrawlContext;
 import io.leavesfly.crawler.domain.RawPage;
-import io.leavesfly.crawler.schedule.BlockQueue;
-import io.leavesfly.crawler.schedule.URLMutilQueue;
+import io.leavesfly.crawler.schedule.UrlFrontier;
+import io.leavesfly.crawler.schedule.UrlFrontierFactory;
 
 /**
  * 
@@ -12,21 +15,53 @@ import io.leavesfly.crawler.schedule.URLMutilQueue;
  * 
  */
 public abstract class URLFilter implements Accepter {
-	private BlockQueue urlBlockQueue;
+	private UrlFrontier urlFrontier;
 
 	public void init() {
-		urlBlockQueue = URLMutilQueue.getURLQueueInstace();
+		urlFrontier = UrlFrontierFactory.getSharedFrontier();
 	}
 
 	public void filterURL(RawPage rawPage) {
 		if (accept(rawPage.getUrl())) {
-			List<String> urlList = filterURLFromPageText(rawPage);
-			urlBlockQueue.enQueue(urlList);
+			offerAll(filterURLFromPageText(rawPage));
+		}
+	}
+
+	/**
+	 * 从上下文中共用的文档树提取URL，不再重新解析页面
+	 * 
+	 * @param context 爬虫上下文
+	 */
+	public void filterURL(CrawlContext context) {
+		RawPage rawPage = context.getRawPage();
+		if (rawPage != null && accept(rawPage.getUrl())) {
+			Document document = context.getDocument();
+			offerAll(document != null ? filterURLFromDocument(rawPage, document) : null);
+		}
+	}
+
+	private void offerAll(List<String> urlList) {
+		if (urlList == null) {
+			return;
+		}
+		for (String url : urlList) {
+			urlFrontier.offer(url);
 		}
 	}
 
 	public abstract List<String> filterURLFromPageText(RawPage rawPage);
 
+	/**
+	 * 从已解析的文档树提取URL，默认退回到按页面文本提取，子类应覆盖以避免重复解析
+	 * 
+	 * @param rawPage 原始页面
+	 * @param document 页面的文档树
+	 * @return URL列表，可以为null
+	 */
+	public List<String> filterURLFromDocument(RawPage rawPage, Document document) {
+		return filterURLFromPageText(rawPage);
+	}
+
 	public boolean accept(String url) {
 		// TODO Auto-generated method stub
 		return false;
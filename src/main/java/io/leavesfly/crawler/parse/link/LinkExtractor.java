@@ -0,0 +1,542 @@
+package io.leavesfly.crawler.parse.link;
+
+import io.leavesfly.crawler.domain.RawPage;
+import org.jsoup.parser.Parser;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 流式链接提取器
+ * 只为发现链接而扫描页面一遍，不构建文档树：跳过注释和脚本、样式等纯文本元素的内容，
+ * 只在a和base标签上取属性值，其他标签的属性只跳过不复制。
+ * 链接按页面URL或页面中第一个base标签的href解析为绝对URL，只输出http和https链接。
+ * <p>
+ * 链接满足任一规则即输出：解析后的URL匹配某个正则，或a标签的某个属性含有指定内容；
+ * 没有配置任何规则时输出全部链接。配置了脚本标记时，含有标记的内嵌脚本内容也交给回调。
+ * 提取器本身不可变，可以在多个线程间共用
+ *
+ * @author yefei.yf
+ */
+public final class LinkExtractor {
+
+    /**
+     * 内容按纯文本处理的元素，其中的标签不是真正的标签
+     */
+    private static final String[] RAW_TEXT_TAGS = {
+            "script", "style", "textarea", "title", "xmp", "iframe", "noembed", "noframes"};
+
+    private final Pattern[] includePatterns;
+    private final AttributeRule[] attributeRules;
+    private final String scriptMarker;
+
+    private LinkExtractor(Builder builder) {
+        this.includePatterns = builder.includePatterns.toArray(new Pattern[0]);
+        this.attributeRules = builder.attributeRules.toArray(new AttributeRule[0]);
+        this.scriptMarker = builder.scriptMarker;
+    }
+
+    /**
+     * 创建提取器构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 提取页面中的链接
+     * 原始字节全是ASCII时直接扫描字节上的字符视图，不解码页面
+     *
+     * @param rawPage 原始页面
+     * @return 按出现顺序排列的绝对URL，没有内容时返回空列表
+     */
+    public List<String> extract(RawPage rawPage) {
+        List<String> urls = new ArrayList<>();
+        if (rawPage != null && rawPage.hasContent()) {
+            extract(rawPage.getContentView(), rawPage.getUrl(), urls::add);
+        }
+        return urls;
+    }
+
+    /**
+     * 扫描页面，把符合规则的链接和含有标记的脚本交给回调
+     *
+     * @param html 页面内容
+     * @param pageUrl 页面URL，用于解析相对链接，可以为null
+     * @param handler 回调
+     */
+    public void extract(CharSequence html, String pageUrl, LinkHandler handler) {
+        if (html != null) {
+            new Scan(html, pageUrl, handler).run();
+        }
+    }
+
+    private boolean accept(String url, String[] values) {
+        if (includePatterns.length == 0 && attributeRules.length == 0) {
+            return true;
+        }
+        for (Pattern pattern : includePatterns) {
+            if (pattern.matcher(url).find()) {
+                return true;
+            }
+        }
+        for (int i = 0; i < attributeRules.length; i++) {
+            if (values[i] != null && attributeRules[i].matches(values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return isWhitespace(c) || c == '/' || c == '>';
+    }
+
+    private static boolean isAttributeNameEnd(char c) {
+        return isTagNameEnd(c) || c == '=';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * 一次扫描的状态
+     */
+    private final class Scan {
+        private final CharSequence html;
+        private final String text;
+        private final int length;
+        private final String pageUrl;
+        private final LinkHandler handler;
+        private final String[] values = new String[attributeRules.length];
+        private String href;
+        private URL base;
+        private boolean baseResolved;
+        private boolean baseFromTag;
+        private int pos;
+
+        Scan(CharSequence html, String pageUrl, LinkHandler handler) {
+            this.html = html;
+            this.text = html instanceof String ? (String) html : null;
+            this.length = html.length();
+            this.pageUrl = pageUrl;
+            this.handler = handler;
+        }
+
+        void run() {
+            while (pos < length) {
+                int lt = indexOf('<', pos);
+                if (lt < 0 || lt + 1 >= length) {
+                    return;
+                }
+                char c = html.charAt(lt + 1);
+                if (c == '!' && startsWith(lt + 2, "--")) {
+                    int end = indexOf("-->", lt + 4, length);
+                    pos = end < 0 ? length : end + 3;
+                } else if (c == '!' || c == '/' || c == '?') {
+                    // 结束标签、DOCTYPE和处理指令没有需要的内容
+                    pos = skipPast('>', lt + 2);
+                } else if (isLetter(c)) {
+                    tag(lt + 1);
+                } else {
+                    pos = lt + 1;
+                }
+            }
+        }
+
+        private void tag(int start) {
+            int nameEnd = start;
+            while (nameEnd < length && !isTagNameEnd(html.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            int nameLength = nameEnd - start;
+            boolean anchor = nameIs(start, nameLength, "a");
+            boolean baseTag = !anchor && !baseFromTag && nameIs(start, nameLength, "base");
+            href = null;
+            Arrays.fill(values, null);
+
+            int end = attributes(nameEnd, anchor, baseTag);
+            if (end < 0) {
+                pos = length;
+                return;
+            }
+            pos = end + 1;
+            if (anchor) {
+                anchor();
+            } else if (baseTag) {
+                base();
+            } else {
+                String rawTextTag = rawTextTag(start, nameLength);
+                if (rawTextTag != null) {
+                    rawText(rawTextTag);
+                }
+            }
+        }
+
+        /**
+         * 扫描属性，需要时取出href和规则关心的属性值
+         *
+         * @return 标签结束的'>'位置，标签不完整时返回-1
+         */
+        private int attributes(int from, boolean anchor, boolean baseTag) {
+            int i = from;
+            while (i < length) {
+                char c = html.charAt(i);
+                if (c == '>') {
+                    return i;
+                }
+                if (isWhitespace(c) || c == '/') {
+                    i++;
+                    continue;
+                }
+                int nameStart = i;
+                while (i < length && !isAttributeNameEnd(html.charAt(i))) {
+                    i++;
+                }
+                if (i == nameStart) {
+                    // 以'='开头的属性名
+                    i++;
+                }
+                int nameEnd = i;
+                while (i < length && isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i >= length || html.charAt(i) != '=') {
+                    continue;
+                }
+                i++;
+                while (i < length && isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i >= length) {
+                    return -1;
+                }
+                char quote = html.charAt(i);
+                int valueStart;
+                int valueEnd;
+                if (quote == '"' || quote == '\'') {
+                    valueStart = i + 1;
+                    valueEnd = indexOf(quote, valueStart);
+                    if (valueEnd < 0) {
+                        return -1;
+                    }
+                    i = valueEnd + 1;
+                } else {
+                    valueStart = i;
+                    while (i < length && !isWhitespace(html.charAt(i)) && html.charAt(i) != '>') {
+                        i++;
+                    }
+                    valueEnd = i;
+                }
+                if (anchor || baseTag) {
+                    capture(nameStart, nameEnd - nameStart, valueStart, valueEnd, anchor);
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * 同名属性只取第一个，与浏览器一致
+         */
+        private void capture(int nameStart, int nameLength, int valueStart, int valueEnd, boolean anchor) {
+            if (href == null && nameIs(nameStart, nameLength, "href")) {
+                href = value(valueStart, valueEnd);
+            }
+            if (!anchor) {
+                return;
+            }
+            for (int i = 0; i < attributeRules.length; i++) {
+                if (values[i] == null && nameIs(nameStart, nameLength, attributeRules[i].name)) {
+                    values[i] = value(valueStart, valueEnd);
+                }
+            }
+        }
+
+        private String value(int start, int end) {
+            String value = html.subSequence(start, end).toString();
+            return value.indexOf('&') >= 0 ? Parser.unescapeEntities(value, true) : value;
+        }
+
+        private void anchor() {
+            if (href == null) {
+                return;
+            }
+            String url = resolve(href.trim());
+            if (url != null && accept(url, values)) {
+                handler.onLink(url);
+            }
+        }
+
+        /**
+         * 第一个带href的base标签决定之后链接的基准URL
+         */
+        private void base() {
+            if (href == null) {
+                return;
+            }
+            baseFromTag = true;
+            URL context = baseUrl();
+            try {
+                base = context != null ? new URL(context, href.trim()) : new URL(href.trim());
+            } catch (MalformedURLException e) {
+                // 无效的base不影响按页面URL解析
+            }
+        }
+
+        private URL baseUrl() {
+            if (!baseResolved) {
+                baseResolved = true;
+                try {
+                    base = pageUrl != null ? new URL(pageUrl) : null;
+                } catch (MalformedURLException e) {
+                    base = null;
+                }
+            }
+            return base;
+        }
+
+        private String resolve(String value) {
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                URL context = baseUrl();
+                URL url;
+                if (context == null) {
+                    url = new URL(value);
+                } else {
+                    // java.net.URL把"?query"解析到上一级目录，这里补上当前路径
+                    url = new URL(context, value.startsWith("?") ? context.getPath() + value : value);
+                }
+                String protocol = url.getProtocol();
+                return "http".equals(protocol) || "https".equals(protocol) ? url.toExternalForm() : null;
+            } catch (MalformedURLException e) {
+                // javascript:等无法识别的协议
+                return null;
+            }
+        }
+
+        /**
+         * 跳过纯文本元素的内容直到对应的结束标签，含有标记的脚本交给回调
+         */
+        private void rawText(String tagName) {
+            int contentStart = pos;
+            int contentEnd = length;
+            int i = contentStart;
+            while (i < length) {
+                int lt = indexOf('<', i);
+                if (lt < 0) {
+                    break;
+                }
+                int nameStart = lt + 2;
+                int nameEnd = nameStart + tagName.length();
+                if (nameStart < length && html.charAt(lt + 1) == '/'
+                        && nameEnd <= length && nameIs(nameStart, tagName.length(), tagName)
+                        && (nameEnd == length || isTagNameEnd(html.charAt(nameEnd)))) {
+                    contentEnd = lt;
+                    break;
+                }
+                i = lt + 1;
+            }
+            pos = contentEnd < length ? skipPast('>', contentEnd + 2) : length;
+            if (scriptMarker != null && "script".equals(tagName)
+                    && indexOf(scriptMarker, contentStart, contentEnd) >= 0) {
+                handler.onScript(html.subSequence(contentStart, contentEnd).toString());
+            }
+        }
+
+        private String rawTextTag(int start, int nameLength) {
+            for (String tagName : RAW_TEXT_TAGS) {
+                if (nameIs(start, nameLength, tagName)) {
+                    return tagName;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 比较名称，忽略大小写
+         *
+         * @param lowerName 小写名称
+         */
+        private boolean nameIs(int start, int nameLength, String lowerName) {
+            if (nameLength != lowerName.length()) {
+                return false;
+            }
+            for (int i = 0; i < nameLength; i++) {
+                if (Character.toLowerCase(html.charAt(start + i)) != lowerName.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean startsWith(int from, String prefix) {
+            if (from + prefix.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (html.charAt(from + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return 字符之后的位置，找不到时返回页面长度
+         */
+        private int skipPast(char c, int from) {
+            int index = indexOf(c, from);
+            return index < 0 ? length : index + 1;
+        }
+
+        private int indexOf(char c, int from) {
+            if (text != null) {
+                return text.indexOf(c, from);
+            }
+            for (int i = from; i < length; i++) {
+                if (html.charAt(i) == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOf(String target, int from, int to) {
+            if (text != null) {
+                int index = text.indexOf(target, from);
+                return index >= 0 && index + target.length() <= to ? index : -1;
+            }
+            char first = target.charAt(0);
+            for (int i = from; i + target.length() <= to; i++) {
+                if (html.charAt(i) == first && startsWith(i, target)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * 按a标签属性选择链接的规则
+     */
+    private static final class AttributeRule {
+        private final String name;
+        private final String value;
+        private final boolean classToken;
+
+        AttributeRule(String name, String value, boolean classToken) {
+            this.name = name;
+            this.value = value;
+            this.classToken = classToken;
+        }
+
+        boolean matches(String attributeValue) {
+            if (!classToken) {
+                return attributeValue.contains(value);
+            }
+            // class属性按空白分隔的类名整词匹配
+            int from = 0;
+            while (true) {
+                int index = attributeValue.indexOf(value, from);
+                if (index < 0) {
+                    return false;
+                }
+                int end = index + value.length();
+                if ((index == 0 || isWhitespace(attributeValue.charAt(index - 1)))
+                        && (end == attributeValue.length() || isWhitespace(attributeValue.charAt(end)))) {
+                    return true;
+                }
+                from = index + 1;
+            }
+        }
+    }
+
+    /**
+     * 提取器构建器
+     */
+    public static class Builder {
+        private final List<Pattern> includePatterns = new ArrayList<>();
+        private final List<AttributeRule> attributeRules = new ArrayList<>();
+        private String scriptMarker;
+
+        private Builder() {
+        }
+
+        /**
+         * 输出解析后的URL中能找到该正则的链接
+         *
+         * @param regex 正则表达式
+         */
+        public Builder include(String regex) {
+            return include(Pattern.compile(regex));
+        }
+
+        /**
+         * 输出解析后的URL中能找到该正则的链接
+         *
+         * @param pattern 正则
+         */
+        public Builder include(Pattern pattern) {
+            includePatterns.add(pattern);
+            return this;
+        }
+
+        /**
+         * 输出指定属性含有指定内容的a标签的链接
+         *
+         * @param name 属性名，不区分大小写
+         * @param value 属性值中包含的内容
+         */
+        public Builder attributeContains(String name, String value) {
+            attributeRules.add(new AttributeRule(lowerName(name), requireValue(value), false));
+            return this;
+        }
+
+        /**
+         * 输出带有指定类名的a标签的链接
+         *
+         * @param className 类名
+         */
+        public Builder withClass(String className) {
+            attributeRules.add(new AttributeRule("class", requireValue(className), true));
+            return this;
+        }
+
+        /**
+         * 把含有指定标记的内嵌脚本交给{@link LinkHandler#onScript(String)}
+         *
+         * @param marker 脚本中包含的内容
+         */
+        public Builder scriptContaining(String marker) {
+            this.scriptMarker = requireValue(marker);
+            return this;
+        }
+
+        public LinkExtractor build() {
+            return new LinkExtractor(this);
+        }
+
+        private static String lowerName(String name) {
+            return requireValue(name).toLowerCase(Locale.ROOT);
+        }
+
+        private static String requireValue(String value) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("规则内容不能为空");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.leavesfly.crawler.parse.link;
+
+/**
+ * 链接提取回调
+ * 由{@link LinkExtractor}在扫描页面的过程中按出现顺序调用
+ *
+ * @author yefei.yf
+ */
+public interface LinkHandler {
+
+    /**
+     * 发现一个符合规则的链接
+     *
+     * @param url 解析后的绝对URL
+     */
+    void onLink(String url);
+
+    /**
+     * 发现一段包含标记的内嵌脚本
+     *
+     * @param script 脚本内容
+     */
+    default void onScript(String script) {
+    }
+}
@@ -1,78 +1,46 @@
 package io.leavesfly.crawler.parse.meituan.page;
 
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.htmlparser.Node;
-import org.htmlparser.NodeFilter;
-import org.htmlparser.Parser;
-import org.htmlparser.filters.AndFilter;
-import org.htmlparser.filters.NodeClassFilter;
-import org.htmlparser.filters.OrFilter;
-import org.htmlparser.tags.LinkTag;
-import org.htmlparser.tags.ScriptTag;
-import org.htmlparser.util.NodeList;
-import org.htmlparser.util.ParserException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 
 import io.leavesfly.crawler.constant.ParseConstant;
 import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.parse.DocumentParser;
 import io.leavesfly.crawler.parse.URLFilter;
 import io.leavesfly.crawler.util.URLStrUtil;
 
+/**
+ * 美团列表页URL过滤器
+ * 从内嵌脚本的deals字段取详情页ID，再取"下一页"链接。
+ * 直接使用流水线中共用的jsoup文档树，不再用htmlparser另外解析一遍
+ * 
+ * @author yefei.yf
+ */
 public class MeiTuanListPageURLFilter extends URLFilter {
-	private static final Logger LOG = LoggerFactory.getLogger(MeiTuanListPageURLFilter.class);
 
-	private static MeiTuanListPageURLFilter meiTuanListPageURLFilter;
+	private static volatile MeiTuanListPageURLFilter meiTuanListPageURLFilter;
 
-	private Pattern pattern = Pattern.compile("\"deals\":\"(.*?)\"");
+	private static final String DEALS_MARKER = "\"deals\":\"";
 
-	private OrFilter orFilter;
+	private static final String NEXT_PAGE_TEXT = "下一页";
+
+	private final Pattern pattern = Pattern.compile("\"deals\":\"(.*?)\"");
 
 	private MeiTuanListPageURLFilter() {
 		init();
-
-		AndFilter leftAndFilter = new AndFilter(new NodeClassFilter(ScriptTag.class),
-				new NodeFilter() {
-					private static final long serialVersionUID = 1L;
-
-					public boolean accept(Node node) {
-						if (node.getText().contains("\"deals\":\"")) {
-							return true;
-						}
-						return false;
-					}
-				});
-
-		AndFilter rightAndFilter = new AndFilter(new NodeClassFilter(LinkTag.class),
-				new NodeFilter() {
-
-					private static final long serialVersionUID = 1L;
-
-					public boolean accept(Node node) {
-						LinkTag linkTag = (LinkTag) node;
-						if (linkTag.getLinkText().equals("��һҳ")) {
-							return true;
-						}
-						return false;
-					}
-				});
-
-		orFilter = new OrFilter(leftAndFilter, rightAndFilter);
-
 	}
 
 	public static MeiTuanListPageURLFilter getInstance() {
 		if (meiTuanListPageURLFilter == null) {
-			synchronized (meiTuanListPageURLFilter) {
+			synchronized (MeiTuanListPageURLFilter.class) {
 				if (meiTuanListPageURLFilter == null) {
-					return new MeiTuanListPageURLFilter();
+					meiTuanListPageURLFilter = new MeiTuanListPageURLFilter();
 				}
-
 			}
 		}
 		return meiTuanListPageURLFilter;
@@ -96,43 +64,32 @@ public class MeiTuanListPageURLFilter extends URLFilter {
 
 	@Override
 	public List<String> filterURLFromPageText(RawPage rawPage) {
-		String pageText = rawPage.getContent();
-		String url = rawPage.getUrl();
+		return filterURLFromDocument(rawPage, DocumentParser.parse(rawPage));
+	}
+
+	@Override
+	public List<String> filterURLFromDocument(RawPage rawPage, Document document) {
 		List<String> urlList = new LinkedList<String>();
-		String cityCode = URLStrUtil.getCityCodeByURLString(url);
-		Parser parser = new Parser();
-		try {
-			parser.setInputHTML(pageText);
-			NodeList nodeList = parser.extractAllNodesThatMatch(orFilter);
-
-			for (int i = 0; i < nodeList.size(); i++) {
-				Node node = nodeList.elementAt(i);
-				if (node instanceof ScriptTag) {
-					ScriptTag scriptTag = (ScriptTag) node;
-					String script = scriptTag.getStringText();
-					Matcher matcher = pattern.matcher(script);
-					if (matcher.find()) {
-						script = matcher.group();
-						String[] strArr = script.substring(script.indexOf(":\"") + 2,
-								script.lastIndexOf("\"")).split(",");
-						for (String str : strArr) {
-							urlList.add(ParseConstant.HTTP_PROTOCOL + cityCode
-									+ ParseConstant.MEI_TUAN_DETAIL_PAGE_URL_MODE + str + ".htm");
-						}
-					}
-				} else {
-					LinkTag linkTag = (LinkTag) node;
-					String nextPageURL = ParseConstant.MEI_TUAN_URL + linkTag.getLink();
-					urlList.add(nextPageURL);
+		String cityCode = URLStrUtil.getCityCodeByURLString(rawPage.getUrl());
+
+		for (Element scriptTag : document.getElementsByTag("script")) {
+			String script = scriptTag.data();
+			if (!script.contains(DEALS_MARKER)) {
+				continue;
+			}
+			Matcher matcher = pattern.matcher(script);
+			if (matcher.find()) {
+				for (String str : matcher.group(1).split(",")) {
+					urlList.add(ParseConstant.HTTP_PROTOCOL + cityCode
+							+ ParseConstant.MEI_TUAN_DETAIL_PAGE_URL_MODE + str + ".htm");
 				}
 			}
-			return urlList;
-		} catch (ParserException e) {
-			LOG.error("filterURLFromPageText() occur error!");
-			e.printStackTrace();
-
 		}
-
-		return Collections.emptyList();
+		for (Element linkTag : document.getElementsByTag("a")) {
+			if (NEXT_PAGE_TEXT.equals(linkTag.text())) {
+				urlList.add(ParseConstant.MEI_TUAN_URL + linkTag.attr("href"));
+			}
+		}
+		return urlList;
 	}
 }
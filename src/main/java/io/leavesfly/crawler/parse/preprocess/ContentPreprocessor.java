@@ -0,0 +1,19 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+/**
+ * 页面内容预处理步骤
+ * 实现应只向前扫描输入一遍，把结果追加到调用方提供的缓冲区，不自行创建中间字符串。
+ * 多个步骤用{@link PreprocessorChain}组合
+ *
+ * @author yefei.yf
+ */
+public interface ContentPreprocessor {
+
+    /**
+     * 处理内容
+     *
+     * @param input 输入内容
+     * @param out 输出缓冲区，结果追加在已有内容之后
+     */
+    void process(CharSequence input, StringBuilder out);
+}
@@ -0,0 +1,117 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+import java.util.Arrays;
+
+/**
+ * 预处理步骤链
+ * 按顺序执行各步骤，中间结果在每个线程复用的两个缓冲区之间交替写入，只在最后生成一次字符串。
+ * 超过保留上限的缓冲区用完后丢弃，避免个别大页面长期占用内存。
+ * 链不可变，可以在多个线程间共用
+ *
+ * @author yefei.yf
+ */
+public final class PreprocessorChain implements ContentPreprocessor {
+
+    /**
+     * 每个缓冲区保留的最大字符数
+     */
+    private static final int MAX_RETAINED_CHARS = 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final ContentPreprocessor[] steps;
+
+    /**
+     * 两个中间结果缓冲区和一个输出缓冲区
+     */
+    private final ThreadLocal<StringBuilder[]> buffers = ThreadLocal.withInitial(() -> new StringBuilder[3]);
+
+    private PreprocessorChain(ContentPreprocessor[] steps) {
+        for (ContentPreprocessor step : steps) {
+            if (step == null) {
+                throw new IllegalArgumentException("预处理步骤不能为null");
+            }
+        }
+        this.steps = steps;
+    }
+
+    /**
+     * 创建步骤链
+     *
+     * @param steps 按执行顺序排列的步骤
+     * @return 步骤链
+     */
+    public static PreprocessorChain of(ContentPreprocessor... steps) {
+        return new PreprocessorChain(steps.clone());
+    }
+
+    /**
+     * 在末尾追加步骤，返回新的步骤链
+     *
+     * @param step 步骤
+     * @return 新的步骤链
+     */
+    public PreprocessorChain then(ContentPreprocessor step) {
+        ContentPreprocessor[] extended = Arrays.copyOf(steps, steps.length + 1);
+        extended[steps.length] = step;
+        return new PreprocessorChain(extended);
+    }
+
+    /**
+     * 处理内容
+     *
+     * @param input 输入内容，可以为null
+     * @return 处理后的内容，输入为null时返回null
+     */
+    public String apply(CharSequence input) {
+        if (input == null) {
+            return null;
+        }
+        if (steps.length == 0) {
+            return input.toString();
+        }
+        StringBuilder out = buffer(2);
+        try {
+            process(input, out);
+            return out.toString();
+        } finally {
+            release(2);
+        }
+    }
+
+    @Override
+    public void process(CharSequence input, StringBuilder out) {
+        if (steps.length == 0) {
+            out.append(input);
+            return;
+        }
+        CharSequence current = input;
+        for (int i = 0; i < steps.length - 1; i++) {
+            StringBuilder buffer = buffer(i & 1);
+            steps[i].process(current, buffer);
+            current = buffer;
+        }
+        try {
+            steps[steps.length - 1].process(current, out);
+        } finally {
+            release(0);
+            release(1);
+        }
+    }
+
+    private StringBuilder buffer(int index) {
+        StringBuilder[] builders = buffers.get();
+        if (builders[index] == null) {
+            builders[index] = new StringBuilder(INITIAL_CAPACITY);
+        }
+        builders[index].setLength(0);
+        return builders[index];
+    }
+
+    private void release(int index) {
+        StringBuilder[] builders = buffers.get();
+        if (builders[index] != null && builders[index].capacity() > MAX_RETAINED_CHARS) {
+            builders[index] = null;
+        }
+    }
+}
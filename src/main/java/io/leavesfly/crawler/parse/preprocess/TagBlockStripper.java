@@ -0,0 +1,181 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+import java.util.Locale;
+
+/**
+ * 删除指定元素（含内容）和注释的预处理步骤
+ * 线性扫描一遍，未删除的片段整段复制到输出。标签名不区分大小写且必须完整匹配，
+ * &lt;scripts&gt;不算&lt;script&gt;；开始标签中引号内的'&gt;'不结束标签。
+ * 元素内容跨多行时同样删除；开始标签不完整或缺少结束标签时删除到内容末尾，与浏览器把剩余部分当作脚本一致
+ *
+ * @author yefei.yf
+ */
+public final class TagBlockStripper implements ContentPreprocessor {
+
+    private final String[] tagNames;
+    private final boolean stripComments;
+
+    /**
+     * @param tagNames 要删除的元素名，如script、style
+     */
+    public TagBlockStripper(String... tagNames) {
+        this(false, tagNames);
+    }
+
+    /**
+     * @param stripComments 是否同时删除注释
+     * @param tagNames 要删除的元素名，如script、style
+     */
+    public TagBlockStripper(boolean stripComments, String... tagNames) {
+        this.stripComments = stripComments;
+        this.tagNames = new String[tagNames.length];
+        for (int i = 0; i < tagNames.length; i++) {
+            if (tagNames[i] == null || tagNames[i].isEmpty()) {
+                throw new IllegalArgumentException("元素名不能为空");
+            }
+            this.tagNames[i] = tagNames[i].toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Override
+    public void process(CharSequence input, StringBuilder out) {
+        int length = input.length();
+        int copyFrom = 0;
+        int i = 0;
+        while (i < length) {
+            int lt = indexOf(input, '<', i);
+            if (lt < 0) {
+                break;
+            }
+            int end = blockEnd(input, lt);
+            if (end < 0) {
+                i = lt + 1;
+                continue;
+            }
+            out.append(input, copyFrom, lt);
+            copyFrom = end;
+            i = end;
+        }
+        out.append(input, copyFrom, length);
+    }
+
+    /**
+     * @return 从lt开始的注释或元素之后的位置，lt处不是要删除的内容时返回-1
+     */
+    private int blockEnd(CharSequence input, int lt) {
+        int length = input.length();
+        if (stripComments && startsWith(input, lt, "<!--")) {
+            int end = indexOf(input, "-->", lt + 4);
+            return end < 0 ? length : end + 3;
+        }
+        for (String tagName : tagNames) {
+            int nameEnd = lt + 1 + tagName.length();
+            if (nameEnd > length || !nameMatches(input, lt + 1, tagName)
+                    || (nameEnd < length && !isTagNameEnd(input.charAt(nameEnd)))) {
+                continue;
+            }
+            int openEnd = openTagEnd(input, nameEnd);
+            if (openEnd < 0) {
+                // 开始标签到末尾都没有结束，与缺少结束标签一样删除到末尾，不从下一个位置重新扫描
+                return length;
+            }
+            int close = closeTag(input, openEnd, tagName);
+            if (close < 0) {
+                return length;
+            }
+            int gt = indexOf(input, '>', close + 2 + tagName.length());
+            return gt < 0 ? length : gt + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return 开始标签结束的'>'之后的位置，没有时返回-1
+     */
+    private static int openTagEnd(CharSequence input, int from) {
+        char quote = 0;
+        for (int i = from; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 结束标签"&lt;/name"的位置，没有时返回-1
+     */
+    private static int closeTag(CharSequence input, int from, String tagName) {
+        int length = input.length();
+        int i = from;
+        while (i < length) {
+            int lt = indexOf(input, '<', i);
+            if (lt < 0) {
+                return -1;
+            }
+            int nameEnd = lt + 2 + tagName.length();
+            if (nameEnd <= length && input.charAt(lt + 1) == '/' && nameMatches(input, lt + 2, tagName)
+                    && (nameEnd == length || isTagNameEnd(input.charAt(nameEnd)))) {
+                return lt;
+            }
+            i = lt + 1;
+        }
+        return -1;
+    }
+
+    private static boolean nameMatches(CharSequence input, int from, String lowerName) {
+        for (int i = 0; i < lowerName.length(); i++) {
+            if (Character.toLowerCase(input.charAt(from + i)) != lowerName.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTagNameEnd(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '/' || c == '>';
+    }
+
+    private static boolean startsWith(CharSequence input, int from, String prefix) {
+        if (from + prefix.length() > input.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (input.charAt(from + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence input, char c, int from) {
+        if (input instanceof String) {
+            return ((String) input).indexOf(c, from);
+        }
+        for (int i = from; i < input.length(); i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence input, String target, int from) {
+        if (input instanceof String) {
+            return ((String) input).indexOf(target, from);
+        }
+        for (int i = from; i + target.length() <= input.length(); i++) {
+            if (startsWith(input, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,41 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+/**
+ * 合并连续空白的预处理步骤
+ * 含换行的连续空白合并为一个换行，其余合并为一个空格。pre等元素中的空白同样会被合并，
+ * 只适合不关心排版的后续处理
+ *
+ * @author yefei.yf
+ */
+public final class WhitespaceCollapser implements ContentPreprocessor {
+
+    @Override
+    public void process(CharSequence input, StringBuilder out) {
+        int length = input.length();
+        int copyFrom = 0;
+        int i = 0;
+        while (i < length) {
+            if (!isWhitespace(input.charAt(i))) {
+                i++;
+                continue;
+            }
+            int runStart = i;
+            boolean newline = false;
+            while (i < length && isWhitespace(input.charAt(i))) {
+                newline |= input.charAt(i) == '\n';
+                i++;
+            }
+            char replacement = newline ? '\n' : ' ';
+            if (i - runStart == 1 && input.charAt(runStart) == replacement) {
+                continue;
+            }
+            out.append(input, copyFrom, runStart).append(replacement);
+            copyFrom = i;
+        }
+        out.append(input, copyFrom, length);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+}
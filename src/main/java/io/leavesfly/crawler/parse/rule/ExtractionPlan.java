@@ -0,0 +1,199 @@
+package io.leavesfly.crawler.parse.rule;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一种页面的提取计划
+ * 页面的全部字段在一次遍历文档树的过程中求值：每个元素依次与当前有效的字段规则比较，
+ * 带子字段的规则匹配后在该元素的子树内继续求值子字段，不再为每个选择器各遍历一次。
+ * 单值字段取文档顺序中第一个匹配的元素，与{@link Element#selectFirst(String)}一致；
+ * 只有单值字段时，全部取到后提前结束遍历。
+ * 计划不可变，可以在多个线程间共用
+ *
+ * @author yefei.yf
+ */
+public final class ExtractionPlan {
+
+    private final String pageType;
+    private final FieldRule[] fields;
+
+    ExtractionPlan(String pageType, List<FieldRule> fields) {
+        this.pageType = pageType;
+        this.fields = fields.toArray(new FieldRule[0]);
+    }
+
+    /**
+     * 获取页面类型
+     */
+    public String getPageType() {
+        return pageType;
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return 按规则中的顺序排列的字段名
+     */
+    public List<String> getFieldNames() {
+        List<String> names = new ArrayList<>(fields.length);
+        for (FieldRule field : fields) {
+            names.add(field.getName());
+        }
+        return names;
+    }
+
+    /**
+     * 提取字段
+     * 没有匹配元素的单值字段不出现在结果中，多值字段没有匹配时为空列表，
+     * 带子字段的多值字段中没有取到任何子字段的条目不输出
+     *
+     * @param root 文档或元素，选择范围包含它本身
+     * @return 字段名到值的有序映射，值为字符串、字符串列表、字段映射或字段映射列表
+     */
+    public Map<String, Object> extract(Element root) {
+        Walk walk = new Walk(new Scope(root, fields));
+        NodeTraversor.filter(walk, root);
+        return walk.rootScope.toMap();
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionPlan{" + pageType + ": " + Arrays.toString(fields) + "}";
+    }
+
+    /**
+     * 一组字段规则在某个元素子树内的求值状态
+     */
+    private static final class Scope {
+        private final Element root;
+        private final FieldRule[] rules;
+        private final Object[] values;
+        private int pendingSingles;
+        private boolean hasMultiple;
+
+        Scope(Element root, FieldRule[] rules) {
+            this.root = root;
+            this.rules = rules;
+            this.values = new Object[rules.length];
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].isMultiple()) {
+                    values[i] = new ArrayList<>();
+                    hasMultiple = true;
+                } else {
+                    pendingSingles++;
+                }
+            }
+        }
+
+        /**
+         * 用元素匹配本范围内还需要求值的规则
+         *
+         * @param scopes 有效范围栈，匹配到带子字段的规则时压入新范围
+         */
+        @SuppressWarnings("unchecked")
+        void visit(Element element, List<Scope> scopes) {
+            for (int i = 0; i < rules.length; i++) {
+                FieldRule rule = rules[i];
+                if (!rule.isMultiple() && values[i] != null) {
+                    continue;
+                }
+                if (!rule.matches(root, element)) {
+                    continue;
+                }
+                Object value;
+                if (rule.getFields().length > 0) {
+                    Scope child = new Scope(element, rule.getFields());
+                    scopes.add(child);
+                    value = child;
+                } else {
+                    value = rule.value(element);
+                }
+                if (rule.isMultiple()) {
+                    ((List<Object>) values[i]).add(value);
+                } else {
+                    values[i] = value;
+                    pendingSingles--;
+                }
+            }
+        }
+
+        /**
+         * 只有单值字段且都已取到
+         */
+        boolean isComplete() {
+            return !hasMultiple && pendingSingles == 0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < rules.length; i++) {
+                Object value = values[i];
+                if (value instanceof Scope) {
+                    map.put(rules[i].getName(), ((Scope) value).toMap());
+                } else if (value instanceof List) {
+                    List<Object> list = new ArrayList<>();
+                    for (Object item : (List<?>) value) {
+                        if (!(item instanceof Scope)) {
+                            list.add(item);
+                            continue;
+                        }
+                        Map<String, Object> itemMap = ((Scope) item).toMap();
+                        if (!itemMap.isEmpty()) {
+                            list.add(itemMap);
+                        }
+                    }
+                    map.put(rules[i].getName(), list);
+                } else if (value != null) {
+                    map.put(rules[i].getName(), value);
+                }
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 一次遍历的状态
+     */
+    private static final class Walk implements NodeFilter {
+        private final Scope rootScope;
+        private final List<Scope> scopes = new ArrayList<>();
+
+        Walk(Scope rootScope) {
+            this.rootScope = rootScope;
+            scopes.add(rootScope);
+        }
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (!(node instanceof Element)) {
+                return FilterResult.CONTINUE;
+            }
+            Element element = (Element) node;
+            // 新压入的范围以当前元素为根，同样要用当前元素匹配
+            for (int i = 0; i < scopes.size(); i++) {
+                scopes.get(i).visit(element, scopes);
+            }
+            if (scopes.size() == 1 && rootScope.isComplete()) {
+                return FilterResult.STOP;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            while (scopes.size() > 1 && scopes.get(scopes.size() - 1).root == node) {
+                scopes.remove(scopes.size() - 1);
+            }
+            return FilterResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.leavesfly.crawler.parse.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 声明式页面提取规则
+ * 从YAML加载，每种页面类型编译成一个{@link ExtractionPlan}，加载后可反复使用。格式：
+ * <pre>
+ * shop:                                  # 页面类型
+ *   shopName: "h1.shop-name, .poi-name"  # 字符串：取第一个匹配元素的文本
+ *   logo:
+ *     selector: "img.logo"               # CSS选择器
+ *     attr: "abs:src"                    # 取属性值，abs:前缀取绝对URL
+ *   tags:
+ *     selector: ".tag"
+ *     multiple: true                     # 取全部匹配元素，结果为列表
+ *   deals:
+ *     selector: ".deal"
+ *     multiple: true
+ *     fields:                            # 子字段，在每个匹配元素内部提取
+ *       title: ".title"
+ * </pre>
+ *
+ * @author yefei.yf
+ */
+public final class ExtractionRules {
+
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private final Map<String, ExtractionPlan> plans;
+
+    private ExtractionRules(Map<String, ExtractionPlan> plans) {
+        this.plans = Collections.unmodifiableMap(plans);
+    }
+
+    /**
+     * 从YAML文本加载规则
+     *
+     * @param yaml YAML文本
+     * @return 编译后的规则
+     * @throws IllegalArgumentException YAML格式错误或规则无效
+     */
+    public static ExtractionRules parse(String yaml) {
+        try {
+            return compile(YAML_MAPPER.readTree(yaml));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("提取规则格式错误: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从输入流加载规则
+     *
+     * @param in YAML输入流，由调用方关闭
+     * @return 编译后的规则
+     * @throws IOException 读取失败或YAML格式错误
+     * @throws IllegalArgumentException 规则无效
+     */
+    public static ExtractionRules load(InputStream in) throws IOException {
+        return compile(YAML_MAPPER.readTree(in));
+    }
+
+    /**
+     * 从类路径资源加载规则
+     *
+     * @param resource 资源名，如"extraction/meituan.yml"
+     * @return 编译后的规则
+     * @throws IllegalArgumentException 资源不存在或规则无效
+     */
+    public static ExtractionRules fromResource(String resource) {
+        InputStream in = ExtractionRules.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("提取规则资源不存在: " + resource);
+        }
+        try (InputStream stream = in) {
+            return load(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取提取规则失败: " + resource, e);
+        }
+    }
+
+    /**
+     * 获取页面类型的提取计划
+     *
+     * @param pageType 页面类型
+     * @return 提取计划，没有该类型时返回null
+     */
+    public ExtractionPlan getPlan(String pageType) {
+        return plans.get(pageType);
+    }
+
+    /**
+     * 获取全部页面类型
+     *
+     * @return 按规则中的顺序排列的页面类型
+     */
+    public Set<String> getPageTypes() {
+        return plans.keySet();
+    }
+
+    private static ExtractionRules compile(JsonNode root) {
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("提取规则必须是页面类型到字段的映射");
+        }
+        Map<String, ExtractionPlan> plans = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> pages = root.fields();
+        while (pages.hasNext()) {
+            Map.Entry<String, JsonNode> page = pages.next();
+            plans.put(page.getKey(), new ExtractionPlan(page.getKey(), compileFields(page.getKey(), page.getValue())));
+        }
+        return new ExtractionRules(plans);
+    }
+
+    private static List<FieldRule> compileFields(String path, JsonNode node) {
+        if (node == null || !node.isObject() || node.size() == 0) {
+            throw new IllegalArgumentException("规则 " + path + " 必须是非空的字段映射");
+        }
+        List<FieldRule> fields = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = node.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            fields.add(compileField(path + "." + entry.getKey(), entry.getKey(), entry.getValue()));
+        }
+        return fields;
+    }
+
+    private static FieldRule compileField(String path, String name, JsonNode node) {
+        if (node.isTextual()) {
+            return new FieldRule(name, node.asText(), evaluator(path, node.asText()), null, false,
+                    Collections.<FieldRule>emptyList());
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("字段 " + path + " 必须是选择器或字段定义");
+        }
+        Iterator<String> keys = node.fieldNames();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            if (!"selector".equals(key) && !"attr".equals(key) && !"multiple".equals(key) && !"fields".equals(key)) {
+                throw new IllegalArgumentException("字段 " + path + " 含有未知的配置项: " + key);
+            }
+        }
+        JsonNode selector = node.get("selector");
+        if (selector == null || !selector.isTextual()) {
+            throw new IllegalArgumentException("字段 " + path + " 缺少selector");
+        }
+        JsonNode attr = node.get("attr");
+        if (attr != null && (!attr.isTextual() || attr.asText().isEmpty())) {
+            throw new IllegalArgumentException("字段 " + path + " 的attr必须是属性名");
+        }
+        JsonNode multiple = node.get("multiple");
+        if (multiple != null && !multiple.isBoolean()) {
+            throw new IllegalArgumentException("字段 " + path + " 的multiple必须是true或false");
+        }
+        JsonNode children = node.get("fields");
+        if (children != null && attr != null) {
+            throw new IllegalArgumentException("字段 " + path + " 不能同时配置attr和fields");
+        }
+        return new FieldRule(name, selector.asText(), evaluator(path, selector.asText()),
+                attr != null ? attr.asText() : null,
+                multiple != null && multiple.asBoolean(),
+                children != null ? compileFields(path, children) : Collections.<FieldRule>emptyList());
+    }
+
+    private static Evaluator evaluator(String path, String selector) {
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("字段 " + path + " 的选择器无效: " + selector, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.leavesfly.crawler.parse.rule;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+
+import java.util.List;
+
+/**
+ * 编译后的字段规则
+ * 选择器在加载规则时编译成{@link Evaluator}，提取时不再解析选择器字符串
+ *
+ * @author yefei.yf
+ */
+final class FieldRule {
+
+    private final String name;
+    private final String selector;
+    private final Evaluator evaluator;
+    private final String attr;
+    private final boolean multiple;
+    private final FieldRule[] fields;
+
+    FieldRule(String name, String selector, Evaluator evaluator, String attr, boolean multiple, List<FieldRule> fields) {
+        this.name = name;
+        this.selector = selector;
+        this.evaluator = evaluator;
+        this.attr = attr;
+        this.multiple = multiple;
+        this.fields = fields.toArray(new FieldRule[0]);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * 元素是否匹配
+     *
+     * @param root 选择范围的根元素
+     * @param element 待判断的元素
+     */
+    boolean matches(Element root, Element element) {
+        return evaluator.matches(root, element);
+    }
+
+    /**
+     * 是否取全部匹配元素
+     */
+    boolean isMultiple() {
+        return multiple;
+    }
+
+    /**
+     * 子字段，没有时为空数组
+     */
+    FieldRule[] getFields() {
+        return fields;
+    }
+
+    /**
+     * 取元素的值：指定属性时取属性值，否则取去掉首尾空白的文本
+     */
+    String value(Element element) {
+        return attr != null ? element.attr(attr) : element.text().trim();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{" + selector + (attr != null ? " @" + attr : "") + (multiple ? " *" : "") + "}";
+    }
+}
@@ -1,13 +1,21 @@
 package io.leavesfly.crawler.schedule;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.LongBuffer;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.BitSet;
 import java.util.Collection;
 
+import io.leavesfly.crawler.util.Murmur3Hash128;
+
 public class BloomFilter<E> implements Serializable {
+	// 固定为改造前的类按默认规则计算出的值，已序列化的旧过滤器仍可以反序列化
+	private static final long serialVersionUID = -2344270516867792639L;
+
 	private BitSet bitset;
 	private int bitSetSize;
 	private double bitsPerElement;
@@ -16,6 +24,10 @@ public class BloomFilter<E> implements Serializable {
 	private int numberOfAddedElements; // number of elements actually added to
 	// the Bloom filter
 	private int k; // number of hash functions
+	private BloomHashScheme hashScheme = BloomHashScheme.MD5;
+
+	// words copied out of the bit set per step while writing a snapshot
+	private static final int SNAPSHOT_CHUNK_WORDS = 1 << 16;
 
 	static final Charset charset = Charset.forName("UTF-8"); // encoding used
 	// for storing
@@ -36,6 +48,15 @@ public class BloomFilter<E> implements Serializable {
 		digestFunction = tmp;
 	}
 
+	// Per-thread scratch for MURMUR3_128, so hashing needs neither a lock
+	// nor an allocation per call
+	private static final ThreadLocal<Murmur3Hash128> murmurHash = new ThreadLocal<Murmur3Hash128>() {
+		@Override
+		protected Murmur3Hash128 initialValue() {
+			return new Murmur3Hash128();
+		}
+	};
+
 	/**
 	 * Constructs an empty Bloom filter. The total length of the Bloom filter
 	 * will be c*n.
@@ -56,6 +77,24 @@ public class BloomFilter<E> implements Serializable {
 		this.bitset = new BitSet(bitSetSize);
 	}
 
+	/**
+	 * Constructs an empty Bloom filter using the given hash scheme. The total
+	 * length of the Bloom filter will be c*n.
+	 * 
+	 * @param c
+	 *            is the number of bits used per element.
+	 * @param n
+	 *            is the expected number of elements the filter will contain.
+	 * @param k
+	 *            is the number of hash functions used.
+	 * @param hashScheme
+	 *            is the hash scheme used to derive bit positions.
+	 */
+	public BloomFilter(double c, int n, int k, BloomHashScheme hashScheme) {
+		this(c, n, k);
+		this.hashScheme = hashScheme;
+	}
+
 	/**
 	 * Constructs an empty Bloom filter. The optimal number of hash functions
 	 * (k) is estimated from the total size of the Bloom and the number of
@@ -95,6 +134,23 @@ public class BloomFilter<E> implements Serializable {
 		// prob.))
 	}
 
+	/**
+	 * Constructs an empty Bloom filter with a given false positive probability
+	 * and hash scheme.
+	 * 
+	 * @param falsePositiveProbability
+	 *            is the desired false positive probability.
+	 * @param expectedNumberOfElements
+	 *            is the expected number of elements in the Bloom filter.
+	 * @param hashScheme
+	 *            is the hash scheme used to derive bit positions.
+	 */
+	public BloomFilter(double falsePositiveProbability, int expectedNumberOfElements,
+			BloomHashScheme hashScheme) {
+		this(falsePositiveProbability, expectedNumberOfElements);
+		this.hashScheme = hashScheme;
+	}
+
 	/**
 	 * Construct a new Bloom filter based on existing Bloom filter data.
 	 * 
@@ -116,6 +172,21 @@ public class BloomFilter<E> implements Serializable {
 		this.numberOfAddedElements = actualNumberOfFilterElements;
 	}
 
+	/**
+	 * Restores a Bloom filter from snapshot data without allocating a second
+	 * bit set.
+	 */
+	private BloomFilter(BitSet filterData, int bitSetSize, int k, int expectedNumberOfFilterElements,
+			int actualNumberOfFilterElements, double bitsPerElement, BloomHashScheme hashScheme) {
+		this.bitset = filterData;
+		this.bitSetSize = bitSetSize;
+		this.k = k;
+		this.expectedNumberOfFilterElements = expectedNumberOfFilterElements;
+		this.numberOfAddedElements = actualNumberOfFilterElements;
+		this.bitsPerElement = bitsPerElement;
+		this.hashScheme = hashScheme;
+	}
+
 	/**
 	 * Generates a digest based on the contents of a String.
 	 * 
@@ -213,6 +284,9 @@ public class BloomFilter<E> implements Serializable {
 		if (this.k != other.k) {
 			return false;
 		}
+		if (this.getHashScheme() != other.getHashScheme()) {
+			return false;
+		}
 		if (this.bitSetSize != other.bitSetSize) {
 			return false;
 		}
@@ -291,6 +365,16 @@ public class BloomFilter<E> implements Serializable {
 		return k;
 	}
 
+	/**
+	 * Returns the hash scheme used to derive bit positions.
+	 * 
+	 * @return hash scheme.
+	 */
+	public BloomHashScheme getHashScheme() {
+		// 反序列化增加该字段之前的实例时字段为null，这些实例使用MD5
+		return hashScheme != null ? hashScheme : BloomHashScheme.MD5;
+	}
+
 	/**
 	 * Sets all bits to false in the Bloom filter.
 	 */
@@ -307,7 +391,24 @@ public class BloomFilter<E> implements Serializable {
 	 *            is an element to register in the Bloom filter.
 	 */
 	public void add(E element) {
-		add(element.toString().getBytes(charset));
+		add(element.toString());
+	}
+
+	/**
+	 * Adds a character sequence to the Bloom filter. With MURMUR3_128 the
+	 * characters are hashed directly without encoding them to bytes.
+	 * 
+	 * @param chars
+	 *            character sequence to add to the Bloom filter.
+	 */
+	public void add(CharSequence chars) {
+		if (getHashScheme() == BloomHashScheme.MURMUR3_128) {
+			Murmur3Hash128 hash = murmurHash.get().hash(chars, 0);
+			setBits(hash.getH1(), hash.getH2());
+			numberOfAddedElements++;
+		} else {
+			add(chars.toString().getBytes(charset));
+		}
 	}
 
 	/**
@@ -317,6 +418,12 @@ public class BloomFilter<E> implements Serializable {
 	 *            array of bytes to add to the Bloom filter.
 	 */
 	public void add(byte[] bytes) {
+		if (getHashScheme() == BloomHashScheme.MURMUR3_128) {
+			Murmur3Hash128 hash = murmurHash.get().hash(bytes, 0, bytes.length, 0);
+			setBits(hash.getH1(), hash.getH2());
+			numberOfAddedElements++;
+			return;
+		}
 		int[] hashes = createHashes(bytes, k);
 		for (int hash : hashes)
 			bitset.set(Math.abs(hash % bitSetSize), true);
@@ -345,7 +452,24 @@ public class BloomFilter<E> implements Serializable {
 	 *         filter.
 	 */
 	public boolean contains(E element) {
-		return contains(element.toString().getBytes(charset));
+		return contains(element.toString());
+	}
+
+	/**
+	 * Returns true if the character sequence could have been inserted into
+	 * the Bloom filter.
+	 * 
+	 * @param chars
+	 *            character sequence to check.
+	 * @return true if the sequence could have been inserted into the Bloom
+	 *         filter.
+	 */
+	public boolean contains(CharSequence chars) {
+		if (getHashScheme() == BloomHashScheme.MURMUR3_128) {
+			Murmur3Hash128 hash = murmurHash.get().hash(chars, 0);
+			return testBits(hash.getH1(), hash.getH2());
+		}
+		return contains(chars.toString().getBytes(charset));
 	}
 
 	/**
@@ -358,6 +482,10 @@ public class BloomFilter<E> implements Serializable {
 	 * @return true if the array could have been inserted into the Bloom filter.
 	 */
 	public boolean contains(byte[] bytes) {
+		if (getHashScheme() == BloomHashScheme.MURMUR3_128) {
+			Murmur3Hash128 hash = murmurHash.get().hash(bytes, 0, bytes.length, 0);
+			return testBits(hash.getH1(), hash.getH2());
+		}
 		int[] hashes = createHashes(bytes, k);
 		for (int hash : hashes) {
 			if (!bitset.get(Math.abs(hash % bitSetSize))) {
@@ -367,6 +495,32 @@ public class BloomFilter<E> implements Serializable {
 		return true;
 	}
 
+	/**
+	 * Sets the k bits derived from a 128-bit hash by Kirsch-Mitzenmacher
+	 * double hashing: the i-th position is (h1 + i * h2) mod m.
+	 */
+	private void setBits(long h1, long h2) {
+		long combined = h1;
+		for (int i = 0; i < k; i++) {
+			bitset.set((int) ((combined & Long.MAX_VALUE) % bitSetSize));
+			combined += h2;
+		}
+	}
+
+	/**
+	 * Tests the k bits derived from a 128-bit hash, see setBits.
+	 */
+	private boolean testBits(long h1, long h2) {
+		long combined = h1;
+		for (int i = 0; i < k; i++) {
+			if (!bitset.get((int) ((combined & Long.MAX_VALUE) % bitSetSize))) {
+				return false;
+			}
+			combined += h2;
+		}
+		return true;
+	}
+
 	/**
 	 * Returns true if all the elements of a Collection could have been inserted
 	 * into the Bloom filter. Use getFalsePositiveProbability() to calculate the
@@ -416,6 +570,80 @@ public class BloomFilter<E> implements Serializable {
 		return bitset;
 	}
 
+	/**
+	 * Saves the Bloom filter to a snapshot file. A small header holds the hash
+	 * scheme, k, m and n; the bit array is written through a memory-mapped
+	 * region in chunks, so no serialized copy of the bit set is built on the
+	 * heap. The file is replaced atomically.
+	 * 
+	 * @param path
+	 *            snapshot file to write.
+	 * @throws IOException
+	 *             if the snapshot cannot be written.
+	 */
+	public void saveTo(Path path) throws IOException {
+		BloomFilterSnapshot.Writer writer = new BloomFilterSnapshot.Writer(path,
+				BloomFilterSnapshot.TYPE_BLOOM_FILTER);
+		try {
+			writer.writeInt(getHashScheme().ordinal());
+			writer.writeInt(k);
+			writer.writeLong(bitSetSize);
+			writer.writeLong(numberOfAddedElements);
+			writer.writeLong(expectedNumberOfFilterElements);
+			writer.writeDouble(bitsPerElement);
+
+			int words = BloomFilterSnapshot.wordCount(bitSetSize);
+			LongBuffer out = writer.mapWords(words);
+			for (int from = 0; from < words; from += SNAPSHOT_CHUNK_WORDS) {
+				int to = Math.min(words, from + SNAPSHOT_CHUNK_WORDS);
+				int fromBit = (int) Math.min((long) from * 64, bitSetSize);
+				int toBit = (int) Math.min((long) to * 64, bitSetSize);
+				// trailing zero words are omitted by toLongArray(); the mapped
+				// region is already zero-filled
+				out.put(bitset.get(fromBit, toBit).toLongArray());
+				out.position(to);
+			}
+			writer.commit();
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Loads a Bloom filter from a snapshot file written by saveTo(Path). The
+	 * bit array is read straight from the memory-mapped file.
+	 * 
+	 * @param path
+	 *            snapshot file to read.
+	 * @return the restored Bloom filter.
+	 * @throws IOException
+	 *             if the file is missing, truncated or not a Bloom filter
+	 *             snapshot.
+	 */
+	public static <E> BloomFilter<E> loadFrom(Path path) throws IOException {
+		BloomFilterSnapshot.Reader reader = new BloomFilterSnapshot.Reader(path,
+				BloomFilterSnapshot.TYPE_BLOOM_FILTER);
+		try {
+			int scheme = reader.readInt();
+			int k = reader.readInt();
+			long bitSetSize = reader.readLong();
+			long count = reader.readLong();
+			long expected = reader.readLong();
+			double bitsPerElement = reader.readDouble();
+			BloomHashScheme[] schemes = BloomHashScheme.values();
+			if (scheme < 0 || scheme >= schemes.length || k <= 0 || bitSetSize > Integer.MAX_VALUE
+					|| count < 0 || count > Integer.MAX_VALUE || expected < 0 || expected > Integer.MAX_VALUE) {
+				throw new IOException("Corrupt Bloom filter snapshot header: " + path);
+			}
+
+			LongBuffer words = reader.mapWords(BloomFilterSnapshot.wordCount(bitSetSize));
+			return new BloomFilter<E>(BitSet.valueOf(words), (int) bitSetSize, k, (int) expected,
+					(int) count, bitsPerElement, schemes[scheme]);
+		} finally {
+			reader.close();
+		}
+	}
+
 	/**
 	 * Returns the number of bits in the Bloom filter. Use count() to retrieve
 	 * the number of inserted elements.
@@ -0,0 +1,263 @@
+package io.leavesfly.crawler.schedule;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 布隆过滤器快照文件读写
+ * 文件由小端序的头部字段和位数组组成，位数组通过内存映射按区域整块读写，
+ * 不经过Java序列化，也不需要在堆上复制整个位数组。
+ *
+ * 写入先落到临时文件，刷盘后原子替换目标文件，写入中途崩溃不会破坏旧快照
+ *
+ * @author yefei.yf
+ */
+final class BloomFilterSnapshot {
+
+    /**
+     * 文件魔数："BLOM"
+     */
+    static final int MAGIC = 0x424C4F4D;
+
+    static final int VERSION = 1;
+
+    static final int TYPE_BLOOM_FILTER = 1;
+    static final int TYPE_CONCURRENT = 2;
+    static final int TYPE_SCALABLE = 3;
+
+    /**
+     * 单次映射的最大字数（128M个long，即1GB）
+     */
+    private static final int REGION_WORDS = 1 << 27;
+
+    private BloomFilterSnapshot() {
+    }
+
+    /**
+     * 按下标读取一个long字
+     */
+    interface WordSource {
+        long get(int index);
+    }
+
+    /**
+     * 按下标写入一个long字
+     */
+    interface WordSink {
+        void set(int index, long word);
+    }
+
+    /**
+     * 快照写入器
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path tmp;
+        private final FileChannel channel;
+        private final ByteBuffer scratch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+        private boolean committed;
+
+        Writer(Path target, int type) throws IOException {
+            this.target = target;
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeInt(MAGIC);
+            writeInt(VERSION);
+            writeInt(type);
+        }
+
+        void writeInt(int value) throws IOException {
+            scratch.clear();
+            scratch.putInt(value);
+            flushScratch();
+        }
+
+        void writeLong(long value) throws IOException {
+            scratch.clear();
+            scratch.putLong(value);
+            flushScratch();
+        }
+
+        void writeDouble(double value) throws IOException {
+            scratch.clear();
+            scratch.putDouble(value);
+            flushScratch();
+        }
+
+        /**
+         * 映射接下来的count个long字供调用方直接写入
+         */
+        LongBuffer mapWords(int count) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) count * 8);
+            position += (long) count * 8;
+            return buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+
+        /**
+         * 按区域映射并写入count个long字
+         */
+        void writeWords(WordSource source, int count) throws IOException {
+            int written = 0;
+            while (written < count) {
+                int regionWords = Math.min(REGION_WORDS, count - written);
+                LongBuffer region = mapWords(regionWords);
+                for (int i = 0; i < regionWords; i++) {
+                    region.put(source.get(written + i));
+                }
+                written += regionWords;
+            }
+        }
+
+        /**
+         * 刷盘并原子替换目标文件
+         */
+        void commit() throws IOException {
+            channel.force(true);
+            channel.close();
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        private void flushScratch() throws IOException {
+            scratch.flip();
+            while (scratch.hasRemaining()) {
+                position += channel.write(scratch, position);
+            }
+        }
+    }
+
+    /**
+     * 快照读取器
+     */
+    static final class Reader implements Closeable {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final long fileSize;
+        private final ByteBuffer scratch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Reader(Path path, int expectedType) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+            try {
+                if (readInt() != MAGIC) {
+                    throw new IOException("不是布隆过滤器快照文件: " + path);
+                }
+                int version = readInt();
+                if (version != VERSION) {
+                    throw new IOException("不支持的快照版本: " + version + ", 文件: " + path);
+                }
+                int type = readInt();
+                if (type != expectedType) {
+                    throw new IOException("快照类型不匹配, 期望: " + expectedType + ", 实际: " + type);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int readInt() throws IOException {
+            fill(4);
+            return scratch.getInt();
+        }
+
+        long readLong() throws IOException {
+            fill(8);
+            return scratch.getLong();
+        }
+
+        double readDouble() throws IOException {
+            fill(8);
+            return scratch.getDouble();
+        }
+
+        /**
+         * 只读映射接下来的count个long字
+         */
+        LongBuffer mapWords(int count) throws IOException {
+            long length = (long) count * 8;
+            ensureAvailable(length);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += length;
+            return buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        }
+
+        /**
+         * 按区域映射并读取count个long字
+         */
+        void readWords(WordSink sink, int count) throws IOException {
+            int read = 0;
+            while (read < count) {
+                int regionWords = Math.min(REGION_WORDS, count - read);
+                LongBuffer region = mapWords(regionWords);
+                for (int i = 0; i < regionWords; i++) {
+                    sink.set(read + i, region.get());
+                }
+                read += regionWords;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void fill(int length) throws IOException {
+            ensureAvailable(length);
+            scratch.clear();
+            scratch.limit(length);
+            while (scratch.hasRemaining()) {
+                int n = channel.read(scratch, position);
+                if (n < 0) {
+                    throw new IOException("快照文件意外结束: " + path);
+                }
+                position += n;
+            }
+            scratch.flip();
+        }
+
+        private void ensureAvailable(long length) throws IOException {
+            if (position + length > fileSize) {
+                throw new IOException("快照文件已截断: " + path);
+            }
+        }
+    }
+
+    /**
+     * 计算容纳指定位数需要的long字数
+     */
+    static int wordCount(long bits) throws IOException {
+        long words = (bits + 63) >>> 6;
+        if (bits <= 0 || words > Integer.MAX_VALUE) {
+            throw new IOException("快照中的位数组大小无效: " + bits);
+        }
+        return (int) words;
+    }
+}
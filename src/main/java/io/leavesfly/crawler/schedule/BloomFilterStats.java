@@ -0,0 +1,129 @@
+package io.leavesfly.crawler.schedule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 布隆过滤器统计快照
+ * 记录每个分片的容量、填充率和当前误判率，以及整体的有效误判率
+ *
+ * @author yefei.yf
+ */
+public class BloomFilterStats {
+
+    private final List<SliceStats> slices;
+    private final double targetFalsePositiveProbability;
+
+    public BloomFilterStats(List<SliceStats> slices, double targetFalsePositiveProbability) {
+        this.slices = Collections.unmodifiableList(new ArrayList<>(slices));
+        this.targetFalsePositiveProbability = targetFalsePositiveProbability;
+    }
+
+    public List<SliceStats> getSlices() {
+        return slices;
+    }
+
+    public int getSliceCount() {
+        return slices.size();
+    }
+
+    public double getTargetFalsePositiveProbability() {
+        return targetFalsePositiveProbability;
+    }
+
+    /**
+     * 获取所有分片中的元素总数
+     *
+     * @return 元素数量
+     */
+    public long getElementCount() {
+        long total = 0;
+        for (SliceStats slice : slices) {
+            total += slice.getElementCount();
+        }
+        return total;
+    }
+
+    /**
+     * 获取所有分片的位数组总大小
+     *
+     * @return 位数
+     */
+    public long getTotalBits() {
+        long total = 0;
+        for (SliceStats slice : slices) {
+            total += slice.getBitSize();
+        }
+        return total;
+    }
+
+    /**
+     * 计算有效误判率：任一分片误判即整体误判，即 1 - Π(1 - p_i)
+     *
+     * @return 有效误判率
+     */
+    public double getEffectiveFalsePositiveProbability() {
+        double notFalsePositive = 1.0;
+        for (SliceStats slice : slices) {
+            notFalsePositive *= 1.0 - slice.getFalsePositiveProbability();
+        }
+        return 1.0 - notFalsePositive;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder fills = new StringBuilder();
+        for (SliceStats slice : slices) {
+            if (fills.length() > 0) {
+                fills.append(',');
+            }
+            fills.append(String.format("%.3f", slice.getFillRatio()));
+        }
+        return "BloomFilterStats{" +
+                "slices=" + slices.size() +
+                ", elements=" + getElementCount() +
+                ", totalBits=" + getTotalBits() +
+                ", fillRatios=[" + fills + "]" +
+                ", effectiveFpp=" + String.format("%.6f", getEffectiveFalsePositiveProbability()) +
+                '}';
+    }
+
+    /**
+     * 单个分片的统计信息
+     */
+    public static class SliceStats {
+        private final long capacity;
+        private final long bitSize;
+        private final int k;
+        private final long elementCount;
+        private final double fillRatio;
+        private final double targetFalsePositiveProbability;
+
+        public SliceStats(long capacity, long bitSize, int k, long elementCount,
+                          double fillRatio, double targetFalsePositiveProbability) {
+            this.capacity = capacity;
+            this.bitSize = bitSize;
+            this.k = k;
+            this.elementCount = elementCount;
+            this.fillRatio = fillRatio;
+            this.targetFalsePositiveProbability = targetFalsePositiveProbability;
+        }
+
+        public long getCapacity() { return capacity; }
+        public long getBitSize() { return bitSize; }
+        public int getK() { return k; }
+        public long getElementCount() { return elementCount; }
+        public double getFillRatio() { return fillRatio; }
+        public double getTargetFalsePositiveProbability() { return targetFalsePositiveProbability; }
+
+        /**
+         * 按当前填充率估算的误判率
+         *
+         * @return 误判率
+         */
+        public double getFalsePositiveProbability() {
+            return Math.pow(fillRatio, k);
+        }
+    }
+}
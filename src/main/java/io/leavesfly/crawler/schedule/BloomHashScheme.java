@@ -0,0 +1,20 @@
+package io.leavesfly.crawler.schedule;
+
+/**
+ * 布隆过滤器哈希方案
+ *
+ * @author yefei.yf
+ */
+public enum BloomHashScheme {
+
+    /**
+     * 每4个哈希值计算一次加盐MD5，全局共享一个MessageDigest（兼容旧数据）
+     */
+    MD5,
+
+    /**
+     * MurmurHash3 x64 128位 + Kirsch–Mitzenmacher双重哈希：
+     * 第i个哈希值为 h1 + i * h2，无锁且不分配内存
+     */
+    MURMUR3_128
+}
@@ -0,0 +1,210 @@
+package io.leavesfly.crawler.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于可扩容布隆过滤器的URL去重
+ * 布隆过滤器判定为新的URL一定是新的；判定为重复时可能误判，
+ * 开启精确确认后使用一个精确集合复核，避免误判导致真实URL被跳过，代价是保存全部URL
+ *
+ * URL的片段（#之后的部分）不影响抓取结果，去重时忽略
+ *
+ * 设置快照文件后，关闭时将布隆过滤器写入快照，重启时可通过{@link #restore}恢复；
+ * 精确集合不持久化
+ *
+ * @author yefei.yf
+ */
+public class BloomUrlDeduplicator implements UrlDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomUrlDeduplicator.class);
+
+    private final ScalableBloomFilter<String> bloomFilter;
+    private final Set<String> exactSet;
+
+    private final LongAdder checkedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    private volatile Path snapshotPath;
+
+    /**
+     * 构造函数
+     *
+     * @param expectedUrls 预估URL数量，超出后过滤器自动扩容
+     * @param falsePositiveProbability 误判率上限
+     * @param exactConfirmation 是否使用精确集合复核布隆过滤器的重复判定
+     */
+    public BloomUrlDeduplicator(long expectedUrls, double falsePositiveProbability, boolean exactConfirmation) {
+        this(new ScalableBloomFilter<String>(expectedUrls, falsePositiveProbability), exactConfirmation);
+    }
+
+    /**
+     * 使用已有的布隆过滤器构造
+     *
+     * @param bloomFilter 布隆过滤器
+     * @param exactConfirmation 是否使用精确集合复核
+     */
+    public BloomUrlDeduplicator(ScalableBloomFilter<String> bloomFilter, boolean exactConfirmation) {
+        this.bloomFilter = bloomFilter;
+        this.exactSet = exactConfirmation ? ConcurrentHashMap.<String>newKeySet() : null;
+    }
+
+    /**
+     * 从快照恢复去重器，快照不存在时创建新的去重器
+     * 精确集合不在快照中，恢复后只能依靠布隆过滤器判定，因此恢复成功时不开启精确确认
+     *
+     * @param snapshotPath 快照文件
+     * @param expectedUrls 快照不存在时使用的预估URL数量
+     * @param falsePositiveProbability 快照不存在时使用的误判率上限
+     * @param exactConfirmation 快照不存在时是否开启精确确认
+     * @return 去重器，关闭时写回同一个快照文件
+     * @throws IOException 快照文件已损坏
+     */
+    public static BloomUrlDeduplicator restore(Path snapshotPath, long expectedUrls,
+                                               double falsePositiveProbability, boolean exactConfirmation)
+            throws IOException {
+        BloomUrlDeduplicator deduplicator;
+        if (Files.exists(snapshotPath)) {
+            long start = System.currentTimeMillis();
+            ScalableBloomFilter<String> filter = ScalableBloomFilter.loadFrom(snapshotPath);
+            if (exactConfirmation) {
+                logger.warn("精确去重集合不持久化，从快照恢复后仅使用布隆过滤器判定重复");
+            }
+            deduplicator = new BloomUrlDeduplicator(filter, false);
+            logger.info("从快照恢复URL去重器: {}, 元素数: {}, 耗时: {}ms", snapshotPath,
+                    filter.approximateElementCount(), System.currentTimeMillis() - start);
+        } else {
+            deduplicator = new BloomUrlDeduplicator(expectedUrls, falsePositiveProbability, exactConfirmation);
+        }
+        deduplicator.setSnapshotPath(snapshotPath);
+        return deduplicator;
+    }
+
+    @Override
+    public boolean markIfNew(String url) {
+        String key = stripFragment(url);
+        checkedCount.increment();
+
+        if (bloomFilter.putIfAbsent(key)) {
+            if (exactSet != null) {
+                exactSet.add(key);
+            }
+            return true;
+        }
+
+        if (exactSet != null && exactSet.add(key)) {
+            // 布隆过滤器误判，精确集合中并不存在
+            falsePositiveCount.increment();
+            return true;
+        }
+
+        duplicateCount.increment();
+        return false;
+    }
+
+    @Override
+    public boolean mightContain(String url) {
+        String key = stripFragment(url);
+        return bloomFilter.mightContain(key) && (exactSet == null || exactSet.contains(key));
+    }
+
+    @Override
+    public long getCheckedCount() {
+        return checkedCount.sum();
+    }
+
+    @Override
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    /**
+     * 获取被精确集合纠正的布隆过滤器误判次数
+     *
+     * @return 误判次数，未开启精确确认时为0
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.sum();
+    }
+
+    /**
+     * 是否开启了精确确认
+     *
+     * @return 是否开启
+     */
+    public boolean isExactConfirmation() {
+        return exactSet != null;
+    }
+
+    /**
+     * 获取底层布隆过滤器
+     *
+     * @return 布隆过滤器
+     */
+    public ScalableBloomFilter<String> getBloomFilter() {
+        return bloomFilter;
+    }
+
+    @Override
+    public BloomFilterStats getFilterStats() {
+        return bloomFilter.getStats();
+    }
+
+    /**
+     * 设置快照文件，关闭时写入
+     *
+     * @param snapshotPath 快照文件，为null时不写入
+     */
+    public void setSnapshotPath(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * 将布隆过滤器写入快照文件
+     *
+     * @param path 快照文件
+     * @throws IOException 写入失败
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        long start = System.currentTimeMillis();
+        bloomFilter.saveTo(path);
+        logger.info("URL去重快照已保存: {}, 元素数: {}, 耗时: {}ms", path,
+                bloomFilter.approximateElementCount(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void close() {
+        Path path = snapshotPath;
+        if (path == null) {
+            return;
+        }
+        try {
+            saveSnapshot(path);
+        } catch (IOException e) {
+            logger.error("保存URL去重快照失败: {}", path, e);
+        }
+    }
+
+    private static String stripFragment(String url) {
+        int index = url.indexOf('#');
+        return index >= 0 ? url.substring(0, index) : url;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomUrlDeduplicator{" +
+                "checked=" + getCheckedCount() +
+                ", duplicates=" + getDuplicateCount() +
+                ", falsePositives=" + getFalsePositiveCount() +
+                ", exactConfirmation=" + isExactConfirmation() +
+                '}';
+    }
+}
@@ -0,0 +1,335 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.util.Murmur3Hash128;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全的无锁布隆过滤器
+ * 位数组保存在AtomicLongArray中，每一位通过对long字做CAS置位；
+ * 位置由MurmurHash3 128位哈希加双重哈希计算，可被多个工作线程共享并行去重
+ *
+ * @param <E> 元素类型，使用toString()的结果计算哈希
+ * @author yefei.yf
+ */
+public class ConcurrentBloomFilter<E> {
+
+    private static final ThreadLocal<Murmur3Hash128> MURMUR_HASH = new ThreadLocal<Murmur3Hash128>() {
+        @Override
+        protected Murmur3Hash128 initialValue() {
+            return new Murmur3Hash128();
+        }
+    };
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int k;
+    private final long expectedInsertions;
+    private final LongAdder elementCount = new LongAdder();
+    private final LongAdder bitCount = new LongAdder();
+
+    /**
+     * 按期望误判率和元素数量创建过滤器
+     *
+     * @param falsePositiveProbability 期望误判率
+     * @param expectedInsertions 期望元素数量
+     */
+    public ConcurrentBloomFilter(double falsePositiveProbability, long expectedInsertions) {
+        this(optimalBitSize(falsePositiveProbability, expectedInsertions),
+                optimalNumOfHashFunctions(falsePositiveProbability), expectedInsertions);
+    }
+
+    /**
+     * 按位数组大小和哈希函数个数创建过滤器
+     *
+     * @param bitSize 位数组大小
+     * @param k 哈希函数个数
+     * @param expectedInsertions 期望元素数量
+     */
+    public ConcurrentBloomFilter(long bitSize, int k, long expectedInsertions) {
+        if (bitSize <= 0) {
+            throw new IllegalArgumentException("位数组大小必须大于0");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("哈希函数个数必须大于0");
+        }
+        long words = (bitSize + 63) >>> 6;
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("位数组过大: " + bitSize);
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitSize = bitSize;
+        this.k = k;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * 添加元素，并返回它是否是新元素
+     *
+     * @param element 元素
+     * @return 至少有一位由本次调用置位时返回true，即元素此前不在过滤器中
+     */
+    public boolean putIfAbsent(E element) {
+        return putIfAbsent(element.toString());
+    }
+
+    /**
+     * 添加字符序列，并返回它是否是新元素
+     * 并发添加同一个元素时，多个线程可能都返回true
+     *
+     * @param chars 字符序列
+     * @return 是否新元素
+     */
+    public boolean putIfAbsent(CharSequence chars) {
+        Murmur3Hash128 hash = murmurHash(chars);
+        return putIfAbsent(hash.getH1(), hash.getH2());
+    }
+
+    /**
+     * 按预先计算好的哈希值添加，供组合多个过滤器时复用同一次哈希
+     */
+    boolean putIfAbsent(long h1, long h2) {
+        boolean changed = false;
+        long combined = h1;
+        for (int i = 0; i < k; i++) {
+            changed |= setBit((combined & Long.MAX_VALUE) % bitSize);
+            combined += h2;
+        }
+        if (changed) {
+            elementCount.increment();
+        }
+        return changed;
+    }
+
+    /**
+     * 判断元素是否可能已存在
+     *
+     * @param element 元素
+     * @return 是否可能存在
+     */
+    public boolean mightContain(E element) {
+        return mightContain(element.toString());
+    }
+
+    /**
+     * 判断字符序列是否可能已存在
+     *
+     * @param chars 字符序列
+     * @return 是否可能存在
+     */
+    public boolean mightContain(CharSequence chars) {
+        Murmur3Hash128 hash = murmurHash(chars);
+        return mightContain(hash.getH1(), hash.getH2());
+    }
+
+    /**
+     * 按预先计算好的哈希值判断
+     */
+    boolean mightContain(long h1, long h2) {
+        long combined = h1;
+        for (int i = 0; i < k; i++) {
+            if (!getBit((combined & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * 清空过滤器（并发调用put时结果不确定）
+     */
+    public void clear() {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+        elementCount.reset();
+        bitCount.reset();
+    }
+
+    /**
+     * 获取已添加的元素数量（近似值）
+     *
+     * @return 元素数量
+     */
+    public long approximateElementCount() {
+        return elementCount.sum();
+    }
+
+    /**
+     * 获取已置位的位数
+     *
+     * @return 置位数
+     */
+    public long getBitCount() {
+        return bitCount.sum();
+    }
+
+    /**
+     * 获取位数组填充率
+     *
+     * @return 已置位比例
+     */
+    public double getFillRatio() {
+        return (double) getBitCount() / bitSize;
+    }
+
+    /**
+     * 按当前填充率估算误判率
+     *
+     * @return 当前误判率
+     */
+    public double getFalsePositiveProbability() {
+        return Math.pow(getFillRatio(), k);
+    }
+
+    /**
+     * 计算元素数量达到期望值时的理论误判率
+     *
+     * @return 理论误判率
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow(1 - Math.exp(-k * (double) expectedInsertions / bitSize), k);
+    }
+
+    /**
+     * 保存为内存映射快照文件
+     * 并发写入时保存的是各个字在读取瞬间的值，需要精确快照时应先停止写入
+     *
+     * @param path 快照文件
+     * @throws IOException 写入失败
+     */
+    public void saveTo(Path path) throws IOException {
+        BloomFilterSnapshot.Writer writer = new BloomFilterSnapshot.Writer(path, BloomFilterSnapshot.TYPE_CONCURRENT);
+        try {
+            writeTo(writer);
+            writer.commit();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 从快照文件加载
+     *
+     * @param path 快照文件
+     * @param <E> 元素类型
+     * @return 过滤器
+     * @throws IOException 文件不存在、已损坏或类型不匹配
+     */
+    public static <E> ConcurrentBloomFilter<E> loadFrom(Path path) throws IOException {
+        BloomFilterSnapshot.Reader reader = new BloomFilterSnapshot.Reader(path, BloomFilterSnapshot.TYPE_CONCURRENT);
+        try {
+            return readFrom(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 写入头部（m、k、期望元素数、元素数）和位数组
+     */
+    void writeTo(BloomFilterSnapshot.Writer writer) throws IOException {
+        writer.writeLong(bitSize);
+        writer.writeInt(k);
+        writer.writeLong(expectedInsertions);
+        writer.writeLong(approximateElementCount());
+        writer.writeWords(bits::get, bits.length());
+    }
+
+    /**
+     * 读取writeTo写入的内容
+     */
+    static <E> ConcurrentBloomFilter<E> readFrom(BloomFilterSnapshot.Reader reader) throws IOException {
+        long bitSize = reader.readLong();
+        int k = reader.readInt();
+        long expectedInsertions = reader.readLong();
+        long elements = reader.readLong();
+        if (k <= 0 || elements < 0) {
+            throw new IOException("快照头部已损坏: k=" + k + ", elements=" + elements);
+        }
+        BloomFilterSnapshot.wordCount(bitSize);
+
+        ConcurrentBloomFilter<E> filter = new ConcurrentBloomFilter<>(bitSize, k, expectedInsertions);
+        long[] setBits = new long[1];
+        reader.readWords((index, word) -> {
+            filter.bits.lazySet(index, word);
+            setBits[0] += Long.bitCount(word);
+        }, filter.bits.length());
+        filter.elementCount.add(elements);
+        filter.bitCount.add(setBits[0]);
+        return filter;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    private boolean setBit(long index) {
+        int wordIndex = (int) (index >>> 6);
+        long mask = 1L << index;
+        while (true) {
+            long word = bits.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(wordIndex, word, word | mask)) {
+                bitCount.increment();
+                return true;
+            }
+        }
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * 使用线程本地实例计算哈希，结果在下一次调用前有效
+     */
+    static Murmur3Hash128 murmurHash(CharSequence chars) {
+        return MURMUR_HASH.get().hash(chars, 0);
+    }
+
+    /**
+     * 计算最优位数组大小：m = -n * ln(p) / (ln2)^2
+     */
+    static long optimalBitSize(double falsePositiveProbability, long expectedInsertions) {
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("误判率必须在(0, 1)之间");
+        }
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("期望元素数量必须大于0");
+        }
+        return (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability)
+                / (Math.log(2) * Math.log(2)));
+    }
+
+    /**
+     * 计算最优哈希函数个数：k = -log2(p)
+     */
+    static int optimalNumOfHashFunctions(double falsePositiveProbability) {
+        return Math.max(1, (int) Math.round(-Math.log(falsePositiveProbability) / Math.log(2)));
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentBloomFilter{" +
+                "bitSize=" + bitSize +
+                ", k=" + k +
+                ", elements=" + approximateElementCount() +
+                ", fillRatio=" + String.format("%.4f", getFillRatio()) +
+                '}';
+    }
+}
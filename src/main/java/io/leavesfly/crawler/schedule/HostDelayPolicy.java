@@ -0,0 +1,29 @@
+package io.leavesfly.crawler.schedule;
+
+/**
+ * 主机请求间隔策略
+ * 决定同一主机两次请求之间至少间隔多久
+ *
+ * @author yefei.yf
+ */
+@FunctionalInterface
+public interface HostDelayPolicy {
+
+    /**
+     * 获取抓取完URL后，其所属主机下一次请求前需要等待的时间
+     *
+     * @param url 刚抓取完成的URL
+     * @return 等待时间（毫秒）
+     */
+    long getDelayMillis(String url);
+
+    /**
+     * 创建固定间隔的策略
+     *
+     * @param delayMillis 间隔（毫秒）
+     * @return 策略
+     */
+    static HostDelayPolicy fixed(long delayMillis) {
+        return url -> delayMillis;
+    }
+}
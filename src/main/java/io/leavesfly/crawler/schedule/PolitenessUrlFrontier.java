@@ -0,0 +1,267 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.util.URLStrUtil;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按主机调度请求间隔的URL队列
+ * 每个主机维护一个URL队列和下一次允许抓取的时间，有URL的主机按该时间放入延迟队列，
+ * 工作线程只会取到已经到期的主机，不同主机的间隔互不影响，吞吐量随主机数增长。
+ *
+ * 同一主机同时只交出一个URL，调用方抓取完成后调用{@link #done(String)}，
+ * 主机按间隔策略计算下一次允许抓取的时间后重新进入延迟队列。
+ * 因此使用该队列时同一主机的并发请求数固定为1，配置的每主机并发数只在关闭礼貌调度时生效。
+ * 没有待抓取URL的主机在间隔到期后从主机表中移除，主机表只保留仍在抓取或等待间隔的主机
+ *
+ * @author yefei.yf
+ */
+public class PolitenessUrlFrontier implements UrlFrontier {
+
+    private final int capacity;
+    private final HostDelayPolicy delayPolicy;
+    private final ConcurrentHashMap<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final DelayQueue<HostQueue> readyHosts = new DelayQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * 创建不限容量的队列
+     *
+     * @param delayPolicy 主机请求间隔策略
+     */
+    public PolitenessUrlFrontier(HostDelayPolicy delayPolicy) {
+        this(Integer.MAX_VALUE, delayPolicy);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 最大URL数量
+     * @param delayPolicy 主机请求间隔策略
+     */
+    public PolitenessUrlFrontier(int capacity, HostDelayPolicy delayPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("队列容量必须大于0");
+        }
+        if (delayPolicy == null) {
+            throw new IllegalArgumentException("主机请求间隔策略不能为空");
+        }
+        this.capacity = capacity;
+        this.delayPolicy = delayPolicy;
+    }
+
+    @Override
+    public boolean offer(String url) {
+        if (url == null) {
+            return false;
+        }
+        if (!reserve()) {
+            return false;
+        }
+
+        String host = URLStrUtil.getHost(url);
+        while (true) {
+            HostQueue hostQueue = hostQueues.computeIfAbsent(host, HostQueue::new);
+            synchronized (hostQueue) {
+                if (hostQueue.state == HostState.REMOVED) {
+                    // 已从主机表中移除，重新获取
+                    continue;
+                }
+                hostQueue.urls.offer(url);
+                if (hostQueue.state == HostState.IDLE) {
+                    hostQueue.state = HostState.WAITING;
+                    readyHosts.offer(hostQueue);
+                } else if (hostQueue.state == HostState.COOLING) {
+                    // 已在延迟队列中，间隔到期后交出该URL
+                    hostQueue.state = HostState.WAITING;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public String poll() {
+        HostQueue hostQueue;
+        while ((hostQueue = readyHosts.poll()) != null) {
+            String url = checkout(hostQueue);
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            HostQueue hostQueue = readyHosts.poll(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            if (hostQueue == null) {
+                return null;
+            }
+            String url = checkout(hostQueue);
+            if (url != null) {
+                return url;
+            }
+        }
+    }
+
+    /**
+     * URL抓取完成，按间隔策略安排其所属主机的下一次抓取
+     *
+     * @param url 已抓取的URL
+     */
+    @Override
+    public void done(String url) {
+        if (url == null) {
+            return;
+        }
+        HostQueue hostQueue = hostQueues.get(URLStrUtil.getHost(url));
+        if (hostQueue == null) {
+            return;
+        }
+        long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayPolicy.getDelayMillis(url)));
+        synchronized (hostQueue) {
+            if (hostQueue.state != HostState.BUSY) {
+                return;
+            }
+            hostQueue.nextFetchNanos = System.nanoTime() + delayNanos;
+            // 没有待抓取URL时也进入延迟队列：间隔到期前新入队的URL仍需等待，到期后从主机表中移除
+            hostQueue.state = hostQueue.urls.isEmpty() ? HostState.COOLING : HostState.WAITING;
+            readyHosts.offer(hostQueue);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 获取当前已知的主机数量
+     *
+     * @return 主机数量
+     */
+    public int getHostCount() {
+        return hostQueues.size();
+    }
+
+    /**
+     * 获取在延迟队列中等待间隔到期的主机数量，包括没有待抓取URL、到期后移除的主机
+     *
+     * @return 主机数量
+     */
+    public int getWaitingHostCount() {
+        return readyHosts.size();
+    }
+
+    /**
+     * 获取队列容量
+     *
+     * @return 队列容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 从到期的主机取出一个URL，主机进入抓取中状态直到done被调用；主机没有URL时从主机表中移除
+     */
+    private String checkout(HostQueue hostQueue) {
+        synchronized (hostQueue) {
+            String url = hostQueue.urls.poll();
+            if (url == null) {
+                hostQueue.state = HostState.REMOVED;
+                hostQueues.remove(hostQueue.host, hostQueue);
+                return null;
+            }
+            hostQueue.state = HostState.BUSY;
+            size.decrementAndGet();
+            return url;
+        }
+    }
+
+    /**
+     * 占用一个容量名额
+     */
+    private boolean reserve() {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 主机状态
+     */
+    private enum HostState {
+        /**
+         * 新建的主机，还没有进入延迟队列
+         */
+        IDLE,
+        /**
+         * 在延迟队列中等待间隔到期
+         */
+        WAITING,
+        /**
+         * 已交出一个URL，等待抓取完成
+         */
+        BUSY,
+        /**
+         * 没有待抓取的URL，在延迟队列中等待间隔到期后移除
+         */
+        COOLING,
+        /**
+         * 已从主机表中移除，不再接收URL
+         */
+        REMOVED
+    }
+
+    /**
+     * 单个主机的URL队列，状态和URL队列由主机对象锁保护
+     */
+    private static final class HostQueue implements Delayed {
+        private final String host;
+        private final Queue<String> urls = new ArrayDeque<>();
+        private HostState state = HostState.IDLE;
+        private volatile long nextFetchNanos = System.nanoTime();
+
+        private HostQueue(String host) {
+            this.host = host;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(nextFetchNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            if (other instanceof HostQueue) {
+                return Long.compare(nextFetchNanos - ((HostQueue) other).nextFetchNanos, 0);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public String toString() {
+            return "HostQueue{host='" + host + "'}";
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.util.Murmur3Hash128;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 可扩容的布隆过滤器（Scalable Bloom Filter）
+ * 由多个并发布隆过滤器分片串联而成，当前分片元素数达到容量或填充率超过阈值时，
+ * 追加一个容量按增长因子放大、误判率按收紧比例缩小的新分片。
+ * 第i个分片的误判率为 p * (1 - r) * r^i，构成等比数列，总误判率不超过设定的p，
+ * 因此长时间运行超出预估容量后误判率仍然有界，而初始内存只按预估容量分配
+ *
+ * 读写都是无锁的，只有追加分片时加锁
+ *
+ * @param <E> 元素类型，使用toString()的结果计算哈希
+ * @author yefei.yf
+ */
+public class ScalableBloomFilter<E> {
+
+    /**
+     * 默认增长因子
+     */
+    public static final int DEFAULT_GROWTH_FACTOR = 2;
+
+    /**
+     * 默认误判率收紧比例
+     */
+    public static final double DEFAULT_TIGHTENING_RATIO = 0.5;
+
+    /**
+     * 默认填充率阈值，位数组按最优参数分配时，达到容量的填充率约为0.5
+     */
+    public static final double DEFAULT_FILL_THRESHOLD = 0.5;
+
+    private final long initialCapacity;
+    private final double falsePositiveProbability;
+    private final int growthFactor;
+    private final double tighteningRatio;
+    private final double fillThreshold;
+    private final ReentrantLock growLock = new ReentrantLock();
+
+    /**
+     * 分片数组，追加分片时整体替换
+     */
+    private volatile Slice[] slices;
+
+    /**
+     * 使用默认增长参数创建
+     *
+     * @param initialCapacity 第一个分片的容量
+     * @param falsePositiveProbability 总误判率上限
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveProbability) {
+        this(initialCapacity, falsePositiveProbability, DEFAULT_GROWTH_FACTOR,
+                DEFAULT_TIGHTENING_RATIO, DEFAULT_FILL_THRESHOLD);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initialCapacity 第一个分片的容量
+     * @param falsePositiveProbability 总误判率上限
+     * @param growthFactor 分片容量增长因子
+     * @param tighteningRatio 分片误判率收紧比例
+     * @param fillThreshold 触发扩容的填充率阈值
+     */
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveProbability,
+                               int growthFactor, double tighteningRatio, double fillThreshold) {
+        this(initialCapacity, falsePositiveProbability, growthFactor, tighteningRatio, fillThreshold, null);
+    }
+
+    /**
+     * 使用已有分片构造，分片为null时创建初始分片
+     */
+    private ScalableBloomFilter(long initialCapacity, double falsePositiveProbability,
+                                int growthFactor, double tighteningRatio, double fillThreshold, Slice[] slices) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("初始容量必须大于0");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("误判率必须在(0, 1)之间");
+        }
+        if (growthFactor < 1) {
+            throw new IllegalArgumentException("增长因子不能小于1");
+        }
+        if (tighteningRatio <= 0 || tighteningRatio >= 1) {
+            throw new IllegalArgumentException("收紧比例必须在(0, 1)之间");
+        }
+        if (fillThreshold <= 0 || fillThreshold > 1) {
+            throw new IllegalArgumentException("填充率阈值必须在(0, 1]之间");
+        }
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.growthFactor = growthFactor;
+        this.tighteningRatio = tighteningRatio;
+        this.fillThreshold = fillThreshold;
+        this.slices = slices != null ? slices : new Slice[]{newSlice(0)};
+    }
+
+    /**
+     * 添加元素，并返回它是否是新元素
+     *
+     * @param element 元素
+     * @return 是否新元素
+     */
+    public boolean putIfAbsent(E element) {
+        return putIfAbsent(element.toString());
+    }
+
+    /**
+     * 添加字符序列，并返回它是否是新元素
+     * 先查询已写满的旧分片，都不存在时写入最新分片
+     *
+     * @param chars 字符序列
+     * @return 是否新元素
+     */
+    public boolean putIfAbsent(CharSequence chars) {
+        Murmur3Hash128 hash = ConcurrentBloomFilter.murmurHash(chars);
+        long h1 = hash.getH1();
+        long h2 = hash.getH2();
+
+        Slice[] current = slices;
+        int last = current.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (current[i].filter.mightContain(h1, h2)) {
+                return false;
+            }
+        }
+
+        Slice active = current[last];
+        if (!active.filter.putIfAbsent(h1, h2)) {
+            return false;
+        }
+        if (active.isFull(fillThreshold)) {
+            grow(active);
+        }
+        return true;
+    }
+
+    /**
+     * 判断元素是否可能已存在
+     *
+     * @param element 元素
+     * @return 是否可能存在
+     */
+    public boolean mightContain(E element) {
+        return mightContain(element.toString());
+    }
+
+    /**
+     * 判断字符序列是否可能已存在
+     *
+     * @param chars 字符序列
+     * @return 是否可能存在
+     */
+    public boolean mightContain(CharSequence chars) {
+        Murmur3Hash128 hash = ConcurrentBloomFilter.murmurHash(chars);
+        long h1 = hash.getH1();
+        long h2 = hash.getH2();
+
+        for (Slice slice : slices) {
+            if (slice.filter.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清空过滤器，恢复为只有一个初始分片
+     */
+    public void clear() {
+        growLock.lock();
+        try {
+            slices = new Slice[]{newSlice(0)};
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    /**
+     * 获取已添加的元素数量（近似值）
+     *
+     * @return 元素数量
+     */
+    public long approximateElementCount() {
+        long total = 0;
+        for (Slice slice : slices) {
+            total += slice.filter.approximateElementCount();
+        }
+        return total;
+    }
+
+    /**
+     * 获取分片数量
+     *
+     * @return 分片数量
+     */
+    public int getSliceCount() {
+        return slices.length;
+    }
+
+    /**
+     * 获取总误判率上限
+     *
+     * @return 误判率
+     */
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    /**
+     * 获取统计快照
+     *
+     * @return 各分片填充率及有效误判率
+     */
+    public BloomFilterStats getStats() {
+        Slice[] current = slices;
+        List<BloomFilterStats.SliceStats> sliceStats = new ArrayList<>(current.length);
+        for (Slice slice : current) {
+            ConcurrentBloomFilter<?> filter = slice.filter;
+            sliceStats.add(new BloomFilterStats.SliceStats(slice.capacity, filter.getBitSize(),
+                    filter.getK(), filter.approximateElementCount(), filter.getFillRatio(),
+                    slice.falsePositiveProbability));
+        }
+        return new BloomFilterStats(sliceStats, falsePositiveProbability);
+    }
+
+    /**
+     * 保存为内存映射快照文件，包含增长参数和全部分片
+     * 并发写入时保存的是各个字在读取瞬间的值，需要精确快照时应先停止写入
+     *
+     * @param path 快照文件
+     * @throws IOException 写入失败
+     */
+    public void saveTo(Path path) throws IOException {
+        Slice[] current = slices;
+        BloomFilterSnapshot.Writer writer = new BloomFilterSnapshot.Writer(path, BloomFilterSnapshot.TYPE_SCALABLE);
+        try {
+            writer.writeLong(initialCapacity);
+            writer.writeDouble(falsePositiveProbability);
+            writer.writeInt(growthFactor);
+            writer.writeDouble(tighteningRatio);
+            writer.writeDouble(fillThreshold);
+            writer.writeInt(current.length);
+            for (Slice slice : current) {
+                writer.writeLong(slice.capacity);
+                writer.writeDouble(slice.falsePositiveProbability);
+                slice.filter.writeTo(writer);
+            }
+            writer.commit();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 从快照文件加载
+     *
+     * @param path 快照文件
+     * @param <E> 元素类型
+     * @return 过滤器
+     * @throws IOException 文件不存在、已损坏或类型不匹配
+     */
+    public static <E> ScalableBloomFilter<E> loadFrom(Path path) throws IOException {
+        BloomFilterSnapshot.Reader reader = new BloomFilterSnapshot.Reader(path, BloomFilterSnapshot.TYPE_SCALABLE);
+        try {
+            long initialCapacity = reader.readLong();
+            double falsePositiveProbability = reader.readDouble();
+            int growthFactor = reader.readInt();
+            double tighteningRatio = reader.readDouble();
+            double fillThreshold = reader.readDouble();
+            int sliceCount = reader.readInt();
+            if (sliceCount <= 0) {
+                throw new IOException("快照中的分片数无效: " + sliceCount);
+            }
+
+            Slice[] slices = new Slice[sliceCount];
+            for (int i = 0; i < sliceCount; i++) {
+                long capacity = reader.readLong();
+                double sliceFpp = reader.readDouble();
+                slices[i] = new Slice(ConcurrentBloomFilter.readFrom(reader), capacity, sliceFpp);
+            }
+            try {
+                return new ScalableBloomFilter<>(initialCapacity, falsePositiveProbability,
+                        growthFactor, tighteningRatio, fillThreshold, slices);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("快照头部已损坏: " + path, e);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void grow(Slice full) {
+        growLock.lock();
+        try {
+            Slice[] current = slices;
+            // 其他线程已经完成扩容
+            if (current[current.length - 1] != full) {
+                return;
+            }
+            Slice[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = newSlice(current.length);
+            slices = grown;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private Slice newSlice(int index) {
+        long capacity = initialCapacity;
+        for (int i = 0; i < index && capacity < Long.MAX_VALUE / growthFactor; i++) {
+            capacity *= growthFactor;
+        }
+        // p_i = p * (1 - r) * r^i，各分片误判率之和不超过p
+        double sliceFpp = falsePositiveProbability * (1 - tighteningRatio) * Math.pow(tighteningRatio, index);
+        return new Slice(new ConcurrentBloomFilter<>(sliceFpp, capacity), capacity, sliceFpp);
+    }
+
+    @Override
+    public String toString() {
+        return "ScalableBloomFilter{" +
+                "initialCapacity=" + initialCapacity +
+                ", falsePositiveProbability=" + falsePositiveProbability +
+                ", " + getStats() +
+                '}';
+    }
+
+    /**
+     * 过滤器分片
+     */
+    private static final class Slice {
+        private final ConcurrentBloomFilter<?> filter;
+        private final long capacity;
+        private final double falsePositiveProbability;
+
+        private Slice(ConcurrentBloomFilter<?> filter, long capacity, double falsePositiveProbability) {
+            this.filter = filter;
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+
+        private boolean isFull(double fillThreshold) {
+            return filter.approximateElementCount() >= capacity || filter.getFillRatio() >= fillThreshold;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.util.URLStrUtil;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按主机分片的无锁URL队列
+ * 每个主机维护一个独立的无锁队列，有待抓取URL的主机进入就绪队列，
+ * 工作线程按主机轮转取URL，入队和出队都不经过全局锁。
+ * URL取完的主机从主机表中移除，主机表只保留还有待抓取URL的主机
+ *
+ * @author yefei.yf
+ */
+public class ShardedUrlFrontier implements UrlFrontier {
+
+    /**
+     * 阻塞等待时的最短/最长休眠时间（纳秒）
+     */
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final Queue<HostQueue> readyHosts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    /**
+     * 创建不限容量的队列
+     */
+    public ShardedUrlFrontier() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 最大URL数量
+     */
+    public ShardedUrlFrontier(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("队列容量必须大于0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(String url) {
+        if (url == null) {
+            return false;
+        }
+        if (!reserve()) {
+            return false;
+        }
+
+        String host = URLStrUtil.getHost(url);
+        while (true) {
+            HostQueue hostQueue = hostQueues.computeIfAbsent(host, HostQueue::new);
+            synchronized (hostQueue) {
+                if (hostQueue.removed) {
+                    // 已从主机表中移除，重新获取
+                    continue;
+                }
+                hostQueue.urls.offer(url);
+            }
+            schedule(hostQueue);
+            return true;
+        }
+    }
+
+    @Override
+    public String poll() {
+        HostQueue hostQueue;
+        while ((hostQueue = readyHosts.poll()) != null) {
+            String url = hostQueue.urls.poll();
+            if (url != null) {
+                size.decrementAndGet();
+            }
+
+            // 主机还有URL则放回就绪队列末尾，实现主机间轮转
+            if (!hostQueue.urls.isEmpty()) {
+                readyHosts.offer(hostQueue);
+            } else {
+                hostQueue.scheduled.set(false);
+                // 防止与并发的offer竞争导致主机丢失调度
+                if (!hostQueue.urls.isEmpty()) {
+                    schedule(hostQueue);
+                } else {
+                    evictIfDrained(hostQueue);
+                }
+            }
+
+            if (url != null) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long parkNanos = MIN_PARK_NANOS;
+
+        while (true) {
+            String url = poll();
+            if (url != null) {
+                return url;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 获取当前有待抓取URL的主机数量
+     *
+     * @return 主机数量
+     */
+    public int getHostCount() {
+        return hostQueues.size();
+    }
+
+    /**
+     * 获取队列容量
+     *
+     * @return 队列容量
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 占用一个容量名额
+     */
+    private boolean reserve() {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 主机没有URL且不在就绪队列中时从主机表中移除，与offer使用同一把主机锁，
+     * 移除后到达的URL会进入新建的主机队列
+     */
+    private void evictIfDrained(HostQueue hostQueue) {
+        synchronized (hostQueue) {
+            if (hostQueue.urls.isEmpty() && !hostQueue.scheduled.get()) {
+                hostQueue.removed = true;
+                hostQueues.remove(hostQueue.host, hostQueue);
+            }
+        }
+    }
+
+    /**
+     * 将主机放入就绪队列（同一主机只会入队一次）
+     */
+    private void schedule(HostQueue hostQueue) {
+        if (hostQueue.scheduled.compareAndSet(false, true)) {
+            readyHosts.offer(hostQueue);
+        }
+    }
+
+    /**
+     * 单个主机的URL队列，removed由主机对象锁保护
+     */
+    private static final class HostQueue {
+        private final String host;
+        private final Queue<String> urls = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private boolean removed;
+
+        private HostQueue(String host) {
+            this.host = host;
+        }
+
+        @Override
+        public String toString() {
+            return "HostQueue{host='" + host + "'}";
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package io.leavesfly.crawler.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 溢出到磁盘的持久化URL队列
+ * 内存中只保留一个容量有限的热点队列头部，放不下的URL追加写入分段文件，
+ * 后台线程在头部不足时从磁盘回填，因此入队不会丢弃URL，堆内存占用保持平稳
+ *
+ * 正常关闭时内存中的URL会写回磁盘，重启后继续爬取。
+ * 追加的URL先写入内存缓冲区，回填线程每个周期（10ms）把缓冲区写入分段文件；
+ * 进程异常退出时会丢失内存头部和回填积压中的URL，以及最近一个周期内追加、还没写出的URL。
+ * 写出后不强制刷盘，操作系统崩溃时还可能丢失上次检查点之后的数据
+ *
+ * @author yefei.yf
+ */
+public class SpillingUrlFrontier implements UrlFrontier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillingUrlFrontier.class);
+
+    /**
+     * 默认分段文件大小：64MB
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final long REFILL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final UrlFrontier head;
+    private final int headCapacity;
+    private final int lowWatermark;
+    private final UrlSegmentLog segmentLog;
+    private final Thread refillThread;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    /**
+     * 回填时头部暂时放不下的URL
+     */
+    private final Deque<String> refillBacklog = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 使用按主机分片的内存队列作为头部
+     *
+     * @param directory 分段文件目录
+     * @param headCapacity 内存头部容量
+     * @throws IOException 打开分段文件失败
+     */
+    public SpillingUrlFrontier(Path directory, int headCapacity) throws IOException {
+        this(new ShardedUrlFrontier(headCapacity), headCapacity, directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param head 内存头部队列
+     * @param headCapacity 内存头部容量
+     * @param directory 分段文件目录
+     * @param segmentSize 单个分段文件大小上限
+     * @throws IOException 打开分段文件失败
+     */
+    public SpillingUrlFrontier(UrlFrontier head, int headCapacity, Path directory, long segmentSize)
+            throws IOException {
+        this.head = head;
+        this.headCapacity = headCapacity;
+        this.lowWatermark = Math.max(1, headCapacity / 2);
+        this.segmentLog = new UrlSegmentLog(directory, segmentSize);
+
+        this.refillThread = new Thread(this::refillLoop, "UrlFrontier-Refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.start();
+    }
+
+    @Override
+    public boolean offer(String url) {
+        if (url == null) {
+            return false;
+        }
+        // 磁盘上已有积压时直接追加，尽量保持先进先出
+        if (segmentLog.isEmpty() && head.offer(url)) {
+            return true;
+        }
+        try {
+            segmentLog.append(url);
+            return true;
+        } catch (IOException e) {
+            logger.error("URL写入磁盘队列失败: {}", url, e);
+            return false;
+        }
+    }
+
+    @Override
+    public String poll() {
+        String url = head.poll();
+        wakeRefillIfNeeded();
+        return url;
+    }
+
+    @Override
+    public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+        wakeRefillIfNeeded();
+        String url = head.poll(timeout, unit);
+        wakeRefillIfNeeded();
+        return url;
+    }
+
+    @Override
+    public int size() {
+        long total = (long) head.size() + segmentLog.size() + refillBacklog.size();
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取内存头部中的URL数量
+     *
+     * @return URL数量
+     */
+    public int getHeadSize() {
+        return head.size();
+    }
+
+    /**
+     * 获取磁盘上等待回填的URL数量
+     *
+     * @return URL数量
+     */
+    public long getSpilledSize() {
+        return segmentLog.size();
+    }
+
+    @Override
+    public void close() {
+        if (!running.compareAndSet(true, false)) {
+            return;
+        }
+        LockSupport.unpark(refillThread);
+        try {
+            refillThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 将内存中的URL写回磁盘，保证重启后不丢失
+        try {
+            int flushed = 0;
+            String url;
+            while ((url = refillBacklog.pollFirst()) != null) {
+                segmentLog.append(url);
+                flushed++;
+            }
+            while ((url = head.poll()) != null) {
+                segmentLog.append(url);
+                flushed++;
+            }
+            segmentLog.close();
+            head.close();
+            logger.info("磁盘URL队列已关闭，写回内存URL数: {}, 磁盘待爬取URL数: {}",
+                    flushed, segmentLog.size());
+        } catch (IOException e) {
+            logger.error("关闭磁盘URL队列失败", e);
+        }
+    }
+
+    private void wakeRefillIfNeeded() {
+        if (head.size() < lowWatermark && !segmentLog.isEmpty()) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    /**
+     * 回填线程主循环
+     */
+    private void refillLoop() {
+        while (running.get()) {
+            try {
+                refill();
+                // 按周期写出追加缓冲区，缩小异常退出时丢失的范围
+                segmentLog.flush();
+            } catch (IOException e) {
+                logger.error("从磁盘回填URL失败", e);
+            } catch (Exception e) {
+                logger.error("回填线程发生异常", e);
+            }
+            LockSupport.parkNanos(this, REFILL_INTERVAL_NANOS);
+        }
+    }
+
+    private void refill() throws IOException {
+        if (head.size() >= lowWatermark) {
+            return;
+        }
+
+        // 先处理上次没放进头部的URL
+        while (!refillBacklog.isEmpty()) {
+            if (!head.offer(refillBacklog.peekFirst())) {
+                return;
+            }
+            refillBacklog.pollFirst();
+        }
+
+        int toRead = headCapacity - head.size();
+        if (toRead <= 0 || segmentLog.isEmpty()) {
+            return;
+        }
+
+        List<String> urls = segmentLog.read(toRead);
+        for (String url : urls) {
+            if (!head.offer(url)) {
+                refillBacklog.addLast(url);
+            }
+        }
+        segmentLog.checkpoint();
+        logger.debug("从磁盘回填URL: {}, 磁盘剩余: {}", urls.size(), segmentLog.size());
+    }
+}
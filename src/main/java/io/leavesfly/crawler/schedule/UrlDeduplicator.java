@@ -0,0 +1,66 @@
+package io.leavesfly.crawler.schedule;
+
+/**
+ * 已见URL去重接口
+ * 位于URL队列之前，过滤已经入队或抓取过的URL
+ *
+ * @author yefei.yf
+ */
+public interface UrlDeduplicator {
+
+    /**
+     * 标记URL为已见
+     *
+     * @param url URL
+     * @return URL首次出现时返回true，重复时返回false
+     */
+    boolean markIfNew(String url);
+
+    /**
+     * 判断URL是否已见，不标记也不计入统计
+     * 布隆过滤器实现可能误判为已见，但不会把已见URL判为未见
+     *
+     * @param url URL
+     * @return 可能已见时返回true
+     */
+    boolean mightContain(String url);
+
+    /**
+     * 获取检查过的URL数量
+     *
+     * @return 检查次数
+     */
+    long getCheckedCount();
+
+    /**
+     * 获取判定为重复的URL数量
+     *
+     * @return 重复次数
+     */
+    long getDuplicateCount();
+
+    /**
+     * 获取去重命中率
+     *
+     * @return 重复数 / 检查数
+     */
+    default double getHitRate() {
+        long checked = getCheckedCount();
+        return checked > 0 ? (double) getDuplicateCount() / checked : 0.0;
+    }
+
+    /**
+     * 获取底层布隆过滤器的统计信息
+     *
+     * @return 过滤器统计，不使用布隆过滤器时返回null
+     */
+    default BloomFilterStats getFilterStats() {
+        return null;
+    }
+
+    /**
+     * 关闭并释放资源
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,67 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * URL去重器工厂类
+ *
+ * @author yefei.yf
+ */
+public class UrlDeduplicatorFactory {
+
+    /**
+     * 根据配置创建URL去重器
+     *
+     * @param config 爬虫配置
+     * @return URL去重器，未开启去重时返回放行所有URL的实现
+     */
+    public static UrlDeduplicator createDeduplicator(CrawlerConfig config) {
+        if (!config.isDeduplicationEnabled()) {
+            return new PassThroughDeduplicator();
+        }
+        String snapshotPath = config.getDedupSnapshotPath();
+        if (snapshotPath != null && !snapshotPath.trim().isEmpty()) {
+            try {
+                return BloomUrlDeduplicator.restore(Paths.get(snapshotPath), config.getDedupExpectedUrls(),
+                        config.getDedupFalsePositiveProbability(), config.isDedupExactConfirmation());
+            } catch (IOException e) {
+                throw new IllegalStateException("无法加载URL去重快照: " + snapshotPath, e);
+            }
+        }
+        return new BloomUrlDeduplicator(config.getDedupExpectedUrls(),
+                config.getDedupFalsePositiveProbability(), config.isDedupExactConfirmation());
+    }
+
+    /**
+     * 不去重，所有URL都视为新URL
+     */
+    private static class PassThroughDeduplicator implements UrlDeduplicator {
+
+        private final LongAdder checkedCount = new LongAdder();
+
+        @Override
+        public boolean markIfNew(String url) {
+            checkedCount.increment();
+            return true;
+        }
+
+        @Override
+        public boolean mightContain(String url) {
+            return false;
+        }
+
+        @Override
+        public long getCheckedCount() {
+            return checkedCount.sum();
+        }
+
+        @Override
+        public long getDuplicateCount() {
+            return 0;
+        }
+    }
+}
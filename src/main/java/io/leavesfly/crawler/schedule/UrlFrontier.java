@@ -0,0 +1,68 @@
+package io.leavesfly.crawler.schedule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL待爬取边界（Frontier）接口
+ * 负责保存待抓取的URL，并按调度规则交给工作线程
+ *
+ * @author yefei.yf
+ */
+public interface UrlFrontier {
+
+    /**
+     * 添加URL
+     *
+     * @param url 待爬取的URL
+     * @return 是否添加成功，队列已满时返回false
+     */
+    boolean offer(String url);
+
+    /**
+     * 取出一个URL，不阻塞
+     *
+     * @return URL，没有可用URL时返回null
+     */
+    String poll();
+
+    /**
+     * 取出一个URL，最多等待指定时间
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     * @return URL，超时返回null
+     * @throws InterruptedException 等待被中断
+     */
+    String poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 通知URL已处理完成
+     * 按主机调度请求间隔的队列据此安排主机的下一次抓取，其他队列忽略
+     *
+     * @param url 已处理的URL
+     */
+    default void done(String url) {
+    }
+
+    /**
+     * 获取待爬取的URL数量
+     *
+     * @return URL数量
+     */
+    int size();
+
+    /**
+     * 判断是否为空
+     *
+     * @return 是否为空
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 关闭并释放资源
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,74 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * URL队列工厂类
+ * 使用工厂模式创建URL队列，并提供供旧版URL过滤器使用的共享队列
+ *
+ * @author yefei.yf
+ */
+public class UrlFrontierFactory {
+
+    private static volatile UrlFrontier sharedFrontier;
+
+    /**
+     * 根据配置创建URL队列
+     *
+     * @param config 爬虫配置
+     * @return URL队列实例
+     */
+    public static UrlFrontier createFrontier(CrawlerConfig config) {
+        return createFrontier(config, HostDelayPolicy.fixed(config.getDelayBetweenRequests()));
+    }
+
+    /**
+     * 根据配置创建URL队列，开启按主机调度时使用指定的请求间隔策略
+     *
+     * @param config 爬虫配置
+     * @param delayPolicy 主机请求间隔策略
+     * @return URL队列实例
+     */
+    public static UrlFrontier createFrontier(CrawlerConfig config, HostDelayPolicy delayPolicy) {
+        String frontierType = config.getFrontierType();
+        
+        switch (frontierType.toLowerCase()) {
+            case "memory":
+                if (config.isPolitenessEnabled()) {
+                    return new PolitenessUrlFrontier(config.getQueueCapacity(), delayPolicy);
+                }
+                return new ShardedUrlFrontier(config.getQueueCapacity());
+            case "disk":
+                try {
+                    return new SpillingUrlFrontier(Paths.get(config.getFrontierPath()),
+                            config.getQueueCapacity());
+                } catch (IOException e) {
+                    throw new IllegalStateException("无法打开磁盘URL队列: " + config.getFrontierPath(), e);
+                }
+            default:
+                throw new IllegalArgumentException("不支持的URL队列类型: " + frontierType);
+        }
+    }
+
+    /**
+     * 获取进程内共享的URL队列
+     *
+     * @return 共享URL队列
+     */
+    public static UrlFrontier getSharedFrontier() {
+        UrlFrontier frontier = sharedFrontier;
+        if (frontier == null) {
+            synchronized (UrlFrontierFactory.class) {
+                frontier = sharedFrontier;
+                if (frontier == null) {
+                    frontier = new ShardedUrlFrontier();
+                    sharedFrontier = frontier;
+                }
+            }
+        }
+        return frontier;
+    }
+}
@@ -0,0 +1,411 @@
+package io.leavesfly.crawler.schedule;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 基于追加写分段文件的URL日志
+ * URL按顺序写入固定大小滚动的分段文件，读取进度保存在检查点文件中，
+ * 进程重启后从检查点继续读取，已读完的分段文件会被删除
+ *
+ * 记录格式：[4字节长度][UTF-8编码的URL]
+ *
+ * @author yefei.yf
+ */
+public class UrlSegmentLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlSegmentLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentSize;
+
+    // 写入状态
+    private long writeSegmentId;
+    private FileChannel writeChannel;
+    private long writePosition;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+
+    // 读取状态
+    private long readSegmentId;
+    private FileChannel readChannel;
+    private long readPosition;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+
+    private long pendingCount;
+    private boolean closed;
+
+    /**
+     * 打开（或恢复）URL日志
+     *
+     * @param directory 日志目录
+     * @param segmentSize 单个分段文件大小上限（字节）
+     * @throws IOException 读写失败
+     */
+    public UrlSegmentLog(Path directory, long segmentSize) throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("分段大小必须大于0");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * 追加一个URL
+     *
+     * @param url URL
+     * @throws IOException 写入失败
+     */
+    public synchronized void append(String url) throws IOException {
+        ensureOpen();
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_RECORD_LENGTH) {
+            throw new IOException("URL过长: " + bytes.length + " 字节");
+        }
+
+        int recordLength = 4 + bytes.length;
+        if (writePosition + writeBuffer.position() + recordLength > segmentSize
+                && writePosition + writeBuffer.position() > 0) {
+            rollSegment();
+        }
+        if (writeBuffer.remaining() < recordLength) {
+            flushWriteBuffer();
+        }
+        writeBuffer.putInt(bytes.length);
+        writeBuffer.put(bytes);
+        pendingCount++;
+    }
+
+    /**
+     * 把写缓冲区中的URL写入分段文件，不强制刷盘。
+     * 写入后进程异常退出不会丢失这些URL，操作系统崩溃时仍可能丢失上次检查点之后的数据
+     *
+     * @throws IOException 写入失败
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (writeBuffer.position() > 0) {
+            flushWriteBuffer();
+        }
+    }
+
+    /**
+     * 按顺序读取最多maxCount个URL，并推进读取进度
+     *
+     * @param maxCount 最大读取数量
+     * @return URL列表
+     * @throws IOException 读取失败
+     */
+    public synchronized List<String> read(int maxCount) throws IOException {
+        ensureOpen();
+        if (pendingCount == 0 || maxCount <= 0) {
+            return Collections.emptyList();
+        }
+        // 读取位置追上写入位置时，先把缓冲区中的数据写出
+        if (readSegmentId == writeSegmentId && writeBuffer.position() > 0) {
+            flushWriteBuffer();
+        }
+
+        List<String> urls = new ArrayList<>(Math.min(maxCount, (int) Math.min(pendingCount, 4096)));
+        while (urls.size() < maxCount && pendingCount > 0) {
+            String url = readRecord();
+            if (url == null) {
+                if (!advanceReadSegment()) {
+                    break;
+                }
+                continue;
+            }
+            urls.add(url);
+            pendingCount--;
+        }
+        return urls;
+    }
+
+    /**
+     * 持久化当前读取进度
+     *
+     * @throws IOException 写入失败
+     */
+    public synchronized void checkpoint() throws IOException {
+        ensureOpen();
+        flushWriteBuffer();
+        writeChannel.force(false);
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(readSegmentId).putLong(readPosition).flip();
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 获取尚未读取的URL数量
+     *
+     * @return URL数量
+     */
+    public synchronized long size() {
+        return pendingCount;
+    }
+
+    /**
+     * 判断是否没有待读取的URL
+     *
+     * @return 是否为空
+     */
+    public synchronized boolean isEmpty() {
+        return pendingCount == 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        checkpoint();
+        closed = true;
+        writeChannel.close();
+        if (readChannel != null) {
+            readChannel.close();
+        }
+    }
+
+    /**
+     * 从检查点恢复读写状态，并截断末尾不完整的记录
+     */
+    private void recover() throws IOException {
+        List<Long> segmentIds = listSegmentIds();
+
+        long checkpointSegment = segmentIds.isEmpty() ? 0 : segmentIds.get(0);
+        long checkpointPosition = 0;
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpointFile));
+            if (buffer.remaining() >= 16) {
+                checkpointSegment = buffer.getLong();
+                checkpointPosition = buffer.getLong();
+            }
+        }
+
+        // 删除检查点之前已经读完的分段
+        for (Iterator<Long> it = segmentIds.iterator(); it.hasNext(); ) {
+            long segmentId = it.next();
+            if (segmentId < checkpointSegment) {
+                Files.deleteIfExists(segmentPath(segmentId));
+                it.remove();
+            }
+        }
+
+        if (segmentIds.isEmpty()) {
+            writeSegmentId = checkpointSegment;
+            writeChannel = openWriteChannel(writeSegmentId);
+            writePosition = 0;
+            readSegmentId = writeSegmentId;
+            readPosition = 0;
+            pendingCount = 0;
+            return;
+        }
+
+        // 统计剩余记录数量，并截断最后一个分段末尾写了一半的记录
+        pendingCount = 0;
+        for (int i = 0; i < segmentIds.size(); i++) {
+            long segmentId = segmentIds.get(i);
+            long start = segmentId == checkpointSegment ? checkpointPosition : 0;
+            boolean last = i == segmentIds.size() - 1;
+            long validEnd = scanSegment(segmentId, start, last);
+            if (last) {
+                writeSegmentId = segmentId;
+                writeChannel = openWriteChannel(segmentId);
+                writeChannel.truncate(validEnd);
+                writePosition = validEnd;
+                writeChannel.position(validEnd);
+            }
+        }
+
+        readSegmentId = segmentIds.get(0);
+        readPosition = readSegmentId == checkpointSegment ? checkpointPosition : 0;
+        readChannel = FileChannel.open(segmentPath(readSegmentId), StandardOpenOption.READ);
+        readBuffer.clear().flip();
+
+        logger.info("URL日志恢复完成: 目录={}, 分段数={}, 待读取URL数={}",
+                directory, segmentIds.size(), pendingCount);
+    }
+
+    /**
+     * 扫描分段文件，累计记录数并返回最后一个完整记录的结束位置
+     */
+    private long scanSegment(long segmentId, long start, boolean last) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = start;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            while (position + 4 <= size) {
+                lengthBuffer.clear();
+                channel.read(lengthBuffer, position);
+                lengthBuffer.flip();
+                int length = lengthBuffer.getInt();
+                if (length < 0 || length > MAX_RECORD_LENGTH || position + 4 + length > size) {
+                    break;
+                }
+                position += 4 + length;
+                pendingCount++;
+            }
+            if (position != size) {
+                if (last) {
+                    logger.warn("URL日志分段 {} 末尾存在不完整记录，截断至 {} 字节", segmentId, position);
+                } else {
+                    logger.warn("URL日志分段 {} 存在损坏记录，忽略 {} 之后的数据", segmentId, position);
+                }
+            }
+            return position;
+        }
+    }
+
+    /**
+     * 读取一条记录，当前分段没有更多数据时返回null
+     */
+    private String readRecord() throws IOException {
+        if (readChannel == null) {
+            readChannel = FileChannel.open(segmentPath(readSegmentId), StandardOpenOption.READ);
+            readBuffer.clear().flip();
+        }
+        if (!fill(4)) {
+            return null;
+        }
+        int length = readBuffer.getInt(readBuffer.position());
+        if (length < 0 || length > MAX_RECORD_LENGTH) {
+            // 恢复时已按同样规则统计记录数，损坏位置之后的数据视为本分段结束
+            logger.warn("URL日志记录损坏: 分段={}, 位置={}", readSegmentId, readPosition);
+            return null;
+        }
+        if (!fill(4 + length)) {
+            return null;
+        }
+        readBuffer.getInt();
+        String url = new String(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(),
+                length, StandardCharsets.UTF_8);
+        readBuffer.position(readBuffer.position() + length);
+        readPosition += 4 + length;
+        return url;
+    }
+
+    /**
+     * 保证读缓冲区中至少有required字节可读
+     */
+    private boolean fill(int required) throws IOException {
+        if (readBuffer.remaining() >= required) {
+            return true;
+        }
+        long limit = readSegmentId == writeSegmentId ? writePosition : readChannel.size();
+        readBuffer.compact();
+        long filePosition = readPosition + readBuffer.position();
+        while (readBuffer.hasRemaining() && filePosition < limit) {
+            int toRead = (int) Math.min(readBuffer.remaining(), limit - filePosition);
+            int oldLimit = readBuffer.limit();
+            readBuffer.limit(readBuffer.position() + toRead);
+            int n = readChannel.read(readBuffer, filePosition);
+            readBuffer.limit(oldLimit);
+            if (n <= 0) {
+                break;
+            }
+            filePosition += n;
+        }
+        readBuffer.flip();
+        return readBuffer.remaining() >= required;
+    }
+
+    /**
+     * 当前分段读完后切换到下一个分段，并删除已读完的分段
+     */
+    private boolean advanceReadSegment() throws IOException {
+        if (readSegmentId >= writeSegmentId) {
+            return false;
+        }
+        readChannel.close();
+        readChannel = null;
+        long finishedSegment = readSegmentId;
+        readSegmentId++;
+        readPosition = 0;
+        readBuffer.clear().flip();
+        checkpoint();
+        Files.deleteIfExists(segmentPath(finishedSegment));
+        return true;
+    }
+
+    private void rollSegment() throws IOException {
+        flushWriteBuffer();
+        writeChannel.force(false);
+        writeChannel.close();
+        writeSegmentId++;
+        writeChannel = openWriteChannel(writeSegmentId);
+        writePosition = 0;
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            writePosition += writeChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private FileChannel openWriteChannel(long segmentId) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warn("忽略无法识别的分段文件: {}", path);
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%020d%s", segmentId, SEGMENT_SUFFIX));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("URL日志已关闭: " + directory);
+        }
+    }
+}
@@ -4,8 +4,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -52,17 +54,61 @@ public class CrawlStrategyManager {
      * @return 匹配的策略，如果没有找到返回null
      */
     public CrawlStrategy selectStrategy(String url) {
+        CrawlStrategy strategy = findStrategy(url);
+        if (strategy != null) {
+            logger.debug("为URL {} 选择策略: {}", url, strategy.getStrategyName());
+        } else {
+            logger.warn("未找到匹配的爬取策略: {}", url);
+        }
+        return strategy;
+    }
+    
+    /**
+     * 查找匹配的爬取策略，没有匹配时不记录日志
+     * 
+     * @param url 待爬取的URL
+     * @return 匹配的策略，如果没有找到返回null
+     */
+    public CrawlStrategy findStrategy(String url) {
         for (CrawlStrategy strategy : strategies) {
             if (strategy.supports(url)) {
-                logger.debug("为URL {} 选择策略: {}", url, strategy.getStrategyName());
                 return strategy;
             }
         }
-        
-        logger.warn("未找到匹配的爬取策略: {}", url);
         return null;
     }
     
+    /**
+     * 获取URL的请求间隔，取第一个匹配策略的延迟
+     * 
+     * @param url 请求URL
+     * @param defaultDelay 没有匹配策略时的延迟（毫秒）
+     * @return 延迟时间（毫秒）
+     */
+    public long getRequestDelay(String url, long defaultDelay) {
+        for (CrawlStrategy strategy : strategies) {
+            if (strategy.supports(url)) {
+                return strategy.getRequestDelay(url);
+            }
+        }
+        return defaultDelay;
+    }
+    
+    /**
+     * 获取URL的请求头，取第一个匹配策略的请求头
+     * 
+     * @param url 请求URL
+     * @return 请求头，没有匹配策略时返回空表
+     */
+    public Map<String, String> getHeaders(String url) {
+        for (CrawlStrategy strategy : strategies) {
+            if (strategy.supports(url)) {
+                return strategy.getHeaders(url);
+            }
+        }
+        return Collections.emptyMap();
+    }
+    
     /**
      * 获取所有已注册的策略
      * 
@@ -2,11 +2,11 @@ package io.leavesfly.crawler.strategy.impl;
 
 import io.leavesfly.crawler.domain.CrawlContext;
 import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.parse.link.LinkExtractor;
+import io.leavesfly.crawler.parse.preprocess.PreprocessorChain;
+import io.leavesfly.crawler.parse.preprocess.TagBlockStripper;
+import io.leavesfly.crawler.parse.rule.ExtractionRules;
 import io.leavesfly.crawler.strategy.CrawlStrategy;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -15,11 +15,33 @@ import java.util.Map;
 
 /**
  * 美团网站爬取策略实现
+ * 链接由流式链接提取器扫描页面得到，不构建文档树；数据按extraction/meituan.yml中的规则
+ * 从上下文中共用的文档树提取
  * 
  * @author yefei.yf
  */
 public class MeiTuanCrawlStrategy implements CrawlStrategy {
     
+    /**
+     * 商家详情页、分类页和下一页链接
+     */
+    private static final LinkExtractor LINK_EXTRACTOR = LinkExtractor.builder()
+            .include("/shop/")
+            .include("/category/")
+            .withClass("next")
+            .attributeContains("title", "下一页")
+            .build();
+    
+    /**
+     * 各类页面的提取规则，加载时编译一次
+     */
+    private static final ExtractionRules EXTRACTION_RULES = ExtractionRules.fromResource("extraction/meituan.yml");
+    
+    /**
+     * 内容预处理：一遍扫描删除脚本和样式
+     */
+    private static final PreprocessorChain PREPROCESSOR = PreprocessorChain.of(new TagBlockStripper("script", "style"));
+    
     @Override
     public boolean supports(String url) {
         return url != null && url.contains("meituan.com");
@@ -49,80 +71,42 @@ public class MeiTuanCrawlStrategy implements CrawlStrategy {
     
     @Override
     public List<String> extractUrls(CrawlContext context) {
-        List<String> urls = new ArrayList<>();
         RawPage rawPage = context.getRawPage();
-        
-        if (rawPage == null || rawPage.getContent() == null) {
-            return urls;
+        if (rawPage == null || !rawPage.hasContent()) {
+            return new ArrayList<>();
         }
         
         try {
-            Document doc = Jsoup.parse(rawPage.getContent());
-            String baseUrl = rawPage.getUrl();
-            
-            // 提取商家详情页链接
-            Elements shopLinks = doc.select("a[href*='/shop/']");
-            for (Element link : shopLinks) {
-                String href = link.attr("href");
-                if (href.startsWith("/")) {
-                    href = "https://www.meituan.com" + href;
-                }
-                urls.add(href);
-            }
-            
-            // 提取分类页面链接
-            Elements categoryLinks = doc.select("a[href*='/category/']");
-            for (Element link : categoryLinks) {
-                String href = link.attr("href");
-                if (href.startsWith("/")) {
-                    href = "https://www.meituan.com" + href;
-                }
-                urls.add(href);
-            }
-            
-            // 提取下一页链接
-            Elements nextPageLinks = doc.select("a.next, a[title*='下一页']");
-            for (Element link : nextPageLinks) {
-                String href = link.attr("href");
-                if (!href.isEmpty()) {
-                    if (href.startsWith("/")) {
-                        href = "https://www.meituan.com" + href;
-                    }
-                    urls.add(href);
-                }
-            }
-            
+            return LINK_EXTRACTOR.extract(rawPage);
         } catch (Exception e) {
             // 记录解析异常，但不抛出
             context.setAttribute("extractUrlsError", e.getMessage());
+            return new ArrayList<>();
         }
-        
-        return urls;
     }
     
     @Override
     public Object extractData(CrawlContext context) {
         RawPage rawPage = context.getRawPage();
-        if (rawPage == null || rawPage.getContent() == null) {
+        if (rawPage == null || !rawPage.hasContent()) {
             return null;
         }
         
         try {
-            Document doc = Jsoup.parse(rawPage.getContent());
-            Map<String, Object> data = new HashMap<>();
-            
-            // 判断页面类型并提取相应数据
+            String pageType;
             if (rawPage.getUrl().contains("/shop/")) {
                 // 商家详情页
-                data = extractShopData(doc);
+                pageType = "shop";
             } else if (rawPage.getUrl().contains("/category/")) {
                 // 分类列表页
-                data = extractCategoryData(doc);
+                pageType = "category";
             } else {
                 // 通用数据提取
-                data = extractGeneralData(doc);
+                pageType = "general";
             }
             
+            Map<String, Object> data = EXTRACTION_RULES.getPlan(pageType).extract(context.getDocument());
+            data.put("pageType", pageType);
             data.put("url", rawPage.getUrl());
             data.put("extractTime", System.currentTimeMillis());
             
@@ -134,108 +118,10 @@ public class MeiTuanCrawlStrategy implements CrawlStrategy {
         }
     }
     
-    /**
-     * 提取商家数据
-     */
-    private Map<String, Object> extractShopData(Document doc) {
-        Map<String, Object> data = new HashMap<>();
-        
-        // 商家名称
-        Element nameElement = doc.selectFirst("h1.shop-name, .poi-name");
-        if (nameElement != null) {
-            data.put("shopName", nameElement.text().trim());
-        }
-        
-        // 评分
-        Element ratingElement = doc.selectFirst(".rating-num, .shop-star");
-        if (ratingElement != null) {
-            data.put("rating", ratingElement.text().trim());
-        }
-        
-        // 地址
-        Element addressElement = doc.selectFirst(".address, .poi-address");
-        if (addressElement != null) {
-            data.put("address", addressElement.text().trim());
-        }
-        
-        // 电话
-        Element phoneElement = doc.selectFirst(".phone, .poi-phone");
-        if (phoneElement != null) {
-            data.put("phone", phoneElement.text().trim());
-        }
-        
-        data.put("pageType", "shop");
-        return data;
-    }
-    
-    /**
-     * 提取分类数据
-     */
-    private Map<String, Object> extractCategoryData(Document doc) {
-        Map<String, Object> data = new HashMap<>();
-        
-        // 分类名称
-        Element titleElement = doc.selectFirst("h1, .category-title");
-        if (titleElement != null) {
-            data.put("categoryName", titleElement.text().trim());
-        }
-        
-        // 商家列表
-        Elements shopElements = doc.select(".shop-item, .poi-item");
-        List<Map<String, String>> shops = new ArrayList<>();
-        
-        for (Element shopElement : shopElements) {
-            Map<String, String> shop = new HashMap<>();
-            
-            Element nameEl = shopElement.selectFirst(".shop-name, .poi-name");
-            if (nameEl != null) {
-                shop.put("name", nameEl.text().trim());
-            }
-            
-            Element linkEl = shopElement.selectFirst("a");
-            if (linkEl != null) {
-                shop.put("link", linkEl.attr("href"));
-            }
-            
-            if (!shop.isEmpty()) {
-                shops.add(shop);
-            }
-        }
-        
-        data.put("shops", shops);
-        data.put("pageType", "category");
-        return data;
-    }
-    
-    /**
-     * 提取通用数据
-     */
-    private Map<String, Object> extractGeneralData(Document doc) {
-        Map<String, Object> data = new HashMap<>();
-        
-        // 页面标题
-        data.put("title", doc.title());
-        
-        // 页面描述
-        Element descElement = doc.selectFirst("meta[name=description]");
-        if (descElement != null) {
-            data.put("description", descElement.attr("content"));
-        }
-        
-        data.put("pageType", "general");
-        return data;
-    }
-    
     @Override
     public String preprocessContent(RawPage rawPage) {
-        // 美团页面可能包含大量JavaScript，进行一些预处理
-        String content = rawPage.getContent();
-        if (content != null) {
-            // 移除一些不需要的脚本和样式
-            content = content.replaceAll("<script[^>]*>.*?</script>", "");
-            content = content.replaceAll("<style[^>]*>.*?</style>", "");
-        }
-        return content;
+        // 美团页面可能包含大量JavaScript，移除脚本和样式
+        return PREPROCESSOR.apply(rawPage.getContentView());
     }
     
     @Override
@@ -0,0 +1,137 @@
+package io.leavesfly.crawler.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 页面字符集识别
+ * 优先使用响应头声明的字符集，其次是BOM和页面头部meta标签中声明的字符集，都没有时使用UTF-8。
+ * meta标签只在页面开头的一段字节内按ASCII扫描，不需要先解码整个页面
+ *
+ * @author yefei.yf
+ */
+public final class CharsetDetector {
+
+    /**
+     * 扫描meta标签的最大字节数
+     */
+    static final int META_SCAN_LIMIT = 4096;
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * 识别页面字符集
+     *
+     * @param body 页面字节
+     * @param length 有效字节数
+     * @param declaredCharset 响应头声明的字符集，可以为null
+     * @return 字符集
+     */
+    public static Charset detect(byte[] body, int length, String declaredCharset) {
+        Charset charset = forName(declaredCharset);
+        if (charset != null) {
+            return charset;
+        }
+        if (body == null) {
+            return StandardCharsets.UTF_8;
+        }
+        charset = fromBom(body, length);
+        if (charset != null) {
+            return charset;
+        }
+        charset = forName(findMetaCharset(body, Math.min(length, META_SCAN_LIMIT)));
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 从Content-Type头中解析charset参数
+     *
+     * @param contentType Content-Type头的值，可以为null
+     * @return 字符集名称，没有声明时返回null
+     */
+    public static String charsetFromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index < 0) {
+            return null;
+        }
+        return trimCharsetName(contentType, index + "charset=".length(), contentType.length());
+    }
+
+    /**
+     * 按名称查找字符集，名称为空或不支持时返回null
+     */
+    static Charset forName(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Charset fromBom(byte[] body, int length) {
+        if (length >= 3 && (body[0] & 0xFF) == 0xEF && (body[1] & 0xFF) == 0xBB && (body[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (body[0] & 0xFF) == 0xFE && (body[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && (body[0] & 0xFF) == 0xFF && (body[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    /**
+     * 在页面头部查找 &lt;meta charset="..."&gt; 或 &lt;meta content="text/html; charset=..."&gt;
+     */
+    private static String findMetaCharset(byte[] body, int limit) {
+        // HTML头部只含ASCII，按ISO-8859-1逐字节映射即可，不受页面真实编码影响
+        String head = new String(body, 0, limit, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+        int from = 0;
+        while (true) {
+            int meta = head.indexOf("<meta", from);
+            if (meta < 0) {
+                return null;
+            }
+            int end = head.indexOf('>', meta);
+            if (end < 0) {
+                end = head.length();
+            }
+            int charset = head.indexOf("charset", meta);
+            if (charset >= 0 && charset < end) {
+                int value = charset + "charset".length();
+                while (value < end && (head.charAt(value) == ' ' || head.charAt(value) == '=')) {
+                    value++;
+                }
+                String name = trimCharsetName(head, value, end);
+                if (name != null) {
+                    return name;
+                }
+            }
+            from = end;
+        }
+    }
+
+    private static String trimCharsetName(String text, int start, int end) {
+        while (start < end && (text.charAt(start) == '"' || text.charAt(start) == '\'' || text.charAt(start) == ' ')) {
+            start++;
+        }
+        int stop = start;
+        while (stop < end) {
+            char c = text.charAt(stop);
+            if (c == '"' || c == '\'' || c == ';' || c == ' ' || c == '/' || c == '>') {
+                break;
+            }
+            stop++;
+        }
+        return stop > start ? text.substring(start, stop) : null;
+    }
+}
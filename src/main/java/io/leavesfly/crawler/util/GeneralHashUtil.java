@@ -137,4 +137,39 @@ public class GeneralHashUtil {
 		return hash;
 	}
 
+	/**
+	 * 64位FNV-1a哈希，对字符序列的一段计算，不创建子串
+	 * 上面的各个哈希只有32位左右的有效位，高位分布很差，需要均匀64位哈希时使用本方法
+	 * 
+	 * @param str 字符序列
+	 * @param start 起始位置
+	 * @param end 结束位置（不含）
+	 * @return 64位哈希
+	 */
+	public static long fnv1a64(CharSequence str, int start, int end) {
+		long hash = 0xcbf29ce484222325L;
+
+		for (int i = start; i < end; i++) {
+			hash ^= str.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * MurmurHash3的64位终结混合，使输入的每一位都影响输出的每一位
+	 * 
+	 * @param hash 待混合的值
+	 * @return 混合后的值
+	 */
+	public static long fmix64(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
 }
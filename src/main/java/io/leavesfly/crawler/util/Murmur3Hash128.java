@@ -0,0 +1,199 @@
+package io.leavesfly.crawler.util;
+
+/**
+ * MurmurHash3 x64 128位哈希
+ * 非加密哈希，速度远高于MD5，且不加锁、不分配内存；
+ * 实例保存最近一次计算结果的高低64位，可在同一线程内重复使用
+ *
+ * 对CharSequence直接按UTF-16LE编码的字节序列计算，结果与先转成UTF-16LE字节再哈希一致
+ *
+ * @author yefei.yf
+ */
+public final class Murmur3Hash128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+    private long h2;
+
+    /**
+     * 对字符序列计算哈希
+     *
+     * @param data 字符序列
+     * @param seed 种子
+     * @return 当前实例
+     */
+    public Murmur3Hash128 hash(CharSequence data, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int length = data.length();
+        int blockEnd = length & ~7;
+
+        // 每个块8个字符，即16字节
+        for (int i = 0; i < blockEnd; i += 8) {
+            long k1 = (long) data.charAt(i)
+                    | (long) data.charAt(i + 1) << 16
+                    | (long) data.charAt(i + 2) << 32
+                    | (long) data.charAt(i + 3) << 48;
+            long k2 = (long) data.charAt(i + 4)
+                    | (long) data.charAt(i + 5) << 16
+                    | (long) data.charAt(i + 6) << 32
+                    | (long) data.charAt(i + 7) << 48;
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int remaining = length - blockEnd;
+        if (remaining > 0) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = 0; i < remaining; i++) {
+                long c = data.charAt(blockEnd + i);
+                if (i < 4) {
+                    k1 |= c << (i * 16);
+                } else {
+                    k2 |= c << ((i - 4) * 16);
+                }
+            }
+            if (remaining > 4) {
+                h2 ^= mixK2(k2);
+            }
+            h1 ^= mixK1(k1);
+        }
+
+        finish(h1, h2, (long) length * 2);
+        return this;
+    }
+
+    /**
+     * 对字节数组计算哈希
+     *
+     * @param data 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @param seed 种子
+     * @return 当前实例
+     */
+    public Murmur3Hash128 hash(byte[] data, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        int blockEnd = offset + (length & ~15);
+
+        for (int i = offset; i < blockEnd; i += 16) {
+            long k1 = getLongLittleEndian(data, i);
+            long k2 = getLongLittleEndian(data, i + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        int remaining = offset + length - blockEnd;
+        if (remaining > 0) {
+            long k1 = 0;
+            long k2 = 0;
+            for (int i = 0; i < remaining; i++) {
+                long b = data[blockEnd + i] & 0xFFL;
+                if (i < 8) {
+                    k1 |= b << (i * 8);
+                } else {
+                    k2 |= b << ((i - 8) * 8);
+                }
+            }
+            if (remaining > 8) {
+                h2 ^= mixK2(k2);
+            }
+            h1 ^= mixK1(k1);
+        }
+
+        finish(h1, h2, length);
+        return this;
+    }
+
+    /**
+     * 获取哈希结果的低64位
+     *
+     * @return 低64位
+     */
+    public long getH1() {
+        return h1;
+    }
+
+    /**
+     * 获取哈希结果的高64位
+     *
+     * @return 高64位
+     */
+    public long getH2() {
+        return h2;
+    }
+
+    /**
+     * 计算字节数组的64位哈希（取128位结果的低64位）
+     *
+     * @param data 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 64位哈希
+     */
+    public static long hash64(byte[] data, int offset, int length) {
+        return new Murmur3Hash128().hash(data, offset, length, 0).getH1();
+    }
+
+    private void finish(long h1, long h2, long length) {
+        h1 ^= length;
+        h2 ^= length;
+
+        h1 += h2;
+        h2 += h1;
+
+        h1 = GeneralHashUtil.fmix64(h1);
+        h2 = GeneralHashUtil.fmix64(h2);
+
+        h1 += h2;
+        h2 += h1;
+
+        this.h1 = h1;
+        this.h2 = h2;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long getLongLittleEndian(byte[] data, int index) {
+        return (data[index] & 0xFFL)
+                | (data[index + 1] & 0xFFL) << 8
+                | (data[index + 2] & 0xFFL) << 16
+                | (data[index + 3] & 0xFFL) << 24
+                | (data[index + 4] & 0xFFL) << 32
+                | (data[index + 5] & 0xFFL) << 40
+                | (data[index + 6] & 0xFFL) << 48
+                | (data[index + 7] & 0xFFL) << 56;
+    }
+}
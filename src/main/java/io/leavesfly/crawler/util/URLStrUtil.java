@@ -22,6 +22,36 @@ public class URLStrUtil {
 		}
 		return "hz";
 	}
-	
-	
+
+	/**
+	 * 从URL中截取主机名（不含端口），不创建URI对象
+	 * 
+	 * @param url URL字符串
+	 * @return 主机名，无法识别时返回空字符串
+	 */
+	public static String getHost(String url) {
+		if (url == null) {
+			return "";
+		}
+		int start = url.indexOf("://");
+		start = start < 0 ? 0 : start + 3;
+		int end = start;
+		while (end < url.length()) {
+			char c = url.charAt(end);
+			if (c == '/' || c == '?' || c == '#') {
+				break;
+			}
+			end++;
+		}
+		// 去掉用户信息和端口
+		int at = url.lastIndexOf('@', end - 1);
+		if (at >= start) {
+			start = at + 1;
+		}
+		int colon = url.indexOf(':', start);
+		if (colon >= 0 && colon < end) {
+			end = colon;
+		}
+		return url.substring(start, end).toLowerCase();
+	}
 }
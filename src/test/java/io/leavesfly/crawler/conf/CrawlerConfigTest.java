@@ -133,4 +133,194 @@ class CrawlerConfigTest {
         assertTrue(configString.contains("connectionTimeout"));
         assertTrue(configString.contains("userAgent"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("URL队列配置")
+    void testFrontierConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertEquals("memory", defaultConfig.getFrontierType());
+        
+        CrawlerConfig diskConfig = new CrawlerConfig.Builder()
+                .frontier("disk", "/tmp/frontier")
+                .build();
+        assertEquals("disk", diskConfig.getFrontierType());
+        assertEquals("/tmp/frontier", diskConfig.getFrontierPath());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().frontier("redis", "/tmp").build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().frontier("disk", "").build()
+        );
+    }
+    
+    @Test
+    @DisplayName("URL去重配置")
+    void testDeduplicationConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertTrue(defaultConfig.isDeduplicationEnabled());
+        assertFalse(defaultConfig.isDedupExactConfirmation());
+        assertEquals("", defaultConfig.getDedupSnapshotPath());
+        assertEquals("/tmp/seen.bloom", new CrawlerConfig.Builder()
+                .dedupSnapshot("/tmp/seen.bloom").build().getDedupSnapshotPath());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder()
+                .deduplication(5000, 0.0001)
+                .dedupExactConfirmation(true)
+                .build();
+        assertEquals(5000, config.getDedupExpectedUrls());
+        assertEquals(0.0001, config.getDedupFalsePositiveProbability());
+        assertTrue(config.isDedupExactConfirmation());
+        
+        assertFalse(new CrawlerConfig.Builder().deduplication(false).build().isDeduplicationEnabled());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().deduplication(0, 0.01).build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().deduplication(1000, 1.5).build()
+        );
+        
+        assertTrue(defaultConfig.isContentDedupEnabled());
+        assertEquals("", defaultConfig.getContentDedupIndexPath());
+        assertFalse(new CrawlerConfig.Builder().contentDedup(false).build().isContentDedupEnabled());
+        CrawlerConfig contentConfig = new CrawlerConfig.Builder()
+                .contentDedup(false)
+                .contentDedupIndex("/tmp/fingerprints.idx")
+                .build();
+        assertTrue(contentConfig.isContentDedupEnabled());
+        assertEquals("/tmp/fingerprints.idx", contentConfig.getContentDedupIndexPath());
+        
+        assertFalse(defaultConfig.isNearDuplicateEnabled());
+        assertEquals(3, defaultConfig.getNearDuplicateDistance());
+        CrawlerConfig nearConfig = new CrawlerConfig.Builder().nearDuplicate(true, 5).build();
+        assertTrue(nearConfig.isNearDuplicateEnabled());
+        assertEquals(5, nearConfig.getNearDuplicateDistance());
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().nearDuplicate(true, 16).build()
+        );
+        
+        assertTrue(defaultConfig.isConditionalFetchEnabled());
+        assertEquals("", defaultConfig.getValidatorCachePath());
+        CrawlerConfig conditionalConfig = new CrawlerConfig.Builder()
+                .conditionalFetch(true, "/tmp/validators.dat")
+                .build();
+        assertEquals("/tmp/validators.dat", conditionalConfig.getValidatorCachePath());
+        assertFalse(new CrawlerConfig.Builder().conditionalFetch(false, "").build().isConditionalFetchEnabled());
+        
+        assertTrue(defaultConfig.isAcceptCompression());
+        assertFalse(new CrawlerConfig.Builder().acceptCompression(false).build().isAcceptCompression());
+    }
+    
+    @Test
+    @DisplayName("执行模式配置")
+    void testExecutionModeConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertEquals("platform", defaultConfig.getExecutionMode());
+        assertEquals(2, defaultConfig.getMaxRequestsPerHost());
+        assertTrue(defaultConfig.isPolitenessEnabled());
+        assertFalse(new CrawlerConfig.Builder().politeness(false).build().isPolitenessEnabled());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder()
+                .executionMode("virtual")
+                .maxRequestsPerHost(4)
+                .build();
+        assertEquals("virtual", config.getExecutionMode());
+        assertEquals(4, config.getMaxRequestsPerHost());
+        assertEquals("auto", new CrawlerConfig.Builder().executionMode("auto").build().getExecutionMode());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().executionMode("green").build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().maxRequestsPerHost(0).build()
+        );
+    }
+    
+    @Test
+    @DisplayName("解析阶段配置")
+    void testParseStageConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaultConfig.getParseParallelism());
+        assertEquals(256, defaultConfig.getParseQueueCapacity());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder().parseStage(2, 16).build();
+        assertEquals(2, config.getParseParallelism());
+        assertEquals(16, config.getParseQueueCapacity());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().parseStage(0, 16).build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().parseStage(2, 0).build()
+        );
+    }
+    
+    @Test
+    @DisplayName("缓冲区池配置")
+    void testBufferPoolConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertFalse(defaultConfig.isBufferPoolDirect());
+        assertEquals(64L * 1024 * 1024, defaultConfig.getBufferPoolMaxRetainedBytes());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder().bufferPool(true, 0).build();
+        assertTrue(config.isBufferPoolDirect());
+        assertEquals(0, config.getBufferPoolMaxRetainedBytes());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().bufferPool(false, -1).build()
+        );
+    }
+    
+    @Test
+    @DisplayName("存储配置")
+    void testStorageConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertEquals("segment", defaultConfig.getStorageType());
+        assertEquals(256L * 1024 * 1024, defaultConfig.getStorageSegmentSize());
+        
+        assertEquals("deflate", defaultConfig.getStorageCodec());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder()
+                .storageSegmentSize(1024)
+                .storageCodec("lz4")
+                .build();
+        assertEquals(1024, config.getStorageSegmentSize());
+        assertEquals("lz4", config.getStorageCodec());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().storageSegmentSize(0).build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().storageCodec("zstd").build()
+        );
+    }
+    
+    @Test
+    @DisplayName("异步存储配置")
+    void testAsyncStoreConfig() {
+        CrawlerConfig defaultConfig = CrawlerConfig.createDefault();
+        assertFalse(defaultConfig.isAsyncStoreEnabled());
+        assertEquals(1024, defaultConfig.getAsyncStoreQueueCapacity());
+        assertEquals("none", defaultConfig.getStoreSyncPolicy());
+        
+        CrawlerConfig config = new CrawlerConfig.Builder()
+                .asyncStore(true, 128)
+                .storeSync("bytes", 8 * 1024 * 1024)
+                .build();
+        assertTrue(config.isAsyncStoreEnabled());
+        assertEquals(128, config.getAsyncStoreQueueCapacity());
+        assertEquals("bytes", config.getStoreSyncPolicy());
+        assertEquals(8 * 1024 * 1024, config.getStoreSyncThreshold());
+        
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().asyncStore(true, 0).build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().storeSync("always", 1).build()
+        );
+        assertThrows(IllegalArgumentException.class, () ->
+            new CrawlerConfig.Builder().storeSync("interval", 0).build()
+        );
+    }
+}
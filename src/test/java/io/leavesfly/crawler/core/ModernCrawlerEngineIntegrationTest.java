@@ -1,15 +1,26 @@
 package io.leavesfly.crawler.core;
 
+import com.sun.net.httpserver.HttpServer;
 import io.leavesfly.crawler.conf.CrawlerConfig;
 import io.leavesfly.crawler.core.event.listener.StatisticsEventListener;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.strategy.CrawlStrategy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -68,15 +79,100 @@ class ModernCrawlerEngineIntegrationTest {
         
         assertEquals(3, crawler.getQueueSize());
         
-        // 添加重复URL（应该被添加，因为没有去重逻辑）
+        // 添加重复URL（被去重器过滤）
         crawler.addUrl("https://example.com/1");
-        assertEquals(4, crawler.getQueueSize());
+        crawler.addUrl("  https://example.com/2  ");
+        assertEquals(3, crawler.getQueueSize());
+        assertEquals(2, crawler.getUrlDeduplicator().getDuplicateCount());
         
         // 添加空URL
         crawler.addUrl(null);
         crawler.addUrl("");
         crawler.addUrl("   ");
-        assertEquals(4, crawler.getQueueSize()); // 无效URL不会被添加
+        assertEquals(3, crawler.getQueueSize()); // 无效URL不会被添加
+    }
+    
+    @Test
+    @DisplayName("队列已满时丢弃的URL不标记为已见")
+    void testFullFrontierDoesNotMarkUrl() {
+        ModernCrawlerEngine small = new ModernCrawlerEngine(new CrawlerConfig.Builder().queueCapacity(2).build());
+        small.addUrl("https://example.com/1");
+        small.addUrl("https://example.com/2");
+        small.addUrl("https://example.com/3");
+        assertEquals(2, small.getQueueSize());
+        
+        assertTrue(small.getUrlDeduplicator().mightContain("https://example.com/1"));
+        assertFalse(small.getUrlDeduplicator().mightContain("https://example.com/3"));
+        assertEquals(0, small.getUrlDeduplicator().getDuplicateCount());
+        assertEquals(2, small.getUrlDeduplicator().getCheckedCount());
+    }
+    
+    @Test
+    @DisplayName("爬取策略提取的URL加入爬取队列")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testExtractedUrlsQueued(@TempDir Path tempDir) throws Exception {
+        Set<String> requested = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requested.add(exchange.getRequestURI().getPath());
+            byte[] body = "<html><body>美团</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        ModernCrawlerEngine engine = new ModernCrawlerEngine(new CrawlerConfig.Builder()
+                .threadPoolSize(1)
+                .politeness(false)
+                .delayBetweenRequests(0)
+                .storage("segment", tempDir.toString())
+                .build());
+        engine.getStrategyManager().registerStrategy(new CrawlStrategy() {
+            @Override
+            public boolean supports(String url) {
+                return url.startsWith(baseUrl);
+            }
+
+            @Override
+            public String getStrategyName() {
+                return "LocalStrategy";
+            }
+
+            @Override
+            public long getRequestDelay(String url) {
+                return 0;
+            }
+
+            @Override
+            public List<String> extractUrls(CrawlContext context) {
+                if (context.getCurrentUrl().endsWith("/list")) {
+                    return Arrays.asList(baseUrl + "/shop/1", baseUrl + "/shop/2", baseUrl + "/list");
+                }
+                return Collections.emptyList();
+            }
+
+            @Override
+            public Object extractData(CrawlContext context) {
+                return null;
+            }
+        });
+        try {
+            engine.start(Collections.singletonList(baseUrl + "/list"));
+            while (requested.size() < 3) {
+                Thread.sleep(20);
+            }
+        } finally {
+            engine.stop();
+            server.stop(0);
+        }
+        assertEquals(3, requested.size());
+        assertTrue(requested.contains("/shop/1"));
+        assertTrue(requested.contains("/shop/2"));
+        // 已爬取过的列表页被去重器过滤
+        assertTrue(engine.getUrlDeduplicator().getDuplicateCount() >= 1);
     }
     
     @Test
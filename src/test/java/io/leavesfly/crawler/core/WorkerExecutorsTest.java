@@ -0,0 +1,112 @@
+package io.leavesfly.crawler.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 工作线程池工厂与主机并发限制测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("执行模式测试")
+class WorkerExecutorsTest {
+
+    @Test
+    @DisplayName("按执行模式和JVM能力选择线程类型")
+    void testUseVirtualThreads() {
+        assertFalse(WorkerExecutors.useVirtualThreads(WorkerExecutors.MODE_PLATFORM));
+        boolean supported = WorkerExecutors.isVirtualThreadSupported();
+        assertEquals(supported, WorkerExecutors.useVirtualThreads(WorkerExecutors.MODE_VIRTUAL));
+        assertEquals(supported, WorkerExecutors.useVirtualThreads(WorkerExecutors.MODE_AUTO));
+
+        if (supported) {
+            ExecutorService executor = WorkerExecutors.newVirtualThreadPerTaskExecutor();
+            executor.shutdown();
+        } else {
+            assertThrows(UnsupportedOperationException.class, WorkerExecutors::newVirtualThreadPerTaskExecutor);
+        }
+    }
+
+    @Test
+    @DisplayName("解析线程池的并发度和线程名")
+    void testForkJoinPool() throws Exception {
+        ForkJoinPool pool = WorkerExecutors.newForkJoinPool(3, "CrawlerParser");
+        try {
+            assertEquals(3, pool.getParallelism());
+            assertTrue(pool.getAsyncMode());
+            Future<String> name = pool.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("CrawlerParser-"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("同一主机的并发请求不超过上限")
+    @Timeout(30)
+    void testHostConcurrencyLimit() throws InterruptedException {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(2);
+        assertEquals(2, limiter.getPermitsPerHost());
+        assertThrows(IllegalArgumentException.class, () -> new HostConcurrencyLimiter(0));
+
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        int tasks = 20;
+        CountDownLatch done = new CountDownLatch(tasks);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < tasks; i++) {
+            String url = "https://a.com/page/" + i;
+            executor.submit(() -> {
+                try {
+                    limiter.acquire(url);
+                    try {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.sleep(10);
+                        active.decrementAndGet();
+                    } finally {
+                        limiter.release(url);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertTrue(maxActive.get() <= 2, "最大并发数: " + maxActive.get());
+        assertEquals(0, limiter.getActiveRequests("a.com"));
+        assertEquals(0, limiter.getHostCount());
+    }
+
+    @Test
+    @DisplayName("不同主机互不影响")
+    void testHostsAreIndependent() throws InterruptedException {
+        HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1);
+        limiter.acquire("https://a.com/1");
+        limiter.acquire("https://b.com/1");
+        assertEquals(1, limiter.getActiveRequests("a.com"));
+        assertEquals(1, limiter.getActiveRequests("b.com"));
+        assertEquals(0, limiter.getActiveRequests("c.com"));
+
+        assertEquals(2, limiter.getHostCount());
+
+        limiter.release("https://a.com/1");
+        limiter.release("https://b.com/1");
+        assertEquals(0, limiter.getActiveRequests("a.com"));
+        // 许可全部归还的主机被移除
+        assertEquals(0, limiter.getHostCount());
+    }
+}
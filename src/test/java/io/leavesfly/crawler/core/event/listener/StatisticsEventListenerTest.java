@@ -2,11 +2,16 @@ package io.leavesfly.crawler.core.event.listener;
 
 import io.leavesfly.crawler.core.event.CrawlEvent;
 import io.leavesfly.crawler.core.event.CrawlEventType;
+import io.leavesfly.crawler.core.pipeline.StageStats;
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+import io.leavesfly.crawler.schedule.ScalableBloomFilter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+
 /**
  * 统计事件监听器测试
  * 
@@ -179,6 +184,7 @@ class StatisticsEventListenerTest {
         assertTrue(listener.supports(CrawlEventType.PAGE_PARSE_SUCCESS));
         assertTrue(listener.supports(CrawlEventType.PAGE_PARSE_FAILED));
         assertTrue(listener.supports(CrawlEventType.URL_QUEUED));
+        assertTrue(listener.supports(CrawlEventType.URL_DEDUPLICATED));
         
         assertFalse(listener.supports(CrawlEventType.ERROR_OCCURRED));
     }
@@ -198,4 +204,76 @@ class StatisticsEventListenerTest {
         assertTrue(reportString.contains("successRate"));
         assertTrue(reportString.contains("elapsedTime"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("统计URL去重命中率")
+    void testUrlDeduplicatedEvent() {
+        CrawlEvent queued = CrawlEvent.builder(CrawlEventType.URL_QUEUED).url("https://example.com").build();
+        CrawlEvent deduplicated = CrawlEvent.builder(CrawlEventType.URL_DEDUPLICATED).url("https://example.com").build();
+        
+        listener.onEvent(queued);
+        listener.onEvent(deduplicated);
+        listener.onEvent(deduplicated);
+        listener.onEvent(deduplicated);
+        
+        StatisticsEventListener.StatisticsReport report = listener.getReport();
+        assertEquals(1, report.getTotalUrlsQueued());
+        assertEquals(3, report.getTotalUrlsDeduplicated());
+        assertEquals(0.75, report.getDedupHitRate(), 0.0001);
+        assertTrue(report.toString().contains("dedupHitRate"));
+        
+        listener.resetCounters();
+        assertEquals(0, listener.getReport().getTotalUrlsDeduplicated());
+        assertEquals(0.0, listener.getReport().getDedupHitRate());
+    }
+    
+    @Test
+    @DisplayName("报告包含布隆过滤器统计")
+    void testBloomFilterStats() {
+        assertNull(listener.getReport().getBloomFilterStats());
+        
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(100, 0.01);
+        for (int i = 0; i < 500; i++) {
+            filter.putIfAbsent("https://example.com/" + i);
+        }
+        listener.setBloomFilterStatsSupplier(filter::getStats);
+        
+        StatisticsEventListener.StatisticsReport report = listener.getReport();
+        assertNotNull(report.getBloomFilterStats());
+        assertTrue(report.getBloomFilterStats().getSliceCount() > 1);
+        assertTrue(report.toString().contains("bloomFilter"));
+    }
+    
+    @Test
+    @DisplayName("报告包含缓冲区池统计")
+    void testBufferPoolStats() {
+        assertNull(listener.getReport().getBufferPoolStats());
+        
+        ByteBufferPool pool = new ByteBufferPool(false, 1024 * 1024);
+        pool.release(pool.acquire(1000));
+        pool.acquire(1000);
+        listener.setBufferPoolStatsSupplier(pool::getStats);
+        
+        StatisticsEventListener.StatisticsReport report = listener.getReport();
+        assertEquals(1, report.getBufferPoolStats().getHits());
+        assertEquals(1, report.getBufferPoolStats().getMisses());
+        assertTrue(report.toString().contains("bufferPool"));
+    }
+    
+    @Test
+    @DisplayName("报告包含流水线阶段统计")
+    void testStageStats() {
+        assertNull(listener.getReport().getStageStats());
+        
+        StageStats fetch = new StageStats("fetch", 10, 1000, 4, 4, 20, 16, 1, 0, 0);
+        StageStats parse = new StageStats("parse", 8, 16, 2, 2, 16, 6, 0, 3, 1_500_000);
+        listener.setStageStatsSupplier(() -> Arrays.asList(fetch, parse));
+        
+        StatisticsEventListener.StatisticsReport report = listener.getReport();
+        assertEquals(2, report.getStageStats().size());
+        assertEquals(0.5, report.getStageStats().get(1).getQueueUtilization(), 1e-9);
+        assertEquals(1.5, report.getStageStats().get(1).getBlockedMillis(), 1e-9);
+        assertTrue(report.toString().contains("stages="));
+        assertTrue(report.toString().contains("name='parse'"));
+    }
+}
@@ -0,0 +1,148 @@
+package io.leavesfly.crawler.core.pipeline;
+
+import io.leavesfly.crawler.core.WorkerExecutors;
+import io.leavesfly.crawler.core.pipeline.impl.StageHandoffProcessor;
+import io.leavesfly.crawler.domain.CrawlContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 流水线阶段测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("流水线阶段测试")
+class PipelineStageTest {
+
+    private final Map<String, ProcessResult> results = new ConcurrentHashMap<>();
+
+    private PipelineStage stage(int parallelism, int queueCapacity, Function<CrawlContext, ProcessResult> body) {
+        PipelineProcessor head = new PipelineProcessor() {
+            @Override
+            protected ProcessResult doProcess(CrawlContext context) {
+                return body.apply(context);
+            }
+
+            @Override
+            public String getProcessorName() {
+                return "TestProcessor";
+            }
+        };
+        return new PipelineStage("parse", head, WorkerExecutors.newForkJoinPool(parallelism, "TestStage"),
+                queueCapacity, (context, result) -> results.put(context.getCurrentUrl(), result));
+    }
+
+    @Test
+    @DisplayName("在阶段线程中处理并回调结果")
+    @Timeout(30)
+    void testProcess() throws InterruptedException {
+        PipelineStage stage = stage(2, 8, context -> {
+            if (context.getCurrentUrl().endsWith("/bad")) {
+                return ProcessResult.failure("解析失败");
+            }
+            if (context.getCurrentUrl().endsWith("/error")) {
+                throw new IllegalStateException("boom");
+            }
+            context.setAttribute("thread", Thread.currentThread().getName());
+            return ProcessResult.success();
+        });
+        CrawlContext ok = new CrawlContext("https://bj.meituan.com/shop/1");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(stage.submit(i == 0 ? ok : new CrawlContext("https://bj.meituan.com/shop/" + (i + 1))));
+        }
+        assertTrue(stage.submit(new CrawlContext("https://bj.meituan.com/bad")));
+        assertTrue(stage.submit(new CrawlContext("https://bj.meituan.com/error")));
+        assertTrue(stage.shutdown(10, TimeUnit.SECONDS));
+
+        assertEquals(22, results.size());
+        assertTrue(results.get("https://bj.meituan.com/shop/1").isSuccess());
+        assertTrue(((String) ok.getAttribute("thread")).startsWith("TestStage-"));
+        assertEquals("解析失败", results.get("https://bj.meituan.com/bad").getMessage());
+        assertTrue(results.get("https://bj.meituan.com/error").getException() instanceof IllegalStateException);
+
+        StageStats stats = stage.getStats();
+        assertEquals("parse", stats.getName());
+        assertEquals(22, stats.getSubmitted());
+        assertEquals(22, stats.getCompleted());
+        assertEquals(2, stats.getFailed());
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(0, stats.getActive());
+        assertEquals(2, stats.getParallelism());
+        assertEquals(8, stats.getQueueCapacity());
+    }
+
+    @Test
+    @DisplayName("队列已满时阻塞提交方")
+    @Timeout(30)
+    void testBackpressure() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PipelineStage stage = stage(1, 2, context -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ProcessResult.success();
+        });
+        // 一个正在处理，两个排队
+        assertTrue(stage.submit(new CrawlContext("https://bj.meituan.com/1")));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(stage.submit(new CrawlContext("https://bj.meituan.com/2")));
+        assertTrue(stage.submit(new CrawlContext("https://bj.meituan.com/3")));
+        StageStats stats = stage.getStats();
+        assertEquals(1, stats.getActive());
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(1.0, stats.getQueueUtilization(), 1e-9);
+
+        AtomicBoolean submitted = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            try {
+                submitted.set(stage.submit(new CrawlContext("https://bj.meituan.com/4")));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(300);
+        assertTrue(producer.isAlive());
+        assertFalse(submitted.get());
+
+        release.countDown();
+        producer.join(10_000);
+        assertTrue(submitted.get());
+        assertTrue(stage.shutdown(10, TimeUnit.SECONDS));
+        assertEquals(4, results.size());
+        assertEquals(1, stage.getStats().getBlockedSubmits());
+        assertTrue(stage.getStats().getBlockedMillis() > 0);
+    }
+
+    @Test
+    @DisplayName("关闭后不再接收，交接处理器返回失败")
+    @Timeout(30)
+    void testClosed() throws InterruptedException {
+        PipelineStage stage = stage(1, 1, context -> ProcessResult.success());
+        StageHandoffProcessor handoff = new StageHandoffProcessor(stage);
+        CrawlContext context = new CrawlContext("https://bj.meituan.com/1");
+        ProcessResult result = handoff.process(context);
+        assertTrue(result.isSuccess());
+        assertFalse(result.shouldContinue());
+
+        assertTrue(stage.shutdown(10, TimeUnit.SECONDS));
+        assertTrue(stage.isClosed());
+        assertTrue(results.get("https://bj.meituan.com/1").isSuccess());
+        assertFalse(stage.submit(new CrawlContext("https://bj.meituan.com/2")));
+        assertFalse(handoff.process(new CrawlContext("https://bj.meituan.com/3")).isSuccess());
+        assertEquals(1, stage.getStats().getSubmitted());
+    }
+}
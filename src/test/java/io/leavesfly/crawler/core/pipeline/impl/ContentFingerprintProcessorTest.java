@@ -0,0 +1,202 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.dedup.ContentDedupStats;
+import io.leavesfly.crawler.dedup.ContentFingerprintIndex;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.Fetcher;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内容指纹处理器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("内容指纹处理器测试")
+class ContentFingerprintProcessorTest {
+
+    /**
+     * 返回预设内容、记录存储次数的抓取器
+     */
+    private static class StubFetcher extends Fetcher {
+        final Map<String, String> pages = new HashMap<>();
+        final AtomicInteger stored = new AtomicInteger();
+        volatile boolean failStore;
+        volatile CompletableFuture<Integer> pendingWrite;
+
+        @Override
+        public RawPage downloadPage(String url) {
+            String content = pages.get(url);
+            return content != null ? RawPage.fromBytes(url, content.getBytes(StandardCharsets.UTF_8), "UTF-8") : null;
+        }
+
+        @Override
+        public int storePage(RawPage rawPage) {
+            if (failStore) {
+                return RawPageStore.STORE_FAILURE;
+            }
+            stored.incrementAndGet();
+            return RawPageStore.STORE_SUCCESS;
+        }
+
+        @Override
+        public CompletableFuture<Integer> storePageAsync(RawPage rawPage) {
+            CompletableFuture<Integer> pending = pendingWrite;
+            return pending != null ? pending : CompletableFuture.completedFuture(storePage(rawPage));
+        }
+    }
+
+    /**
+     * 代替解析处理器，记录执行次数
+     */
+    private static class CountingProcessor extends PipelineProcessor {
+        final AtomicInteger count = new AtomicInteger();
+        volatile boolean fail;
+
+        @Override
+        protected ProcessResult doProcess(CrawlContext context) {
+            count.incrementAndGet();
+            return fail ? ProcessResult.failure("解析失败") : ProcessResult.success();
+        }
+
+        @Override
+        public String getProcessorName() {
+            return "CountingProcessor";
+        }
+    }
+
+    private StubFetcher fetcher;
+    private ContentFingerprintProcessor fingerprintProcessor;
+    private CountingProcessor parser;
+    private PipelineProcessor pipeline;
+
+    @BeforeEach
+    void setUp() {
+        fetcher = new StubFetcher();
+        fingerprintProcessor = new ContentFingerprintProcessor(new ContentFingerprintIndex());
+        parser = new CountingProcessor();
+        pipeline = new FetchProcessor(fetcher, false);
+        pipeline.setNext(fingerprintProcessor).setNext(new StoreProcessor(fetcher)).setNext(parser);
+    }
+
+    /**
+     * 与引擎一样，处理成功后提交指纹
+     */
+    private CrawlContext crawl(String url) {
+        CrawlContext context = new CrawlContext(url);
+        if (pipeline.process(context).isSuccess()) {
+            fingerprintProcessor.commit(context);
+        }
+        return context;
+    }
+
+    @Test
+    @DisplayName("内容未变化时跳过存储和解析")
+    void testUnchangedPageSkipped() {
+        String url = "https://bj.meituan.com/deal/1.html";
+        fetcher.pages.put(url, "<html>团购 1</html>");
+
+        CrawlContext first = crawl(url);
+        assertNull(first.getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE));
+        assertEquals(1, fetcher.stored.get());
+        assertEquals(1, parser.count.get());
+
+        CrawlContext second = crawl(url);
+        assertEquals(Boolean.TRUE, second.getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE));
+        assertEquals(1, fetcher.stored.get());
+        assertEquals(1, parser.count.get());
+
+        // 内容变化后重新存储和解析
+        fetcher.pages.put(url, "<html>团购 1 已售罄</html>");
+        crawl(url);
+        assertEquals(2, fetcher.stored.get());
+        assertEquals(2, parser.count.get());
+    }
+
+    @Test
+    @DisplayName("存储或解析失败的页面不记录指纹，下次抓取时重新处理")
+    void testFailedPageNotCommitted() {
+        String url = "https://bj.meituan.com/deal/4.html";
+        fetcher.pages.put(url, "<html>团购 4</html>");
+
+        fetcher.failStore = true;
+        CrawlContext storeFailed = crawl(url);
+        assertEquals(Boolean.TRUE, storeFailed.getAttribute(StoreProcessor.STORE_FAILED_ATTRIBUTE));
+        assertEquals(0, fingerprintProcessor.getIndex().size());
+        fetcher.failStore = false;
+
+        parser.fail = true;
+        CrawlContext parseFailed = crawl(url);
+        assertNull(parseFailed.getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE));
+        assertEquals(0, fingerprintProcessor.getIndex().size());
+        parser.fail = false;
+
+        crawl(url);
+        assertEquals(1, fingerprintProcessor.getIndex().size());
+        assertEquals(2, fetcher.stored.get());
+        assertEquals(3, parser.count.get());
+        assertEquals(Boolean.TRUE, crawl(url).getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("异步存储的页面写入成功后才记录指纹")
+    void testCommitAfterAsyncWrite() {
+        String url = "https://bj.meituan.com/deal/5.html";
+        fetcher.pages.put(url, "<html>团购 5</html>");
+
+        fetcher.pendingWrite = new CompletableFuture<>();
+        crawl(url);
+        assertEquals(1, parser.count.get());
+        assertEquals(0, fingerprintProcessor.getIndex().size());
+        fetcher.pendingWrite.complete(RawPageStore.STORE_FAILURE);
+        assertEquals(0, fingerprintProcessor.getIndex().size());
+
+        fetcher.pendingWrite = new CompletableFuture<>();
+        crawl(url);
+        assertEquals(2, parser.count.get());
+        fetcher.pendingWrite.complete(RawPageStore.STORE_SUCCESS);
+        assertEquals(1, fingerprintProcessor.getIndex().size());
+        assertEquals(Boolean.TRUE, crawl(url).getAttribute(ContentFingerprintProcessor.UNCHANGED_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("统计跳过的页面、字节和解析CPU")
+    void testStats() {
+        String url = "https://bj.meituan.com/deal/2.html";
+        String content = "<html>团购 2</html>";
+        fetcher.pages.put(url, content);
+        for (int i = 0; i < 4; i++) {
+            crawl(url);
+        }
+
+        ContentDedupStats stats = fingerprintProcessor.getStats(2_000_000);
+        assertEquals(4, stats.getCheckedPages());
+        assertEquals(3, stats.getUnchangedPages());
+        assertEquals(3L * content.getBytes(StandardCharsets.UTF_8).length, stats.getSkippedBytes());
+        assertEquals(1, stats.getIndexedUrls());
+        assertEquals(6.0, stats.getSavedParseCpuMillis(), 1e-9);
+        assertEquals(0.75, stats.getUnchangedRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("默认下载处理器仍在下载后立即存储")
+    void testFetchProcessorStoresByDefault() {
+        String url = "https://bj.meituan.com/deal/3.html";
+        fetcher.pages.put(url, "<html>团购 3</html>");
+        assertTrue(new FetchProcessor(fetcher).process(new CrawlContext(url)).isSuccess());
+        assertEquals(1, fetcher.stored.get());
+        assertFalse(new FetchProcessor(fetcher).process(new CrawlContext("https://bj.meituan.com/none")).isSuccess());
+    }
+}
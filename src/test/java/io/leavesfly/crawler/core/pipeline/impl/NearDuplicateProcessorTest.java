@@ -0,0 +1,78 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.dedup.SimHashIndex;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 近似重复页面处理器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("近似重复页面处理器测试")
+class NearDuplicateProcessorTest {
+
+    private static CrawlContext context(String url, String tracking) {
+        return context(url, tracking, "158");
+    }
+
+    private static CrawlContext context(String url, String tracking, String price) {
+        String html = "<html><head><script>track('" + tracking + "');</script></head><body>"
+                + "<h1>北京烤鸭双人套餐</h1><p>仅售 " + price + " 元，价值 298 元，朝阳区三里屯店，免预约。</p>"
+                + "<p>Meituan deal page with a long enough description for shingles.</p></body></html>";
+        CrawlContext context = new CrawlContext(url);
+        context.setRawPage(RawPage.fromBytes(url, html.getBytes(StandardCharsets.UTF_8), "UTF-8"));
+        return context;
+    }
+
+    @Test
+    @DisplayName("近似重复页面结束流水线")
+    void testNearDuplicateStopsPipeline() {
+        NearDuplicateProcessor processor = new NearDuplicateProcessor(new SimHashIndex(3));
+
+        CrawlContext first = context("https://bj.meituan.com/deal/1.html?utm=a", "session-1");
+        ProcessResult result = processor.process(first);
+        assertTrue(result.isSuccess());
+        assertTrue(result.shouldContinue());
+        assertNull(first.getAttribute(NearDuplicateProcessor.NEAR_DUPLICATE_ATTRIBUTE));
+
+        CrawlContext second = context("https://bj.meituan.com/deal/1.html?utm=b", "session-2");
+        result = processor.process(second);
+        assertTrue(result.isSuccess());
+        assertFalse(result.shouldContinue());
+        assertEquals(Boolean.TRUE, second.getAttribute(NearDuplicateProcessor.NEAR_DUPLICATE_ATTRIBUTE));
+
+        assertEquals(2, processor.getCheckedPages());
+        assertEquals(1, processor.getNearDuplicatePages());
+        assertEquals(second.getRawPage().getBodyLength(), processor.getNearDuplicateBytes());
+        assertEquals(1, processor.getIndex().size());
+
+        // 没有页面时直接继续
+        assertTrue(processor.process(new CrawlContext("https://bj.meituan.com/none")).shouldContinue());
+    }
+
+    @Test
+    @DisplayName("同一URL重新抓取到小改动的页面不算近似重复")
+    void testRefetchSameUrl() {
+        NearDuplicateProcessor processor = new NearDuplicateProcessor(new SimHashIndex(3));
+        String url = "https://bj.meituan.com/deal/1.html";
+        assertTrue(processor.process(context(url, "session-1", "158")).shouldContinue());
+        long first = processor.getIndex().size();
+
+        CrawlContext refetched = context(url, "session-2", "148");
+        assertTrue(processor.process(refetched).shouldContinue());
+        assertNull(refetched.getAttribute(NearDuplicateProcessor.NEAR_DUPLICATE_ATTRIBUTE));
+        assertEquals(first, processor.getIndex().size());
+
+        // 其他URL与新指纹近似时仍是近似重复
+        CrawlContext other = context("https://bj.meituan.com/deal/1.html?utm=b", "session-3", "148");
+        assertFalse(processor.process(other).shouldContinue());
+        assertEquals(1, processor.getNearDuplicatePages());
+    }
+}
@@ -0,0 +1,101 @@
+package io.leavesfly.crawler.core.pipeline.impl;
+
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.strategy.CrawlStrategy;
+import io.leavesfly.crawler.strategy.CrawlStrategyManager;
+import io.leavesfly.crawler.strategy.impl.MeiTuanCrawlStrategy;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内容解析处理器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("内容解析处理器测试")
+class ParseProcessorTest {
+
+    private static CrawlContext context(String url, String html) {
+        CrawlContext context = new CrawlContext(url);
+        context.setRawPage(RawPage.fromBytes(url, html.getBytes(StandardCharsets.UTF_8), "UTF-8"));
+        return context;
+    }
+
+    @Test
+    @DisplayName("策略的链接提取和数据提取共用同一棵文档树")
+    void testSharedDocument() {
+        List<Document> seen = new ArrayList<>();
+        CrawlStrategyManager manager = new CrawlStrategyManager();
+        manager.registerStrategy(new CrawlStrategy() {
+            @Override
+            public boolean supports(String url) {
+                return true;
+            }
+
+            @Override
+            public String getStrategyName() {
+                return "RecordingStrategy";
+            }
+
+            @Override
+            public List<String> extractUrls(CrawlContext context) {
+                seen.add(context.getDocument());
+                return Collections.singletonList(context.getDocument().selectFirst("a").absUrl("href"));
+            }
+
+            @Override
+            public Object extractData(CrawlContext context) {
+                seen.add(context.getDocument());
+                return context.getDocument().title();
+            }
+        });
+
+        CrawlContext context = context("https://bj.meituan.com/",
+                "<html><head><title>美团</title></head><body><a href=\"/shop/1\">店铺</a></body></html>");
+        ParseProcessor processor = new ParseProcessor(manager);
+        assertTrue(processor.process(context).isSuccess());
+
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+        assertSame(context.getDocument(), seen.get(0));
+        assertEquals(Collections.singletonList("https://bj.meituan.com/shop/1"),
+                context.getAttribute(ParseProcessor.EXTRACTED_URLS_ATTRIBUTE));
+        assertEquals("美团", context.getAttribute(ParseProcessor.EXTRACTED_DATA_ATTRIBUTE));
+        assertEquals(1, processor.getParsedPages());
+    }
+
+    @Test
+    @DisplayName("美团策略从共用的文档树提取链接和数据")
+    @SuppressWarnings("unchecked")
+    void testMeiTuanStrategy() {
+        CrawlStrategyManager manager = new CrawlStrategyManager();
+        manager.registerStrategy(new MeiTuanCrawlStrategy());
+        CrawlContext context = context("https://www.meituan.com/category/food",
+                "<html><body><h1>美食</h1>"
+                        + "<div class=\"shop-item\"><a href=\"/shop/1\"><span class=\"shop-name\">烤鸭店</span></a></div>"
+                        + "<a class=\"next\" href=\"/category/food?page=2\">下一页</a></body></html>");
+
+        assertTrue(new ParseProcessor(manager).process(context).isSuccess());
+        List<String> urls = (List<String>) context.getAttribute(ParseProcessor.EXTRACTED_URLS_ATTRIBUTE);
+        assertTrue(urls.contains("https://www.meituan.com/shop/1"));
+        assertTrue(urls.contains("https://www.meituan.com/category/food?page=2"));
+        Map<String, Object> data = (Map<String, Object>) context.getAttribute(ParseProcessor.EXTRACTED_DATA_ATTRIBUTE);
+        assertEquals("美食", data.get("categoryName"));
+        assertEquals("category", data.get("pageType"));
+
+        // 没有匹配的策略时只运行字段提取器
+        CrawlContext other = context("https://example.com/", "<html></html>");
+        assertTrue(new ParseProcessor(manager).process(other).isSuccess());
+        assertNull(other.getAttribute(ParseProcessor.EXTRACTED_URLS_ATTRIBUTE));
+        assertFalse(other.isDocumentParsed());
+    }
+}
@@ -0,0 +1,139 @@
+package io.leavesfly.crawler.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 内容指纹索引测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("内容指纹索引测试")
+class ContentFingerprintIndexTest {
+
+    private static ContentFingerprint fingerprint(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return ContentFingerprint.of(bytes, 0, bytes.length);
+    }
+
+    @Test
+    @DisplayName("相同字节的指纹相同")
+    void testFingerprint() {
+        assertEquals(fingerprint("<html>美团</html>"), fingerprint("<html>美团</html>"));
+        assertNotEquals(fingerprint("<html>美团</html>"), fingerprint("<html>美团 </html>"));
+
+        byte[] bytes = "xx<html>yy".getBytes(StandardCharsets.UTF_8);
+        ContentFingerprint part = ContentFingerprint.of(bytes, 2, 6);
+        assertEquals(fingerprint("<html>"), part);
+        assertEquals(6, part.getLength());
+    }
+
+    @Test
+    @DisplayName("按URL判断内容是否变化，记录后才生效")
+    void testCheckAndRecord() {
+        ContentFingerprintIndex index = new ContentFingerprintIndex();
+        assertFalse(index.isUnchanged("https://a.com/1", fingerprint("v1")));
+        // 判断不修改索引
+        assertFalse(index.isUnchanged("https://a.com/1", fingerprint("v1")));
+        assertEquals(0, index.size());
+        index.record("https://a.com/1", fingerprint("v1"));
+        assertTrue(index.isUnchanged("https://a.com/1", fingerprint("v1")));
+        // 同样的内容出现在另一个URL不算未变化
+        assertFalse(index.isUnchanged("https://a.com/2", fingerprint("v1")));
+        index.record("https://a.com/2", fingerprint("v1"));
+        // 内容变化后记录新指纹
+        assertFalse(index.isUnchanged("https://a.com/1", fingerprint("v2")));
+        index.record("https://a.com/1", fingerprint("v2"));
+        assertTrue(index.isUnchanged("https://a.com/1", fingerprint("v2")));
+        assertEquals(fingerprint("v2"), index.get("https://a.com/1"));
+        assertNull(index.get("https://a.com/3"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("记录追加到日志，重新打开后恢复")
+    void testPersist(@TempDir Path tempDir) throws IOException {
+        Path log = tempDir.resolve("dedup/fingerprints.idx");
+        ContentFingerprintIndex index = ContentFingerprintIndex.open(log);
+        assertEquals(0, index.size());
+        for (int i = 0; i < 1000; i++) {
+            index.record("https://a.com/deal/" + i, fingerprint("page " + i));
+        }
+        index.record("https://a.com/deal/8", fingerprint("changed"));
+        index.close();
+        assertTrue(Files.exists(log));
+
+        ContentFingerprintIndex reopened = ContentFingerprintIndex.open(log);
+        assertEquals(1000, reopened.size());
+        assertTrue(reopened.isUnchanged("https://a.com/deal/7", fingerprint("page 7")));
+        // 同一URL以最后一条记录为准
+        assertTrue(reopened.isUnchanged("https://a.com/deal/8", fingerprint("changed")));
+        // 同一文件不能同时被两个实例打开
+        assertThrows(IOException.class, () -> ContentFingerprintIndex.open(log));
+        reopened.close();
+
+        Files.write(log, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> ContentFingerprintIndex.open(log));
+    }
+
+    @Test
+    @DisplayName("未正常关闭时恢复已写入的记录，忽略不完整的最后一条")
+    void testRecoverWithoutClose(@TempDir Path tempDir) throws IOException {
+        Path log = tempDir.resolve("fingerprints.idx");
+        ContentFingerprintIndex index = ContentFingerprintIndex.open(log);
+        index.record("https://a.com/1", fingerprint("v1"));
+        index.record("https://a.com/2", fingerprint("v2"));
+        index.flush();
+
+        // 复制出未关闭时的文件内容，模拟进程在写最后一条记录时退出
+        byte[] written = Files.readAllBytes(log);
+        index.close();
+        Path crashed = tempDir.resolve("crashed.idx");
+        Files.write(crashed, Arrays.copyOf(written, written.length - 3));
+
+        ContentFingerprintIndex recovered = ContentFingerprintIndex.open(crashed);
+        assertEquals(1, recovered.size());
+        assertTrue(recovered.isUnchanged("https://a.com/1", fingerprint("v1")));
+        assertNull(recovered.get("https://a.com/2"));
+        // 截掉不完整的记录后继续追加
+        recovered.record("https://a.com/3", fingerprint("v3"));
+        recovered.close();
+
+        ContentFingerprintIndex reopened = ContentFingerprintIndex.open(crashed);
+        assertEquals(2, reopened.size());
+        assertTrue(reopened.isUnchanged("https://a.com/3", fingerprint("v3")));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("过期记录过多时打开时压缩")
+    void testCompact(@TempDir Path tempDir) throws IOException {
+        Path log = tempDir.resolve("fingerprints.idx");
+        ContentFingerprintIndex index = ContentFingerprintIndex.open(log);
+        for (int i = 0; i < 3000; i++) {
+            index.record("https://a.com/" + (i % 10), fingerprint("v" + i));
+        }
+        index.close();
+        long before = Files.size(log);
+
+        ContentFingerprintIndex compacted = ContentFingerprintIndex.open(log);
+        assertEquals(10, compacted.size());
+        assertTrue(compacted.isUnchanged("https://a.com/9", fingerprint("v2999")));
+        assertTrue(Files.size(log) < before);
+        assertFalse(Files.exists(tempDir.resolve("fingerprints.idx.tmp")));
+        compacted.record("https://a.com/0", fingerprint("new"));
+        compacted.close();
+
+        ContentFingerprintIndex reopened = ContentFingerprintIndex.open(log);
+        assertTrue(reopened.isUnchanged("https://a.com/0", fingerprint("new")));
+        reopened.close();
+    }
+}
@@ -0,0 +1,149 @@
+package io.leavesfly.crawler.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * SimHash指纹和近似重复索引测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("SimHash近似重复测试")
+class SimHashIndexTest {
+
+    private static String dealPage(int dealId, String tracking) {
+        StringBuilder sb = new StringBuilder("<html><head><title>美团团购</title>")
+                .append("<script>var _trk = {id: '").append(tracking).append("', t: ").append(tracking.hashCode())
+                .append("};</script><style>.deal{color:red}</style></head><body><div class=\"deal\">");
+        for (int i = 0; i < 30; i++) {
+            sb.append("<p>团购 ").append(dealId).append(" 双人套餐 第").append(i).append("项 仅售 ")
+                    .append(dealId % 300 + i).append(" 元 &nbsp; Deal item ").append(i).append("</p>");
+        }
+        return sb.append("<!-- 渲染于 ").append(tracking).append(" --></div></body></html>").toString();
+    }
+
+    private static long flipBits(long value, int bits, Random random) {
+        long result = value;
+        while (Long.bitCount(result ^ value) < bits) {
+            result ^= 1L << random.nextInt(64);
+        }
+        return result;
+    }
+
+    @Test
+    @DisplayName("只有跟踪代码不同的页面指纹相同，不同页面指纹相距较远")
+    void testFingerprint() {
+        long page = SimHash.fingerprint(dealPage(1001, "a8f3"));
+        assertEquals(page, SimHash.fingerprint(dealPage(1001, "77c1-other-session")));
+
+        String edited = dealPage(1001, "a8f3").replace("第29项", "第29项 已售罄");
+        assertTrue(SimHash.distance(page, SimHash.fingerprint(edited)) <= 3);
+
+        assertTrue(SimHash.distance(page, SimHash.fingerprint(dealPage(2718, "a8f3"))) > 3);
+        assertEquals(0, SimHash.fingerprint("<html><script>var a = 1;</script></html>"));
+        assertNotEquals(0, SimHash.fingerprint("美团"));
+    }
+
+    @Test
+    @DisplayName("查找结果与逐个比较一致")
+    void testAgainstBruteForce() {
+        Random random = new Random(7);
+        int count = 5000;
+        long[] stored = new long[count];
+        for (int k = 0; k <= 4; k++) {
+            for (int blocks : new int[]{k + 1, k + 2}) {
+                SimHashIndex index = new SimHashIndex(k, blocks);
+                for (int i = 0; i < count; i++) {
+                    stored[i] = random.nextLong();
+                    index.add(stored[i]);
+                }
+                assertEquals(count, index.size());
+                for (int q = 0; q < 2000; q++) {
+                    long base = stored[random.nextInt(count)];
+                    long query = q % 2 == 0 ? flipBits(base, random.nextInt(k + 3), random) : random.nextLong();
+                    boolean expected = false;
+                    for (long fingerprint : stored) {
+                        if (SimHash.distance(fingerprint, query) <= k) {
+                            expected = true;
+                            break;
+                        }
+                    }
+                    assertEquals(expected, index.containsNear(query), "k=" + k + ", b=" + blocks);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("已有近似重复时不加入")
+    void testAddIfAbsent() {
+        SimHashIndex index = new SimHashIndex(3);
+        assertEquals(4, index.getTableCount());
+        assertEquals(10, new SimHashIndex(3, 5).getTableCount());
+
+        long fingerprint = 0x0123456789ABCDEFL;
+        assertTrue(index.addIfAbsent("https://a.com/1", fingerprint));
+        assertFalse(index.addIfAbsent("https://a.com/2", fingerprint ^ 0b1011));
+        assertTrue(index.addIfAbsent("https://a.com/3", fingerprint ^ 0b11111));
+        assertEquals(2, index.size());
+
+        assertThrows(IllegalArgumentException.class, () -> new SimHashIndex(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> new SimHashIndex(-1));
+    }
+
+    @Test
+    @DisplayName("同一URL的旧指纹被替换，不算近似重复")
+    void testReplaceByUrl() {
+        SimHashIndex index = new SimHashIndex(3);
+        long fingerprint = 0x0123456789ABCDEFL;
+        assertTrue(index.addIfAbsent("https://a.com/1", fingerprint));
+        assertTrue(index.addIfAbsent("https://a.com/1", fingerprint));
+        assertTrue(index.addIfAbsent("https://a.com/1", fingerprint ^ 0b11));
+        assertEquals(1, index.size());
+        // 旧指纹已失效
+        assertFalse(index.containsNear(fingerprint ^ 0b11110000));
+        assertFalse(index.addIfAbsent("https://a.com/2", fingerprint ^ 0b111));
+
+        // 两个URL指纹相同时，一个URL更新后另一个仍有效
+        assertTrue(index.addIfAbsent("https://b.com/1", ~fingerprint));
+        index.add(~fingerprint);
+        assertTrue(index.addIfAbsent("https://b.com/1", 0x5555555555555555L));
+        assertTrue(index.containsNear(~fingerprint));
+        assertEquals(3, index.size());
+
+        // 与其他URL近似时移除该URL的旧指纹
+        assertFalse(index.addIfAbsent("https://b.com/1", fingerprint ^ 0b11 ^ 0b100000));
+        assertFalse(index.containsNear(0x5555555555555555L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("反复替换后重建，结果与逐个比较一致")
+    void testRebuild() {
+        Random random = new Random(11);
+        SimHashIndex index = new SimHashIndex(3);
+        long[] current = new long[100];
+        for (int round = 0; round < 50; round++) {
+            for (int u = 0; u < current.length; u++) {
+                current[u] = random.nextLong();
+                assertTrue(index.addIfAbsent("https://a.com/" + u, current[u]));
+            }
+        }
+        assertEquals(current.length, index.size());
+        for (int u = 0; u < current.length; u++) {
+            assertTrue(index.containsNear(current[u] ^ 0b101));
+        }
+        for (int q = 0; q < 2000; q++) {
+            long query = random.nextLong();
+            boolean expected = false;
+            for (long fingerprint : current) {
+                expected |= SimHash.distance(fingerprint, query) <= 3;
+            }
+            assertEquals(expected, index.containsNear(query));
+        }
+        assertTrue(index.getMemoryBytes() < 3L * 1024 * index.getTableCount() * 8);
+    }
+}
@@ -5,6 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.jsoup.nodes.Document;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * 爬虫上下文测试
  * 
@@ -143,6 +147,28 @@ class CrawlContextTest {
         assertEquals(newUrl, context.getCurrentUrl());
     }
     
+    @Test
+    @DisplayName("文档树只解析一次")
+    void testDocument() {
+        assertNull(context.getDocument());
+        
+        byte[] html = "<html><head><title>美团</title></head><body><a href=\"/deal/1.html\">团购</a></body></html>"
+                .getBytes(StandardCharsets.UTF_8);
+        context.setRawPage(RawPage.fromBytes(TEST_URL, html, "UTF-8"));
+        assertFalse(context.isDocumentParsed());
+        Document document = context.getDocument();
+        assertNotNull(document);
+        assertTrue(context.isDocumentParsed());
+        assertEquals("美团", document.title());
+        assertEquals(TEST_URL + "/deal/1.html", document.selectFirst("a").absUrl("href"));
+        assertSame(document, context.getDocument());
+        
+        // 更换页面后重新解析
+        context.setRawPage(RawPage.fromBytes(TEST_URL, "<title>大众点评</title>".getBytes(StandardCharsets.UTF_8), "UTF-8"));
+        assertFalse(context.isDocumentParsed());
+        assertEquals("大众点评", context.getDocument().title());
+    }
+    
     @Test
     @DisplayName("toString方法")
     void testToString() {
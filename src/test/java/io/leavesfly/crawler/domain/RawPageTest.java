@@ -0,0 +1,119 @@
+package io.leavesfly.crawler.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 原始页面测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("原始页面测试")
+class RawPageTest {
+
+    @Test
+    @DisplayName("ASCII页面的内容视图不解码")
+    void testAsciiContentView() {
+        byte[] body = "<html><body><a href=\"/shop/1\">shop</a></body></html>".getBytes(StandardCharsets.US_ASCII);
+        RawPage page = RawPage.fromBytes("https://a.com/", body, "UTF-8");
+
+        CharSequence view = page.getContentView();
+        assertTrue(view instanceof ByteCharSequence);
+        assertSame(view, page.getContentView());
+        assertEquals(body.length, view.length());
+        assertEquals('<', view.charAt(0));
+        assertEquals("<html>", view.subSequence(0, 6).toString());
+        assertEquals(new String(body, StandardCharsets.US_ASCII), view.toString());
+    }
+
+    @Test
+    @DisplayName("大部分是ASCII的UTF-8页面只解码非ASCII段")
+    void testSegmentedContentView() {
+        String html = "<html><head><title>美团外卖</title></head><body><a href=\"/shop/1\">店铺😀</a>é</body></html>";
+        RawPage page = RawPage.fromBytes("https://a.com/", html.getBytes(StandardCharsets.UTF_8), "UTF-8");
+
+        CharSequence view = page.getContentView();
+        assertTrue(view instanceof SegmentedCharSequence);
+        assertSame(view, page.getContentView());
+        assertEquals(html.length(), view.length());
+        assertEquals(9, ((SegmentedCharSequence) view).getDecodedLength());
+        for (int i = 0; i < html.length(); i++) {
+            assertEquals(html.charAt(i), view.charAt(i), "位置: " + i);
+        }
+        // 倒序访问
+        for (int i = html.length() - 1; i >= 0; i--) {
+            assertEquals(html.charAt(i), view.charAt(i), "位置: " + i);
+        }
+        assertEquals("<title>美团外卖</title>", view.subSequence(12, 31).toString());
+        assertEquals(html, view.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(html.length()));
+
+        // 单字节编码同样按段解码
+        byte[] latin1 = "<p>café</p>".getBytes(StandardCharsets.ISO_8859_1);
+        CharSequence latin1View = RawPage.fromBytes("https://a.com/", latin1, "ISO-8859-1").getContentView();
+        assertTrue(latin1View instanceof SegmentedCharSequence);
+        assertEquals("<p>café</p>", latin1View.toString());
+        assertEquals('é', latin1View.charAt(6));
+    }
+
+    @Test
+    @DisplayName("非ASCII页面的内容视图按字符集解码")
+    void testDecodedContentView() {
+        Charset gbk = Charset.forName("GBK");
+        byte[] body = "<html><body>美团</body></html>".getBytes(gbk);
+        RawPage page = RawPage.fromBytes("https://a.com/", body, null);
+
+        // 未声明且没有meta标签时按UTF-8解码，声明字符集后重新解码
+        assertEquals("UTF-8", page.getContentCharset());
+        page.setContentCharset("GBK");
+        CharSequence view = page.getContentView();
+        assertTrue(view instanceof String);
+        assertTrue(view.toString().contains("美团"));
+        assertEquals(view, page.getContent());
+
+        // UTF-16不是单字节兼容的编码，不能使用字节视图
+        byte[] utf16 = "<html/>".getBytes(StandardCharsets.UTF_16BE);
+        assertFalse(RawPage.fromBytes("https://a.com/", utf16, "UTF-16BE").getContentView() instanceof ByteCharSequence);
+    }
+
+    @Test
+    @DisplayName("字节缓冲区不复制原始字节")
+    void testBodyBuffer() {
+        byte[] body = "hello".getBytes(StandardCharsets.US_ASCII);
+        RawPage page = RawPage.fromBytes("https://a.com/", body, "UTF-8");
+
+        ByteBuffer buffer = page.getBodyBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(5, buffer.remaining());
+        assertEquals(5, page.getBodyLength());
+        assertSame(body, page.getBody());
+        assertTrue(page.hasRawBody());
+        assertTrue(page.hasContent());
+    }
+
+    @Test
+    @DisplayName("由字符串创建的页面")
+    void testStringBackedPage() {
+        RawPage page = new RawPage("https://a.com/", "UTF-8", "你好");
+        assertFalse(page.hasRawBody());
+        assertEquals("你好", page.getContentView());
+        assertEquals(6, page.getBodyLength());
+
+        RawPage empty = new RawPage("https://a.com/", "UTF-8", null);
+        assertFalse(empty.hasContent());
+        assertNull(empty.getContentView());
+        assertNull(empty.getBodyBuffer());
+        assertEquals(0, empty.getBodyLength());
+
+        // 替换内容后不再使用原始字节
+        RawPage bytes = RawPage.fromBytes("https://a.com/", new byte[]{'a'}, "UTF-8");
+        bytes.setContent("b");
+        assertFalse(bytes.hasRawBody());
+        assertEquals("b", bytes.getContentView());
+    }
+}
@@ -0,0 +1,279 @@
+package io.leavesfly.crawler.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.core.ModernCrawlerEngine;
+import io.leavesfly.crawler.core.pipeline.StageStats;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import io.leavesfly.crawler.fetch.validator.ValidatorCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步抓取器测试
+ * 使用本地HTTP服务器，不依赖外部网络
+ *
+ * @author yefei.yf
+ */
+@DisplayName("异步抓取器测试")
+class AsyncPageFetcherTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private AsyncPageFetcher fetcher;
+
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> {
+            byte[] body = "<html><body>你好</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            byte[] body = ContentDecoderTest.gzip(ContentDecoderTest.page());
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/etag", exchange -> {
+            String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+            if (lastModified.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "<html><body>美团</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("Last-Modified", lastModified);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gbk", exchange -> {
+            byte[] body = "<html><body>美团</body></html>".getBytes(Charset.forName("GBK"));
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=GBK");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            int current = concurrentRequests.incrementAndGet();
+            maxConcurrentRequests.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrentRequests.decrementAndGet();
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/huge", exchange -> {
+            byte[] chunk = new byte[8192];
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 64; i++) {
+                    out.write(chunk);
+                }
+            } catch (IOException e) {
+                // 客户端中止下载
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (fetcher != null) {
+            fetcher.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("下载页面并按响应头解码")
+    void testDownloadPage() {
+        fetcher = new AsyncPageFetcher(CrawlerConfig.createDefault());
+
+        RawPage page = fetcher.downloadPage(baseUrl + "/page");
+        assertNotNull(page);
+        assertEquals(baseUrl + "/page", page.getUrl());
+        assertEquals("UTF-8", page.getContentCharset());
+        assertTrue(page.getContent().contains("你好"));
+
+        RawPage gbkPage = fetcher.downloadPage(baseUrl + "/gbk");
+        assertNotNull(gbkPage);
+        assertTrue(gbkPage.getContent().contains("美团"));
+    }
+
+    @Test
+    @DisplayName("边接收边解压gzip响应")
+    void testGzip() {
+        fetcher = new AsyncPageFetcher(CrawlerConfig.createDefault());
+        RawPage page = fetcher.downloadPage(baseUrl + "/gzip");
+        assertNotNull(page);
+        assertArrayEquals(ContentDecoderTest.page(), page.getBody());
+        assertNull(page.getHeader("Content-Encoding"));
+        assertEquals(1, fetcher.getTransferStats().getEncodedResponses());
+        assertTrue(fetcher.getTransferStats().getSavedRate() > 0.7);
+    }
+
+    @Test
+    @DisplayName("按缓存的Last-Modified发送条件请求")
+    void testConditionalRequest() {
+        fetcher = new AsyncPageFetcher(CrawlerConfig.createDefault());
+        fetcher.setValidatorCache(new ValidatorCache());
+        fetcher.setRawPageStore(new RawPageStore() {
+            @Override
+            public int store(RawPage rawPage) {
+                return STORE_SUCCESS;
+            }
+        });
+
+        // 存储成功后才保存校验信息
+        RawPage first = fetcher.fetchPage(baseUrl + "/etag");
+        assertNotNull(first);
+        assertFalse(first.isNotModified());
+
+        RawPage second = fetcher.downloadPage(baseUrl + "/etag");
+        assertNotNull(second);
+        assertTrue(second.isNotModified());
+        assertEquals(1, fetcher.getValidatorCache().getStats().getNotModified());
+        assertEquals(first.getBodyLength(), fetcher.getValidatorCache().getStats().getSavedBytes());
+    }
+
+    @Test
+    @DisplayName("非200状态码和连接失败返回null")
+    void testFailures() {
+        fetcher = new AsyncPageFetcher(new CrawlerConfig.Builder()
+                .connectionTimeout(1000)
+                .build());
+
+        assertNull(fetcher.downloadPage(baseUrl + "/missing"));
+        assertNull(fetcher.downloadPage("http://127.0.0.1:1/unreachable"));
+        assertNull(fetcher.downloadPage("not a url"));
+        assertEquals(0, fetcher.getInFlightRequests());
+    }
+
+    @Test
+    @DisplayName("超过最大页面大小时中止下载")
+    @Timeout(30)
+    void testMaxPageSize() {
+        fetcher = new AsyncPageFetcher(new CrawlerConfig.Builder()
+                .maxPageSize(64 * 1024)
+                .build());
+
+        assertNull(fetcher.downloadPage(baseUrl + "/huge"));
+        assertNotNull(fetcher.downloadPage(baseUrl + "/page"));
+        assertEquals(0, fetcher.getInFlightRequests());
+    }
+
+    @Test
+    @DisplayName("进行中的请求数不超过上限")
+    @Timeout(30)
+    void testMaxInFlightRequests() throws Exception {
+        fetcher = new AsyncPageFetcher(new CrawlerConfig.Builder()
+                .maxInFlightRequests(4)
+                .build());
+        assertEquals(4, fetcher.getMaxInFlightRequests());
+
+        List<CompletableFuture<RawPage>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(fetcher.fetchAsync(baseUrl + "/slow?i=" + i));
+            assertTrue(fetcher.getInFlightRequests() <= 4);
+        }
+        for (CompletableFuture<RawPage> future : futures) {
+            assertNotNull(future.get());
+        }
+
+        assertTrue(maxConcurrentRequests.get() <= 4, "服务端并发数: " + maxConcurrentRequests.get());
+        assertEquals(0, fetcher.getInFlightRequests());
+        assertNotNull(fetcher.getPoolStats());
+    }
+
+    @Test
+    @DisplayName("引擎通过完成回调驱动异步抓取，一个工作线程也能并发请求")
+    @Timeout(30)
+    void testEngineDrivesFetchAsync() throws Exception {
+        ModernCrawlerEngine engine = new ModernCrawlerEngine(new CrawlerConfig.Builder()
+                .fetcherType("async")
+                .threadPoolSize(1)
+                .maxInFlightRequests(8)
+                .politeness(false)
+                .delayBetweenRequests(0)
+                .build());
+        List<String> seeds = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            seeds.add(baseUrl + "/slow?i=" + i);
+        }
+        engine.start(seeds);
+        try {
+            StageStats fetchStats = engine.getStageStats().get(0);
+            while (fetchStats.getCompleted() < 16) {
+                Thread.sleep(20);
+                fetchStats = engine.getStageStats().get(0);
+            }
+            assertEquals(0, fetchStats.getFailed());
+            assertEquals(0, fetchStats.getActive());
+        } finally {
+            engine.stop();
+        }
+        assertTrue(maxConcurrentRequests.get() > 1, "服务端并发数: " + maxConcurrentRequests.get());
+        assertTrue(maxConcurrentRequests.get() <= 8, "服务端并发数: " + maxConcurrentRequests.get());
+    }
+
+    @Test
+    @DisplayName("工厂按类型创建异步抓取器")
+    void testFactory() {
+        Fetcher created = FetcherFactory.createFetcher(new CrawlerConfig.Builder()
+                .fetcherType("async")
+                .build());
+        try {
+            assertTrue(created instanceof AsyncPageFetcher);
+        } finally {
+            created.close();
+        }
+        assertTrue(FetcherFactory.createFetcher(CrawlerConfig.createDefault()) instanceof PageFetcher);
+    }
+}
@@ -0,0 +1,193 @@
+package io.leavesfly.crawler.fetch;
+
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 响应体解压器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("响应体解压器测试")
+class ContentDecoderTest {
+
+    private static final int MAX_BYTES = 1024 * 1024;
+
+    private final ByteBufferPool pool = new ByteBufferPool(false, ByteBufferPool.DEFAULT_MAX_RETAINED_BYTES);
+
+    static byte[] page() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 2000; i++) {
+            html.append("<div class=\"deal\"><a href=\"/deal/").append(i).append(".html\">美团团购 ")
+                    .append(i).append("</a></div>");
+        }
+        return html.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean zlib) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, !zlib))) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] decode(String encoding, byte[] encoded, int chunkSize) throws IOException {
+        try (ContentDecoder decoder = ContentDecoder.create(encoding, MAX_BYTES, pool)) {
+            for (int off = 0; off < encoded.length; off += chunkSize) {
+                decoder.write(ByteBuffer.wrap(encoded, off, Math.min(chunkSize, encoded.length - off)));
+            }
+            assertEquals(encoded.length, decoder.getEncodedBytes());
+            return decoder.finish();
+        }
+    }
+
+    @Test
+    @DisplayName("分段解压gzip")
+    void testGzip() throws IOException {
+        byte[] page = page();
+        byte[] encoded = gzip(page);
+        assertTrue(encoded.length < page.length / 4);
+        // 逐字节写入时头部跨多段到达
+        for (int chunkSize : new int[]{1, 7, 1500, encoded.length}) {
+            assertArrayEquals(page, decode("gzip", encoded, chunkSize));
+        }
+        assertArrayEquals(page, decode(" X-GZIP ", encoded, 4096));
+    }
+
+    @Test
+    @DisplayName("带文件名和注释的gzip头部")
+    void testGzipOptionalHeaderFields() throws IOException {
+        byte[] page = page();
+        byte[] plain = gzip(page);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(plain, 0, 3);
+        bytes.write(0x04 | 0x08 | 0x10);
+        bytes.write(plain, 4, 6);
+        bytes.write(new byte[]{3, 0, 'a', 'b', 'c'});
+        bytes.write("page.html\0".getBytes(StandardCharsets.US_ASCII));
+        bytes.write("comment\0".getBytes(StandardCharsets.US_ASCII));
+        bytes.write(plain, 10, plain.length - 10);
+        byte[] encoded = bytes.toByteArray();
+        assertArrayEquals(page, decode("gzip", encoded, 1));
+        assertArrayEquals(page, decode("gzip", encoded, 4096));
+    }
+
+    @Test
+    @DisplayName("解压zlib封装和裸deflate")
+    void testDeflate() throws IOException {
+        byte[] page = page();
+        assertArrayEquals(page, decode("deflate", deflate(page, true), 1));
+        assertArrayEquals(page, decode("deflate", deflate(page, true), 4096));
+        assertArrayEquals(page, decode("deflate", deflate(page, false), 1));
+        assertArrayEquals(page, decode("deflate", deflate(page, false), 4096));
+    }
+
+    @Test
+    @DisplayName("从输入流边读边解压")
+    void testReadEncoded() throws IOException {
+        byte[] page = page();
+        try (ContentDecoder decoder = ContentDecoder.create("gzip", MAX_BYTES, pool)) {
+            assertArrayEquals(page, BoundedBodyReader.readEncoded(new ByteArrayInputStream(gzip(page)), decoder));
+        }
+    }
+
+    @Test
+    @DisplayName("解压后超过上限时中止")
+    void testDecompressionBomb() throws IOException {
+        byte[] zeros = new byte[4 * MAX_BYTES];
+        byte[] encoded = gzip(zeros);
+        assertTrue(encoded.length < MAX_BYTES / 100);
+        assertThrows(PageTooLargeException.class, () -> decode("gzip", encoded, 4096));
+
+        // 恰好等于上限时正常返回
+        byte[] exact = Arrays.copyOf(zeros, MAX_BYTES);
+        assertEquals(MAX_BYTES, decode("gzip", gzip(exact), 4096).length);
+    }
+
+    @Test
+    @DisplayName("比上限多一个字节时中止")
+    void testOneByteOverLimit() throws IOException {
+        byte[] page = page();
+        int maxBytes = page.length - 1;
+        byte[] encoded = gzip(page);
+        for (int chunkSize : new int[]{1, 7, 1500, encoded.length}) {
+            try (ContentDecoder decoder = ContentDecoder.create("gzip", maxBytes, pool)) {
+                assertThrows(PageTooLargeException.class, () -> {
+                    for (int off = 0; off < encoded.length; off += chunkSize) {
+                        decoder.write(ByteBuffer.wrap(encoded, off, Math.min(chunkSize, encoded.length - off)));
+                    }
+                    decoder.finish();
+                }, "chunkSize=" + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("校验gzip尾部的CRC32和长度")
+    void testGzipTrailer() throws IOException {
+        byte[] encoded = gzip(page());
+        for (int chunkSize : new int[]{1, 3, 4096}) {
+            byte[] badCrc = encoded.clone();
+            badCrc[badCrc.length - 8] ^= 1;
+            assertThrows(ZipException.class, () -> decode("gzip", badCrc, chunkSize));
+
+            byte[] badLength = encoded.clone();
+            badLength[badLength.length - 1] ^= 1;
+            assertThrows(ZipException.class, () -> decode("gzip", badLength, chunkSize));
+
+            assertThrows(ZipException.class, () -> decode("gzip", Arrays.copyOf(encoded, encoded.length - 3), chunkSize));
+        }
+    }
+
+    @Test
+    @DisplayName("错误或不完整的压缩数据")
+    void testInvalidData() throws IOException {
+        byte[] encoded = gzip(page());
+        assertThrows(ZipException.class, () -> decode("gzip", Arrays.copyOf(encoded, encoded.length / 2), 4096));
+        assertThrows(ZipException.class, () -> decode("gzip", page(), 4096));
+        assertThrows(ZipException.class, () -> ContentDecoder.create("br", MAX_BYTES, pool));
+        // 空响应体
+        assertEquals(0, decode("gzip", new byte[0], 1).length);
+    }
+
+    @Test
+    @DisplayName("识别未压缩编码并删除压缩相关响应头")
+    void testHeaders() {
+        assertTrue(ContentDecoder.isIdentity(null));
+        assertTrue(ContentDecoder.isIdentity(""));
+        assertTrue(ContentDecoder.isIdentity("Identity"));
+        assertFalse(ContentDecoder.isIdentity("gzip"));
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("content-encoding", "gzip");
+        headers.put("Content-Length", "100");
+        headers.put("Content-Type", "text/html");
+        ContentDecoder.removeEncodingHeaders(headers);
+        assertEquals(1, headers.size());
+        assertEquals("text/html", headers.get("Content-Type"));
+    }
+}
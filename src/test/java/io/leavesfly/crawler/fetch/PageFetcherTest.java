@@ -0,0 +1,255 @@
+package io.leavesfly.crawler.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.store.AsyncRawPageStore;
+import io.leavesfly.crawler.fetch.store.RawPageStore;
+import io.leavesfly.crawler.fetch.store.StoreSyncPolicy;
+import io.leavesfly.crawler.fetch.validator.ValidatorCache;
+import io.leavesfly.crawler.fetch.validator.ValidatorCacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 同步抓取器测试
+ * 使用本地HTTP服务器，不依赖外部网络
+ *
+ * @author yefei.yf
+ */
+@DisplayName("同步抓取器测试")
+class PageFetcherTest {
+
+    private static final int MAX_PAGE_SIZE = 64 * 1024;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/meta", exchange -> {
+            byte[] body = "<html><head><meta charset=\"GBK\"></head><body>美团</body></html>"
+                    .getBytes(Charset.forName("GBK"));
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/chunked", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            // 长度为0表示分块传输
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 1000; i++) {
+                    out.write("<p>你好</p>".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+        server.createContext("/huge", exchange -> {
+            byte[] chunk = new byte[8192];
+            Arrays.fill(chunk, (byte) 'a');
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 1024; i++) {
+                    out.write(chunk);
+                }
+            } catch (IOException e) {
+                // 客户端中止下载
+            }
+        });
+        server.createContext("/declared-huge", exchange -> {
+            exchange.sendResponseHeaders(200, MAX_PAGE_SIZE * 4L);
+            exchange.close();
+        });
+        server.createContext("/gzip", exchange -> {
+            byte[] page = ContentDecoderTest.page();
+            boolean accepted = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            byte[] body = accepted ? ContentDecoderTest.gzip(page) : page;
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("X-Referer", String.valueOf(exchange.getRequestHeaders().getFirst("Referer")));
+            if (accepted) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/etag", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "<html><body>美团</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("按字节下载并从meta标签识别字符集")
+    void testMetaCharset() {
+        RawPage page = new PageFetcher(MAX_PAGE_SIZE).downloadPage(baseUrl + "/meta");
+        assertNotNull(page);
+        assertTrue(page.hasRawBody());
+        assertEquals("GBK", page.getContentCharset());
+        assertTrue(page.getContent().contains("美团"));
+    }
+
+    @Test
+    @DisplayName("未声明长度的响应完整读取")
+    void testChunked() {
+        RawPage page = new PageFetcher(MAX_PAGE_SIZE).downloadPage(baseUrl + "/chunked");
+        assertNotNull(page);
+        assertEquals("UTF-8", page.getContentCharset());
+        assertEquals("chunked", page.getHeader("transfer-encoding"));
+        assertEquals(1000 * "<p>你好</p>".getBytes(StandardCharsets.UTF_8).length, page.getBody().length);
+    }
+
+    @Test
+    @DisplayName("超过最大页面大小时中止下载")
+    void testMaxPageSize() {
+        PageFetcher fetcher = new PageFetcher(MAX_PAGE_SIZE);
+        assertNull(fetcher.downloadPage(baseUrl + "/huge"));
+        assertNull(fetcher.downloadPage(baseUrl + "/declared-huge"));
+        // 中止后连接池仍可正常使用
+        assertNotNull(fetcher.downloadPage(baseUrl + "/meta"));
+        assertThrows(IllegalArgumentException.class, () -> new PageFetcher(0));
+    }
+
+    @Test
+    @DisplayName("发送策略请求头并解压gzip响应")
+    void testGzip() {
+        PageFetcher fetcher = new PageFetcher(MAX_PAGE_SIZE * 4);
+        fetcher.setRequestHeaderProvider(url -> Collections.singletonMap("Referer", "https://www.meituan.com/"));
+        RawPage page = fetcher.downloadPage(baseUrl + "/gzip");
+        assertNotNull(page);
+        assertArrayEquals(ContentDecoderTest.page(), page.getBody());
+        assertEquals("https://www.meituan.com/", page.getHeader("X-Referer"));
+        assertNull(page.getHeader("Content-Encoding"));
+
+        TransferStats stats = fetcher.getTransferStats();
+        assertEquals(1, stats.getEncodedResponses());
+        assertEquals(page.getBodyLength(), stats.getBodyBytes());
+        assertTrue(stats.getSavedRate() > 0.7);
+
+        // 关闭压缩传输时按原样下载
+        fetcher.setAcceptCompression(false);
+        page = fetcher.downloadPage(baseUrl + "/gzip");
+        assertArrayEquals(ContentDecoderTest.page(), page.getBody());
+        assertEquals(1, fetcher.getTransferStats().getEncodedResponses());
+
+        // 解压后超过上限时中止
+        assertNull(new PageFetcher(MAX_PAGE_SIZE).downloadPage(baseUrl + "/gzip"));
+    }
+
+    @Test
+    @DisplayName("按缓存的ETag发送条件请求，校验信息在存储成功后才保存")
+    void testConditionalRequest() {
+        PageFetcher fetcher = new PageFetcher(MAX_PAGE_SIZE);
+        fetcher.setValidatorCache(new ValidatorCache());
+        boolean[] storeSucceeds = {false};
+        fetcher.setRawPageStore(new RawPageStore() {
+            @Override
+            public int store(RawPage rawPage) {
+                return storeSucceeds[0] ? STORE_SUCCESS : STORE_FAILURE;
+            }
+        });
+
+        // 存储失败时不保存校验信息，下次仍完整下载
+        assertFalse(fetcher.fetchPage(baseUrl + "/etag").isNotModified());
+        assertNull(fetcher.getValidatorCache().get(baseUrl + "/etag"));
+
+        storeSucceeds[0] = true;
+        RawPage first = fetcher.fetchPage(baseUrl + "/etag");
+        assertNotNull(first);
+        assertFalse(first.isNotModified());
+        assertEquals("\"v1\"", fetcher.getValidatorCache().get(baseUrl + "/etag").getEtag());
+
+        RawPage second = fetcher.downloadPage(baseUrl + "/etag");
+        assertNotNull(second);
+        assertTrue(second.isNotModified());
+        assertEquals(0, second.getBodyLength());
+
+        ValidatorCacheStats stats = fetcher.getValidatorCache().getStats();
+        assertEquals(1, stats.getConditionalRequests());
+        assertEquals(1, stats.getNotModified());
+        assertEquals(first.getBodyLength(), stats.getSavedBytes());
+        fetcher.close();
+    }
+
+    @Test
+    @DisplayName("异步存储时校验信息在页面实际写入后才保存")
+    void testConditionalRequestWithAsyncStore() throws IOException {
+        PageFetcher fetcher = new PageFetcher(MAX_PAGE_SIZE);
+        fetcher.setValidatorCache(new ValidatorCache());
+        boolean[] writeSucceeds = {false};
+        AsyncRawPageStore store = new AsyncRawPageStore(new RawPageStore() {
+            @Override
+            public int store(RawPage rawPage) {
+                return writeSucceeds[0] ? STORE_SUCCESS : STORE_FAILURE;
+            }
+        }, 4, StoreSyncPolicy.none());
+        fetcher.setRawPageStore(store);
+
+        // 入队时写线程可能还没写完，写入失败后不保存校验信息
+        fetcher.storePage(fetcher.downloadPage(baseUrl + "/etag"));
+        store.flush();
+        assertNull(fetcher.getValidatorCache().get(baseUrl + "/etag"));
+        assertEquals(1, store.getStats().getFailed());
+
+        writeSucceeds[0] = true;
+        fetcher.fetchPage(baseUrl + "/etag");
+        store.flush();
+        assertEquals("\"v1\"", fetcher.getValidatorCache().get(baseUrl + "/etag").getEtag());
+        fetcher.close();
+    }
+
+    @Test
+    @DisplayName("有上限的响应体读取")
+    void testBoundedBodyReader() throws IOException {
+        byte[] data = new byte[100_000];
+        Arrays.fill(data, (byte) 1);
+
+        assertArrayEquals(data, BoundedBodyReader.read(new ByteArrayInputStream(data), -1, 100_000));
+        assertArrayEquals(data, BoundedBodyReader.read(new ByteArrayInputStream(data), data.length, 100_000));
+        // 服务端提前结束时返回已读部分
+        assertEquals(data.length, BoundedBodyReader.read(new ByteArrayInputStream(data), 200_000, 300_000).length);
+
+        assertThrows(PageTooLargeException.class, () ->
+                BoundedBodyReader.read(new ByteArrayInputStream(data), -1, 99_999));
+        assertThrows(PageTooLargeException.class, () ->
+                BoundedBodyReader.read(new ByteArrayInputStream(data), data.length, 99_999));
+    }
+}
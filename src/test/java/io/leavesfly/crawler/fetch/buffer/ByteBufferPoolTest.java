@@ -0,0 +1,165 @@
+package io.leavesfly.crawler.fetch.buffer;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓冲区池测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("缓冲区池测试")
+class ByteBufferPoolTest {
+
+    @AfterEach
+    void tearDown() {
+        // 恢复默认共享池
+        BufferPools.configure(CrawlerConfig.createDefault());
+    }
+
+    @Test
+    @DisplayName("按级别复用缓冲区")
+    void testAcquireAndRelease() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 65536, 1024 * 1024);
+
+        ByteBuffer small = pool.acquire(100);
+        assertEquals(4096, small.capacity());
+        ByteBuffer medium = pool.acquire(5000);
+        assertEquals(8192, medium.capacity());
+        assertEquals(2, pool.getStats().getMisses());
+
+        small.put((byte) 1);
+        pool.release(small);
+        pool.release(medium);
+        assertEquals(4096 + 8192, pool.getStats().getRetainedBytes());
+
+        ByteBuffer reused = pool.acquire(4000);
+        assertSame(small, reused);
+        assertEquals(0, reused.position());
+        assertEquals(reused.capacity(), reused.limit());
+        assertEquals(1, pool.getStats().getHits());
+        assertEquals(8192, pool.getStats().getRetainedBytes());
+        assertEquals(1.0 / 3, pool.getStats().getHitRate(), 1e-9);
+
+        pool.clear();
+        assertEquals(0, pool.getStats().getRetainedBytes());
+    }
+
+    @Test
+    @DisplayName("超出最大级别和保留上限的缓冲区不回收")
+    void testRetentionLimits() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 8192, 8192);
+
+        ByteBuffer oversized = pool.acquire(10000);
+        assertEquals(10000, oversized.capacity());
+        pool.release(oversized);
+        assertEquals(0, pool.getStats().getRetainedBytes());
+
+        pool.release(pool.acquire(8192));
+        pool.release(pool.acquire(8192).duplicate());
+        ByteBuffer second = ByteBuffer.allocate(4096);
+        pool.release(second);
+        assertEquals(8192, pool.getStats().getRetainedBytes());
+        assertTrue(pool.getStats().getDiscards() >= 2);
+
+        // 类型不一致的缓冲区不回收
+        pool.release(ByteBuffer.allocateDirect(4096));
+        pool.release(ByteBuffer.allocate(4096).asReadOnlyBuffer());
+        assertEquals(8192, pool.getStats().getRetainedBytes());
+
+        ByteBufferPool noRetention = new ByteBufferPool(true, 0);
+        ByteBuffer direct = noRetention.acquire(10);
+        assertTrue(direct.isDirect());
+        noRetention.release(direct);
+        assertEquals(0, noRetention.getStats().getRetainedBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferPool(false, 0, 1024, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferPool(false, 1024, 512, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ByteBufferPool(false, -1));
+    }
+
+    @Test
+    @DisplayName("扩容保留已写入的内容")
+    void testGrow() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 65536, 1024 * 1024);
+        ByteBuffer buffer = pool.acquire(4096);
+        for (int i = 0; i < 4096; i++) {
+            buffer.put((byte) i);
+        }
+        ByteBuffer grown = pool.grow(buffer, 5000);
+        assertEquals(8192, grown.capacity());
+        assertEquals(4096, grown.position());
+        for (int i = 0; i < 4096; i++) {
+            assertEquals((byte) i, grown.get(i));
+        }
+        // 原缓冲区已归还
+        assertEquals(4096, pool.getStats().getRetainedBytes());
+        assertSame(grown, pool.grow(grown, 100));
+    }
+
+    @Test
+    @DisplayName("多线程申请归还")
+    @Timeout(30)
+    void testConcurrentUse() throws InterruptedException {
+        ByteBufferPool pool = new ByteBufferPool(false, 1024 * 1024);
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < 10000; i++) {
+                        ByteBuffer buffer = pool.acquire(4096 << (i % 3));
+                        buffer.putInt(i);
+                        pool.release(buffer);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        BufferPoolStats stats = pool.getStats();
+        assertEquals(threads * 10000L, stats.getHits() + stats.getMisses());
+        assertTrue(stats.getHitRate() > 0.9, "命中率: " + stats.getHitRate());
+        assertTrue(stats.getRetainedBytes() <= stats.getMaxRetainedBytes());
+    }
+
+    @Test
+    @DisplayName("经直接内存池分块写入通道")
+    void testWriteFullyThroughDirectPool(@TempDir Path tempDir) throws IOException {
+        BufferPools.configure(new CrawlerConfig.Builder().bufferPool(true, 1024 * 1024).build());
+        assertTrue(BufferPools.ioPool().isDirect());
+        assertFalse(BufferPools.heapPool().isDirect());
+
+        byte[] data = new byte[200_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        Path file = tempDir.resolve("page.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            BufferPools.writeFully(channel, data);
+        }
+        assertArrayEquals(data, Files.readAllBytes(file));
+        assertTrue(BufferPools.ioPool().getStats().getRetainedBytes() > 0);
+        assertTrue(BufferPools.getStats().isDirect());
+    }
+}
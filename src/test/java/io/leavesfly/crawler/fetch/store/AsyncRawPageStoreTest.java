@@ -0,0 +1,264 @@
+package io.leavesfly.crawler.fetch.store;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.domain.RawPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步页面存储测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("异步页面存储测试")
+class AsyncRawPageStoreTest {
+
+    private static RawPage page(String url) {
+        return RawPage.fromBytes(url, ("<html>" + url + "</html>").getBytes(StandardCharsets.UTF_8), "UTF-8");
+    }
+
+    /**
+     * 记录调用情况的底层存储，可以阻塞写入模拟磁盘饱和
+     */
+    private static class RecordingStore extends RawPageStore {
+        final AtomicInteger stored = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+        volatile CountDownLatch gate;
+        volatile String failUrl;
+        volatile boolean closed;
+
+        @Override
+        public int store(RawPage rawPage) {
+            if (rawPage.getUrl().equals(failUrl)) {
+                return STORE_FAILURE;
+            }
+            stored.incrementAndGet();
+            return STORE_SUCCESS;
+        }
+
+        @Override
+        public int[] storeBatch(List<RawPage> rawPages) {
+            CountDownLatch latch = gate;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            batches.incrementAndGet();
+            return super.storeBatch(rawPages);
+        }
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    @DisplayName("多线程提交的页面成批写入段存储")
+    @Timeout(30)
+    void testGroupCommit(@TempDir Path tempDir) throws Exception {
+        RawPageSegmentStore segmentStore = new RawPageSegmentStore(tempDir);
+        AsyncRawPageStore store = new AsyncRawPageStore(segmentStore, 64, StoreSyncPolicy.none());
+        int threadCount = 4;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/" + thread + "/" + i)));
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(20, TimeUnit.SECONDS));
+
+            store.flush();
+            StoreWriterStats stats = store.getStats();
+            assertEquals(threadCount * perThread, stats.getEnqueued());
+            assertEquals(threadCount * perThread, stats.getWritten());
+            assertEquals(0, stats.getFailed());
+            assertEquals(0, stats.getQueueDepth());
+            assertEquals(64, stats.getQueueCapacity());
+            assertTrue(stats.getBatches() <= stats.getWritten());
+            assertTrue(stats.getAverageCommitMillis() >= 0);
+
+            assertEquals("<html>https://a.com/3/499</html>", segmentStore.read("https://a.com/3/499").getContent());
+        } finally {
+            store.close();
+        }
+        assertEquals(RawPageStore.STORE_FAILURE, store.store(page("https://a.com/closed")));
+    }
+
+    @Test
+    @DisplayName("底层写入阻塞时队列满后提交方阻塞等待")
+    @Timeout(30)
+    void testBackpressure() throws Exception {
+        RecordingStore delegate = new RecordingStore();
+        delegate.gate = new CountDownLatch(1);
+        AsyncRawPageStore store = new AsyncRawPageStore(delegate, 4, 2, StoreSyncPolicy.none());
+        try {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    store.store(page("https://a.com/" + i));
+                }
+            });
+            producer.start();
+
+            // 写线程取走第一批后阻塞，队列填满，提交方无法继续
+            long deadline = System.currentTimeMillis() + 5000;
+            while (store.getStats().getQueueDepth() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(4, store.getStats().getQueueDepth());
+            assertTrue(producer.isAlive());
+            assertTrue(store.getStats().getBlockedPuts() > 0);
+
+            delegate.gate.countDown();
+            producer.join(5000);
+            assertFalse(producer.isAlive());
+            store.flush();
+            assertEquals(20, delegate.stored.get());
+            assertEquals(20, store.getStats().getWritten());
+            // 每批最多2个页面
+            assertTrue(delegate.batches.get() >= 10);
+        } finally {
+            store.close();
+        }
+        assertTrue(delegate.closed);
+    }
+
+    @Test
+    @DisplayName("页面写入后逐个给出存储结果")
+    @Timeout(30)
+    void testStoreResult() throws Exception {
+        RecordingStore delegate = new RecordingStore();
+        delegate.failUrl = "https://a.com/bad";
+        delegate.gate = new CountDownLatch(1);
+        AsyncRawPageStore store = new AsyncRawPageStore(delegate, 8, StoreSyncPolicy.none());
+        try {
+            CompletableFuture<Integer> good = store.storeAsync(page("https://a.com/good"));
+            CompletableFuture<Integer> bad = store.storeAsync(page("https://a.com/bad"));
+            // 入队后还没写入
+            assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/other")));
+            assertFalse(good.isDone());
+            assertFalse(bad.isDone());
+
+            delegate.gate.countDown();
+            assertEquals(RawPageStore.STORE_SUCCESS, (int) good.get(5, TimeUnit.SECONDS));
+            assertEquals(RawPageStore.STORE_FAILURE, (int) bad.get(5, TimeUnit.SECONDS));
+            store.flush();
+            assertEquals(2, store.getStats().getWritten());
+            assertEquals(1, store.getStats().getFailed());
+        } finally {
+            store.close();
+        }
+        assertEquals(RawPageStore.STORE_FAILURE, (int) store.storeAsync(page("https://a.com/closed")).join());
+    }
+
+    @Test
+    @DisplayName("按字节数和时间间隔刷盘")
+    @Timeout(30)
+    void testSyncPolicy() throws Exception {
+        RecordingStore bytesDelegate = new RecordingStore();
+        AsyncRawPageStore bytesStore = new AsyncRawPageStore(bytesDelegate, 16, StoreSyncPolicy.everyBytes(1));
+        try {
+            for (int i = 0; i < 5; i++) {
+                bytesStore.store(page("https://a.com/" + i));
+                bytesStore.flush();
+            }
+            // 每批都超过1字节，每批写入后都刷盘
+            assertEquals(5, bytesStore.getStats().getSyncs());
+        } finally {
+            bytesStore.close();
+        }
+
+        RecordingStore intervalDelegate = new RecordingStore();
+        AsyncRawPageStore intervalStore = new AsyncRawPageStore(intervalDelegate, 16, StoreSyncPolicy.everyMillis(50));
+        try {
+            intervalStore.store(page("https://a.com/1"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (intervalStore.getStats().getSyncs() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // 没有新页面时写线程也按时刷盘
+            assertEquals(1, intervalStore.getStats().getSyncs());
+        } finally {
+            intervalStore.close();
+        }
+
+        RecordingStore noneDelegate = new RecordingStore();
+        AsyncRawPageStore noneStore = new AsyncRawPageStore(noneDelegate, 16, StoreSyncPolicy.none());
+        noneStore.store(page("https://a.com/1"));
+        Thread.sleep(200);
+        assertEquals(0, noneStore.getStats().getSyncs());
+        noneStore.close();
+        // 关闭时写完剩余页面并刷盘
+        assertEquals(1, noneStore.getStats().getSyncs());
+        assertEquals(1, noneDelegate.flushes.get());
+        assertEquals(1, noneDelegate.stored.get());
+    }
+
+    @Test
+    @DisplayName("刷盘策略解析")
+    void testSyncPolicyParsing() {
+        assertEquals(StoreSyncPolicy.Mode.NONE, StoreSyncPolicy.of("none", 0).getMode());
+        assertEquals(StoreSyncPolicy.Mode.INTERVAL, StoreSyncPolicy.of("interval", 100).getMode());
+        assertEquals(4096, StoreSyncPolicy.of("bytes", 4096).getThreshold());
+        assertThrows(IllegalArgumentException.class, () -> StoreSyncPolicy.of("always", 1));
+        assertThrows(IllegalArgumentException.class, () -> StoreSyncPolicy.everyMillis(0));
+
+        StoreSyncPolicy bytes = StoreSyncPolicy.everyBytes(100);
+        assertFalse(bytes.shouldSync(0, 1000));
+        assertFalse(bytes.shouldSync(99, 1000));
+        assertTrue(bytes.shouldSync(100, 0));
+        StoreSyncPolicy interval = StoreSyncPolicy.everyMillis(100);
+        assertFalse(interval.shouldSync(1, 99));
+        assertTrue(interval.shouldSync(1, 100));
+        assertFalse(StoreSyncPolicy.none().shouldSync(Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("工厂按配置包装异步存储")
+    void testFactory(@TempDir Path tempDir) throws IOException {
+        RawPageStore store = RawPageStoreFactory.createStore(new CrawlerConfig.Builder()
+                .storage("segment", tempDir.toString())
+                .asyncStore(true, 32)
+                .storeSync("interval", 1000)
+                .build());
+        try {
+            assertTrue(store instanceof AsyncRawPageStore);
+            AsyncRawPageStore asyncStore = (AsyncRawPageStore) store;
+            assertTrue(asyncStore.getDelegate() instanceof RawPageSegmentStore);
+            assertEquals(32, asyncStore.getStats().getQueueCapacity());
+            assertEquals(StoreSyncPolicy.Mode.INTERVAL, asyncStore.getSyncPolicy().getMode());
+        } finally {
+            store.close();
+        }
+    }
+}
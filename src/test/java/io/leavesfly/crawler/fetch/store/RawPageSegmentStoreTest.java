@@ -0,0 +1,355 @@
+package io.leavesfly.crawler.fetch.store;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.constant.FetcherConstant;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.fetch.store.codec.PageCodecs;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分段页面存储测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("分段页面存储测试")
+class RawPageSegmentStoreTest {
+
+    private static RawPage page(String url, String content) {
+        RawPage page = RawPage.fromBytes(url, content.getBytes(StandardCharsets.UTF_8), "UTF-8");
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "text/html; charset=UTF-8");
+        headers.put("ETag", "\"v1\"");
+        page.setHeaders(headers);
+        return page;
+    }
+
+    private static String html(int repeat) {
+        StringBuilder sb = new StringBuilder("<html><body>");
+        for (int i = 0; i < repeat; i++) {
+            sb.append("<div class=\"item\">美团团购 ").append(i).append("</div>");
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    @Test
+    @DisplayName("写入后按URL读回页面和响应头")
+    void testRoundTrip(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir);
+        try {
+            String big = html(200);
+            assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/1", big)));
+            assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/2", "<p>短</p>")));
+
+            RawPage read = store.read("https://a.com/1");
+            assertNotNull(read);
+            assertEquals("https://a.com/1", read.getUrl());
+            assertEquals("UTF-8", read.getContentCharset());
+            assertEquals(big, read.getContent());
+            assertEquals("\"v1\"", read.getHeader("etag"));
+            assertEquals("text/html; charset=UTF-8", read.getHeader("Content-Type"));
+
+            assertEquals("<p>短</p>", store.read("https://a.com/2").getContent());
+            assertNull(store.read("https://a.com/missing"));
+            assertTrue(store.contains("https://a.com/2"));
+
+            assertEquals(2, store.getRecordCount());
+            assertEquals(1, store.getSegmentCount());
+            // 重复度高的页面压缩后写入
+            assertTrue(store.getBytesWritten() < store.getRawBytesWritten());
+        } finally {
+            store.close();
+        }
+        assertEquals(RawPageStore.STORE_FAILURE, store.store(page("https://a.com/3", "x")));
+    }
+
+    @Test
+    @DisplayName("非UTF-8页面按原始字节保存")
+    void testRawBytesPreserved(@TempDir Path tempDir) throws IOException {
+        Charset gbk = Charset.forName("GBK");
+        byte[] body = "<html><body>美团</body></html>".getBytes(gbk);
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir);
+        try {
+            store.store(RawPage.fromBytes("https://a.com/gbk", body, "GBK"));
+            RawPage read = store.read("https://a.com/gbk");
+            assertArrayEquals(body, read.getBody());
+            assertEquals("GBK", read.getContentCharset());
+            assertTrue(read.getContent().contains("美团"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("段文件达到上限后滚动，同一URL以最后一次为准")
+    void testSegmentRolling(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir, 4096);
+        try {
+            for (int i = 0; i < 50; i++) {
+                store.store(page("https://a.com/" + i, "<p>" + i + "</p>" + html(3)));
+            }
+            store.store(page("https://a.com/0", "<p>新版本</p>"));
+
+            assertTrue(store.getSegmentCount() > 1, "段数: " + store.getSegmentCount());
+            assertEquals(50, store.getIndexedUrlCount());
+            assertEquals("<p>新版本</p>", store.read("https://a.com/0").getContent());
+            assertTrue(store.read("https://a.com/49").getContent().startsWith("<p>49</p>"));
+        } finally {
+            store.close();
+        }
+        assertTrue(Files.exists(tempDir.resolve("segment-000000.dat")));
+        assertTrue(Files.exists(tempDir.resolve("segment-000000.idx")));
+    }
+
+    @Test
+    @DisplayName("批量写入跨越段边界")
+    void testStoreAll(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir, 2048);
+        try {
+            List<RawPage> pages = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                pages.add(page("https://a.com/" + i, "<p>" + i + "</p>" + html(2)));
+            }
+            pages.add(new RawPage("https://a.com/empty", "UTF-8", null));
+
+            assertEquals(40, store.storeAll(pages));
+            assertTrue(store.getSegmentCount() > 1);
+            for (int i = 0; i < 40; i++) {
+                assertTrue(store.read("https://a.com/" + i).getContent().startsWith("<p>" + i + "</p>"));
+            }
+            assertFalse(store.contains("https://a.com/empty"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("批量写入中途失败时返回已写入的页面数")
+    void testStoreAllPartialFailure(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir, 2048);
+        try {
+            assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/first", "<p>first</p>")));
+            // 占住下一个段文件名，切换到新段时失败
+            Files.createDirectory(tempDir.resolve("segment-000001.dat"));
+            List<RawPage> pages = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                pages.add(page("https://a.com/" + i, "<p>" + i + "</p>" + html(2)));
+            }
+
+            int[] results = store.storeBatch(pages);
+            int stored = 0;
+            while (stored < results.length && results[stored] == RawPageStore.STORE_SUCCESS) {
+                stored++;
+            }
+            assertTrue(stored > 0 && stored < 40, "已写入: " + stored);
+            for (int i = 0; i < 40; i++) {
+                assertEquals(i < stored ? RawPageStore.STORE_SUCCESS : RawPageStore.STORE_FAILURE, results[i]);
+                assertEquals(i < stored, store.contains("https://a.com/" + i));
+            }
+            assertTrue(store.read("https://a.com/0").getContent().startsWith("<p>0</p>"));
+            assertEquals(stored + 1, store.getRecordCount());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("重新打开时由索引文件和段文件恢复")
+    void testReopen(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir, 8192);
+        for (int i = 0; i < 20; i++) {
+            store.store(page("https://a.com/" + i, html(i + 1)));
+        }
+        store.close();
+
+        // 模拟崩溃：最后一个段的索引丢失，尾部还有半条记录
+        Path lastIndex = null;
+        Path lastSegment = null;
+        for (int i = 0; Files.exists(tempDir.resolve(RawPageSegmentStore.segmentName(i))); i++) {
+            lastSegment = tempDir.resolve(RawPageSegmentStore.segmentName(i));
+            lastIndex = tempDir.resolve(RawPageSegmentStore.indexName(i));
+        }
+        Files.delete(lastIndex);
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x52, 0x50, 0x53, 0x47, 1, 2, 3}));
+        }
+
+        RawPageSegmentStore reopened = new RawPageSegmentStore(tempDir, 8192);
+        try {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(html(i + 1), reopened.read("https://a.com/" + i).getContent());
+            }
+            int segments = reopened.getSegmentCount();
+
+            // 新写入从新段开始，不改动已有段
+            reopened.store(page("https://b.com/1", "<p>new</p>"));
+            assertEquals(segments + 1, reopened.getSegmentCount());
+            assertEquals("<p>new</p>", reopened.read("https://b.com/1").getContent());
+            assertEquals(21, reopened.getIndexedUrlCount());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    @DisplayName("跳过损坏的记录，之后的记录仍然恢复")
+    void testRecoverAfterCorruptRecord(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir);
+        for (int i = 0; i < 5; i++) {
+            store.store(page("https://a.com/" + i, html(i + 10)));
+        }
+        store.close();
+
+        // 索引丢失，第三条记录中间的字节被破坏
+        Path segment = tempDir.resolve(RawPageSegmentStore.segmentName(0));
+        Files.delete(tempDir.resolve(RawPageSegmentStore.indexName(0)));
+        byte[] bytes = Files.readAllBytes(segment);
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i + 4 <= bytes.length; i++) {
+            if (ByteBuffer.wrap(bytes, i, 4).getInt() == RawPageSegmentStore.MAGIC) {
+                offsets.add(i);
+            }
+        }
+        assertEquals(5, offsets.size());
+        int corrupt = (offsets.get(2) + offsets.get(3)) / 2;
+        bytes[corrupt] = (byte) ~bytes[corrupt];
+        Files.write(segment, bytes);
+
+        RawPageSegmentStore reopened = new RawPageSegmentStore(tempDir);
+        try {
+            assertFalse(reopened.contains("https://a.com/2"));
+            assertEquals(4, reopened.getIndexedUrlCount());
+            for (int i : new int[]{0, 1, 3, 4}) {
+                assertEquals(html(i + 10), reopened.read("https://a.com/" + i).getContent());
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    @DisplayName("不同压缩编码的记录可以混在同一目录")
+    void testMixedCodecs(@TempDir Path tempDir) throws IOException {
+        String content = html(100);
+        RawPageSegmentStore lz4Store = new RawPageSegmentStore(tempDir, 1024 * 1024, PageCodecs.LZ4);
+        lz4Store.store(page("https://a.com/lz4", content));
+        assertTrue(lz4Store.getBytesWritten() < lz4Store.getRawBytesWritten());
+        lz4Store.close();
+
+        RawPageSegmentStore gzipStore = new RawPageSegmentStore(tempDir, 1024 * 1024, PageCodecs.GZIP);
+        try {
+            gzipStore.store(page("https://a.com/gzip", content));
+            assertEquals(content, gzipStore.read("https://a.com/lz4").getContent());
+            assertEquals(content, gzipStore.read("https://a.com/gzip").getContent());
+        } finally {
+            gzipStore.close();
+        }
+    }
+
+    @Test
+    @DisplayName("同一目录只允许一个实例打开")
+    void testDirectoryLock(@TempDir Path tempDir) throws IOException {
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir);
+        RawPageSegmentStore other = new RawPageSegmentStore(tempDir);
+        try {
+            assertEquals(RawPageStore.STORE_SUCCESS, store.store(page("https://a.com/1", "x")));
+            assertEquals(RawPageStore.STORE_FAILURE, other.store(page("https://a.com/2", "y")));
+            assertThrows(IOException.class, () -> other.read("https://a.com/1"));
+        } finally {
+            other.close();
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("多线程并发写入")
+    @Timeout(30)
+    void testConcurrentStore(@TempDir Path tempDir) throws Exception {
+        int threadCount = 8;
+        int perThread = 200;
+        RawPageSegmentStore store = new RawPageSegmentStore(tempDir, 64 * 1024);
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        String url = "https://a.com/" + thread + "/" + i;
+                        if (store.store(page(url, url + html(i % 20))) != RawPageStore.STORE_SUCCESS) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(20, TimeUnit.SECONDS));
+
+            assertEquals(0, failures.get());
+            assertEquals(threadCount * perThread, store.getRecordCount());
+            store.flush();
+            for (int t = 0; t < threadCount; t++) {
+                for (int i = 0; i < perThread; i += 17) {
+                    String url = "https://a.com/" + t + "/" + i;
+                    assertEquals(url + html(i % 20), store.read(url).getContent());
+                }
+            }
+        } finally {
+            store.close();
+        }
+
+        RawPageSegmentStore reopened = new RawPageSegmentStore(tempDir, 64 * 1024);
+        try {
+            assertTrue(reopened.contains("https://a.com/0/0"));
+            assertEquals(threadCount * perThread, reopened.getIndexedUrlCount());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    @DisplayName("工厂按配置创建存储")
+    void testFactory(@TempDir Path tempDir) {
+        RawPageStore store = RawPageStoreFactory.createStore(new CrawlerConfig.Builder()
+                .storage("segment", tempDir.toString())
+                .storageSegmentSize(1024 * 1024)
+                .build());
+        assertTrue(store instanceof RawPageSegmentStore);
+        assertEquals(tempDir.resolve("pages"), ((RawPageSegmentStore) store).getDirectory());
+        assertEquals(1024 * 1024, ((RawPageSegmentStore) store).getSegmentSize());
+        assertSame(PageCodecs.DEFLATE, ((RawPageSegmentStore) store).getCodec());
+        store.close();
+
+        assertTrue(RawPageStoreFactory.createStore(new CrawlerConfig.Builder()
+                .storage("file", tempDir.toString()).build()) instanceof RawPageFileStore);
+        assertThrows(IllegalArgumentException.class, () -> RawPageStoreFactory.createStore(
+                new CrawlerConfig.Builder().storage("database", tempDir.toString()).build()));
+        assertTrue(RawPageStoreFactory.generateStoreInstance(
+                FetcherConstant.RAW_PAGE_FILE_STORE) instanceof RawPageFileStore);
+    }
+}
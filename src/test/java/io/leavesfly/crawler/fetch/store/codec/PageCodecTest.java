@@ -0,0 +1,181 @@
+package io.leavesfly.crawler.fetch.store.codec;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 页面压缩编码测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("页面压缩编码测试")
+class PageCodecTest {
+
+    private static final PageCodec[] CODECS = {PageCodecs.NONE, PageCodecs.DEFLATE, PageCodecs.GZIP, PageCodecs.LZ4};
+
+    private static byte[] html(int items) {
+        StringBuilder sb = new StringBuilder("<html><head><meta charset=\"UTF-8\"></head><body><ul class=\"deals\">");
+        for (int i = 0; i < items; i++) {
+            sb.append("<li class=\"deal-item\"><a href=\"/deal/").append(1000 + i).append(".html\">")
+                    .append("美团团购 第").append(i).append("号 双人套餐</a><span class=\"price\">¥")
+                    .append(i * 7 % 300).append("</span></li>");
+        }
+        return sb.append("</ul></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] roundTrip(PageCodec codec, byte[] raw) throws IOException {
+        byte[] compressed = new byte[raw.length + 64];
+        int n = codec.compress(raw, 0, raw.length, compressed, 0, compressed.length);
+        assertTrue(n >= 0, codec.getName() + " 压缩失败");
+        byte[] restored = new byte[raw.length];
+        codec.decompress(compressed, 0, n, restored, 0, raw.length);
+        return restored;
+    }
+
+    @Test
+    @DisplayName("各编码压缩后还原")
+    void testRoundTrip() throws IOException {
+        Random random = new Random(42);
+        byte[] noise = new byte[5000];
+        random.nextBytes(noise);
+        byte[][] inputs = {
+                html(500), html(1), new byte[0], "短".getBytes(StandardCharsets.UTF_8),
+                "0123456789abc".getBytes(StandardCharsets.US_ASCII), noise, new byte[100_000]
+        };
+        for (PageCodec codec : CODECS) {
+            for (byte[] input : inputs) {
+                assertArrayEquals(input, roundTrip(codec, input), codec.getName() + ", 长度 " + input.length);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("重复度高的页面压缩后更小")
+    void testCompressionRatio() {
+        byte[] raw = html(500);
+        for (PageCodec codec : new PageCodec[]{PageCodecs.DEFLATE, PageCodecs.GZIP, PageCodecs.LZ4}) {
+            byte[] out = new byte[raw.length];
+            int n = codec.compress(raw, 0, raw.length, out, 0, out.length);
+            assertTrue(n > 0 && n < raw.length / 3, codec.getName() + " 压缩后 " + n + " / " + raw.length);
+        }
+    }
+
+    @Test
+    @DisplayName("目标空间不足时返回-1")
+    void testOutputTooSmall() {
+        byte[] noise = new byte[4096];
+        new Random(1).nextBytes(noise);
+        for (PageCodec codec : CODECS) {
+            byte[] out = new byte[noise.length - 1];
+            assertEquals(-1, codec.compress(noise, 0, noise.length, out, 0, out.length), codec.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("支持数组偏移")
+    void testOffsets() throws IOException {
+        byte[] raw = html(50);
+        byte[] src = new byte[raw.length + 10];
+        System.arraycopy(raw, 0, src, 7, raw.length);
+        for (PageCodec codec : CODECS) {
+            byte[] compressed = new byte[raw.length + 100];
+            int n = codec.compress(src, 7, raw.length, compressed, 13, compressed.length - 13);
+            byte[] restored = new byte[raw.length + 5];
+            codec.decompress(compressed, 13, n, restored, 5, raw.length);
+            assertArrayEquals(raw, Arrays.copyOfRange(restored, 5, restored.length), codec.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("LZ4块格式兼容")
+    void testLz4BlockFormat() throws IOException {
+        // 字面量"a"，偏移1复制8字节，最后5个字面量
+        byte[] block = {0x14, 'a', 0x01, 0x00, 0x50, 'a', 'a', 'a', 'a', 'a'};
+        byte[] out = new byte[14];
+        PageCodecs.LZ4.decompress(block, 0, block.length, out, 0, out.length);
+        byte[] expected = new byte[14];
+        Arrays.fill(expected, (byte) 'a');
+        assertArrayEquals(expected, out);
+
+        // 长度不符或偏移越界
+        assertThrows(IOException.class, () -> PageCodecs.LZ4.decompress(block, 0, block.length, new byte[15], 0, 15));
+        byte[] badOffset = {0x14, 'a', 0x02, 0x00, 0x50, 'a', 'a', 'a', 'a', 'a'};
+        assertThrows(IOException.class, () -> PageCodecs.LZ4.decompress(badOffset, 0, badOffset.length, out, 0, 14));
+    }
+
+    @Test
+    @DisplayName("gzip输出可由标准gzip流解开")
+    void testGzipInterop() throws IOException {
+        byte[] raw = html(100);
+        byte[] compressed = new byte[raw.length];
+        int n = PageCodecs.GZIP.compress(raw, 0, raw.length, compressed, 0, compressed.length);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed, 0, n))) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(raw, out.toByteArray());
+
+        compressed[n - 5] ^= 1;
+        assertThrows(IOException.class, () ->
+                PageCodecs.GZIP.decompress(compressed, 0, n, new byte[raw.length], 0, raw.length));
+    }
+
+    @Test
+    @DisplayName("按ID和名称查找编码")
+    void testRegistry() {
+        for (PageCodec codec : CODECS) {
+            assertSame(codec, PageCodecs.byId(codec.getId()));
+            assertSame(codec, PageCodecs.byName(codec.getName()));
+        }
+        assertSame(PageCodecs.LZ4, PageCodecs.byName("LZ4"));
+        assertNull(PageCodecs.byId(99));
+        assertThrows(IllegalArgumentException.class, () -> PageCodecs.byName("zstd"));
+        assertThrows(IllegalArgumentException.class, () -> new DeflateCodec(0));
+    }
+
+    @Test
+    @DisplayName("编解码资源池保留的空闲对象有上限，超出的被释放")
+    void testCodecPool() {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger destroyed = new AtomicInteger();
+        CodecPool<Object> pool = new CodecPool<>(2, () -> {
+            created.incrementAndGet();
+            return new Object();
+        }, resource -> destroyed.incrementAndGet());
+
+        List<Object> borrowed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            borrowed.add(pool.borrow());
+        }
+        assertEquals(5, created.get());
+        for (Object resource : borrowed) {
+            pool.release(resource);
+        }
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(3, destroyed.get());
+
+        // 空闲对象被复用
+        Object reused = pool.borrow();
+        assertTrue(borrowed.contains(reused));
+        assertEquals(5, created.get());
+        assertEquals(1, pool.getIdleCount());
+    }
+}
@@ -0,0 +1,195 @@
+package io.leavesfly.crawler.fetch.validator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 校验信息缓存测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("校验信息缓存测试")
+class ValidatorCacheTest {
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    @Test
+    @DisplayName("记录和删除校验信息")
+    void testUpdate() {
+        ValidatorCache cache = new ValidatorCache();
+        cache.update("https://bj.meituan.com/deal/1.html", "\"v1\"", null, 1000);
+        cache.update("https://bj.meituan.com/deal/2.html", null, LAST_MODIFIED, 2000);
+        // 没有校验值的响应不缓存
+        cache.update("https://bj.meituan.com/deal/3.html", null, null, 3000);
+
+        assertEquals(2, cache.size());
+        PageValidators first = cache.get("https://bj.meituan.com/deal/1.html");
+        assertEquals("\"v1\"", first.getEtag());
+        assertNull(first.getLastModified());
+        assertEquals(1000, first.getContentLength());
+        assertEquals(LAST_MODIFIED, cache.get("https://bj.meituan.com/deal/2.html").getLastModified());
+        assertNull(cache.get("https://bj.meituan.com/deal/3.html"));
+
+        // 服务端不再返回校验值时删除
+        cache.update("https://bj.meituan.com/deal/1.html", null, null, 1000);
+        assertNull(cache.get("https://bj.meituan.com/deal/1.html"));
+        assertEquals(1, cache.size());
+        cache.close();
+    }
+
+    @Test
+    @DisplayName("重新打开后恢复校验信息")
+    void testReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("validators.dat");
+        ValidatorCache cache = ValidatorCache.open(file);
+        cache.update("https://bj.meituan.com/deal/1.html", "\"v1\"", LAST_MODIFIED, 1000);
+        cache.update("https://bj.meituan.com/deal/1.html", "\"v2\"", LAST_MODIFIED, 1200);
+        cache.update("https://bj.meituan.com/deal/2.html", "\"v1\"", null, 2000);
+        cache.update("https://bj.meituan.com/deal/2.html", null, null, 0);
+        cache.update("https://bj.meituan.com/deal/3.html", "W/\"美团\"", null, 3000);
+        cache.close();
+
+        ValidatorCache reopened = ValidatorCache.open(file);
+        assertEquals(2, reopened.size());
+        PageValidators first = reopened.get("https://bj.meituan.com/deal/1.html");
+        assertEquals("\"v2\"", first.getEtag());
+        assertEquals(LAST_MODIFIED, first.getLastModified());
+        assertEquals(1200, first.getContentLength());
+        assertNull(reopened.get("https://bj.meituan.com/deal/2.html"));
+        assertEquals("W/\"美团\"", reopened.get("https://bj.meituan.com/deal/3.html").getEtag());
+
+        // 追加在已有记录之后
+        reopened.update("https://bj.meituan.com/deal/4.html", "\"v1\"", null, 4000);
+        reopened.close();
+        ValidatorCache third = ValidatorCache.open(file);
+        assertEquals(3, third.size());
+        third.close();
+    }
+
+    @Test
+    @DisplayName("同一URL并发更新后重新打开与内存中的值一致")
+    void testConcurrentUpdate(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("validators.dat");
+        String url = "https://bj.meituan.com/deal/1.html";
+        ValidatorCache cache = ValidatorCache.open(file);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    cache.update(url, "\"" + thread + "-" + i + "\"", null, i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        String etag = cache.get(url).getEtag();
+        cache.close();
+
+        ValidatorCache reopened = ValidatorCache.open(file);
+        try {
+            assertEquals(etag, reopened.get(url).getEtag());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    @DisplayName("忽略不完整的最后一条记录")
+    void testTruncatedTail(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("validators.dat");
+        ValidatorCache cache = ValidatorCache.open(file);
+        cache.update("https://bj.meituan.com/deal/1.html", "\"v1\"", null, 1000);
+        cache.update("https://bj.meituan.com/deal/2.html", "\"v1\"", null, 2000);
+        cache.close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        ValidatorCache reopened = ValidatorCache.open(file);
+        assertEquals(1, reopened.size());
+        assertNull(reopened.get("https://bj.meituan.com/deal/2.html"));
+        reopened.update("https://bj.meituan.com/deal/3.html", "\"v1\"", null, 3000);
+        reopened.close();
+
+        ValidatorCache third = ValidatorCache.open(file);
+        assertEquals(2, third.size());
+        assertNotNull(third.get("https://bj.meituan.com/deal/3.html"));
+        third.close();
+    }
+
+    @Test
+    @DisplayName("文件同时只能由一个实例打开")
+    void testExclusiveOpen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("validators.dat");
+        ValidatorCache cache = ValidatorCache.open(file);
+        assertThrows(IOException.class, () -> ValidatorCache.open(file));
+        cache.close();
+        ValidatorCache.open(file).close();
+
+        Path other = dir.resolve("other.dat");
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> ValidatorCache.open(other));
+    }
+
+    @Test
+    @DisplayName("过期记录过多时压缩日志")
+    void testCompaction(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("validators.dat");
+        ValidatorCache cache = ValidatorCache.open(file);
+        for (int version = 0; version < 5; version++) {
+            for (int i = 0; i < 500; i++) {
+                cache.update("https://bj.meituan.com/deal/" + i + ".html", "\"v" + version + "\"", null, 1000);
+            }
+        }
+        cache.close();
+        long before = Files.size(file);
+
+        ValidatorCache reopened = ValidatorCache.open(file);
+        assertEquals(500, reopened.size());
+        assertTrue(Files.size(file) < before / 3);
+        assertEquals("\"v4\"", reopened.get("https://bj.meituan.com/deal/7.html").getEtag());
+        reopened.update("https://bj.meituan.com/deal/500.html", "\"v0\"", null, 1000);
+        reopened.close();
+
+        ValidatorCache third = ValidatorCache.open(file);
+        assertEquals(501, third.size());
+        third.close();
+    }
+
+    @Test
+    @DisplayName("统计节省的流量和时间")
+    void testStats() {
+        ValidatorCache cache = new ValidatorCache();
+        cache.update("https://bj.meituan.com/deal/1.html", "\"v1\"", null, 1000);
+        cache.recordFullFetch(10_000_000L);
+
+        PageValidators validators = cache.get("https://bj.meituan.com/deal/1.html");
+        cache.recordConditionalRequest();
+        cache.recordNotModified(validators, 2_000_000L);
+        cache.recordConditionalRequest();
+        cache.recordFullFetch(10_000_000L);
+
+        ValidatorCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getCachedUrls());
+        assertEquals(2, stats.getConditionalRequests());
+        assertEquals(1, stats.getNotModified());
+        assertEquals(1000, stats.getSavedBytes());
+        assertEquals(0.5, stats.getHitRate(), 1e-9);
+        assertEquals(10.0, stats.getAverageFullFetchMillis(), 1e-9);
+        assertEquals(2.0, stats.getAverageNotModifiedMillis(), 1e-9);
+        assertEquals(8.0, stats.getSavedMillis(), 1e-9);
+    }
+}
@@ -0,0 +1,170 @@
+package io.leavesfly.crawler.parse.link;
+
+import io.leavesfly.crawler.domain.RawPage;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 流式链接提取器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("流式链接提取器测试")
+class LinkExtractorTest {
+
+    private static final String PAGE_URL = "https://bj.meituan.com/category/food/page1?sort=hot";
+
+    private static final String HTML = "<!DOCTYPE html><html><head><title>美食 <a href=\"/shop/0\"></title>"
+            + "<style>a[href='/shop/style'] { color: red }</style></head><body>"
+            + "<!-- <a href=\"/shop/comment\">注释</a> -->"
+            + "<A HREF=\"/shop/1\">大写</A>"
+            + "<a href='shop/2' href=\"/shop/ignored\">相对路径</a>"
+            + "<a href=/shop/3?a=1&amp;b=2>不带引号</a>"
+            + "<a class=\"btn next\" href=\"?page=2\">下一页</a>"
+            + "<a class=\"nextpage\" href=\"/other/1\">类名不完全匹配</a>"
+            + "<a title=\"去下一页\" href=\"//www.meituan.com/other/2\">协议相对</a>"
+            + "<a href=\"javascript:void(0)\" title=\"下一页\">脚本</a>"
+            + "<a href=\"mailto:a@meituan.com\" title=\"下一页\">邮件</a>"
+            + "<a name=\"top\">没有链接</a><a href=\"\" class=\"next\">空链接</a>"
+            + "<img src=\"/shop/img.jpg\" alt=\"<a href='/shop/alt'>\">"
+            + "<script type=\"text/javascript\">var s = '<a href=\"/shop/script\">';</script>"
+            + "<textarea><a href=\"/shop/textarea\"></textarea>"
+            + "<a href=\" /shop/4 \">前后空白</a><a href=\"../category/drink\">上级目录</a>"
+            + "</body></html>";
+
+    private static LinkExtractor meiTuanExtractor() {
+        return LinkExtractor.builder()
+                .include("/shop/")
+                .include("/category/")
+                .withClass("next")
+                .attributeContains("title", "下一页")
+                .build();
+    }
+
+    private static List<String> extract(LinkExtractor extractor, String html, String pageUrl) {
+        List<String> urls = new ArrayList<>();
+        extractor.extract(html, pageUrl, urls::add);
+        return urls;
+    }
+
+    @Test
+    @DisplayName("按规则提取并解析为绝对URL")
+    void testExtract() {
+        List<String> urls = extract(meiTuanExtractor(), HTML, PAGE_URL);
+        assertEquals(Arrays.asList(
+                "https://bj.meituan.com/shop/1",
+                "https://bj.meituan.com/category/food/shop/2",
+                "https://bj.meituan.com/shop/3?a=1&b=2",
+                "https://bj.meituan.com/category/food/page1?page=2",
+                "https://www.meituan.com/other/2",
+                "https://bj.meituan.com/shop/4",
+                "https://bj.meituan.com/category/category/drink"), urls);
+    }
+
+    @Test
+    @DisplayName("与jsoup文档树提取的结果一致")
+    void testSameAsJsoup() {
+        Document document = Jsoup.parse(HTML, PAGE_URL);
+        List<String> expected = new ArrayList<>();
+        for (Element link : document.select("a[href]")) {
+            String url = link.absUrl("href");
+            if (!link.attr("href").trim().isEmpty() && url.startsWith("http")
+                    && (url.contains("/shop/") || url.contains("/category/")
+                    || link.hasClass("next") || link.attr("title").contains("下一页"))) {
+                expected.add(url);
+            }
+        }
+        assertEquals(expected, extract(meiTuanExtractor(), HTML, PAGE_URL));
+    }
+
+    @Test
+    @DisplayName("没有规则时提取全部链接")
+    void testNoRules() {
+        List<String> urls = extract(LinkExtractor.builder().build(), HTML, PAGE_URL);
+        assertEquals(8, urls.size());
+        assertTrue(urls.contains("https://bj.meituan.com/other/1"));
+        assertFalse(urls.stream().anyMatch(url -> url.contains("comment") || url.contains("script")
+                || url.contains("style") || url.contains("textarea") || url.contains("alt")
+                || url.contains("ignored") || url.contains("img")));
+    }
+
+    @Test
+    @DisplayName("按base标签解析相对链接")
+    void testBaseHref() {
+        String html = "<html><head><base href=\"/deals/\"><base href=\"https://other.com/\"></head>"
+                + "<body><a href=\"1.html\">团购</a><a href=\"https://sh.meituan.com/2.html\">绝对</a></body></html>";
+        assertEquals(Arrays.asList("https://bj.meituan.com/deals/1.html", "https://sh.meituan.com/2.html"),
+                extract(LinkExtractor.builder().build(), html, PAGE_URL));
+
+        // 没有页面URL时只能使用绝对链接
+        assertEquals(Collections.singletonList("https://sh.meituan.com/2.html"),
+                extract(LinkExtractor.builder().build(), html.replace("/deals/", "deals/"), null));
+    }
+
+    @Test
+    @DisplayName("提取含有标记的内嵌脚本")
+    void testScriptMarker() {
+        String html = "<script>var a = 1;</script><SCRIPT>window.AppData = {\"deals\":\"1,2,3\"};</SCRIPT>"
+                + "<script>var b = '</scripts>'; \"deals\":\"4\"</script ><a href=\"/shop/1\">店铺</a><script>";
+        List<String> scripts = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        LinkExtractor extractor = LinkExtractor.builder().include("/shop/").scriptContaining("\"deals\":\"").build();
+        extractor.extract(html, PAGE_URL, new LinkHandler() {
+            @Override
+            public void onLink(String url) {
+                urls.add(url);
+            }
+
+            @Override
+            public void onScript(String script) {
+                scripts.add(script);
+            }
+        });
+        assertEquals(Arrays.asList("window.AppData = {\"deals\":\"1,2,3\"};",
+                "var b = '</scripts>'; \"deals\":\"4\""), scripts);
+        assertEquals(Collections.singletonList("https://bj.meituan.com/shop/1"), urls);
+    }
+
+    @Test
+    @DisplayName("从原始字节创建的页面提取")
+    void testRawPage() {
+        LinkExtractor extractor = meiTuanExtractor();
+        // 全是ASCII的页面直接扫描字节视图
+        String ascii = "<html><body><a href=\"/shop/1\">shop</a><a href=\"/category/2\">c</a></body></html>";
+        RawPage asciiPage = RawPage.fromBytes(PAGE_URL, ascii.getBytes(StandardCharsets.US_ASCII), null);
+        assertEquals(Arrays.asList("https://bj.meituan.com/shop/1", "https://bj.meituan.com/category/2"),
+                extractor.extract(asciiPage));
+        assertFalse(asciiPage.getContentView() instanceof String);
+
+        String gbk = "<html><head><meta charset=\"GBK\"></head><body><a title=\"下一页\" href=\"/p2\">下一页</a></body></html>";
+        RawPage gbkPage = RawPage.fromBytes(PAGE_URL, gbk.getBytes(Charset.forName("GBK")), null);
+        assertEquals(Collections.singletonList("https://bj.meituan.com/p2"), extractor.extract(gbkPage));
+
+        assertTrue(extractor.extract(new RawPage(PAGE_URL, "UTF-8", null)).isEmpty());
+        assertTrue(extractor.extract((RawPage) null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("不完整的页面")
+    void testTruncated() {
+        LinkExtractor extractor = LinkExtractor.builder().build();
+        assertEquals(Collections.singletonList("https://bj.meituan.com/shop/1"),
+                extract(extractor, "<a href=\"/shop/1\">店铺</a><a href=\"/shop/2", PAGE_URL));
+        assertTrue(extract(extractor, "<!-- <a href=\"/shop/1\">", PAGE_URL).isEmpty());
+        assertTrue(extract(extractor, "<a href", PAGE_URL).isEmpty());
+        assertTrue(extract(extractor, "<", PAGE_URL).isEmpty());
+        assertTrue(extract(extractor, "", PAGE_URL).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> LinkExtractor.builder().attributeContains("title", ""));
+    }
+}
@@ -0,0 +1,45 @@
+package io.leavesfly.crawler.parse.meituan.page;
+
+import io.leavesfly.crawler.constant.ParseConstant;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 美团列表页URL过滤器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("美团列表页URL过滤器测试")
+class MeiTuanListPageURLFilterTest {
+
+    private static final String LIST_PAGE = "<html><head><script>var data = {\"deals\":\"101,102\"};</script>"
+            + "<script>var other = 1;</script></head><body>"
+            + "<a href=\"/index/default/page2\">下一页</a><a href=\"/deal/1.html\">团购</a></body></html>";
+
+    @Test
+    @DisplayName("从共用的文档树提取详情页和下一页链接")
+    void testFilterURLFromDocument() {
+        String url = "http://hz.meituan.com/index/default/page1";
+        RawPage rawPage = RawPage.fromBytes(url, LIST_PAGE.getBytes(StandardCharsets.UTF_8), "UTF-8");
+        CrawlContext context = new CrawlContext(url);
+        context.setRawPage(rawPage);
+
+        MeiTuanListPageURLFilter filter = MeiTuanListPageURLFilter.getInstance();
+        assertSame(filter, MeiTuanListPageURLFilter.getInstance());
+
+        List<String> expected = Arrays.asList(
+                ParseConstant.HTTP_PROTOCOL + "hz" + ParseConstant.MEI_TUAN_DETAIL_PAGE_URL_MODE + "101.htm",
+                ParseConstant.HTTP_PROTOCOL + "hz" + ParseConstant.MEI_TUAN_DETAIL_PAGE_URL_MODE + "102.htm",
+                ParseConstant.MEI_TUAN_URL + "/index/default/page2");
+        assertEquals(expected, filter.filterURLFromDocument(rawPage, context.getDocument()));
+        // 按页面文本提取时结果相同
+        assertEquals(expected, filter.filterURLFromPageText(rawPage));
+    }
+}
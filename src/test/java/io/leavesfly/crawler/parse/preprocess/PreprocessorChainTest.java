@@ -0,0 +1,85 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 预处理步骤链测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("预处理步骤链测试")
+class PreprocessorChainTest {
+
+    private static final String HTML = "<html>\n  <head><style>.a { }</style></head>\n\n"
+            + "  <body><script>\nvar x;\n</script>  <h1>团购</h1> <!-- 注释 --> </body>\n</html>";
+
+    @Test
+    @DisplayName("按顺序组合步骤")
+    void testChain() {
+        PreprocessorChain chain = PreprocessorChain.of(new TagBlockStripper(true, "script", "style"))
+                .then(new WhitespaceCollapser());
+        assertEquals("<html>\n<head></head>\n<body> <h1>团购</h1> </body>\n</html>", chain.apply(HTML));
+        // 重复使用缓冲区，结果不受上一次的影响
+        assertEquals("<p>a</p>", chain.apply("<p>a</p>"));
+
+        // 三个步骤时中间结果在两个缓冲区之间交替
+        ContentPreprocessor upperCase = (input, out) -> out.append(input.toString().toUpperCase());
+        PreprocessorChain three = chain.then(upperCase);
+        assertEquals("<HTML>\n<HEAD></HEAD>\n<BODY> <H1>团购</H1> </BODY>\n</HTML>", three.apply(HTML));
+        // 追加步骤不影响原来的链
+        assertEquals("<p>a</p>", chain.apply("<p>a</p>"));
+    }
+
+    @Test
+    @DisplayName("空链和空内容")
+    void testEmpty() {
+        assertEquals(HTML, PreprocessorChain.of().apply(HTML));
+        assertNull(PreprocessorChain.of(new WhitespaceCollapser()).apply(null));
+        assertEquals("", PreprocessorChain.of(new WhitespaceCollapser()).apply(""));
+        assertThrows(IllegalArgumentException.class, () -> PreprocessorChain.of(new WhitespaceCollapser(), null));
+    }
+
+    @Test
+    @DisplayName("链可以嵌套")
+    void testNested() {
+        PreprocessorChain inner = PreprocessorChain.of(new TagBlockStripper("script"), new WhitespaceCollapser());
+        PreprocessorChain outer = PreprocessorChain.of(new TagBlockStripper("style"), inner, new WhitespaceCollapser());
+        assertEquals("<html>\n<head></head>\n<body> <h1>团购</h1> <!-- 注释 --> </body>\n</html>", outer.apply(HTML));
+    }
+
+    @Test
+    @DisplayName("多线程共用同一个链")
+    void testConcurrent() throws Exception {
+        PreprocessorChain chain = PreprocessorChain.of(new TagBlockStripper("script"), new WhitespaceCollapser());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final String text = String.join("", Collections.nCopies(100 + t, "<p>" + t + "</p> <script>x</script>"));
+                final String expected = String.join(" ", Collections.nCopies(100 + t, "<p>" + t + "</p>")) + " ";
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (!expected.equals(chain.apply(text))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.leavesfly.crawler.parse.preprocess;
+
+import io.leavesfly.crawler.domain.RawPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 元素删除预处理测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("元素删除预处理测试")
+class TagBlockStripperTest {
+
+    private static String strip(ContentPreprocessor stripper, CharSequence input) {
+        StringBuilder out = new StringBuilder();
+        stripper.process(input, out);
+        return out.toString();
+    }
+
+    @Test
+    @DisplayName("删除脚本和样式")
+    void testStrip() {
+        TagBlockStripper stripper = new TagBlockStripper("script", "style");
+        assertEquals("<p>a</p><p>b</p>",
+                strip(stripper, "<p>a</p><script type=\"text/javascript\">var x = 1;</script><p>b</p>"));
+        // 跨行内容和大小写
+        assertEquals("<head></head>", strip(stripper, "<head><Style>\n.a{}\n</STYLE >\n<SCRIPT>\nx()\n</script></head>")
+                .replace("\n", ""));
+        // 标签名必须完整匹配
+        assertEquals("<scripts>x</scripts><styles/>", strip(stripper, "<scripts>x</scripts><styles/>"));
+        // 脚本中的其他结束标签和相似的标签名
+        assertEquals("ab", strip(stripper, "a<script>document.write('</div></scripts>');</script>b"));
+        // 属性值中的'>'
+        assertEquals("ab", strip(stripper, "a<script data-x=\"1>2\">y</script>b"));
+        // 没有需要删除的内容
+        assertEquals("<p>1 < 2</p>", strip(stripper, "<p>1 < 2</p>"));
+        assertEquals("", strip(stripper, ""));
+    }
+
+    @Test
+    @DisplayName("不完整的元素")
+    void testUnterminated() {
+        TagBlockStripper stripper = new TagBlockStripper("script");
+        // 缺少结束标签时删除到末尾
+        assertEquals("<p>a</p>", strip(stripper, "<p>a</p><script>var x = '<p>b</p>';"));
+        assertEquals("a", strip(stripper, "a<script>x</script"));
+        // 开始标签不完整时同样删除到末尾
+        assertEquals("a", strip(stripper, "a<script src=\"x"));
+        assertEquals("a", strip(stripper, "a<script"));
+        assertEquals("a", strip(stripper, "a<script src=\"x><p>b</p><script>y</script>"));
+    }
+
+    @Test
+    @DisplayName("删除注释")
+    void testComments() {
+        assertEquals("ab", strip(new TagBlockStripper(true, "script"), "a<!-- <script>x</script> -->b"));
+        assertEquals("a", strip(new TagBlockStripper(true), "a<!-- 未结束"));
+        assertEquals("a<!-- c -->b", strip(new TagBlockStripper("script"), "a<!-- c -->b"));
+        assertThrows(IllegalArgumentException.class, () -> new TagBlockStripper("script", ""));
+    }
+
+    @Test
+    @DisplayName("处理字节视图")
+    void testContentView() {
+        String html = "<html><script>\nvar a = 1;\n</script><body>ok</body></html>";
+        RawPage rawPage = RawPage.fromBytes("https://bj.meituan.com/", html.getBytes(StandardCharsets.US_ASCII), null);
+        CharSequence view = rawPage.getContentView();
+        assertFalse(view instanceof String);
+        assertEquals("<html><body>ok</body></html>", strip(new TagBlockStripper("script"), view));
+    }
+
+    @Test
+    @DisplayName("合并连续空白")
+    void testWhitespaceCollapser() {
+        WhitespaceCollapser collapser = new WhitespaceCollapser();
+        assertEquals("a b\nc d", strip(collapser, "a  \t b \r\n\n  c d"));
+        assertEquals(" a ", strip(collapser, "   a   "));
+        assertEquals("a b", strip(collapser, "a b"));
+    }
+}
@@ -0,0 +1,172 @@
+package io.leavesfly.crawler.parse.rule;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 页面提取规则测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("页面提取规则测试")
+class ExtractionRulesTest {
+
+    private static final String RULES = "shop:\n"
+            + "  shopName: \"h1.shop-name, .poi-name\"\n"
+            + "  rating: \".rating-num, .shop-star\"\n"
+            + "  phone: \".phone\"\n"
+            + "  logo:\n"
+            + "    selector: \"img.logo\"\n"
+            + "    attr: \"abs:src\"\n"
+            + "  tags:\n"
+            + "    selector: \".tags > span\"\n"
+            + "    multiple: true\n"
+            + "  deals:\n"
+            + "    selector: \".deal\"\n"
+            + "    multiple: true\n"
+            + "    fields:\n"
+            + "      title: \".title\"\n"
+            + "      price: \"span.price\"\n"
+            + "      link:\n"
+            + "        selector: \"a\"\n"
+            + "        attr: \"href\"\n"
+            + "  owner:\n"
+            + "    selector: \"#owner\"\n"
+            + "    fields:\n"
+            + "      name: \".name\"\n"
+            + "general:\n"
+            + "  title: \"title\"\n";
+
+    private static final String HTML = "<html><head><title>烤鸭店 - 美团</title></head><body>"
+            + "<div class=\"poi-name\">第一个匹配</div><h1 class=\"shop-name\"> 全聚德 </h1>"
+            + "<span class=\"shop-star\">4.5</span><span class=\"rating-num\">4.8</span>"
+            + "<img class=\"logo\" src=\"/img/logo.png\">"
+            + "<div class=\"tags\"><span>烤鸭</span><span>老字号</span><b><span>不是直接子元素</span></b></div>"
+            + "<ul><li class=\"deal\"><a href=\"/deal/1.html\"><span class=\"title\">双人餐</span></a>"
+            + "<span class=\"price\">198</span></li>"
+            + "<li class=\"deal\"><span class=\"title\">四人餐</span>"
+            + "<div class=\"deal\"><span class=\"title\">嵌套条目</span></div></li>"
+            + "<li class=\"deal\">没有字段</li>"
+            + "<a class=\"deal title\" href=\"/deal/3.html\">条目本身匹配子字段</a></ul>"
+            + "<div id=\"owner\"><span class=\"name\">张三</span></div>"
+            + "<span class=\"title\">条目之外</span>"
+            + "</body></html>";
+
+    private static Document document() {
+        return Jsoup.parse(HTML, "https://bj.meituan.com/shop/1");
+    }
+
+    @Test
+    @DisplayName("一次遍历提取全部字段")
+    @SuppressWarnings("unchecked")
+    void testExtract() {
+        ExtractionRules rules = ExtractionRules.parse(RULES);
+        assertEquals(Arrays.asList("shop", "general"), new ArrayList<>(rules.getPageTypes()));
+        ExtractionPlan plan = rules.getPlan("shop");
+        assertEquals(Arrays.asList("shopName", "rating", "phone", "logo", "tags", "deals", "owner"), plan.getFieldNames());
+
+        Map<String, Object> data = plan.extract(document());
+        assertEquals("第一个匹配", data.get("shopName"));
+        assertEquals("4.5", data.get("rating"));
+        assertFalse(data.containsKey("phone"));
+        assertEquals("https://bj.meituan.com/img/logo.png", data.get("logo"));
+        assertEquals(Arrays.asList("烤鸭", "老字号"), data.get("tags"));
+
+        List<Map<String, Object>> deals = (List<Map<String, Object>>) data.get("deals");
+        assertEquals(4, deals.size());
+        assertEquals(map("title", "双人餐", "price", "198", "link", "/deal/1.html"), deals.get(0));
+        assertEquals(map("title", "四人餐"), deals.get(1));
+        assertEquals(map("title", "嵌套条目"), deals.get(2));
+        assertEquals(map("title", "条目本身匹配子字段", "link", "/deal/3.html"), deals.get(3));
+        assertEquals(map("name", "张三"), data.get("owner"));
+
+        assertEquals(Collections.singletonMap("title", "烤鸭店 - 美团"), rules.getPlan("general").extract(document()));
+        assertNull(rules.getPlan("category"));
+    }
+
+    @Test
+    @DisplayName("与逐个选择器查询的结果一致")
+    @SuppressWarnings("unchecked")
+    void testSameAsSelect() {
+        Document document = document();
+        Map<String, Object> data = ExtractionRules.parse(RULES).getPlan("shop").extract(document);
+
+        assertEquals(document.selectFirst("h1.shop-name, .poi-name").text().trim(), data.get("shopName"));
+        assertEquals(document.selectFirst(".rating-num, .shop-star").text().trim(), data.get("rating"));
+        assertEquals(document.select(".tags > span").eachText(), data.get("tags"));
+        List<Map<String, Object>> deals = (List<Map<String, Object>>) data.get("deals");
+        List<String> titles = new ArrayList<>();
+        for (Element deal : document.select(".deal")) {
+            Element title = deal.selectFirst(".title");
+            if (title != null) {
+                titles.add(title.text().trim());
+            }
+        }
+        List<Object> extracted = new ArrayList<>();
+        for (Map<String, Object> deal : deals) {
+            extracted.add(deal.get("title"));
+        }
+        assertEquals(titles, extracted);
+    }
+
+    @Test
+    @DisplayName("只在元素范围内提取")
+    void testExtractFromElement() {
+        Element deal = document().selectFirst(".deal");
+        Map<String, Object> data = ExtractionRules.parse(RULES).getPlan("shop").extract(deal);
+        assertFalse(data.containsKey("shopName"));
+        assertTrue(((List<?>) data.get("tags")).isEmpty());
+        assertEquals(1, ((List<?>) data.get("deals")).size());
+    }
+
+    @Test
+    @DisplayName("从类路径加载美团规则")
+    void testMeiTuanRules() throws IOException {
+        ExtractionRules rules = ExtractionRules.fromResource("extraction/meituan.yml");
+        assertEquals(Arrays.asList("shop", "category", "general"), new ArrayList<>(rules.getPageTypes()));
+
+        byte[] yaml = "page:\n  name: \".name\"\n".getBytes(StandardCharsets.UTF_8);
+        assertNotNull(ExtractionRules.load(new ByteArrayInputStream(yaml)).getPlan("page"));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.fromResource("extraction/missing.yml"));
+    }
+
+    @Test
+    @DisplayName("无效的规则")
+    void testInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("- shop"));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop: \"h1\""));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop:\n  name: 3"));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop:\n  name: \"h1[\""));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop:\n  name: \"\""));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop:\n  name:\n    attr: \"href\""));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExtractionRules.parse("shop:\n  name:\n    selector: \"a\"\n    multple: true"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExtractionRules.parse("shop:\n  name:\n    selector: \"a\"\n    multiple: \"yes\""));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExtractionRules.parse("shop:\n  name:\n    selector: \"a\"\n    attr: \"href\"\n    fields:\n      x: \"b\""));
+        assertThrows(IllegalArgumentException.class, () -> ExtractionRules.parse("shop:\n  name: [\"h1\""));
+    }
+
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
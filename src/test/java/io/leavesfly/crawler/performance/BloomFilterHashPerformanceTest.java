@@ -0,0 +1,90 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.schedule.BloomFilter;
+import io.leavesfly.crawler.schedule.BloomHashScheme;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 布隆过滤器哈希方案性能对比
+ * 对比MD5与MurmurHash3双重哈希在单线程添加和多线程查询下的吞吐量
+ * 
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("布隆过滤器哈希性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class BloomFilterHashPerformanceTest {
+    
+    private static final int ELEMENTS = 500_000;
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+    
+    @Test
+    @DisplayName("MD5与MurmurHash3吞吐量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testHashSchemeThroughput() throws InterruptedException {
+        String[] urls = new String[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            urls[i] = "https://bj.meituan.com/deal/" + i + ".html?utm_source=list&page=" + (i % 50);
+        }
+        
+        for (BloomHashScheme scheme : BloomHashScheme.values()) {
+            BloomFilter<String> filter = new BloomFilter<>(0.001, ELEMENTS, scheme);
+            
+            // 预热
+            for (int i = 0; i < 50_000; i++) {
+                filter.contains(urls[i]);
+            }
+            
+            long start = System.nanoTime();
+            for (String url : urls) {
+                filter.add(url);
+            }
+            double addRate = ELEMENTS / ((System.nanoTime() - start) / 1_000_000.0);
+            System.out.println(String.format("%-12s add: %10.1f ops/ms", scheme, addRate));
+            
+            for (int threads : THREAD_COUNTS) {
+                double containsRate = measureContains(filter, urls, threads);
+                System.out.println(String.format("%-12s contains(%2d threads): %10.1f ops/ms",
+                        scheme, threads, containsRate));
+            }
+            
+            for (String url : urls) {
+                assertTrue(filter.contains(url));
+            }
+        }
+    }
+    
+    private double measureContains(BloomFilter<String> filter, String[] urls, int threads)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (String url : urls) {
+                        filter.contains(url);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) threads * urls.length / ((System.nanoTime() - begin) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,92 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.fetch.BoundedBodyReader;
+import io.leavesfly.crawler.fetch.buffer.ByteBufferPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓冲区池性能测试
+ * 对比长度未知的响应体在使用缓冲区池和不保留缓冲区时，每个页面在当前线程上分配的字节数和吞吐量。
+ * 分配字节数来自HotSpot的线程分配计数器，不依赖JMH或JFR
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("缓冲区池性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class BufferPoolPerformanceTest {
+
+    private static final int PAGE_COUNT = 20000;
+    private static final int MAX_PAGE_SIZE = 1024 * 1024;
+
+    @Test
+    @DisplayName("读取路径每页分配字节数对比")
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void testAllocationPerPage() throws IOException {
+        byte[][] pages = generatePages(200);
+
+        ByteBufferPool pooled = new ByteBufferPool(false, ByteBufferPool.DEFAULT_MAX_RETAINED_BYTES);
+        ByteBufferPool unpooled = new ByteBufferPool(false, 0);
+
+        // 预热
+        run(pages, pooled, 2000);
+        run(pages, unpooled, 2000);
+
+        long[] unpooledResult = run(pages, unpooled, PAGE_COUNT);
+        long[] pooledResult = run(pages, pooled, PAGE_COUNT);
+
+        System.out.printf("不保留缓冲区: 每页分配 %d 字节, 耗时 %d ms%n",
+                unpooledResult[0] / PAGE_COUNT, unpooledResult[1]);
+        System.out.printf("缓冲区池: 每页分配 %d 字节, 耗时 %d ms, %s%n",
+                pooledResult[0] / PAGE_COUNT, pooledResult[1], pooled.getStats());
+
+        assertTrue(pooledResult[0] < unpooledResult[0], "缓冲区池应减少分配");
+        assertTrue(pooled.getStats().getHitRate() > 0.9);
+    }
+
+    /**
+     * @return [当前线程分配的字节数, 耗时毫秒]
+     */
+    private long[] run(byte[][] pages, ByteBufferPool pool, int count) throws IOException {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long checksum = 0;
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            InputStream in = new ByteArrayInputStream(pages[i % pages.length]);
+            // 长度未知，模拟分块传输
+            byte[] body = BoundedBodyReader.read(in, -1, MAX_PAGE_SIZE, pool);
+            checksum += body.length;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertTrue(checksum > 0);
+        return new long[]{allocated, elapsedMillis};
+    }
+
+    private static byte[][] generatePages(int count) {
+        Random random = new Random(42);
+        byte[][] pages = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            // 20KB - 200KB，与常见列表页、详情页大小相当
+            pages[i] = new byte[20 * 1024 + random.nextInt(180 * 1024)];
+            random.nextBytes(pages[i]);
+        }
+        return pages;
+    }
+}
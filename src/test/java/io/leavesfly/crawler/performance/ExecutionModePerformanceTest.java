@@ -0,0 +1,171 @@
+package io.leavesfly.crawler.performance;
+
+import com.sun.net.httpserver.HttpServer;
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import io.leavesfly.crawler.core.WorkerExecutors;
+import io.leavesfly.crawler.fetch.Fetcher;
+import io.leavesfly.crawler.fetch.FetcherFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 执行模式性能对比测试
+ * 本地桩服务器模拟固定响应延迟，对比平台线程池与虚拟线程在相同并发请求数下的
+ * 吞吐量、线程数和每个进行中请求的堆占用。JVM不支持虚拟线程时只测平台线程池
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("执行模式性能对比测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class ExecutionModePerformanceTest {
+
+    private static final int RESPONSE_DELAY_MS = 50;
+    private static final int REQUEST_COUNT = 2000;
+    private static final int IN_FLIGHT = 200;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    private Fetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        byte[] body = "<html><body>stub</body></html>".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(RESPONSE_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        // 桩服务器只有一个主机，每主机连接数放开到并发请求数
+        fetcher = FetcherFactory.createFetcher(new CrawlerConfig.Builder()
+                .maxConnections(IN_FLIGHT)
+                .maxRequestsPerHost(IN_FLIGHT)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("平台线程池与虚拟线程吞吐量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testCompareExecutionModes() throws InterruptedException {
+        // 预热连接池和JIT
+        run(WorkerExecutors.newPlatformThreadPool(IN_FLIGHT), 200);
+
+        Result platform = run(WorkerExecutors.newPlatformThreadPool(IN_FLIGHT), REQUEST_COUNT);
+        System.out.println("平台线程池: " + platform);
+        assertEquals(REQUEST_COUNT, platform.succeeded);
+
+        if (!WorkerExecutors.isVirtualThreadSupported()) {
+            System.out.println("当前JVM(" + System.getProperty("java.version") + ")不支持虚拟线程，跳过对比");
+            return;
+        }
+        Result virtual = run(WorkerExecutors.newVirtualThreadPerTaskExecutor(), REQUEST_COUNT);
+        System.out.println("虚拟线程: " + virtual);
+        assertEquals(REQUEST_COUNT, virtual.succeeded);
+        assertTrue(virtual.peakPlatformThreads <= platform.peakPlatformThreads,
+                "虚拟线程模式不应创建更多平台线程");
+    }
+
+    /**
+     * 以固定的进行中请求数发出请求，与引擎虚拟线程模式的分发方式一致
+     */
+    private Result run(ExecutorService executor, int requests) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        int threadsBefore = threads.getThreadCount();
+
+        Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger succeeded = new AtomicInteger();
+        int peakThreads = threadsBefore;
+        long peakHeap = heapBefore;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            String url = baseUrl + "/page/" + i;
+            executor.submit(() -> {
+                try {
+                    if (fetcher.downloadPage(url) != null) {
+                        succeeded.incrementAndGet();
+                    }
+                } finally {
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+            if (i % 100 == 0) {
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+                peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+            }
+        }
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        return new Result(succeeded.get(), elapsedNanos, peakThreads - threadsBefore,
+                (peakHeap - heapBefore) / IN_FLIGHT);
+    }
+
+    private static final class Result {
+        private final int succeeded;
+        private final long elapsedNanos;
+        private final int peakPlatformThreads;
+        private final long heapBytesPerRequest;
+
+        private Result(int succeeded, long elapsedNanos, int peakPlatformThreads, long heapBytesPerRequest) {
+            this.succeeded = succeeded;
+            this.elapsedNanos = elapsedNanos;
+            this.peakPlatformThreads = peakPlatformThreads;
+            this.heapBytesPerRequest = heapBytesPerRequest;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("成功 %d, 耗时 %.2fs, 吞吐量 %.1f 页/秒, 新增线程 %d, 每个进行中请求堆占用约 %d 字节",
+                    succeeded, seconds, succeeded / seconds, peakPlatformThreads, heapBytesPerRequest);
+        }
+    }
+}
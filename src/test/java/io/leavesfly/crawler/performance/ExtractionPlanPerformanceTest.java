@@ -0,0 +1,139 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.parse.DocumentParser;
+import io.leavesfly.crawler.parse.rule.ExtractionPlan;
+import io.leavesfly.crawler.parse.rule.ExtractionRules;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编译提取规则性能测试
+ * 在同一批已解析的美团列表页上对比每次按选择器字符串查询，与预编译的提取计划一次遍历取全部字段，
+ * 统计每页的CPU时间，不含页面解析。语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("编译提取规则性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class ExtractionPlanPerformanceTest {
+
+    private static final int ROUNDS = 20;
+
+    private static final String RULES = "list:\n"
+            + "  title: \"title\"\n"
+            + "  stylesheet:\n"
+            + "    selector: \"link[rel=stylesheet]\"\n"
+            + "    attr: \"href\"\n"
+            + "  nextPage:\n"
+            + "    selector: \".paginator a.next\"\n"
+            + "    attr: \"href\"\n"
+            + "  footer: \"#footer\"\n"
+            + "  deals:\n"
+            + "    selector: \"li.deal-tile\"\n"
+            + "    multiple: true\n"
+            + "    fields:\n"
+            + "      title: \"h3.deal-tile__title\"\n"
+            + "      price: \".price strong\"\n"
+            + "      sales: \"span.sales\"\n"
+            + "      link:\n"
+            + "        selector: \"a.deal-tile__cover\"\n"
+            + "        attr: \"href\"\n";
+
+    @Test
+    @DisplayName("每页字段提取CPU时间对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testCompiledPlan() throws Exception {
+        ExtractionPlan plan = ExtractionRules.parse(RULES).getPlan("list");
+        List<Document> documents = new ArrayList<>();
+        for (byte[] body : MeiTuanPageCorpus.load()) {
+            documents.add(DocumentParser.parse(RawPage.fromBytes(MeiTuanPageCorpus.PAGE_URL, body, "UTF-8")));
+        }
+
+        // 两种方式提取的字段相同
+        for (Document document : documents) {
+            assertEquals(selectFields(document), plan.extract(document));
+        }
+
+        // 预热
+        run(documents, plan, 3);
+        run(documents, null, 3);
+        long selectNanos = run(documents, null, ROUNDS);
+        long planNanos = run(documents, plan, ROUNDS);
+
+        long pages = (long) documents.size() * ROUNDS;
+        System.out.printf("语料: %d 个页面%n", documents.size());
+        System.out.printf("选择器字符串: 每页CPU %d μs%n", TimeUnit.NANOSECONDS.toMicros(selectNanos / pages));
+        System.out.printf("编译提取计划: 每页CPU %d μs, 减少 %.1f%%%n",
+                TimeUnit.NANOSECONDS.toMicros(planNanos / pages), (selectNanos - planNanos) * 100.0 / selectNanos);
+        assertTrue(planNanos < selectNanos);
+    }
+
+    /**
+     * 原先的提取方式：每个字段各查询一次选择器字符串
+     */
+    private static Map<String, Object> selectFields(Document document) {
+        Map<String, Object> data = new HashMap<>();
+        putText(data, "title", document.selectFirst("title"));
+        putAttr(data, "stylesheet", document.selectFirst("link[rel=stylesheet]"), "href");
+        putAttr(data, "nextPage", document.selectFirst(".paginator a.next"), "href");
+        putText(data, "footer", document.selectFirst("#footer"));
+        List<Map<String, Object>> deals = new ArrayList<>();
+        for (Element item : document.select("li.deal-tile")) {
+            Map<String, Object> deal = new HashMap<>();
+            putText(deal, "title", item.selectFirst("h3.deal-tile__title"));
+            putText(deal, "price", item.selectFirst(".price strong"));
+            putText(deal, "sales", item.selectFirst("span.sales"));
+            putAttr(deal, "link", item.selectFirst("a.deal-tile__cover"), "href");
+            if (!deal.isEmpty()) {
+                deals.add(deal);
+            }
+        }
+        data.put("deals", deals);
+        return data;
+    }
+
+    private static void putText(Map<String, Object> data, String name, Element element) {
+        if (element != null) {
+            data.put(name, element.text().trim());
+        }
+    }
+
+    private static void putAttr(Map<String, Object> data, String name, Element element, String attr) {
+        if (element != null) {
+            data.put(name, element.attr(attr));
+        }
+    }
+
+    /**
+     * @param plan 提取计划，为null时按选择器字符串查询
+     * @return CPU纳秒数
+     */
+    private long run(List<Document> documents, ExtractionPlan plan, int rounds) {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long fields = 0;
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        for (int r = 0; r < rounds; r++) {
+            for (Document document : documents) {
+                fields += (plan != null ? plan.extract(document) : selectFields(document)).size();
+            }
+        }
+        assertTrue(fields > 0);
+        return threadBean.getCurrentThreadCpuTime() - cpuStart;
+    }
+}
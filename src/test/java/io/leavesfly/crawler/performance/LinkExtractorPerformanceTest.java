@@ -0,0 +1,113 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.parse.DocumentParser;
+import io.leavesfly.crawler.parse.link.LinkExtractor;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式链接提取性能测试
+ * 在同一批美团列表页上对比构建jsoup文档树后用选择器取链接，与流式链接提取器扫描一遍取链接，
+ * 统计每页的CPU时间和分配的字节数。语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("流式链接提取性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class LinkExtractorPerformanceTest {
+
+    private static final int ROUNDS = 20;
+
+    private final LinkExtractor extractor = LinkExtractor.builder()
+            .include("/shop/")
+            .include("/category/")
+            .withClass("next")
+            .attributeContains("title", "下一页")
+            .build();
+
+    @Test
+    @DisplayName("每页链接提取CPU时间和分配量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testStreamingVsJsoup() throws Exception {
+        List<byte[]> corpus = MeiTuanPageCorpus.load();
+
+        // 两种方式提取的链接相同
+        for (byte[] body : corpus) {
+            RawPage rawPage = page(body);
+            assertEquals(new LinkedHashSet<>(jsoupLinks(rawPage)), new LinkedHashSet<>(extractor.extract(rawPage)));
+        }
+
+        // 预热
+        run(corpus, 3, false);
+        run(corpus, 3, true);
+        long[] jsoup = run(corpus, ROUNDS, false);
+        long[] streaming = run(corpus, ROUNDS, true);
+
+        long pages = (long) corpus.size() * ROUNDS;
+        System.out.printf("语料: %d 个页面%n", corpus.size());
+        System.out.printf("jsoup文档树: 每页CPU %d μs, 分配 %d KB%n",
+                TimeUnit.NANOSECONDS.toMicros(jsoup[0] / pages), jsoup[1] / pages / 1024);
+        System.out.printf("流式提取:   每页CPU %d μs, 分配 %d KB%n",
+                TimeUnit.NANOSECONDS.toMicros(streaming[0] / pages), streaming[1] / pages / 1024);
+        assertTrue(streaming[0] < jsoup[0]);
+        assertTrue(streaming[1] < jsoup[1]);
+    }
+
+    private static RawPage page(byte[] body) {
+        return RawPage.fromBytes(MeiTuanPageCorpus.PAGE_URL, body, "UTF-8");
+    }
+
+    /**
+     * 原先的提取方式：构建文档树后用三个选择器取链接
+     */
+    private static List<String> jsoupLinks(RawPage rawPage) {
+        Document document = DocumentParser.parse(rawPage);
+        Set<String> urls = new LinkedHashSet<>();
+        for (String query : new String[]{"a[href*='/shop/']", "a[href*='/category/']", "a.next, a[title*='下一页']"}) {
+            for (Element link : document.select(query)) {
+                String url = link.absUrl("href");
+                if (!url.isEmpty()) {
+                    urls.add(url);
+                }
+            }
+        }
+        return new ArrayList<>(urls);
+    }
+
+    /**
+     * @return CPU纳秒数和分配的字节数
+     */
+    private long[] run(List<byte[]> corpus, int rounds, boolean streaming) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long links = 0;
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        for (int r = 0; r < rounds; r++) {
+            for (byte[] body : corpus) {
+                RawPage rawPage = page(body);
+                links += streaming ? extractor.extract(rawPage).size() : jsoupLinks(rawPage).size();
+            }
+        }
+        long cpu = threadBean.getCurrentThreadCpuTime() - cpuStart;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertTrue(links > 0);
+        return new long[]{cpu, allocated};
+    }
+}
@@ -0,0 +1,100 @@
+package io.leavesfly.crawler.performance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 性能测试用的美团页面语料
+ * 语料目录由环境变量 PAGE_CORPUS_DIR 指定（保存的美团页面，每个文件一个页面），
+ * 未指定时使用按美团列表页结构生成的页面
+ *
+ * @author yefei.yf
+ */
+final class MeiTuanPageCorpus {
+
+    /**
+     * 生成页面的URL
+     */
+    static final String PAGE_URL = "http://bj.meituan.com/index/default/page1";
+
+    private MeiTuanPageCorpus() {
+    }
+
+    /**
+     * 加载语料
+     *
+     * @return 页面字节列表
+     * @throws IOException 读取语料目录失败
+     */
+    static List<byte[]> load() throws IOException {
+        List<byte[]> corpus = new ArrayList<>();
+        String dir = System.getenv("PAGE_CORPUS_DIR");
+        if (dir != null && Files.isDirectory(Paths.get(dir))) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(dir))) {
+                for (Path path : stream) {
+                    if (Files.isRegularFile(path)) {
+                        corpus.add(Files.readAllBytes(path));
+                    }
+                }
+            }
+        }
+        if (corpus.isEmpty()) {
+            Random random = new Random(42);
+            for (int i = 0; i < 200; i++) {
+                corpus.add(generatePage(random));
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * 生成结构与美团团购列表页相近的页面：固定的头部、导航、内嵌的团购ID脚本，
+     * 大量结构相同、内容不同的团购条目和翻页链接
+     */
+    static byte[] generatePage(Random random) {
+        String[] categories = {"美食", "电影", "酒店", "休闲娱乐", "丽人", "生活服务", "旅游"};
+        String[] districts = {"朝阳区", "海淀区", "东城区", "西城区", "丰台区", "通州区"};
+        StringBuilder sb = new StringBuilder(64 * 1024);
+        sb.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>北京团购-美团网</title>")
+                .append("<link rel=\"stylesheet\" href=\"//s0.meituan.net/css/deal-list.css\">")
+                .append("<style>.deal-tile{float:left;width:33%}.price{color:#f76120}</style></head><body>")
+                .append("<div id=\"header\"><ul class=\"nav\">");
+        for (String category : categories) {
+            sb.append("<li><a href=\"/category/").append(category.hashCode() & 0xFFFF).append("\">")
+                    .append(category).append("</a></li>");
+        }
+        sb.append("</ul></div><div id=\"content\"><ul class=\"deal-list\">");
+        int items = 40 + random.nextInt(80);
+        StringBuilder deals = new StringBuilder();
+        for (int i = 0; i < items; i++) {
+            int dealId = 10_000_000 + random.nextInt(90_000_000);
+            deals.append(i > 0 ? "," : "").append(dealId);
+            sb.append("<li class=\"deal-tile\"><a class=\"deal-tile__cover\" href=\"http://bj.meituan.com/deal/")
+                    .append(dealId).append(".html\" target=\"_blank\"><img src=\"//p0.meituan.net/deal/")
+                    .append(Long.toHexString(random.nextLong())).append(".jpg\"></a>")
+                    .append("<h3 class=\"deal-tile__title\">")
+                    .append(categories[random.nextInt(categories.length)]).append(" ")
+                    .append(districts[random.nextInt(districts.length)]).append(" 仅售")
+                    .append(random.nextInt(500)).append("元，价值").append(random.nextInt(1000) + 500)
+                    .append("元双人套餐</h3><p class=\"deal-tile__detail\"><span class=\"price\">¥<strong>")
+                    .append(random.nextInt(500)).append("</strong></span><span class=\"sales\">已售")
+                    .append(random.nextInt(100_000)).append("</span></p>")
+                    .append("<a class=\"shop-link\" href=\"/shop/").append(random.nextInt(10_000_000))
+                    .append("\">").append(districts[random.nextInt(districts.length)]).append("店</a></li>");
+        }
+        sb.append("</ul><div class=\"paginator\"><a class=\"next\" href=\"/index/default/page")
+                .append(2 + random.nextInt(50)).append("\" title=\"下一页\">下一页</a></div></div>")
+                .append("<script>window.AppData = {\"deals\":\"").append(deals).append("\",\"city\":\"bj\"};")
+                .append("for (var i = 0; i < 10; i++) { if (i < 5 && window.track) { track('<a href=\"/x\">'); } }")
+                .append("</script>")
+                .append("<div id=\"footer\">©2010 美团网团购 meituan.com 京ICP证070791号</div></body></html>");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,103 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.fetch.store.codec.PageCodec;
+import io.leavesfly.crawler.fetch.store.codec.PageCodecs;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 页面压缩编码性能测试
+ * 对比各编码在页面语料上写出的字节数、每页压缩CPU时间、压缩和解压的吞吐量。
+ * 语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("页面压缩编码性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class PageCodecPerformanceTest {
+
+    private static final int ROUNDS = 20;
+
+    @Test
+    @DisplayName("各编码压缩率与吞吐量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testCodecs() throws IOException {
+        List<byte[]> corpus = MeiTuanPageCorpus.load();
+        long rawBytes = 0;
+        for (byte[] page : corpus) {
+            rawBytes += page.length;
+        }
+        System.out.printf("语料: %d 个页面, %d 字节%n", corpus.size(), rawBytes);
+
+        PageCodec[] codecs = {PageCodecs.NONE, PageCodecs.LZ4, PageCodecs.DEFLATE, PageCodecs.GZIP};
+        long[] written = new long[codecs.length];
+        for (int c = 0; c < codecs.length; c++) {
+            // 预热
+            run(codecs[c], corpus, 3);
+            long[] result = run(codecs[c], corpus, ROUNDS);
+            written[c] = result[0];
+            long pages = (long) corpus.size() * ROUNDS;
+            System.out.printf("%-8s 写出 %d 字节 (%.1f%%), 每页压缩CPU %d μs, 压缩 %.0f 页/秒, 解压 %.0f 页/秒%n",
+                    codecs[c].getName(), result[0], result[0] * 100.0 / rawBytes,
+                    TimeUnit.NANOSECONDS.toMicros(result[1] / pages),
+                    pages * 1e9 / result[2], pages * 1e9 / result[3]);
+        }
+
+        assertEquals(rawBytes, written[0]);
+        for (int c = 1; c < codecs.length; c++) {
+            assertTrue(written[c] < rawBytes, codecs[c].getName() + " 应减少写出字节数");
+        }
+    }
+
+    /**
+     * @return [一轮写出的字节数, 压缩CPU纳秒, 压缩耗时纳秒, 解压耗时纳秒]
+     */
+    private long[] run(PageCodec codec, List<byte[]> corpus, int rounds) throws IOException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        int maxLength = 0;
+        for (byte[] page : corpus) {
+            maxLength = Math.max(maxLength, page.length);
+        }
+        byte[][] compressed = new byte[corpus.size()][];
+        int[] lengths = new int[corpus.size()];
+        for (int i = 0; i < compressed.length; i++) {
+            compressed[i] = new byte[maxLength + 64];
+        }
+        byte[] restored = new byte[maxLength];
+
+        long writtenBytes = 0;
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < corpus.size(); i++) {
+                byte[] page = corpus.get(i);
+                lengths[i] = codec.compress(page, 0, page.length, compressed[i], 0, compressed[i].length);
+                if (r == 0) {
+                    writtenBytes += lengths[i];
+                }
+            }
+        }
+        long compressNanos = System.nanoTime() - start;
+        long cpuNanos = threadBean.getCurrentThreadCpuTime() - cpuStart;
+
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < corpus.size(); i++) {
+                codec.decompress(compressed[i], 0, lengths[i], restored, 0, corpus.get(i).length);
+            }
+        }
+        long decompressNanos = System.nanoTime() - start;
+        return new long[]{writtenBytes, cpuNanos, compressNanos, decompressNanos};
+    }
+}
@@ -0,0 +1,156 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.core.WorkerExecutors;
+import io.leavesfly.crawler.core.pipeline.PipelineProcessor;
+import io.leavesfly.crawler.core.pipeline.PipelineStage;
+import io.leavesfly.crawler.core.pipeline.ProcessResult;
+import io.leavesfly.crawler.core.pipeline.StageStats;
+import io.leavesfly.crawler.core.pipeline.impl.ParseProcessor;
+import io.leavesfly.crawler.core.pipeline.impl.StageHandoffProcessor;
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.strategy.CrawlStrategyManager;
+import io.leavesfly.crawler.strategy.impl.MeiTuanCrawlStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 解析阶段性能测试
+ * 固定数量的下载线程以固定延迟模拟下载，对比下载线程自己解析页面与把页面交给按CPU核数设置的
+ * 解析阶段两种方式的吞吐量，并采样解析队列的最大深度。语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("解析阶段性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class ParseStagePerformanceTest {
+
+    private static final int FETCH_THREADS = 4;
+    private static final int FETCH_LATENCY_MS = 10;
+    private static final int PAGES = 800;
+    private static final int PARSE_QUEUE_CAPACITY = 64;
+
+    @Test
+    @DisplayName("下载线程内解析与独立解析阶段的吞吐量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testParseStage() throws Exception {
+        List<byte[]> corpus = MeiTuanPageCorpus.load();
+        CrawlStrategyManager strategyManager = new CrawlStrategyManager();
+        strategyManager.registerStrategy(new MeiTuanCrawlStrategy());
+
+        // 预热
+        runInline(corpus, strategyManager, 100);
+        runStaged(corpus, strategyManager, 100);
+
+        long inline = runInline(corpus, strategyManager, PAGES);
+        long[] staged = runStaged(corpus, strategyManager, PAGES);
+
+        System.out.printf("下载线程 %d, 模拟下载延迟 %d ms, 解析并发度 %d, 页面 %d%n", FETCH_THREADS,
+                FETCH_LATENCY_MS, Runtime.getRuntime().availableProcessors(), PAGES);
+        System.out.printf("下载线程内解析: 耗时 %d ms, 吞吐量 %.1f 页/秒%n",
+                TimeUnit.NANOSECONDS.toMillis(inline), PAGES / (inline / 1e9));
+        System.out.printf("独立解析阶段: 耗时 %d ms, 吞吐量 %.1f 页/秒, 解析队列最大深度 %d%n",
+                TimeUnit.NANOSECONDS.toMillis(staged[0]), PAGES / (staged[0] / 1e9), staged[1]);
+        assertTrue(staged[0] < inline);
+    }
+
+    /**
+     * @return 耗时纳秒数
+     */
+    private long runInline(List<byte[]> corpus, CrawlStrategyManager strategyManager, int pages)
+            throws InterruptedException {
+        PipelineProcessor fetch = new SimulatedFetchProcessor(corpus);
+        fetch.setNext(new ParseProcessor(strategyManager));
+        CountDownLatch done = new CountDownLatch(pages);
+        long start = System.nanoTime();
+        runFetchers(fetch, pages, done::countDown);
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * @return 耗时纳秒数和解析队列最大深度
+     */
+    private long[] runStaged(List<byte[]> corpus, CrawlStrategyManager strategyManager, int pages)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(pages);
+        PipelineStage parseStage = new PipelineStage("parse", new ParseProcessor(strategyManager),
+                WorkerExecutors.newForkJoinPool(Runtime.getRuntime().availableProcessors(), "CrawlerParser"),
+                PARSE_QUEUE_CAPACITY, (context, result) -> {
+                    assertTrue(result.isSuccess());
+                    done.countDown();
+                });
+        PipelineProcessor fetch = new SimulatedFetchProcessor(corpus);
+        fetch.setNext(new StageHandoffProcessor(parseStage));
+
+        long start = System.nanoTime();
+        runFetchers(fetch, pages, () -> { });
+        int maxQueueDepth = 0;
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            StageStats stats = parseStage.getStats();
+            maxQueueDepth = Math.max(maxQueueDepth, stats.getQueueDepth());
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(parseStage.shutdown(10, TimeUnit.SECONDS));
+        assertTrue(maxQueueDepth <= PARSE_QUEUE_CAPACITY + parseStage.getStats().getParallelism());
+        return new long[]{elapsed, maxQueueDepth};
+    }
+
+    private void runFetchers(PipelineProcessor head, int pages, Runnable onProcessed) {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService fetchers = Executors.newFixedThreadPool(FETCH_THREADS);
+        for (int t = 0; t < FETCH_THREADS; t++) {
+            fetchers.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < pages) {
+                    assertTrue(head.process(new CrawlContext(MeiTuanPageCorpus.PAGE_URL + "?n=" + i)).isSuccess());
+                    onProcessed.run();
+                }
+            });
+        }
+        fetchers.shutdown();
+    }
+
+    /**
+     * 按固定延迟返回语料中的页面
+     */
+    private static final class SimulatedFetchProcessor extends PipelineProcessor {
+
+        private final List<byte[]> corpus;
+        private final AtomicInteger index = new AtomicInteger();
+
+        private SimulatedFetchProcessor(List<byte[]> corpus) {
+            this.corpus = corpus;
+        }
+
+        @Override
+        protected ProcessResult doProcess(CrawlContext context) {
+            try {
+                Thread.sleep(FETCH_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ProcessResult.failure("下载被中断");
+            }
+            byte[] body = corpus.get(Math.floorMod(index.getAndIncrement(), corpus.size()));
+            context.setRawPage(RawPage.fromBytes(context.getCurrentUrl(), body, "UTF-8"));
+            return ProcessResult.success();
+        }
+
+        @Override
+        public String getProcessorName() {
+            return "SimulatedFetchProcessor";
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.parse.preprocess.PreprocessorChain;
+import io.leavesfly.crawler.parse.preprocess.TagBlockStripper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内容预处理性能测试
+ * 对比原先用两个正则删除脚本和样式，与一遍扫描的预处理步骤链，统计每页的CPU时间和分配的字节数；
+ * 另用一个含大量未闭合script标签的单行页面观察正则回溯的开销。语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("内容预处理性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class PreprocessorPerformanceTest {
+
+    private static final int ROUNDS = 20;
+
+    private final PreprocessorChain chain = PreprocessorChain.of(new TagBlockStripper("script", "style"));
+
+    @Test
+    @DisplayName("每页预处理CPU时间和分配量对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testLinearScan() throws Exception {
+        List<String> pages = new ArrayList<>();
+        for (byte[] body : MeiTuanPageCorpus.load()) {
+            pages.add(new String(body, StandardCharsets.UTF_8));
+        }
+        // 语料中的脚本和样式都在一行内，两种方式结果相同
+        for (String page : pages) {
+            assertEquals(regex(page), chain.apply(page));
+        }
+
+        run(pages, 3, false);
+        run(pages, 3, true);
+        long[] regex = run(pages, ROUNDS, false);
+        long[] linear = run(pages, ROUNDS, true);
+
+        long count = (long) pages.size() * ROUNDS;
+        System.out.printf("语料: %d 个页面%n", pages.size());
+        System.out.printf("正则: 每页CPU %d μs, 分配 %d KB%n",
+                TimeUnit.NANOSECONDS.toMicros(regex[0] / count), regex[1] / count / 1024);
+        System.out.printf("线性扫描: 每页CPU %d μs, 分配 %d KB%n",
+                TimeUnit.NANOSECONDS.toMicros(linear[0] / count), linear[1] / count / 1024);
+        assertTrue(linear[0] < regex[0]);
+        assertTrue(linear[1] < regex[1]);
+
+        // 未闭合的script标签使正则每次都扫描到行尾
+        String pathological = String.join("", Collections.nCopies(2_000, "<script>var a = 1;"));
+        long[] regexWorst = run(Collections.singletonList(pathological), 1, false);
+        long[] linearWorst = run(Collections.singletonList(pathological), 1, true);
+        System.out.printf("未闭合标签页面(%d KB): 正则 %d ms, 线性扫描 %d μs%n", pathological.length() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(regexWorst[0]), TimeUnit.NANOSECONDS.toMicros(linearWorst[0]));
+        assertTrue(linearWorst[0] < regexWorst[0]);
+    }
+
+    /**
+     * 原先的预处理方式
+     */
+    private static String regex(String content) {
+        content = content.replaceAll("<script[^>]*>.*?</script>", "");
+        content = content.replaceAll("<style[^>]*>.*?</style>", "");
+        return content;
+    }
+
+    /**
+     * @return CPU纳秒数和分配的字节数
+     */
+    private long[] run(List<String> pages, int rounds, boolean linear) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long chars = 0;
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        for (int r = 0; r < rounds; r++) {
+            for (String page : pages) {
+                chars += (linear ? chain.apply(page) : regex(page)).length();
+            }
+        }
+        long cpu = threadBean.getCurrentThreadCpuTime() - cpuStart;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertTrue(chars >= 0);
+        return new long[]{cpu, allocated};
+    }
+}
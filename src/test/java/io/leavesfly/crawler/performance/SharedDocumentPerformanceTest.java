@@ -0,0 +1,106 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.domain.CrawlContext;
+import io.leavesfly.crawler.domain.RawPage;
+import io.leavesfly.crawler.parse.meituan.page.MeiTuanListPageURLFilter;
+import io.leavesfly.crawler.strategy.impl.MeiTuanCrawlStrategy;
+import org.htmlparser.Parser;
+import org.htmlparser.filters.NodeClassFilter;
+import org.htmlparser.filters.OrFilter;
+import org.htmlparser.tags.LinkTag;
+import org.htmlparser.tags.ScriptTag;
+import org.htmlparser.util.ParserException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共用文档树性能测试
+ * 对比每个页面的解析CPU时间：改造前链接提取、数据提取各用jsoup解析一次，
+ * 列表页URL过滤器再用htmlparser解析一次；改造后三者共用上下文中的一棵文档树。
+ * 语料见{@link MeiTuanPageCorpus}
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("共用文档树性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class SharedDocumentPerformanceTest {
+
+    private static final int ROUNDS = 10;
+
+    private final MeiTuanCrawlStrategy strategy = new MeiTuanCrawlStrategy();
+    private final MeiTuanListPageURLFilter listFilter = MeiTuanListPageURLFilter.getInstance();
+
+    @Test
+    @DisplayName("每页解析CPU时间对比")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testParseOnce() throws Exception {
+        List<byte[]> corpus = MeiTuanPageCorpus.load();
+
+        // 预热
+        run(corpus, 2, false);
+        run(corpus, 2, true);
+        long before = run(corpus, ROUNDS, false);
+        long after = run(corpus, ROUNDS, true);
+
+        long pages = (long) corpus.size() * ROUNDS;
+        System.out.printf("语料: %d 个页面%n", corpus.size());
+        System.out.printf("改造前: 每页CPU %d μs (jsoup解析2次 + htmlparser解析1次)%n",
+                TimeUnit.NANOSECONDS.toMicros(before / pages));
+        System.out.printf("改造后: 每页CPU %d μs (共用1次解析), 减少 %.1f%%%n",
+                TimeUnit.NANOSECONDS.toMicros(after / pages), (before - after) * 100.0 / before);
+        assertTrue(after < before);
+    }
+
+    /**
+     * @return 处理全部页面的CPU纳秒数
+     */
+    private long run(List<byte[]> corpus, int rounds, boolean shared) throws ParserException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long urls = 0;
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        for (int r = 0; r < rounds; r++) {
+            for (byte[] body : corpus) {
+                RawPage rawPage = RawPage.fromBytes(MeiTuanPageCorpus.PAGE_URL, body, "UTF-8");
+                if (shared) {
+                    CrawlContext context = context(rawPage);
+                    urls += strategy.extractUrls(context).size();
+                    assertNotNull(strategy.extractData(context));
+                    urls += listFilter.filterURLFromDocument(rawPage, context.getDocument()).size();
+                } else {
+                    // 每次提取使用新的上下文，相当于改造前各自解析
+                    urls += strategy.extractUrls(context(rawPage)).size();
+                    assertNotNull(strategy.extractData(context(rawPage)));
+                    urls += htmlParserNodes(rawPage);
+                }
+            }
+        }
+        assertTrue(urls > 0);
+        return threadBean.getCurrentThreadCpuTime() - cpuStart;
+    }
+
+    private static CrawlContext context(RawPage rawPage) {
+        CrawlContext context = new CrawlContext(rawPage.getUrl());
+        context.setRawPage(rawPage);
+        return context;
+    }
+
+    /**
+     * 改造前列表页URL过滤器的htmlparser解析
+     */
+    private static int htmlParserNodes(RawPage rawPage) throws ParserException {
+        Parser parser = new Parser();
+        parser.setInputHTML(rawPage.getContent());
+        return parser.extractAllNodesThatMatch(
+                new OrFilter(new NodeClassFilter(ScriptTag.class), new NodeClassFilter(LinkTag.class))).size();
+    }
+}
@@ -0,0 +1,67 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.dedup.SimHashIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimHash近似重复索引性能测试
+ * 在千万级指纹规模下对比不同块数的插入、查询吞吐量和内存占用
+ * 指纹数由环境变量 SIMHASH_FINGERPRINTS 指定，默认1000万
+ *
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("SimHash索引性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class SimHashIndexPerformanceTest {
+
+    private static final int MAX_DISTANCE = 3;
+    private static final int QUERIES = 200_000;
+
+    @Test
+    @DisplayName("千万级指纹的插入与查询")
+    @Timeout(value = 600, unit = TimeUnit.SECONDS)
+    void testLargeIndex() {
+        String configured = System.getenv("SIMHASH_FINGERPRINTS");
+        int count = configured != null ? Integer.parseInt(configured) : 10_000_000;
+
+        for (int blocks : new int[]{MAX_DISTANCE + 1, MAX_DISTANCE + 2}) {
+            SimHashIndex index = new SimHashIndex(MAX_DISTANCE, blocks);
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                index.add(random.nextLong());
+            }
+            double addRate = count / ((System.nanoTime() - start) / 1_000_000.0);
+
+            // 一半查询是已有指纹翻转2位，一半是随机指纹
+            Random replay = new Random(42);
+            long[] queries = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long fingerprint = replay.nextLong();
+                queries[i] = i % 2 == 0 ? fingerprint ^ 0b101L << (i % 60) : random.nextLong();
+            }
+            int hits = 0;
+            start = System.nanoTime();
+            for (long query : queries) {
+                if (index.containsNear(query)) {
+                    hits++;
+                }
+            }
+            double queryRate = QUERIES / ((System.nanoTime() - start) / 1_000_000.0);
+
+            System.out.println(String.format("k=%d b=%d tables=%2d: add %8.1f ops/ms, query %8.1f ops/ms, 内存 %d MB",
+                    MAX_DISTANCE, blocks, index.getTableCount(), addRate, queryRate,
+                    index.getMemoryBytes() / (1024 * 1024)));
+            assertTrue(hits >= QUERIES / 2);
+        }
+    }
+}
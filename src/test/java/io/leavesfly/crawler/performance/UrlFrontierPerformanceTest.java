@@ -0,0 +1,121 @@
+package io.leavesfly.crawler.performance;
+
+import io.leavesfly.crawler.schedule.ShardedUrlFrontier;
+import io.leavesfly.crawler.schedule.UrlFrontier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * URL队列并发扩展性测试
+ * 对比分片无锁队列与原先单锁队列在1~64个线程下的吞吐量
+ * 
+ * 使用环境变量 PERFORMANCE_TEST=true 来启用这些测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("URL队列性能测试")
+@EnabledIfEnvironmentVariable(named = "PERFORMANCE_TEST", matches = "true")
+class UrlFrontierPerformanceTest {
+    
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int HOST_COUNT = 256;
+    
+    @Test
+    @DisplayName("1~64线程入队出队吞吐量")
+    @Timeout(value = 300, unit = TimeUnit.SECONDS)
+    void testScalability() throws InterruptedException {
+        System.out.println(String.format("%-8s %20s %20s", "threads", "sharded(ops/ms)", "locked(ops/ms)"));
+        
+        for (int threads : THREAD_COUNTS) {
+            // 预热
+            measure(new ShardedUrlFrontier(), threads);
+            measure(new LockedFrontier(), threads);
+            
+            double sharded = measure(new ShardedUrlFrontier(), threads);
+            double locked = measure(new LockedFrontier(), threads);
+            System.out.println(String.format("%-8d %20.1f %20.1f", threads, sharded, locked));
+            
+            assertTrue(sharded > 0);
+        }
+    }
+    
+    /**
+     * 每个线程交替入队和出队，返回每毫秒完成的操作数
+     */
+    private double measure(UrlFrontier frontier, int threads) throws InterruptedException {
+        String[] urls = new String[OPERATIONS_PER_THREAD];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = "https://host" + (i % HOST_COUNT) + ".meituan.com/deal/" + i + ".html";
+        }
+        
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong polled = new AtomicLong();
+        
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    for (String url : urls) {
+                        frontier.offer(url);
+                        if (frontier.poll() != null) {
+                            count++;
+                        }
+                    }
+                    polled.addAndGet(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - begin;
+        
+        long operations = 2L * threads * OPERATIONS_PER_THREAD;
+        return operations / (elapsedNanos / 1_000_000.0);
+    }
+    
+    /**
+     * 对照组：原引擎使用的单锁阻塞队列
+     */
+    private static class LockedFrontier implements UrlFrontier {
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        
+        @Override
+        public boolean offer(String url) {
+            return queue.offer(url);
+        }
+        
+        @Override
+        public String poll() {
+            return queue.poll();
+        }
+        
+        @Override
+        public String poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+        
+        @Override
+        public int size() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.leavesfly.crawler.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * 布隆过滤器测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("布隆过滤器测试")
+class BloomFilterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @ParameterizedTest
+    @EnumSource(BloomHashScheme.class)
+    @DisplayName("已添加元素不会漏判")
+    void testNoFalseNegatives(BloomHashScheme scheme) {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 10_000, scheme);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("https://bj.meituan.com/deal/" + i + ".html");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.contains("https://bj.meituan.com/deal/" + i + ".html"));
+        }
+        assertEquals(10_000, filter.count());
+        assertEquals(scheme, filter.getHashScheme());
+    }
+    
+    @ParameterizedTest
+    @EnumSource(BloomHashScheme.class)
+    @DisplayName("误判率接近理论值")
+    void testFalsePositiveRate(BloomHashScheme scheme) {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 10_000, scheme);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("https://sh.meituan.com/shop/" + i);
+        }
+        
+        int falsePositives = 0;
+        int probes = 20_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.contains("https://sh.meituan.com/category/" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.03, "误判率过高: " + rate);
+    }
+    
+    @Test
+    @DisplayName("字符序列与字符串结果一致")
+    void testCharSequenceMatchesString() {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 1000, BloomHashScheme.MURMUR3_128);
+        filter.add(new StringBuilder("https://hz.meituan.com/deal/1.html"));
+        assertTrue(filter.contains("https://hz.meituan.com/deal/1.html"));
+        assertFalse(filter.contains(new StringBuilder("https://hz.meituan.com/deal/2.html")));
+    }
+    
+    @Test
+    @DisplayName("默认使用MD5方案")
+    void testDefaultSchemeIsMd5() {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 1000);
+        assertEquals(BloomHashScheme.MD5, filter.getHashScheme());
+        
+        BloomFilter<String> murmur = new BloomFilter<>(0.01, 1000, BloomHashScheme.MURMUR3_128);
+        assertNotEquals(filter, murmur);
+    }
+    
+    @ParameterizedTest
+    @EnumSource(BloomHashScheme.class)
+    @DisplayName("快照保存与恢复")
+    void testSnapshotRoundTrip(BloomHashScheme scheme) throws IOException {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 200_000, scheme);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add("https://bj.meituan.com/deal/" + i + ".html");
+        }
+        
+        Path snapshot = tempDir.resolve("seen.bloom");
+        filter.saveTo(snapshot);
+        assertFalse(Files.exists(tempDir.resolve("seen.bloom.tmp")));
+        
+        BloomFilter<String> restored = BloomFilter.loadFrom(snapshot);
+        assertEquals(filter, restored);
+        assertEquals(filter.count(), restored.count());
+        assertEquals(filter.getK(), restored.getK());
+        assertEquals(filter.size(), restored.size());
+        assertEquals(scheme, restored.getHashScheme());
+        assertEquals(filter.getExpectedBitsPerElement(), restored.getExpectedBitsPerElement());
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(restored.contains("https://bj.meituan.com/deal/" + i + ".html"));
+        }
+        
+        // 恢复后可以继续添加
+        restored.add("https://bj.meituan.com/deal/new.html");
+        assertTrue(restored.contains("https://bj.meituan.com/deal/new.html"));
+    }
+    
+    @Test
+    @DisplayName("损坏的快照被拒绝")
+    void testCorruptSnapshot() throws IOException {
+        BloomFilter<String> filter = new BloomFilter<>(0.01, 10_000, BloomHashScheme.MURMUR3_128);
+        filter.add("https://bj.meituan.com/");
+        Path snapshot = tempDir.resolve("seen.bloom");
+        filter.saveTo(snapshot);
+        
+        // 截断位数组
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Path truncated = tempDir.resolve("truncated.bloom");
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> BloomFilter.loadFrom(truncated));
+        
+        Path garbage = tempDir.resolve("garbage.bloom");
+        Files.write(garbage, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        assertThrows(IOException.class, () -> BloomFilter.loadFrom(garbage));
+        
+        // 类型不匹配
+        assertThrows(IOException.class, () -> ScalableBloomFilter.loadFrom(snapshot));
+    }
+    
+    @Test
+    @DisplayName("反序列化改造前序列化的过滤器")
+    @SuppressWarnings("unchecked")
+    void testDeserializeBaseline() throws Exception {
+        // 改造前的类序列化的过滤器，添加了shop/1和shop/2
+        byte[] serialized = Base64.getDecoder().decode(
+                "rO0ABXNyAClpby5sZWF2ZXNmbHkuY3Jhd2xlci5zY2hlZHVsZS5CbG9vbUZpbHRlct93emKorIEBAgAGSQAKYml0U2V0U2l6" +
+                "ZUQADmJpdHNQZXJFbGVtZW50SQAeZXhwZWN0ZWROdW1iZXJPZkZpbHRlckVsZW1lbnRzSQABa0kAFW51bWJlck9mQWRkZWRF" +
+                "bGVtZW50c0wABmJpdHNldHQAEkxqYXZhL3V0aWwvQml0U2V0O3hwAAAD8kAkMp54hhKfAAAAZAAAAAcAAAACc3IAEGphdmEu" +
+                "dXRpbC5CaXRTZXRu/Yh+OTSrIQMAAVsABGJpdHN0AAJbSnhwdXIAAltKeCAEtRKxdZMCAAB4cAAAABAAAAAAAAAAAAAAAAgA" +
+                "AAAAAAAAAAEAAAAAAAAAIAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAQAAAAAAAAAAAAAAAAAAAAIAAAAAIAAAAAAAAAAA" +
+                "AAAAAAAAAgEAAAAAAAAAAAAAAACAgAAABABAAAAAAAAAAAAAAAAAIAIAAHg=");
+        BloomFilter<String> filter;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            filter = (BloomFilter<String>) in.readObject();
+        }
+        assertEquals(BloomHashScheme.MD5, filter.getHashScheme());
+        assertTrue(filter.contains("https://bj.meituan.com/shop/1"));
+        assertTrue(filter.contains("https://bj.meituan.com/shop/2"));
+        assertEquals(2, filter.count());
+    }
+}
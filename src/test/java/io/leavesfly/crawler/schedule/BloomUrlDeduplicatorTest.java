@@ -0,0 +1,113 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 布隆过滤器URL去重测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("布隆过滤器URL去重测试")
+class BloomUrlDeduplicatorTest {
+
+    @Test
+    @DisplayName("重复URL被过滤")
+    void testMarkIfNew() {
+        BloomUrlDeduplicator deduplicator = new BloomUrlDeduplicator(1000, 0.001, false);
+
+        assertTrue(deduplicator.markIfNew("https://example.com/a"));
+        assertTrue(deduplicator.markIfNew("https://example.com/b"));
+        assertFalse(deduplicator.markIfNew("https://example.com/a"));
+        assertFalse(deduplicator.markIfNew("https://example.com/a#comments"));
+
+        assertEquals(4, deduplicator.getCheckedCount());
+        assertEquals(2, deduplicator.getDuplicateCount());
+        assertEquals(0.5, deduplicator.getHitRate(), 0.0001);
+        assertNotNull(deduplicator.getFilterStats());
+        assertEquals(2, deduplicator.getFilterStats().getElementCount());
+    }
+
+    @Test
+    @DisplayName("检查URL不标记也不计数")
+    void testMightContain() {
+        BloomUrlDeduplicator deduplicator = new BloomUrlDeduplicator(1000, 0.001, true);
+
+        assertFalse(deduplicator.mightContain("https://example.com/a"));
+        assertFalse(deduplicator.mightContain("https://example.com/a"));
+        assertEquals(0, deduplicator.getCheckedCount());
+
+        assertTrue(deduplicator.markIfNew("https://example.com/a"));
+        assertTrue(deduplicator.mightContain("https://example.com/a"));
+        assertTrue(deduplicator.mightContain("https://example.com/a#top"));
+        assertEquals(1, deduplicator.getCheckedCount());
+    }
+
+    @Test
+    @DisplayName("精确确认纠正布隆过滤器误判")
+    void testExactConfirmation() {
+        // 极小的过滤器，很快产生大量误判
+        ScalableBloomFilter<String> tiny = new ScalableBloomFilter<>(1, 0.5, 1, 0.5, 1.0);
+        BloomUrlDeduplicator exact = new BloomUrlDeduplicator(tiny, true);
+        assertTrue(exact.isExactConfirmation());
+
+        int n = 2000;
+        for (int i = 0; i < n; i++) {
+            assertTrue(exact.markIfNew("https://example.com/" + i), "URL被误判为重复: " + i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertFalse(exact.markIfNew("https://example.com/" + i));
+        }
+        assertEquals(n, exact.getDuplicateCount());
+        assertTrue(exact.getFalsePositiveCount() > 0);
+    }
+
+    @Test
+    @DisplayName("根据配置创建去重器")
+    void testFactory() {
+        UrlDeduplicator deduplicator = UrlDeduplicatorFactory.createDeduplicator(CrawlerConfig.createDefault());
+        assertTrue(deduplicator instanceof BloomUrlDeduplicator);
+
+        UrlDeduplicator passThrough = UrlDeduplicatorFactory.createDeduplicator(
+                new CrawlerConfig.Builder().deduplication(false).build());
+        assertTrue(passThrough.markIfNew("https://example.com"));
+        assertTrue(passThrough.markIfNew("https://example.com"));
+        assertEquals(2, passThrough.getCheckedCount());
+        assertEquals(0, passThrough.getDuplicateCount());
+        assertNull(passThrough.getFilterStats());
+    }
+
+    @Test
+    @DisplayName("关闭时保存快照，重启后恢复去重")
+    void testSnapshotAcrossRestart(@TempDir Path tempDir) throws IOException {
+        Path snapshot = tempDir.resolve("dedup").resolve("seen.bloom");
+        CrawlerConfig config = new CrawlerConfig.Builder()
+                .deduplication(1000, 0.001)
+                .dedupSnapshot(snapshot.toString())
+                .build();
+
+        UrlDeduplicator first = UrlDeduplicatorFactory.createDeduplicator(config);
+        for (int i = 0; i < 5000; i++) {
+            first.markIfNew("https://example.com/" + i);
+        }
+        assertTrue(first.getDuplicateCount() < 25);
+        long elements = first.getFilterStats().getElementCount();
+        assertFalse(Files.exists(snapshot));
+        first.close();
+        assertTrue(Files.exists(snapshot));
+
+        UrlDeduplicator second = UrlDeduplicatorFactory.createDeduplicator(config);
+        for (int i = 0; i < 5000; i++) {
+            assertFalse(second.markIfNew("https://example.com/" + i));
+        }
+        assertEquals(elements, second.getFilterStats().getElementCount());
+        assertEquals(5000, second.getDuplicateCount());
+    }
+}
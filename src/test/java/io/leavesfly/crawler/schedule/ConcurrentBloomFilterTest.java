@@ -0,0 +1,147 @@
+package io.leavesfly.crawler.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发布隆过滤器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("并发布隆过滤器测试")
+class ConcurrentBloomFilterTest {
+
+    @Test
+    @DisplayName("添加并判断新元素")
+    void testPutIfAbsent() {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, 1000);
+
+        assertFalse(filter.mightContain("https://a.com/1"));
+        assertTrue(filter.putIfAbsent("https://a.com/1"));
+        assertFalse(filter.putIfAbsent("https://a.com/1"));
+        assertTrue(filter.mightContain("https://a.com/1"));
+
+        assertEquals(1, filter.approximateElementCount());
+        assertTrue(filter.getBitCount() > 0);
+        assertTrue(filter.getBitCount() <= filter.getK());
+
+        filter.clear();
+        assertFalse(filter.mightContain("https://a.com/1"));
+        assertEquals(0, filter.approximateElementCount());
+        assertEquals(0, filter.getBitCount());
+    }
+
+    @Test
+    @DisplayName("参数计算与校验")
+    void testParameters() {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, 10000);
+        assertEquals(7, filter.getK());
+        assertTrue(filter.getBitSize() >= 95000);
+        assertEquals(10000, filter.getExpectedInsertions());
+        assertTrue(Math.abs(filter.expectedFalsePositiveProbability() - 0.01) < 0.002);
+
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter<String>(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter<String>(0.01, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter<String>(0L, 3, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentBloomFilter<String>(64L, 0, 100));
+    }
+
+    @Test
+    @DisplayName("误判率接近期望值")
+    void testFalsePositiveRate() {
+        int n = 20000;
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.01, n);
+        for (int i = 0; i < n; i++) {
+            filter.putIfAbsent("https://example.com/page/" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(filter.mightContain("https://example.com/page/" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain("https://other.com/page/" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / n;
+        assertTrue(rate < 0.02, "误判率过高: " + rate);
+        assertTrue(filter.getFillRatio() > 0.4 && filter.getFillRatio() < 0.6);
+        assertTrue(filter.getFalsePositiveProbability() < 0.02);
+    }
+
+    @Test
+    @DisplayName("多线程并发去重")
+    @Timeout(30)
+    void testConcurrentPutIfAbsent() throws InterruptedException {
+        int urlCount = 10000;
+        int threadCount = 8;
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.001, urlCount);
+        AtomicInteger newCount = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    // 每个线程都添加全部URL，模拟多个工作线程发现相同链接
+                    for (int i = 0; i < urlCount; i++) {
+                        if (filter.putIfAbsent("https://example.com/item/" + i)) {
+                            newCount.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // 置位是原子的，每个置位只会被一个线程观察到，因此重复判定只可能来自误判
+        assertTrue(newCount.get() >= urlCount * 0.99, "新元素数量: " + newCount.get());
+        assertTrue(newCount.get() <= urlCount * threadCount);
+        assertEquals(newCount.get(), filter.approximateElementCount());
+        for (int i = 0; i < urlCount; i++) {
+            assertTrue(filter.mightContain("https://example.com/item/" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("快照保存与恢复")
+    void testSnapshotRoundTrip(@TempDir Path tempDir) throws IOException {
+        ConcurrentBloomFilter<String> filter = new ConcurrentBloomFilter<>(0.001, 100_000);
+        for (int i = 0; i < 30_000; i++) {
+            filter.putIfAbsent("https://example.com/" + i);
+        }
+
+        Path snapshot = tempDir.resolve("concurrent.bloom");
+        filter.saveTo(snapshot);
+        ConcurrentBloomFilter<String> restored = ConcurrentBloomFilter.loadFrom(snapshot);
+
+        assertEquals(filter.getBitSize(), restored.getBitSize());
+        assertEquals(filter.getK(), restored.getK());
+        assertEquals(filter.getExpectedInsertions(), restored.getExpectedInsertions());
+        assertEquals(filter.approximateElementCount(), restored.approximateElementCount());
+        assertEquals(filter.getBitCount(), restored.getBitCount());
+        for (int i = 0; i < 30_000; i++) {
+            assertFalse(restored.putIfAbsent("https://example.com/" + i));
+        }
+    }
+}
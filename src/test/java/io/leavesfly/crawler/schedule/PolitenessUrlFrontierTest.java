@@ -0,0 +1,137 @@
+package io.leavesfly.crawler.schedule;
+
+import io.leavesfly.crawler.conf.CrawlerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按主机调度请求间隔的URL队列测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("按主机调度请求间隔的URL队列测试")
+class PolitenessUrlFrontierTest {
+
+    @Test
+    @DisplayName("同一主机抓取完成前不再交出URL")
+    void testOneInFlightPerHost() {
+        PolitenessUrlFrontier frontier = new PolitenessUrlFrontier(100, HostDelayPolicy.fixed(0));
+        assertTrue(frontier.offer("https://a.com/1"));
+        assertTrue(frontier.offer("https://a.com/2"));
+        assertEquals(2, frontier.size());
+        assertEquals(1, frontier.getHostCount());
+
+        assertEquals("https://a.com/1", frontier.poll());
+        assertNull(frontier.poll());
+        assertEquals(1, frontier.size());
+
+        frontier.done("https://a.com/1");
+        assertEquals("https://a.com/2", frontier.poll());
+        frontier.done("https://a.com/2");
+        assertNull(frontier.poll());
+        assertTrue(frontier.isEmpty());
+        assertFalse(frontier.offer(null));
+    }
+
+    @Test
+    @DisplayName("主机间隔到期前不交出URL，其他主机不受影响")
+    @Timeout(10)
+    void testHostDelay() throws InterruptedException {
+        PolitenessUrlFrontier frontier = new PolitenessUrlFrontier(100,
+                url -> url.startsWith("https://slow.com") ? 300 : 0);
+        frontier.offer("https://slow.com/1");
+        frontier.offer("https://slow.com/2");
+        frontier.offer("https://fast.com/1");
+        frontier.offer("https://fast.com/2");
+
+        Set<String> first = new HashSet<>();
+        first.add(frontier.poll());
+        first.add(frontier.poll());
+        assertTrue(first.contains("https://slow.com/1"));
+        assertTrue(first.contains("https://fast.com/1"));
+
+        long start = System.nanoTime();
+        frontier.done("https://slow.com/1");
+        frontier.done("https://fast.com/1");
+        assertEquals("https://fast.com/2", frontier.poll());
+        assertNull(frontier.poll());
+        assertEquals(1, frontier.getWaitingHostCount());
+
+        assertEquals("https://slow.com/2", frontier.poll(5, TimeUnit.SECONDS));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis >= 250, "等待时间: " + waitedMillis);
+    }
+
+    @Test
+    @DisplayName("空闲主机的间隔对新入队URL仍然有效")
+    @Timeout(10)
+    void testDelayAppliesAfterIdle() throws InterruptedException {
+        PolitenessUrlFrontier frontier = new PolitenessUrlFrontier(100, HostDelayPolicy.fixed(200));
+        frontier.offer("https://a.com/1");
+        assertEquals("https://a.com/1", frontier.poll());
+        frontier.done("https://a.com/1");
+
+        frontier.offer("https://a.com/2");
+        assertNull(frontier.poll());
+        assertNull(frontier.poll(50, TimeUnit.MILLISECONDS));
+        assertEquals("https://a.com/2", frontier.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("没有待抓取URL的主机在间隔到期后移除")
+    @Timeout(10)
+    void testIdleHostRemoved() throws InterruptedException {
+        PolitenessUrlFrontier frontier = new PolitenessUrlFrontier(100, HostDelayPolicy.fixed(100));
+        for (int i = 0; i < 50; i++) {
+            frontier.offer("https://host" + i + ".com/1");
+        }
+        assertEquals(50, frontier.getHostCount());
+        for (int i = 0; i < 50; i++) {
+            frontier.done(frontier.poll());
+        }
+        assertEquals(50, frontier.getHostCount());
+        assertEquals(50, frontier.getWaitingHostCount());
+
+        // 冷却中的主机收到新URL后仍按间隔交出
+        frontier.offer("https://host0.com/2");
+        assertNull(frontier.poll());
+        assertEquals("https://host0.com/2", frontier.poll(5, TimeUnit.SECONDS));
+        frontier.done("https://host0.com/2");
+        assertNull(frontier.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(0, frontier.getHostCount());
+        assertEquals(0, frontier.getWaitingHostCount());
+
+        // 移除后再次入队的主机重新创建
+        assertTrue(frontier.offer("https://host1.com/3"));
+        assertEquals(1, frontier.getHostCount());
+        assertEquals("https://host1.com/3", frontier.poll());
+    }
+
+    @Test
+    @DisplayName("容量限制与参数校验")
+    void testCapacity() {
+        PolitenessUrlFrontier frontier = new PolitenessUrlFrontier(2, HostDelayPolicy.fixed(0));
+        assertTrue(frontier.offer("https://a.com/1"));
+        assertTrue(frontier.offer("https://b.com/1"));
+        assertFalse(frontier.offer("https://c.com/1"));
+        assertEquals(2, frontier.getCapacity());
+
+        assertThrows(IllegalArgumentException.class, () -> new PolitenessUrlFrontier(0, HostDelayPolicy.fixed(0)));
+        assertThrows(IllegalArgumentException.class, () -> new PolitenessUrlFrontier(10, null));
+    }
+
+    @Test
+    @DisplayName("工厂按配置创建队列")
+    void testFactory() {
+        assertTrue(UrlFrontierFactory.createFrontier(CrawlerConfig.createDefault()) instanceof PolitenessUrlFrontier);
+        assertTrue(UrlFrontierFactory.createFrontier(new CrawlerConfig.Builder()
+                .politeness(false)
+                .build()) instanceof ShardedUrlFrontier);
+    }
+}
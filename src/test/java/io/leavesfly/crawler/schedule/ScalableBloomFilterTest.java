@@ -0,0 +1,186 @@
+package io.leavesfly.crawler.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 可扩容布隆过滤器测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("可扩容布隆过滤器测试")
+class ScalableBloomFilterTest {
+
+    @Test
+    @DisplayName("未超出初始容量时只有一个分片")
+    void testSingleSlice() {
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(1000, 0.01);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(filter.putIfAbsent("https://example.com/" + i));
+        }
+        assertFalse(filter.putIfAbsent("https://example.com/1"));
+        assertTrue(filter.mightContain("https://example.com/499"));
+        assertEquals(1, filter.getSliceCount());
+        assertEquals(500, filter.approximateElementCount());
+    }
+
+    @Test
+    @DisplayName("超出容量后追加分片且误判率有界")
+    void testGrowthKeepsFalsePositiveRateBounded() {
+        int initialCapacity = 1000;
+        int n = initialCapacity * 50;
+        double fpp = 0.01;
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(initialCapacity, fpp);
+        for (int i = 0; i < n; i++) {
+            filter.putIfAbsent("https://example.com/page/" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(filter.mightContain("https://example.com/page/" + i));
+        }
+
+        // 容量按2倍增长：1000 + 2000 + ... 覆盖50000需要6个分片
+        assertTrue(filter.getSliceCount() >= 5 && filter.getSliceCount() <= 7,
+                "分片数: " + filter.getSliceCount());
+
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain("https://other.com/page/" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / n;
+        assertTrue(rate < fpp * 1.5, "误判率过高: " + rate);
+
+        // 同样数量的元素放进固定大小的过滤器，误判率会远高于目标
+        ConcurrentBloomFilter<String> fixed = new ConcurrentBloomFilter<>(fpp, initialCapacity);
+        for (int i = 0; i < n; i++) {
+            fixed.putIfAbsent("https://example.com/page/" + i);
+        }
+        assertTrue(fixed.getFalsePositiveProbability() > 0.5);
+    }
+
+    @Test
+    @DisplayName("统计快照")
+    void testStats() {
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.putIfAbsent("https://example.com/" + i);
+        }
+
+        BloomFilterStats stats = filter.getStats();
+        assertEquals(filter.getSliceCount(), stats.getSliceCount());
+        assertEquals(filter.approximateElementCount(), stats.getElementCount());
+        assertEquals(0.01, stats.getTargetFalsePositiveProbability());
+
+        long previousCapacity = 0;
+        double previousFpp = 1.0;
+        for (BloomFilterStats.SliceStats slice : stats.getSlices()) {
+            assertTrue(slice.getCapacity() > previousCapacity);
+            assertTrue(slice.getTargetFalsePositiveProbability() < previousFpp);
+            assertTrue(slice.getFillRatio() >= 0 && slice.getFillRatio() <= 0.6);
+            previousCapacity = slice.getCapacity();
+            previousFpp = slice.getTargetFalsePositiveProbability();
+        }
+        assertTrue(stats.getEffectiveFalsePositiveProbability() < 0.01);
+        assertTrue(stats.getTotalBits() > 0);
+        assertTrue(stats.toString().contains("effectiveFpp"));
+
+        filter.clear();
+        assertEquals(1, filter.getSliceCount());
+        assertEquals(0, filter.approximateElementCount());
+    }
+
+    @Test
+    @DisplayName("参数校验")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<String>(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<String>(100, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<String>(100, 0.01, 0, 0.5, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<String>(100, 0.01, 2, 1.0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<String>(100, 0.01, 2, 0.5, 0));
+    }
+
+    @Test
+    @DisplayName("多线程并发添加时扩容")
+    @Timeout(30)
+    void testConcurrentGrowth() throws InterruptedException {
+        int threadCount = 4;
+        int perThread = 5000;
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(500, 0.01);
+        AtomicInteger newCount = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threadCount);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int threadId = t;
+            executor.submit(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        if (filter.putIfAbsent("https://example.com/" + threadId + "/" + i)) {
+                            newCount.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(20, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        int total = threadCount * perThread;
+        assertTrue(newCount.get() >= total * 0.98, "新元素数量: " + newCount.get());
+        assertTrue(filter.getSliceCount() > 1);
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertTrue(filter.mightContain("https://example.com/" + t + "/" + i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("快照保存与恢复全部分片")
+    void testSnapshotRoundTrip(@TempDir Path tempDir) throws IOException {
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(1000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.putIfAbsent("https://example.com/" + i);
+        }
+        assertTrue(filter.getSliceCount() > 1);
+
+        Path snapshot = tempDir.resolve("scalable.bloom");
+        filter.saveTo(snapshot);
+        ScalableBloomFilter<String> restored = ScalableBloomFilter.loadFrom(snapshot);
+
+        assertEquals(filter.getSliceCount(), restored.getSliceCount());
+        assertEquals(filter.approximateElementCount(), restored.approximateElementCount());
+        assertEquals(filter.getFalsePositiveProbability(), restored.getFalsePositiveProbability());
+        BloomFilterStats before = filter.getStats();
+        BloomFilterStats after = restored.getStats();
+        for (int i = 0; i < before.getSliceCount(); i++) {
+            assertEquals(before.getSlices().get(i).getCapacity(), after.getSlices().get(i).getCapacity());
+            assertEquals(before.getSlices().get(i).getFillRatio(), after.getSlices().get(i).getFillRatio());
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(restored.putIfAbsent("https://example.com/" + i));
+        }
+
+        // 恢复后继续扩容
+        int slices = restored.getSliceCount();
+        for (int i = 10_000; i < 40_000; i++) {
+            restored.putIfAbsent("https://example.com/" + i);
+        }
+        assertTrue(restored.getSliceCount() > slices);
+    }
+}
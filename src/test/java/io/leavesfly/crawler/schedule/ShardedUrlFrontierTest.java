@@ -0,0 +1,174 @@
+package io.leavesfly.crawler.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按主机分片URL队列测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("按主机分片URL队列测试")
+class ShardedUrlFrontierTest {
+    
+    private ShardedUrlFrontier frontier;
+    
+    @BeforeEach
+    void setUp() {
+        frontier = new ShardedUrlFrontier(100);
+    }
+    
+    @Test
+    @DisplayName("基本入队出队")
+    void testOfferAndPoll() {
+        assertTrue(frontier.isEmpty());
+        assertNull(frontier.poll());
+        
+        assertTrue(frontier.offer("https://a.com/1"));
+        assertTrue(frontier.offer("https://a.com/2"));
+        assertEquals(2, frontier.size());
+        assertEquals(1, frontier.getHostCount());
+        
+        assertEquals("https://a.com/1", frontier.poll());
+        assertEquals("https://a.com/2", frontier.poll());
+        assertNull(frontier.poll());
+        assertTrue(frontier.isEmpty());
+        
+        assertFalse(frontier.offer(null));
+    }
+    
+    @Test
+    @DisplayName("主机间轮转")
+    void testRoundRobinAcrossHosts() {
+        frontier.offer("https://a.com/1");
+        frontier.offer("https://a.com/2");
+        frontier.offer("https://a.com/3");
+        frontier.offer("https://b.com/1");
+        frontier.offer("https://c.com/1");
+        
+        assertEquals(3, frontier.getHostCount());
+        assertEquals("https://a.com/1", frontier.poll());
+        assertEquals("https://b.com/1", frontier.poll());
+        assertEquals("https://c.com/1", frontier.poll());
+        assertEquals("https://a.com/2", frontier.poll());
+        assertEquals("https://a.com/3", frontier.poll());
+    }
+    
+    @Test
+    @DisplayName("URL取完的主机从主机表中移除")
+    void testDrainedHostRemoved() {
+        for (int i = 0; i < 50; i++) {
+            frontier.offer("https://host" + i + ".com/1");
+        }
+        frontier.offer("https://host0.com/2");
+        assertEquals(50, frontier.getHostCount());
+        for (int i = 0; i < 51; i++) {
+            assertNotNull(frontier.poll());
+        }
+        assertNull(frontier.poll());
+        assertEquals(0, frontier.getHostCount());
+        
+        // 移除后再次入队的主机重新创建
+        assertTrue(frontier.offer("https://host1.com/3"));
+        assertEquals(1, frontier.getHostCount());
+        assertEquals("https://host1.com/3", frontier.poll());
+        assertEquals(0, frontier.getHostCount());
+    }
+    
+    @Test
+    @DisplayName("容量限制")
+    void testCapacity() {
+        ShardedUrlFrontier small = new ShardedUrlFrontier(2);
+        assertTrue(small.offer("https://a.com/1"));
+        assertTrue(small.offer("https://b.com/1"));
+        assertFalse(small.offer("https://c.com/1"));
+        assertEquals(2, small.size());
+        
+        small.poll();
+        assertTrue(small.offer("https://c.com/1"));
+        
+        assertThrows(IllegalArgumentException.class, () -> new ShardedUrlFrontier(0));
+    }
+    
+    @Test
+    @DisplayName("超时等待")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void testPollWithTimeout() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        assertNull(frontier.poll(100, TimeUnit.MILLISECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 90);
+        
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            frontier.offer("https://a.com/late");
+        });
+        producer.start();
+        
+        assertEquals("https://a.com/late", frontier.poll(2, TimeUnit.SECONDS));
+        producer.join();
+    }
+    
+    @Test
+    @DisplayName("并发入队出队不丢失URL")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testConcurrentOfferAndPoll() throws InterruptedException {
+        ShardedUrlFrontier unbounded = new ShardedUrlFrontier();
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 5000;
+        
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        CountDownLatch producersDone = new CountDownLatch(producers);
+        Set<String> received = ConcurrentHashMap.newKeySet();
+        
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    unbounded.offer("https://host" + (i % 16) + ".com/" + id + "/" + i);
+                }
+                producersDone.countDown();
+            });
+        }
+        
+        List<Runnable> consumerTasks = new ArrayList<>();
+        for (int c = 0; c < consumers; c++) {
+            consumerTasks.add(() -> {
+                try {
+                    while (true) {
+                        String url = unbounded.poll(200, TimeUnit.MILLISECONDS);
+                        if (url != null) {
+                            received.add(url);
+                        } else if (producersDone.getCount() == 0 && unbounded.isEmpty()) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        consumerTasks.forEach(executor::submit);
+        
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(20, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, unbounded.size());
+    }
+}
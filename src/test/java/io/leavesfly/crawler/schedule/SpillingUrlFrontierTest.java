@@ -0,0 +1,141 @@
+package io.leavesfly.crawler.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 磁盘溢出URL队列测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("磁盘溢出URL队列测试")
+class SpillingUrlFrontierTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("超出内存容量的URL溢出到磁盘且不丢失")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testSpillAndRefill() throws Exception {
+        SpillingUrlFrontier frontier = new SpillingUrlFrontier(tempDir, 10);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(frontier.offer("https://h" + (i % 7) + ".meituan.com/deal/" + i + ".html"));
+            }
+            assertEquals(1000, frontier.size());
+            assertTrue(frontier.getHeadSize() <= 10);
+            assertTrue(frontier.getSpilledSize() > 0);
+            
+            Set<String> polled = drain(frontier, 1000);
+            assertEquals(1000, polled.size());
+            assertEquals(0, frontier.size());
+        } finally {
+            frontier.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("关闭后重新打开可继续读取")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testSurviveRestart() throws Exception {
+        SpillingUrlFrontier frontier = new SpillingUrlFrontier(tempDir, 5);
+        for (int i = 0; i < 200; i++) {
+            frontier.offer("https://bj.meituan.com/deal/" + i + ".html");
+        }
+        Set<String> first = drain(frontier, 50);
+        frontier.close();
+        
+        SpillingUrlFrontier reopened = new SpillingUrlFrontier(tempDir, 5);
+        try {
+            assertEquals(150, reopened.size());
+            Set<String> second = drain(reopened, 150);
+            
+            Set<String> all = new HashSet<>(first);
+            all.addAll(second);
+            assertEquals(200, all.size());
+        } finally {
+            reopened.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("溢出的URL按周期写出，异常退出后可恢复")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testSpilledUrlsFlushed() throws Exception {
+        SpillingUrlFrontier frontier = new SpillingUrlFrontier(tempDir, 5);
+        try {
+            for (int i = 0; i < 100; i++) {
+                frontier.offer("https://bj.meituan.com/deal/" + i + ".html");
+            }
+            assertEquals(95, frontier.getSpilledSize());
+            
+            // 不关闭队列，模拟进程异常退出后从分段文件恢复
+            long recovered = 0;
+            while (recovered < 95) {
+                Thread.sleep(20);
+                try (UrlSegmentLog log = new UrlSegmentLog(tempDir, SpillingUrlFrontier.DEFAULT_SEGMENT_SIZE)) {
+                    recovered = log.size();
+                }
+            }
+            assertEquals(95, recovered);
+        } finally {
+            frontier.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("分段文件滚动与回收")
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void testSegmentRolling() throws Exception {
+        SpillingUrlFrontier frontier = new SpillingUrlFrontier(
+                new ShardedUrlFrontier(4), 4, tempDir, 256);
+        try {
+            for (int i = 0; i < 300; i++) {
+                frontier.offer("https://sh.meituan.com/shop/" + i);
+            }
+            assertEquals(300, drain(frontier, 300).size());
+        } finally {
+            frontier.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("分段日志截断不完整的尾部记录")
+    void testTruncatedTail() throws IOException {
+        UrlSegmentLog log = new UrlSegmentLog(tempDir, 1024 * 1024);
+        log.append("https://a.com/1");
+        log.append("https://a.com/2");
+        log.close();
+        
+        // 模拟写入一半时进程退出
+        Path segment = tempDir.resolve(String.format("%020d.seg", 0));
+        java.nio.file.Files.write(segment, new byte[]{0, 0, 0, 100, 'h'},
+                java.nio.file.StandardOpenOption.APPEND);
+        
+        UrlSegmentLog recovered = new UrlSegmentLog(tempDir, 1024 * 1024);
+        assertEquals(2, recovered.size());
+        recovered.append("https://a.com/3");
+        assertEquals(3, recovered.read(10).size());
+        recovered.close();
+    }
+    
+    private Set<String> drain(UrlFrontier frontier, int expected) throws InterruptedException {
+        Set<String> urls = new HashSet<>();
+        while (urls.size() < expected) {
+            String url = frontier.poll(1, TimeUnit.SECONDS);
+            assertNotNull(url, "等待回填超时，已取出: " + urls.size());
+            urls.add(url);
+        }
+        return urls;
+    }
+}
@@ -104,6 +104,19 @@ class CrawlStrategyManagerTest {
         assertTrue(strategies.contains(meiTuanStrategy));
     }
     
+    @Test
+    @DisplayName("按匹配的策略获取请求头")
+    void testGetHeaders() {
+        assertTrue(manager.getHeaders("https://bj.meituan.com/").isEmpty());
+        
+        manager.registerStrategy(testStrategy);
+        manager.registerStrategy(new MeiTuanCrawlStrategy());
+        assertEquals("gzip, deflate", manager.getHeaders("https://bj.meituan.com/").get("Accept-Encoding"));
+        assertNull(manager.getHeaders("https://test.com/").get("Accept-Encoding"));
+        assertNotNull(manager.getHeaders("https://test.com/").get("User-Agent"));
+        assertTrue(manager.getHeaders("https://other.com/").isEmpty());
+    }
+    
     /**
      * 测试用爬取策略
      */
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 
@@ -95,6 +96,36 @@ class MeiTuanCrawlStrategyTest {
         assertNull(data);
     }
     
+    @Test
+    @DisplayName("从原始字节解析页面")
+    void testExtractFromRawBytes() {
+        String html = "<html><head><meta charset=\"GBK\"></head><body>"
+                + "<a href=\"/shop/1\">美团商家</a><a href=\"/category/food\">美食</a></body></html>";
+        byte[] body = html.getBytes(Charset.forName("GBK"));
+        context.setRawPage(RawPage.fromBytes("https://www.meituan.com/", body, null));
+        
+        List<String> urls = strategy.extractUrls(context);
+        assertTrue(urls.contains("https://www.meituan.com/shop/1"));
+        assertTrue(urls.contains("https://www.meituan.com/category/food"));
+    }
+    
+    @Test
+    @DisplayName("按规则提取商家数据")
+    @SuppressWarnings("unchecked")
+    void testExtractShopData() {
+        String html = "<html><body><h1 class=\"shop-name\"> 全聚德 </h1><span class=\"rating-num\">4.8</span>"
+                + "<p class=\"poi-address\">前门大街30号</p></body></html>";
+        context.setRawPage(new RawPage("https://www.meituan.com/shop/123", "UTF-8", html));
+        
+        Map<String, Object> data = (Map<String, Object>) strategy.extractData(context);
+        assertEquals("shop", data.get("pageType"));
+        assertEquals("全聚德", data.get("shopName"));
+        assertEquals("4.8", data.get("rating"));
+        assertEquals("前门大街30号", data.get("address"));
+        assertFalse(data.containsKey("phone"));
+        assertEquals("https://www.meituan.com/shop/123", data.get("url"));
+    }
+    
     @Test
     @DisplayName("内容预处理")
     void testPreprocessContent() {
@@ -111,6 +142,17 @@ class MeiTuanCrawlStrategyTest {
         assertTrue(processed.contains("<h1>测试内容</h1>"));
     }
     
+    @Test
+    @DisplayName("内容预处理 - 多行脚本")
+    void testPreprocessMultiLineContent() {
+        String html = "<html><head><STYLE type=\"text/css\">\n.deal { color: red; }\n</STYLE></head><body>\n"
+                + "<script>\nvar deals = '<a href=\"/deal/1\">';\n</script><h1>团购</h1></body></html>";
+        String processed = strategy.preprocessContent(new RawPage("https://test.com", "UTF-8", html));
+        
+        assertEquals("<html><head></head><body>\n<h1>团购</h1></body></html>", processed);
+        assertNull(strategy.preprocessContent(new RawPage("https://test.com", "UTF-8", null)));
+    }
+    
     @Test
     @DisplayName("异常处理")
     void testExceptionHandling() {
@@ -0,0 +1,61 @@
+package io.leavesfly.crawler.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 页面字符集识别测试
+ *
+ * @author yefei.yf
+ */
+@DisplayName("页面字符集识别测试")
+class CharsetDetectorTest {
+
+    private static final Charset GBK = Charset.forName("GBK");
+
+    @Test
+    @DisplayName("响应头声明的字符集优先")
+    void testDeclaredCharset() {
+        byte[] body = "<meta charset=\"utf-8\">".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(GBK, CharsetDetector.detect(body, body.length, "GBK"));
+        // 无效的声明被忽略
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(body, body.length, "no-such-charset"));
+    }
+
+    @Test
+    @DisplayName("从meta标签识别字符集")
+    void testMetaCharset() {
+        byte[] html5 = "<html><head><meta charset='gb2312'/></head>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Charset.forName("GB2312"), CharsetDetector.detect(html5, html5.length, null));
+
+        byte[] html4 = ("<html><head><meta name=\"keywords\" content=\"美团\">"
+                + "<META HTTP-EQUIV=\"Content-Type\" CONTENT=\"text/html; charset=GBK\"></head>").getBytes(GBK);
+        assertEquals(GBK, CharsetDetector.detect(html4, html4.length, null));
+
+        byte[] none = "<html><body>hello</body></html>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(none, none.length, null));
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(null, 0, null));
+    }
+
+    @Test
+    @DisplayName("从BOM识别字符集")
+    void testBom() {
+        byte[] utf16 = {(byte) 0xFE, (byte) 0xFF, 0, '<'};
+        assertEquals(StandardCharsets.UTF_16BE, CharsetDetector.detect(utf16, utf16.length, null));
+        byte[] utf8 = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '<'};
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(utf8, utf8.length, null));
+    }
+
+    @Test
+    @DisplayName("解析Content-Type中的charset参数")
+    void testCharsetFromContentType() {
+        assertEquals("UTF-8", CharsetDetector.charsetFromContentType("text/html; charset=UTF-8"));
+        assertEquals("gbk", CharsetDetector.charsetFromContentType("text/html;Charset=\"gbk\""));
+        assertNull(CharsetDetector.charsetFromContentType("text/html"));
+        assertNull(CharsetDetector.charsetFromContentType(null));
+    }
+}
@@ -0,0 +1,64 @@
+package io.leavesfly.crawler.util;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MurmurHash3 128位哈希测试
+ * 
+ * @author yefei.yf
+ */
+@DisplayName("MurmurHash3哈希测试")
+class Murmur3Hash128Test {
+    
+    @Test
+    @DisplayName("字节哈希与参考实现一致")
+    void testBytesMatchReference() {
+        Murmur3Hash128 hash = new Murmur3Hash128();
+        for (int length = 0; length < 64; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i * 31 + 7);
+            }
+            hash.hash(data, 0, length, 0);
+            
+            HashCode expected = Hashing.murmur3_128().hashBytes(data);
+            ByteBuffer buffer = ByteBuffer.wrap(expected.asBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(buffer.getLong(), hash.getH1(), "长度: " + length);
+            assertEquals(buffer.getLong(), hash.getH2(), "长度: " + length);
+        }
+    }
+    
+    @Test
+    @DisplayName("字符序列哈希等于UTF-16LE字节哈希")
+    void testCharsMatchUtf16Bytes() {
+        Murmur3Hash128 charHash = new Murmur3Hash128();
+        Murmur3Hash128 byteHash = new Murmur3Hash128();
+        String base = "https://bj.meituan.com/deal/美食-";
+        for (int i = 0; i < 40; i++) {
+            String value = base.substring(0, Math.min(base.length(), i)) + i;
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_16LE);
+            
+            charHash.hash(value, 42);
+            byteHash.hash(bytes, 0, bytes.length, 42);
+            assertEquals(byteHash.getH1(), charHash.getH1());
+            assertEquals(byteHash.getH2(), charHash.getH2());
+        }
+    }
+    
+    @Test
+    @DisplayName("偏移量与64位便捷方法")
+    void testOffsetAndHash64() {
+        byte[] data = "xxhello worldyy".getBytes(StandardCharsets.UTF_8);
+        byte[] plain = "hello world".getBytes(StandardCharsets.UTF_8);
+        assertEquals(Murmur3Hash128.hash64(plain, 0, plain.length), Murmur3Hash128.hash64(data, 2, plain.length));
+        assertNotEquals(Murmur3Hash128.hash64(plain, 0, plain.length), Murmur3Hash128.hash64(data, 0, plain.length));
+    }
+}